@@ -0,0 +1,62 @@
+package com.netflix.priam.aws;
+
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.ReplaceableAttribute;
+import com.google.common.collect.Lists;
+import com.netflix.priam.identity.Location;
+import com.netflix.priam.identity.PriamInstance;
+import com.netflix.priam.utils.Murmur3TokenManager;
+import com.netflix.priam.utils.TokenManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting SimpleDB items into {@link PriamInstance}s, which happens for every node each time the registry is read.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SDBInstanceDataBenchmark {
+    @Param({"1", "256"})
+    public int numTokens;
+
+    private Item item;
+
+    @Setup
+    public void setUp() {
+        Location location = Location.from("us-east-1");
+        TokenManager tokenManager = new Murmur3TokenManager();
+        List<String> tokens = tokenManager.createTokens(0, 3, numTokens, Collections.<List<String>>emptyList(),
+                Collections.<String>emptyList(), location);
+
+        PriamInstance instance = PriamInstance.from("cluster", 1808575600, "i-0123456789abcdef0", "ip-10-0-0-1.ec2.internal",
+                "10.0.0.1", "us-east-1a", null, PriamInstance.joinTokens(tokens), location);
+        List<Attribute> attributes = Lists.newArrayList();
+        for (ReplaceableAttribute attribute : SDBInstanceData.createAttributesToRegister(instance)) {
+            attributes.add(new Attribute(attribute.getName(), attribute.getValue()));
+        }
+        item = new Item("cluster1808575600", attributes);
+    }
+
+    @Benchmark
+    public PriamInstance transform() {
+        return SDBInstanceData.transform(item);
+    }
+}
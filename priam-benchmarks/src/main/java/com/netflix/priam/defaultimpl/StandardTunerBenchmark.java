@@ -0,0 +1,75 @@
+package com.netflix.priam.defaultimpl;
+
+import com.datastax.driver.core.VersionNumber;
+import com.google.common.io.Files;
+import com.google.common.io.Resources;
+import com.netflix.priam.TestBackupConfiguration;
+import com.netflix.priam.TestCassandraConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rewriting cassandra.yaml from Priam's configuration, done before every Cassandra start.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StandardTunerBenchmark {
+    private static final VersionNumber CASSANDRA_VERSION = VersionNumber.parse("2.2.19");
+
+    private File cassHome;
+    private File yamlFile;
+    private byte[] template;
+    private StandardTuner tuner;
+
+    @Setup
+    public void setUp() throws IOException {
+        cassHome = Files.createTempDir();
+        if (!new File(cassHome, "conf").mkdir()) {
+            throw new IOException("Unable to create " + new File(cassHome, "conf"));
+        }
+        yamlFile = new File(cassHome, "conf/cassandra.yaml");
+        template = Resources.toByteArray(Resources.getResource("cassandra.yaml"));
+
+        TestCassandraConfiguration cassandraConfiguration = new TestCassandraConfiguration("benchmark");
+        cassandraConfiguration.setCassHome(cassHome.getPath());
+        cassandraConfiguration.setPartitioner("org.apache.cassandra.dht.Murmur3Partitioner");
+        tuner = new StandardTuner(cassandraConfiguration, new TestBackupConfiguration());
+    }
+
+    @Setup(Level.Invocation)
+    public void resetYaml() throws IOException {
+        Files.write(template, yamlFile);
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (File file : Files.fileTreeTraverser().postOrderTraversal(cassHome)) {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    @Benchmark
+    public void writeAllProperties() throws IOException {
+        tuner.writeAllProperties(yamlFile.getPath(), "10.0.0.1", "com.netflix.priam.cassandra.extensions.NFSeedProvider", CASSANDRA_VERSION);
+    }
+}
@@ -0,0 +1,69 @@
+package com.netflix.priam.identity;
+
+import com.google.common.collect.Lists;
+import com.netflix.priam.FakeMembership;
+import com.netflix.priam.FakePriamInstanceRegistry;
+import com.netflix.priam.FakeVolumeMetadataManager;
+import com.netflix.priam.TestAmazonConfiguration;
+import com.netflix.priam.TestCassandraConfiguration;
+import com.netflix.priam.utils.FakeSleeper;
+import com.netflix.priam.utils.Murmur3TokenManager;
+import com.netflix.priam.utils.TokenManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seed calculation against an in-memory registry.  Seeds are recalculated every time Cassandra asks for them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstanceIdentityBenchmark {
+    private static final String[] ZONES = {"az1", "az2", "az3"};
+
+    @Param({"10", "100", "1000"})
+    public int nodes;
+
+    private InstanceIdentity identity;
+
+    @Setup
+    public void setUp() throws Exception {
+        TestCassandraConfiguration cassandraConfiguration = new TestCassandraConfiguration("benchmark");
+        TestAmazonConfiguration amazonConfiguration = new TestAmazonConfiguration("benchmark", "us-east-1", ZONES[0], "i-0");
+        Location location = Location.from("us-east-1");
+        TokenManager tokenManager = new Murmur3TokenManager();
+        IPriamInstanceRegistry registry = new FakePriamInstanceRegistry(location);
+
+        List<String> instanceIds = Lists.newArrayList();
+        for (int i = 0; i < nodes; i++) {
+            String instanceId = "i-" + i;
+            String ip = "10.0." + (i / 250) + "." + (i % 250);
+            registry.create("benchmark", i, instanceId, instanceId, ip, ZONES[i % ZONES.length], null,
+                    tokenManager.createToken(i, nodes, location));
+            instanceIds.add(instanceId);
+        }
+
+        identity = new InstanceIdentity(cassandraConfiguration, amazonConfiguration, new FakeVolumeMetadataManager("vol-0"),
+                registry, new FakeMembership(instanceIds), tokenManager, new FakeSleeper(), location);
+    }
+
+    @Benchmark
+    public List<String> getSeeds() {
+        return identity.getSeeds();
+    }
+}
@@ -0,0 +1,82 @@
+package com.netflix.priam.utils;
+
+import com.google.common.collect.Lists;
+import com.netflix.priam.identity.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares Murmur3 token math on {@code BigInteger} with the primitive {@code long} implementation.
+ * <p/>
+ * Run with {@code java -jar priam-benchmarks/target/benchmarks.jar Murmur3TokenBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Murmur3TokenBenchmark {
+    private static final Location LOCATION = Location.from("us-east-1");
+
+    /** Number of tokens in the ring, e.g. 12 nodes with a single token up to 48 nodes with 256 tokens each. */
+    @Param({"12", "1536", "12288"})
+    public int ringTokens;
+
+    private final TokenManager bigIntegerTokenManager = BigIntegerTokenManager.forMurmur3Partitioner();
+    private final TokenManager murmur3TokenManager = new Murmur3TokenManager();
+
+    private List<String> tokens;
+    private long[] sortedTokens;
+    private String searchToken;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        tokens = Lists.newArrayList();
+        for (int i = 0; i < ringTokens; i++) {
+            tokens.add(Long.toString(random.nextLong()));
+        }
+        sortedTokens = Murmur3TokenManager.sortedTokens(tokens);
+        searchToken = Long.toString(random.nextLong());
+    }
+
+    @Benchmark
+    public String createToken_bigInteger() {
+        return bigIntegerTokenManager.createToken(17, 3, 16, LOCATION);
+    }
+
+    @Benchmark
+    public String createToken_murmur3() {
+        return murmur3TokenManager.createToken(17, 3, 16, LOCATION);
+    }
+
+    @Benchmark
+    public String findClosestToken_bigInteger() {
+        return bigIntegerTokenManager.findClosestToken(searchToken, tokens);
+    }
+
+    @Benchmark
+    public String findClosestToken_murmur3() {
+        return murmur3TokenManager.findClosestToken(searchToken, tokens);
+    }
+
+    /** Lookup against a ring that has already been parsed and sorted, e.g. when resolving many tokens at once. */
+    @Benchmark
+    public long findClosestToken_murmur3Presorted() {
+        return Murmur3TokenManager.findClosestToken(Long.parseLong(searchToken), sortedTokens);
+    }
+}
@@ -0,0 +1,66 @@
+package com.netflix.priam.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import com.netflix.priam.identity.Location;
+import com.netflix.priam.resources.JsonStreamingOutput;
+import io.dropwizard.jackson.Jackson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering {@link JMXNodeTool#ring()} output as JSON through the object mapper, and streamed row by row the way the
+ * admin resource does.  The ring has one entry per token, so this grows with vnodes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RingJsonBenchmark {
+    @Param({"12", "1536", "12288"})
+    public int ringTokens;
+
+    private final ObjectMapper objectMapper = Jackson.newObjectMapper();
+    private List<Map<String, Object>> ring;
+
+    @Setup
+    public void setUp() {
+        TokenManager tokenManager = new Murmur3TokenManager();
+        ring = Lists.newArrayList();
+        for (int i = 0; i < ringTokens; i++) {
+            String endpoint = "10.0." + (i / 250) + "." + (i % 250);
+            ring.add(JMXNodeTool.createJson(endpoint, "us-east", "1" + (char) ('a' + i % 3), "Up", "Normal",
+                    "1.2 TB", "0.08%", tokenManager.createToken(i, ringTokens, Location.from("us-east-1"))));
+        }
+    }
+
+    @Benchmark
+    public String ring() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(ring);
+    }
+
+    @Benchmark
+    public int ringStreaming() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonStreamingOutput.rows(ring).write(out);
+        return out.size();
+    }
+}
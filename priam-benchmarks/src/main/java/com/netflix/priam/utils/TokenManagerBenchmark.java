@@ -0,0 +1,74 @@
+package com.netflix.priam.utils;
+
+import com.google.common.collect.Lists;
+import com.netflix.priam.identity.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token creation and closest token lookup for each partitioner Priam supports.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenManagerBenchmark {
+    private static final Location LOCATION = Location.from("us-east-1");
+
+    @Param({"random", "murmur3", "byteordered"})
+    public String partitioner;
+
+    @Param({"12", "1536"})
+    public int ringTokens;
+
+    private TokenManager tokenManager;
+    private List<String> tokens;
+    private String searchToken;
+
+    @Setup
+    public void setUp() {
+        switch (partitioner) {
+            case "random":
+                tokenManager = BigIntegerTokenManager.forRandomPartitioner();
+                break;
+            case "murmur3":
+                tokenManager = new Murmur3TokenManager();
+                break;
+            case "byteordered":
+                tokenManager = new BOPTokenManager(16, "00000000000000000000000000000000", "ffffffffffffffffffffffffffffffff");
+                break;
+            default:
+                throw new IllegalArgumentException(partitioner);
+        }
+        tokens = Lists.newArrayList();
+        for (int slot = 0; slot < ringTokens; slot++) {
+            tokens.add(tokenManager.createToken(slot, ringTokens, LOCATION));
+        }
+        // Somewhere between two tokens, as when looking up the owner of a token that isn't in the ring
+        searchToken = tokenManager.createToken(2 * ringTokens / 3, ringTokens, Location.from("eu-west-1"));
+    }
+
+    @Benchmark
+    public String createToken() {
+        return tokenManager.createToken(17, 3, 16, LOCATION);
+    }
+
+    @Benchmark
+    public String findClosestToken() {
+        return tokenManager.findClosestToken(searchToken, tokens);
+    }
+}
@@ -0,0 +1,22 @@
+package com.bazaarvoice.priam.client;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking version of {@link PriamCassAdmin}.  Futures fail with the exception the blocking call would have thrown.
+ */
+public interface AsyncPriamCassAdmin {
+
+    ListenableFuture<List<HintsInfo>> getHintsForRing();
+
+    ListenableFuture<List<Map<String, Object>>> getRing();
+
+    ListenableFuture<Map<String, Object>> getInfo();
+
+    ListenableFuture<Map<String, Object>> getCompactionStats();
+
+    ListenableFuture<List<Map<String, Object>>> getTableStats();
+}
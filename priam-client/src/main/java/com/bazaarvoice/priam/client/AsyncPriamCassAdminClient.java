@@ -0,0 +1,74 @@
+package com.bazaarvoice.priam.client;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Runs the calls of a {@link PriamCassAdmin} on an executor.  The number of threads of the executor bounds the number
+ * of requests in flight.
+ */
+public class AsyncPriamCassAdminClient implements AsyncPriamCassAdmin {
+    private final PriamCassAdmin _priamCassAdmin;
+    private final ListeningExecutorService _executor;
+
+    public AsyncPriamCassAdminClient(PriamCassAdmin priamCassAdmin, ListeningExecutorService executor) {
+        _priamCassAdmin = checkNotNull(priamCassAdmin, "priamCassAdmin");
+        _executor = checkNotNull(executor, "executor");
+    }
+
+    @Override
+    public ListenableFuture<List<HintsInfo>> getHintsForRing() {
+        return _executor.submit(new Callable<List<HintsInfo>>() {
+            @Override
+            public List<HintsInfo> call() {
+                return _priamCassAdmin.getHintsForRing();
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<List<Map<String, Object>>> getRing() {
+        return _executor.submit(new Callable<List<Map<String, Object>>>() {
+            @Override
+            public List<Map<String, Object>> call() {
+                return _priamCassAdmin.getRing();
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<Map<String, Object>> getInfo() {
+        return _executor.submit(new Callable<Map<String, Object>>() {
+            @Override
+            public Map<String, Object> call() {
+                return _priamCassAdmin.getInfo();
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<Map<String, Object>> getCompactionStats() {
+        return _executor.submit(new Callable<Map<String, Object>>() {
+            @Override
+            public Map<String, Object> call() {
+                return _priamCassAdmin.getCompactionStats();
+            }
+        });
+    }
+
+    @Override
+    public ListenableFuture<List<Map<String, Object>>> getTableStats() {
+        return _executor.submit(new Callable<List<Map<String, Object>>>() {
+            @Override
+            public List<Map<String, Object>> call() {
+                return _priamCassAdmin.getTableStats();
+            }
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package com.bazaarvoice.priam.client;
+
+import com.google.common.base.Objects;
+
+/** The outcome of a query to one Priam server, as returned by {@link PriamClusterClient}. */
+public class EndPointResult<T> {
+    public enum State {OK, TIMEOUT, ERROR}
+
+    private final String _endPointId;
+    private final State _state;
+    private final T _value;
+    private final String _exception;
+    private final long _durationMs;
+
+    private EndPointResult(String endPointId, State state, T value, String exception, long durationMs) {
+        _endPointId = endPointId;
+        _state = state;
+        _value = value;
+        _exception = exception;
+        _durationMs = durationMs;
+    }
+
+    static <T> EndPointResult<T> ok(String endPointId, T value, long durationMs) {
+        return new EndPointResult<>(endPointId, State.OK, value, null, durationMs);
+    }
+
+    static <T> EndPointResult<T> timeout(String endPointId, long durationMs) {
+        return new EndPointResult<>(endPointId, State.TIMEOUT, null, null, durationMs);
+    }
+
+    static <T> EndPointResult<T> error(String endPointId, Exception exception, long durationMs) {
+        return new EndPointResult<>(endPointId, State.ERROR, null, exception.toString(), durationMs);
+    }
+
+    /** Returns the id the Priam server is registered with in Ostrich. */
+    public String getEndPointId() {
+        return _endPointId;
+    }
+
+    public State getState() {
+        return _state;
+    }
+
+    /** Returns the response of the server when state == OK, null otherwise. */
+    public T getValue() {
+        return _value;
+    }
+
+    /** Returns a string describing the exception encountered when state == ERROR. */
+    public String getException() {
+        return _exception;
+    }
+
+    /** Returns how long the query took, or how long it ran before timing out. */
+    public long getDurationMs() {
+        return _durationMs;
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this)
+                .add("endPointId", _endPointId)
+                .add("state", _state)
+                .add("durationMs", _durationMs)
+                .toString();
+    }
+}
@@ -1,6 +1,7 @@
 package com.bazaarvoice.priam.client;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Interface for interacting with Priam's CassAdmin class
@@ -14,4 +15,24 @@ public interface PriamCassAdmin {
      * Returns a list of hints info from each node in the entire ring.
      */
     List<HintsInfo> getHintsForRing();
+
+    /**
+     * Returns every token of the ring with its endpoint, data center, rack, status, state, load and ownership.
+     */
+    List<Map<String, Object>> getRing();
+
+    /**
+     * Returns general information about the node, such as its token, load, data center, rack and uptime.
+     */
+    Map<String, Object> getInfo();
+
+    /**
+     * Returns the compactions running on the node and their progress.
+     */
+    Map<String, Object> getCompactionStats();
+
+    /**
+     * Returns the estimated number of keys of every table of the node.
+     */
+    List<Map<String, Object>> getTableStats();
 }
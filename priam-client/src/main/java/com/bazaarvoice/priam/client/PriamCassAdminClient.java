@@ -7,6 +7,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.UriBuilder;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -31,4 +32,44 @@ public class PriamCassAdminClient implements PriamCassAdmin {
                 .accept(MediaType.APPLICATION_JSON_TYPE)
                 .get(new GenericType<List<HintsInfo>>() {});
     }
+
+    @Override
+    public List<Map<String, Object>> getRing() {
+        URI uri = _priamCassAdmin.clone()
+                .segment("cassadmin", "ring")
+                .build();
+        return _client.resource(uri)
+                .accept(MediaType.APPLICATION_JSON_TYPE)
+                .get(new GenericType<List<Map<String, Object>>>() {});
+    }
+
+    @Override
+    public Map<String, Object> getInfo() {
+        URI uri = _priamCassAdmin.clone()
+                .segment("cassadmin", "info")
+                .build();
+        return _client.resource(uri)
+                .accept(MediaType.APPLICATION_JSON_TYPE)
+                .get(new GenericType<Map<String, Object>>() {});
+    }
+
+    @Override
+    public Map<String, Object> getCompactionStats() {
+        URI uri = _priamCassAdmin.clone()
+                .segment("cassadmin", "compactionstats")
+                .build();
+        return _client.resource(uri)
+                .accept(MediaType.APPLICATION_JSON_TYPE)
+                .get(new GenericType<Map<String, Object>>() {});
+    }
+
+    @Override
+    public List<Map<String, Object>> getTableStats() {
+        URI uri = _priamCassAdmin.clone()
+                .segment("cassadmin", "estimateKeys")
+                .build();
+        return _client.resource(uri)
+                .accept(MediaType.APPLICATION_JSON_TYPE)
+                .get(new GenericType<List<Map<String, Object>>>() {});
+    }
 }
@@ -0,0 +1,177 @@
+package com.bazaarvoice.priam.client;
+
+import com.bazaarvoice.ostrich.HostDiscovery;
+import com.bazaarvoice.ostrich.ServiceEndPoint;
+import com.bazaarvoice.ostrich.ServiceFactory;
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dropwizard.util.Duration;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Queries every Priam server of a cluster, as discovered through Ostrich, in parallel.
+ * <p/>
+ * At most {@code maxConcurrency} requests are in flight at once, the others wait their turn.  A server that doesn't
+ * answer within {@code perHostTimeout} of its request being sent is reported as {@link EndPointResult.State#TIMEOUT}
+ * right away, but its request keeps a slot until the HTTP client gives up on it, so the HTTP client timeouts should
+ * not be much longer than the per-host timeout.
+ * <p/>
+ * Results are in the order of the servers returned by host discovery, and a failing server never fails the whole
+ * query.  Clients are created with the service factory, usually a {@link PriamClientFactory}.
+ */
+public class PriamClusterClient implements Closeable {
+    private final HostDiscovery _hostDiscovery;
+    private final ServiceFactory<PriamCassAdmin> _clientFactory;
+    private final long _perHostTimeoutMs;
+    private final ExecutorService _executor;
+    private final ScheduledExecutorService _timer;
+    private volatile boolean _closed;
+
+    public PriamClusterClient(HostDiscovery hostDiscovery, ServiceFactory<PriamCassAdmin> clientFactory, int maxConcurrency,
+                              Duration perHostTimeout) {
+        checkArgument(maxConcurrency > 0, "maxConcurrency must be positive");
+        _hostDiscovery = checkNotNull(hostDiscovery, "hostDiscovery");
+        _clientFactory = checkNotNull(clientFactory, "clientFactory");
+        _perHostTimeoutMs = checkNotNull(perHostTimeout, "perHostTimeout").toMilliseconds();
+        _executor = Executors.newFixedThreadPool(maxConcurrency,
+                new ThreadFactoryBuilder().setNameFormat("priam-cluster-client-%d").setDaemon(true).build());
+        _timer = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("priam-cluster-client-timeout").setDaemon(true).build());
+    }
+
+    public ListenableFuture<List<EndPointResult<List<Map<String, Object>>>>> getRing() {
+        return queryAll(new Function<PriamCassAdmin, List<Map<String, Object>>>() {
+            @Override
+            public List<Map<String, Object>> apply(PriamCassAdmin priamCassAdmin) {
+                return priamCassAdmin.getRing();
+            }
+        });
+    }
+
+    public ListenableFuture<List<EndPointResult<Map<String, Object>>>> getInfo() {
+        return queryAll(new Function<PriamCassAdmin, Map<String, Object>>() {
+            @Override
+            public Map<String, Object> apply(PriamCassAdmin priamCassAdmin) {
+                return priamCassAdmin.getInfo();
+            }
+        });
+    }
+
+    public ListenableFuture<List<EndPointResult<Map<String, Object>>>> getCompactionStats() {
+        return queryAll(new Function<PriamCassAdmin, Map<String, Object>>() {
+            @Override
+            public Map<String, Object> apply(PriamCassAdmin priamCassAdmin) {
+                return priamCassAdmin.getCompactionStats();
+            }
+        });
+    }
+
+    public ListenableFuture<List<EndPointResult<List<Map<String, Object>>>>> getTableStats() {
+        return queryAll(new Function<PriamCassAdmin, List<Map<String, Object>>>() {
+            @Override
+            public List<Map<String, Object>> apply(PriamCassAdmin priamCassAdmin) {
+                return priamCassAdmin.getTableStats();
+            }
+        });
+    }
+
+    /**
+     * Runs the query against every Priam server of the cluster.
+     *
+     * @throws IllegalStateException if the client is closed
+     */
+    public <T> ListenableFuture<List<EndPointResult<T>>> queryAll(Function<PriamCassAdmin, T> query) {
+        checkState(!_closed, "The Priam cluster client is closed");
+        List<ListenableFuture<EndPointResult<T>>> results = Lists.newArrayList();
+        for (ServiceEndPoint endPoint : _hostDiscovery.getHosts()) {
+            results.add(query(endPoint, query));
+        }
+        return Futures.allAsList(results);
+    }
+
+    private <T> ListenableFuture<EndPointResult<T>> query(ServiceEndPoint endPoint, Function<PriamCassAdmin, T> query) {
+        Query<T> task = new Query<>(endPoint, query);
+        try {
+            _executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Closed concurrently
+            task.fail(e);
+        }
+        return task._result;
+    }
+
+    /**
+     * Stops the queries in flight.  Queries still waiting for a slot end with {@link EndPointResult.State#ERROR}.
+     */
+    @Override
+    public void close() {
+        _closed = true;
+        for (Runnable pending : _executor.shutdownNow()) {
+            ((Query<?>) pending).fail(new RejectedExecutionException("The Priam cluster client is closed"));
+        }
+        _timer.shutdownNow();
+    }
+
+    private class Query<T> implements Runnable {
+        private final ServiceEndPoint _endPoint;
+        private final Function<PriamCassAdmin, T> _query;
+        private final SettableFuture<EndPointResult<T>> _result = SettableFuture.create();
+
+        Query(ServiceEndPoint endPoint, Function<PriamCassAdmin, T> query) {
+            _endPoint = endPoint;
+            _query = query;
+        }
+
+        @Override
+        public void run() {
+            final long start = System.currentTimeMillis();
+            // The timeout starts once the request is sent, not while it waits for a slot
+            ScheduledFuture<?> timeout;
+            try {
+                timeout = _timer.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        _result.set(EndPointResult.<T>timeout(_endPoint.getId(), System.currentTimeMillis() - start));
+                    }
+                }, _perHostTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                fail(e);
+                return;
+            }
+            try {
+                PriamCassAdmin client = _clientFactory.create(_endPoint);
+                try {
+                    T value = _query.apply(client);
+                    _result.set(EndPointResult.ok(_endPoint.getId(), value, System.currentTimeMillis() - start));
+                } finally {
+                    _clientFactory.destroy(_endPoint, client);
+                }
+            } catch (Exception e) {
+                _result.set(EndPointResult.<T>error(_endPoint.getId(), e, System.currentTimeMillis() - start));
+            } finally {
+                timeout.cancel(false);
+            }
+        }
+
+        void fail(Exception e) {
+            _result.set(EndPointResult.<T>error(_endPoint.getId(), e, 0));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.bazaarvoice.priam.client;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.sun.jersey.api.client.Client;
+import com.sun.jersey.api.client.GenericType;
+import com.sun.jersey.api.client.WebResource;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PriamCassAdminClientTest {
+    private static final URI END_POINT = URI.create("http://10.0.0.1:8080/v1");
+
+    private final Client _jersey = mock(Client.class);
+    private final WebResource _resource = mock(WebResource.class);
+    private final WebResource.Builder _builder = mock(WebResource.Builder.class);
+    private final PriamCassAdminClient _client = new PriamCassAdminClient(END_POINT, _jersey);
+
+    @Before
+    public void setUp() {
+        when(_jersey.resource(any(URI.class))).thenReturn(_resource);
+        when(_resource.accept(MediaType.APPLICATION_JSON_TYPE)).thenReturn(_builder);
+    }
+
+    @Test
+    public void getRing() {
+        List<Map<String, Object>> ring = ImmutableList.<Map<String, Object>>of(ImmutableMap.<String, Object>of("endpoint", "10.0.0.1"));
+        respondWith(ring);
+
+        assertSame(ring, _client.getRing());
+        verify(_jersey).resource(URI.create("http://10.0.0.1:8080/v1/cassadmin/ring"));
+    }
+
+    @Test
+    public void getInfo() {
+        Map<String, Object> info = ImmutableMap.<String, Object>of("rack", "1a");
+        respondWith(info);
+
+        assertSame(info, _client.getInfo());
+        verify(_jersey).resource(URI.create("http://10.0.0.1:8080/v1/cassadmin/info"));
+    }
+
+    @Test
+    public void getCompactionStats() {
+        Map<String, Object> stats = ImmutableMap.<String, Object>of("pending tasks", 0);
+        respondWith(stats);
+
+        assertSame(stats, _client.getCompactionStats());
+        verify(_jersey).resource(URI.create("http://10.0.0.1:8080/v1/cassadmin/compactionstats"));
+    }
+
+    @Test
+    public void getTableStats() {
+        List<Map<String, Object>> stats = ImmutableList.<Map<String, Object>>of(ImmutableMap.<String, Object>of("estimated_size", 42));
+        respondWith(stats);
+
+        assertSame(stats, _client.getTableStats());
+        verify(_jersey).resource(URI.create("http://10.0.0.1:8080/v1/cassadmin/estimateKeys"));
+    }
+
+    @Test
+    public void asyncCallsCompleteWithTheResponse() throws Exception {
+        Map<String, Object> info = ImmutableMap.<String, Object>of("rack", "1a");
+        respondWith(info);
+        AsyncPriamCassAdmin async = new AsyncPriamCassAdminClient(_client, MoreExecutors.sameThreadExecutor());
+
+        assertSame(info, async.getInfo().get());
+    }
+
+    @Test
+    public void asyncCallsFailWithTheException() throws Exception {
+        IllegalStateException error = new IllegalStateException("503");
+        when(_builder.get(any(GenericType.class))).thenThrow(error);
+        AsyncPriamCassAdmin async = new AsyncPriamCassAdminClient(_client, MoreExecutors.sameThreadExecutor());
+
+        try {
+            async.getRing().get();
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals(error, e.getCause());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void respondWith(Object response) {
+        when(_builder.get(any(GenericType.class))).thenReturn(response);
+    }
+}
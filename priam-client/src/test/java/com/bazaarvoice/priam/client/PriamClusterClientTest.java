@@ -0,0 +1,256 @@
+package com.bazaarvoice.priam.client;
+
+import com.bazaarvoice.ostrich.HostDiscovery;
+import com.bazaarvoice.ostrich.ServiceEndPoint;
+import com.bazaarvoice.ostrich.ServiceEndPointBuilder;
+import com.bazaarvoice.ostrich.ServiceFactory;
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.dropwizard.util.Duration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PriamClusterClientTest {
+    private final List<ServiceEndPoint> _endPoints = Lists.newArrayList();
+    private final Map<String, PriamCassAdmin> _servers = Maps.newConcurrentMap();
+    private final CountDownLatch _release = new CountDownLatch(1);
+    private final HostDiscovery _hostDiscovery = mock(HostDiscovery.class);
+    @SuppressWarnings("unchecked")
+    private final ServiceFactory<PriamCassAdmin> _clientFactory = mock(ServiceFactory.class);
+    private PriamClusterClient _client;
+
+    @Before
+    public void setUp() {
+        when(_hostDiscovery.getHosts()).thenReturn(_endPoints);
+        when(_clientFactory.create(any(ServiceEndPoint.class))).thenAnswer(new Answer<PriamCassAdmin>() {
+            @Override
+            public PriamCassAdmin answer(InvocationOnMock invocation) {
+                return _servers.get(((ServiceEndPoint) invocation.getArguments()[0]).getId());
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        _release.countDown();
+        if (_client != null) {
+            _client.close();
+        }
+    }
+
+    @Test
+    public void resultsAreInTheOrderOfDiscoveredHosts() throws Exception {
+        // Later hosts answer first
+        for (int i = 0; i < 5; i++) {
+            addServer("host" + i, new InfoServer(ImmutableMap.<String, Object>of("host", "host" + i), 50 - i * 10));
+        }
+        _client = new PriamClusterClient(_hostDiscovery, _clientFactory, 5, Duration.seconds(10));
+
+        List<EndPointResult<Map<String, Object>>> results = _client.getInfo().get(10, TimeUnit.SECONDS);
+
+        assertEquals(5, results.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("host" + i, results.get(i).getEndPointId());
+            assertEquals(EndPointResult.State.OK, results.get(i).getState());
+            assertEquals("host" + i, results.get(i).getValue().get("host"));
+        }
+    }
+
+    @Test
+    public void requestsInFlightAreBounded() throws Exception {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            addServer("host" + i, new InfoServer(ImmutableMap.<String, Object>of(), 20) {
+                @Override
+                public Map<String, Object> getInfo() {
+                    int current = inFlight.incrementAndGet();
+                    while (true) {
+                        int max = maxInFlight.get();
+                        if (current <= max || maxInFlight.compareAndSet(max, current)) {
+                            break;
+                        }
+                    }
+                    try {
+                        return super.getInfo();
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                }
+            });
+        }
+        _client = new PriamClusterClient(_hostDiscovery, _clientFactory, 3, Duration.seconds(10));
+
+        List<EndPointResult<Map<String, Object>>> results = _client.getInfo().get(10, TimeUnit.SECONDS);
+
+        assertEquals(10, results.size());
+        assertTrue("At most 3 requests in flight, got " + maxInFlight.get(), maxInFlight.get() <= 3);
+    }
+
+    @Test
+    public void hangingHostTimesOutWhileOthersAnswer() throws Exception {
+        addServer("host0", new InfoServer(ImmutableMap.<String, Object>of(), 0));
+        addServer("host1", new InfoServer(ImmutableMap.<String, Object>of(), 0) {
+            @Override
+            public Map<String, Object> getInfo() {
+                try {
+                    _release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getInfo();
+            }
+        });
+        addServer("host2", new InfoServer(ImmutableMap.<String, Object>of(), 0));
+        _client = new PriamClusterClient(_hostDiscovery, _clientFactory, 3, Duration.milliseconds(200));
+
+        List<EndPointResult<Map<String, Object>>> results = _client.getInfo().get(10, TimeUnit.SECONDS);
+
+        assertEquals(EndPointResult.State.OK, results.get(0).getState());
+        assertEquals(EndPointResult.State.TIMEOUT, results.get(1).getState());
+        assertEquals(EndPointResult.State.OK, results.get(2).getState());
+    }
+
+    @Test
+    public void exceptionsAreReportedPerHost() throws Exception {
+        addServer("host0", new InfoServer(ImmutableMap.<String, Object>of(), 0) {
+            @Override
+            public Map<String, Object> getInfo() {
+                throw new IllegalStateException("JMX is down");
+            }
+        });
+        addServer("host1", new InfoServer(ImmutableMap.<String, Object>of(), 0));
+        _client = new PriamClusterClient(_hostDiscovery, _clientFactory, 2, Duration.seconds(10));
+
+        List<EndPointResult<Map<String, Object>>> results = _client.getInfo().get(10, TimeUnit.SECONDS);
+
+        assertEquals(EndPointResult.State.ERROR, results.get(0).getState());
+        assertTrue(results.get(0).getException().contains("JMX is down"));
+        assertEquals(EndPointResult.State.OK, results.get(1).getState());
+    }
+
+    @Test
+    public void clientsAreDestroyedAfterEachQuery() throws Exception {
+        addServer("host0", new InfoServer(ImmutableMap.<String, Object>of(), 0) {
+            @Override
+            public Map<String, Object> getInfo() {
+                throw new IllegalStateException("JMX is down");
+            }
+        });
+        addServer("host1", new InfoServer(ImmutableMap.<String, Object>of(), 0));
+        _client = new PriamClusterClient(_hostDiscovery, _clientFactory, 2, Duration.seconds(10));
+
+        _client.getInfo().get(10, TimeUnit.SECONDS);
+
+        for (ServiceEndPoint endPoint : _endPoints) {
+            verify(_clientFactory, timeout(10000)).destroy(endPoint, _servers.get(endPoint.getId()));
+        }
+    }
+
+    @Test
+    public void queuedQueriesFailWhenClosed() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            addServer("host" + i, new InfoServer(ImmutableMap.<String, Object>of(), 0) {
+                @Override
+                public Map<String, Object> getInfo() {
+                    try {
+                        _release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted");
+                    }
+                    return super.getInfo();
+                }
+            });
+        }
+        _client = new PriamClusterClient(_hostDiscovery, _clientFactory, 1, Duration.seconds(10));
+
+        ListenableFuture<List<EndPointResult<Map<String, Object>>>> future = _client.getInfo();
+        _client.close();
+
+        for (EndPointResult<Map<String, Object>> result : future.get(10, TimeUnit.SECONDS)) {
+            assertEquals(EndPointResult.State.ERROR, result.getState());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedClientFailsFast() {
+        _client = new PriamClusterClient(_hostDiscovery, _clientFactory, 1, Duration.seconds(10));
+        _client.close();
+
+        _client.queryAll(new Function<PriamCassAdmin, Object>() {
+            @Override
+            public Object apply(PriamCassAdmin priamCassAdmin) {
+                return priamCassAdmin.getInfo();
+            }
+        });
+    }
+
+    private void addServer(String id, PriamCassAdmin server) {
+        _endPoints.add(new ServiceEndPointBuilder().withServiceName("test-cassandra").withId(id).build());
+        _servers.put(id, server);
+    }
+
+    /**
+     * Answers {@link #getInfo()} after a delay, the other calls aren't used.
+     */
+    private static class InfoServer implements PriamCassAdmin {
+        private final Map<String, Object> _info;
+        private final long _delayMs;
+
+        InfoServer(Map<String, Object> info, long delayMs) {
+            _info = info;
+            _delayMs = delayMs;
+        }
+
+        @Override
+        public Map<String, Object> getInfo() {
+            try {
+                Thread.sleep(_delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return _info;
+        }
+
+        @Override
+        public List<HintsInfo> getHintsForRing() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Map<String, Object>> getRing() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, Object> getCompactionStats() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Map<String, Object>> getTableStats() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.netflix.priam.config.CassandraConfiguration;
 import com.netflix.priam.identity.InstanceIdentity;
 import com.netflix.priam.noderepair.NodeRepair;
 import com.netflix.priam.scheduler.PriamScheduler;
+import com.netflix.priam.throughput.ThroughputController;
 import com.netflix.priam.utils.TuneCassandra;
 import io.dropwizard.lifecycle.Managed;
 
@@ -17,6 +18,7 @@ public class PriamServer implements Managed {
     private final PriamScheduler scheduler;
     private final CassandraConfiguration cassandraConfig;
     private final NodeRepair nodeRepair;
+    private final ThroughputController throughputController;
     private final InstanceIdentity id;
     private final ICassandraProcess cassProcess;
 
@@ -24,11 +26,13 @@ public class PriamServer implements Managed {
     public PriamServer(CassandraConfiguration cassandraConfig,
                        PriamScheduler scheduler,
                        NodeRepair nodeRepair,
+                       ThroughputController throughputController,
                        InstanceIdentity id,
                        ICassandraProcess cassProcess) {
         this.cassandraConfig = cassandraConfig;
         this.scheduler = scheduler;
         this.nodeRepair = nodeRepair;
+        this.throughputController = throughputController;
         this.id = id;
         this.cassProcess = cassProcess;
     }
@@ -56,6 +60,11 @@ public class PriamServer implements Managed {
         if (cassandraConfig.isNodeRepairEnabled()) {
             scheduler.addTask(nodeRepair.getJobDetail(), nodeRepair.getCronTimeTrigger());
         }
+
+        // Adjust compaction and streaming throughput to the load of the node
+        if (cassandraConfig.isThroughputControllerEnabled()) {
+            scheduler.addTask(throughputController.getJobDetail(), throughputController.getTriggerToStartNowAndRepeatInMillis());
+        }
     }
 
     @Override
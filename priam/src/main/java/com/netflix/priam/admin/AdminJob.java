@@ -0,0 +1,259 @@
+package com.netflix.priam.admin;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.netflix.priam.utils.TableRun;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Progress of an admin operation run by {@link AdminJobManager}.  Updated by the job thread while it is read by the
+ * admin resource, so every field is safe to read at any time.
+ */
+public class AdminJob {
+    public enum State {QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED}
+
+    private static final int MAX_MESSAGES = 100;
+
+    @JsonProperty
+    private final String id;
+
+    @JsonProperty
+    private final AdminOperation operation;
+
+    @JsonProperty
+    private final Map<String, String> parameters;
+
+    @JsonProperty
+    private volatile List<String> keyspaces;
+
+    @JsonProperty
+    private final List<String> completedKeyspaces = new CopyOnWriteArrayList<>();
+
+    @JsonProperty
+    private volatile String currentKeyspace;
+
+    @JsonProperty
+    private volatile List<TableRun> tables = Collections.emptyList();
+
+    @JsonProperty
+    private volatile List<Map<String, Object>> compactions = Collections.emptyList();
+
+    @JsonProperty
+    private final long submitTime = System.currentTimeMillis();
+
+    @JsonProperty
+    private volatile long startTime;
+
+    @JsonProperty
+    private volatile long endTime;
+
+    @JsonProperty
+    private volatile State state = State.QUEUED;
+
+    @JsonProperty
+    private volatile String error;
+
+    private volatile boolean cancelRequested;
+
+    // Guarded by itself
+    private final LinkedList<String> messages = Lists.newLinkedList();
+
+    public AdminJob(String id, AdminOperation operation, List<String> keyspaces, Map<String, String> parameters) {
+        this.id = id;
+        this.operation = operation;
+        this.keyspaces = ImmutableList.copyOf(keyspaces);
+        this.parameters = ImmutableMap.copyOf(parameters);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public AdminOperation getOperation() {
+        return operation;
+    }
+
+    public Map<String, String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * The keyspaces the job runs on, empty for every keyspace until the job starts.
+     */
+    public List<String> getKeyspaces() {
+        return keyspaces;
+    }
+
+    public List<String> getCompletedKeyspaces() {
+        return completedKeyspaces;
+    }
+
+    public String getCurrentKeyspace() {
+        return currentKeyspace;
+    }
+
+    /**
+     * The tables of a job running per table, with their progress and timing.
+     */
+    public List<TableRun> getTables() {
+        return tables;
+    }
+
+    /**
+     * The compactions of the job running on the node when the job was last read, as listed by
+     * {@code /compactionstats}.
+     */
+    public List<Map<String, Object>> getCompactions() {
+        return compactions;
+    }
+
+    public long getSubmitTime() {
+        return submitTime;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /**
+     * The latest progress messages of the job, e.g. the notifications of a repair.
+     */
+    @JsonProperty
+    public List<String> getMessages() {
+        synchronized (messages) {
+            return ImmutableList.copyOf(messages);
+        }
+    }
+
+    public boolean isDone() {
+        return state != State.QUEUED && state != State.RUNNING;
+    }
+
+    /**
+     * Asks the job to stop.  A queued job is cancelled right away, a running one stops before its next keyspace or
+     * table.
+     *
+     * @return Whether the job was running
+     */
+    synchronized boolean cancel() {
+        if (state == State.QUEUED) {
+            finish(State.CANCELLED, null);
+            return false;
+        }
+        cancelRequested = true;
+        for (TableRun table : tables) {
+            table.skip();
+        }
+        return state == State.RUNNING;
+    }
+
+    /**
+     * @return Whether the job should run, i.e. it wasn't cancelled while queued
+     */
+    synchronized boolean start() {
+        if (state != State.QUEUED) {
+            return false;
+        }
+        startTime = System.currentTimeMillis();
+        state = State.RUNNING;
+        return true;
+    }
+
+    void resolveKeyspaces(List<String> keyspaces) {
+        this.keyspaces = ImmutableList.copyOf(keyspaces);
+    }
+
+    /**
+     * Sets the tables of a job running per table, skipping them all if the job was cancelled in the meantime.
+     */
+    synchronized void resolveTables(List<TableRun> tables) {
+        this.tables = ImmutableList.copyOf(tables);
+        if (cancelRequested) {
+            for (TableRun table : tables) {
+                table.skip();
+            }
+        }
+    }
+
+    void keyspaceStarted(String keyspace) {
+        currentKeyspace = keyspace;
+    }
+
+    void keyspaceCompleted(String keyspace) {
+        completedKeyspaces.add(keyspace);
+        currentKeyspace = null;
+    }
+
+    synchronized void setCompactions(List<Map<String, Object>> compactions) {
+        if (state == State.RUNNING) {
+            this.compactions = ImmutableList.copyOf(compactions);
+        }
+    }
+
+    void message(String message) {
+        synchronized (messages) {
+            messages.add(message);
+            if (messages.size() > MAX_MESSAGES) {
+                messages.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * A stream recording every line printed to it as a message.
+     */
+    PrintStream messageStream() {
+        return new PrintStream(new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(int b) {
+                if (b == '\n') {
+                    message(new String(toByteArray(), Charsets.UTF_8).trim());
+                    reset();
+                } else {
+                    super.write(b);
+                }
+            }
+
+            @Override
+            public synchronized void write(byte[] bytes, int offset, int length) {
+                for (int i = offset; i < offset + length; i++) {
+                    write(bytes[i]);
+                }
+            }
+        }, true);
+    }
+
+    synchronized void finish(State state, String error) {
+        this.error = error;
+        this.endTime = System.currentTimeMillis();
+        this.currentKeyspace = null;
+        this.compactions = Collections.emptyList();
+        this.state = state;
+    }
+}
@@ -0,0 +1,365 @@
+package com.netflix.priam.admin;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.priam.PriamServer;
+import com.netflix.priam.config.CassandraConfiguration;
+import com.netflix.priam.config.TableOrder;
+import com.netflix.priam.ring.RingCache;
+import com.netflix.priam.utils.JMXConnectionException;
+import com.netflix.priam.utils.JMXNodeTool;
+import com.netflix.priam.utils.TableFilter;
+import com.netflix.priam.utils.TableRun;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Runs long admin operations such as compactions, cleanups and repairs in the background, so the requests starting
+ * them return right away and the caller polls their {@link AdminJob}.
+ * <p/>
+ * Jobs run on a small bounded pool; only one job of each operation is queued or running at a time.  Drains and moves
+ * have a thread of their own, so a move started by an orchestrator doesn't queue behind maintenance jobs.  Compactions,
+ * cleanups and flushes run one table at a time, several tables at once with the {@code parallelism} parameter.  Per
+ * keyspace operations may be cancelled between keyspaces or tables; compactions and cleanups are also stopped in
+ * Cassandra.
+ */
+@Singleton
+public class AdminJobManager {
+    private static final Logger logger = LoggerFactory.getLogger(AdminJobManager.class);
+
+    private static final int MAX_RUNNING_JOBS = 2;
+    private static final int MAX_QUEUED_JOBS = 10;
+    private static final int MAX_QUEUED_RING_JOBS = 1;
+    private static final int MAX_JOBS = 50;
+
+    public static final String SEQUENTIAL = "sequential";
+    public static final String LOCAL_DC = "localDC";
+    public static final String PRIMARY_RANGE = "primaryRange";
+    public static final String TOKEN = "token";
+    public static final String TABLES = "tables";
+    public static final String PARALLELISM = "parallelism";
+    public static final String ORDER = "order";
+
+    private final CassandraConfiguration cassandraConfiguration;
+    private final PriamServer priamServer;
+    private final RingCache ringCache;
+    private final ExecutorService executor;
+    private final ExecutorService ringExecutor;
+    private final Map<String, AdminJob> jobs = Maps.newLinkedHashMap();
+
+    @Inject
+    public AdminJobManager(CassandraConfiguration cassandraConfiguration, PriamServer priamServer, RingCache ringCache) {
+        this.cassandraConfiguration = cassandraConfiguration;
+        this.priamServer = priamServer;
+        this.ringCache = ringCache;
+        this.executor = new ThreadPoolExecutor(MAX_RUNNING_JOBS, MAX_RUNNING_JOBS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(MAX_QUEUED_JOBS),
+                new ThreadFactoryBuilder().setNameFormat("admin-job-%d").setDaemon(true).build());
+        this.ringExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(MAX_QUEUED_RING_JOBS),
+                new ThreadFactoryBuilder().setNameFormat("admin-ring-job-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Queues an operation on the given keyspaces, every keyspace if none are given.
+     *
+     * @throws IllegalArgumentException   if a parameter the operation needs is missing
+     * @throws IllegalStateException      if a job of the same operation is queued or running
+     * @throws RejectedExecutionException if too many jobs are queued
+     */
+    public synchronized AdminJob submit(AdminOperation operation, List<String> keyspaces, Map<String, String> parameters) {
+        checkArgument(operation != AdminOperation.REFRESH || !keyspaces.isEmpty(), "Missing keyspace in request");
+        checkArgument(operation != AdminOperation.MOVE || parameters.get(TOKEN) != null, "Missing token in request");
+        parallelism(parameters);
+        order(parameters);
+        for (AdminJob other : jobs.values()) {
+            checkState(other.getOperation() != operation || other.isDone(), "%s job %s is still %s", operation, other.getId(), other.getState());
+        }
+
+        final AdminJob job = new AdminJob(UUID.randomUUID().toString(), operation, keyspaces, parameters);
+        (operation.isRingChange() ? ringExecutor : executor).submit(new Runnable() {
+            @Override
+            public void run() {
+                AdminJobManager.this.run(job);
+            }
+        });
+
+        if (jobs.size() >= MAX_JOBS) {
+            for (Iterator<AdminJob> it = jobs.values().iterator(); it.hasNext(); ) {
+                if (it.next().isDone()) {
+                    it.remove();
+                    break;
+                }
+            }
+        }
+        jobs.put(job.getId(), job);
+        logger.info("Queued {} job {}", operation, job.getId());
+        return job;
+    }
+
+    public List<AdminJob> getJobs() {
+        List<AdminJob> jobs;
+        synchronized (this) {
+            jobs = ImmutableList.copyOf(this.jobs.values());
+        }
+        refreshCompactions(jobs);
+        return jobs;
+    }
+
+    /**
+     * Returns the job with the given id, or {@code null} if it isn't known.
+     */
+    public AdminJob getJob(String id) {
+        AdminJob job;
+        synchronized (this) {
+            job = jobs.get(id);
+        }
+        if (job != null) {
+            refreshCompactions(Collections.singletonList(job));
+        }
+        return job;
+    }
+
+    /**
+     * Cancels the job with the given id.  Returns {@code null} if it isn't known.
+     * <p/>
+     * Stopping a compaction or cleanup stops every compaction of that type on the node, including those started
+     * elsewhere.  Drains, moves and the repair of the current keyspace run to completion.
+     */
+    public AdminJob cancel(String id) {
+        AdminJob job;
+        synchronized (this) {
+            job = jobs.get(id);
+        }
+        if (job != null && job.cancel() && job.getOperation().isStoppable()) {
+            logger.info("Stopping {} compactions of job {}", job.getOperation().getCompactionType(), id);
+            try {
+                stopCompactions(job.getOperation().getCompactionType());
+            } catch (Exception e) {
+                logger.warn("Unable to stop the compactions of job {}, it stops after the current keyspace", id, e);
+            }
+        }
+        return job;
+    }
+
+    @VisibleForTesting
+    void run(AdminJob job) {
+        if (!job.start()) {
+            return;
+        }
+        logger.info("Starting {} job {}", job.getOperation(), job.getId());
+        try {
+            if (job.getOperation().getTableOperation() != null) {
+                List<TableRun> tables = tables(job);
+                Set<String> keyspaces = Sets.newLinkedHashSet();
+                for (TableRun table : tables) {
+                    keyspaces.add(table.getKeyspace());
+                }
+                job.resolveKeyspaces(ImmutableList.copyOf(keyspaces));
+                job.resolveTables(tables);
+                runTables(job, tables);
+            } else if (job.getOperation().isPerKeyspace()) {
+                if (job.getKeyspaces().isEmpty()) {
+                    job.resolveKeyspaces(allKeyspaces(job.getOperation()));
+                }
+                for (String keyspace : job.getKeyspaces()) {
+                    if (job.isCancelRequested()) {
+                        break;
+                    }
+                    job.keyspaceStarted(keyspace);
+                    runKeyspace(job, keyspace);
+                    job.keyspaceCompleted(keyspace);
+                }
+            } else {
+                runNode(job);
+            }
+            if (job.isCancelRequested() && stoppedEarly(job)) {
+                logger.info("{} job {} cancelled", job.getOperation(), job.getId());
+                job.finish(AdminJob.State.CANCELLED, null);
+            } else {
+                logger.info("{} job {} completed", job.getOperation(), job.getId());
+                job.finish(AdminJob.State.SUCCEEDED, null);
+            }
+        } catch (Exception e) {
+            if (job.isCancelRequested()) {
+                logger.info("{} job {} cancelled: {}", job.getOperation(), job.getId(), e.toString());
+                job.finish(AdminJob.State.CANCELLED, e.toString());
+            } else {
+                logger.error("{} job {} failed", job.getOperation(), job.getId(), e);
+                job.finish(AdminJob.State.FAILED, e.toString());
+            }
+        }
+    }
+
+    @VisibleForTesting
+    List<String> allKeyspaces(AdminOperation operation) throws JMXConnectionException {
+        List<String> keyspaces = Lists.newArrayList(nodeTool().getKeyspaces());
+        if (operation == AdminOperation.CLEANUP) {
+            // It is an error to attempt to cleanup the system keyspace
+            keyspaces.remove("system");
+        }
+        return keyspaces;
+    }
+
+    @VisibleForTesting
+    List<TableRun> tables(AdminJob job) throws JMXConnectionException {
+        TableFilter filter = TableFilter.parse(Joiner.on(',').join(job.getKeyspaces()), job.getParameters().get(TABLES));
+        return nodeTool().tables(job.getOperation().getTableOperation(), filter, order(job.getParameters()));
+    }
+
+    @VisibleForTesting
+    void runTables(AdminJob job, List<TableRun> tables) throws Exception {
+        nodeTool().runPerTable(job.getOperation().getTableOperation(), tables, parallelism(job.getParameters()));
+    }
+
+    @VisibleForTesting
+    void runKeyspace(AdminJob job, String keyspace) throws Exception {
+        JMXNodeTool nodetool = nodeTool();
+        Map<String, String> parameters = job.getParameters();
+        switch (job.getOperation()) {
+            case COMPACT:
+                nodetool.forceKeyspaceCompaction(false, keyspace);
+                break;
+            case CLEANUP:
+                nodetool.forceKeyspaceCleanup(0, keyspace);
+                break;
+            case FLUSH:
+                nodetool.forceKeyspaceFlush(keyspace);
+                break;
+            case REPAIR:
+                nodetool.repair(keyspace, Boolean.parseBoolean(parameters.get(SEQUENTIAL)),
+                        Boolean.parseBoolean(parameters.get(LOCAL_DC)), Boolean.parseBoolean(parameters.get(PRIMARY_RANGE)),
+                        job.messageStream());
+                break;
+            case REFRESH:
+                nodetool.refresh(Collections.singletonList(keyspace));
+                break;
+            default:
+                throw new IllegalStateException("Not a per keyspace operation: " + job.getOperation());
+        }
+    }
+
+    @VisibleForTesting
+    void runNode(AdminJob job) throws Exception {
+        JMXNodeTool nodetool = nodeTool();
+        switch (job.getOperation()) {
+            case DRAIN:
+                nodetool.drain();
+                break;
+            case MOVE:
+                nodetool.move(job.getParameters().get(TOKEN));
+                ringCache.invalidate();
+                priamServer.getInstanceIdentity().updateToken();
+                break;
+            default:
+                throw new IllegalStateException("Not a node operation: " + job.getOperation());
+        }
+    }
+
+    @VisibleForTesting
+    void stopCompactions(String compactionType) throws JMXConnectionException {
+        nodeTool().getCompactionManagerProxy().stopCompaction(compactionType);
+    }
+
+    /**
+     * Whether a cancelled job left keyspaces or tables alone.
+     */
+    private static boolean stoppedEarly(AdminJob job) {
+        for (TableRun table : job.getTables()) {
+            if (table.getState() == TableRun.State.SKIPPED) {
+                return true;
+            }
+        }
+        return job.getCompletedKeyspaces().size() < job.getKeyspaces().size() && job.getTables().isEmpty();
+    }
+
+    private int parallelism(Map<String, String> parameters) {
+        String parallelism = parameters.get(PARALLELISM);
+        if (parallelism == null) {
+            return cassandraConfiguration.getMaintenanceParallelism();
+        }
+        try {
+            int value = Integer.parseInt(parallelism);
+            checkArgument(value >= 1, "parallelism must be >= 1");
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid parallelism " + parallelism);
+        }
+    }
+
+    private TableOrder order(Map<String, String> parameters) {
+        String order = parameters.get(ORDER);
+        if (order == null) {
+            return cassandraConfiguration.getMaintenanceTableOrder();
+        }
+        try {
+            return TableOrder.valueOf(order.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid order " + order);
+        }
+    }
+
+    /**
+     * Updates the running jobs with their compactions currently running on the node.
+     */
+    private void refreshCompactions(List<AdminJob> jobs) {
+        List<AdminJob> compacting = Lists.newArrayList();
+        for (AdminJob job : jobs) {
+            if (job.getState() == AdminJob.State.RUNNING && job.getOperation().getCompactionType() != null) {
+                compacting.add(job);
+            }
+        }
+        if (compacting.isEmpty()) {
+            return;
+        }
+
+        List<Map<String, String>> compactions;
+        try {
+            compactions = nodeTool().getCompactionManagerProxy().getCompactions();
+        } catch (Exception e) {
+            logger.debug("Unable to read the compactions of the running jobs", e);
+            return;
+        }
+        for (AdminJob job : compacting) {
+            List<Map<String, Object>> progress = Lists.newArrayList();
+            for (Map<String, String> compaction : compactions) {
+                if (job.getOperation().getCompactionType().equalsIgnoreCase(compaction.get("taskType")) &&
+                        job.getKeyspaces().contains(compaction.get("keyspace"))) {
+                    Map<String, Object> info = Maps.newLinkedHashMap();
+                    info.put("keyspace", compaction.get("keyspace"));
+                    info.put("columnfamily", compaction.get("columnfamily"));
+                    info.put("bytesComplete", Long.parseLong(compaction.get("bytesComplete")));
+                    info.put("totalBytes", Long.parseLong(compaction.get("totalBytes")));
+                    progress.add(info);
+                }
+            }
+            job.setCompactions(progress);
+        }
+    }
+
+    private JMXNodeTool nodeTool() throws JMXConnectionException {
+        return JMXNodeTool.instance(cassandraConfiguration);
+    }
+}
@@ -0,0 +1,82 @@
+package com.netflix.priam.admin;
+
+import com.netflix.priam.utils.TableOperation;
+
+/**
+ * Admin operations that may take long enough to run as an {@link AdminJob}.
+ */
+public enum AdminOperation {
+    COMPACT(TableOperation.COMPACT, true, "COMPACTION", true, false),
+    CLEANUP(TableOperation.CLEANUP, true, "CLEANUP", true, false),
+    FLUSH(TableOperation.FLUSH, true, null, false, false),
+    REPAIR(null, true, "VALIDATION", false, false),
+    REFRESH(null, true, null, false, false),
+    DRAIN(null, false, null, false, true),
+    MOVE(null, false, null, false, true);
+
+    private final TableOperation tableOperation;
+    private final boolean perKeyspace;
+    private final String compactionType;
+    private final boolean stoppable;
+    private final boolean ringChange;
+
+    AdminOperation(TableOperation tableOperation, boolean perKeyspace, String compactionType, boolean stoppable,
+                   boolean ringChange) {
+        this.tableOperation = tableOperation;
+        this.perKeyspace = perKeyspace;
+        this.compactionType = compactionType;
+        this.stoppable = stoppable;
+        this.ringChange = ringChange;
+    }
+
+    /**
+     * The operation run one table at a time, {@code null} if the operation doesn't run per table.  Tables not started
+     * yet are skipped on cancellation.
+     */
+    public TableOperation getTableOperation() {
+        return tableOperation;
+    }
+
+    /**
+     * Whether the operation runs on a set of keyspaces, one keyspace at a time unless it runs per table.  It can be
+     * cancelled between keyspaces.
+     */
+    public boolean isPerKeyspace() {
+        return perKeyspace;
+    }
+
+    /**
+     * The type of the compactions the operation shows up as in the compaction manager, {@code null} for none.
+     */
+    public String getCompactionType() {
+        return compactionType;
+    }
+
+    /**
+     * Whether Cassandra can stop the compactions of the operation while they run.
+     */
+    public boolean isStoppable() {
+        return stoppable;
+    }
+
+    /**
+     * Whether the operation moves the node in the ring or takes it out of the ring.  These run apart from the
+     * maintenance operations so they never wait behind a long compaction.
+     */
+    public boolean isRingChange() {
+        return ringChange;
+    }
+
+    /**
+     * Parses an operation name regardless of case, e.g. {@code compact}.
+     *
+     * @throws IllegalArgumentException if there's no such operation
+     */
+    public static AdminOperation parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Unknown operation " + name);
+        }
+    }
+}
@@ -15,21 +15,19 @@
  */
 package com.netflix.priam.aws;
 
-import com.amazonaws.auth.AWSCredentialsProvider;
-import com.amazonaws.services.autoscaling.AmazonAutoScaling;
-import com.amazonaws.services.autoscaling.AmazonAutoScalingClient;
 import com.amazonaws.services.autoscaling.model.AutoScalingGroup;
 import com.amazonaws.services.autoscaling.model.DescribeAutoScalingGroupsRequest;
-import com.amazonaws.services.autoscaling.model.DescribeAutoScalingGroupsResult;
 import com.amazonaws.services.autoscaling.model.Instance;
 import com.amazonaws.services.ec2.AmazonEC2;
-import com.amazonaws.services.ec2.AmazonEC2Client;
 import com.amazonaws.services.ec2.model.AuthorizeSecurityGroupIngressRequest;
 import com.amazonaws.services.ec2.model.DescribeSecurityGroupsRequest;
 import com.amazonaws.services.ec2.model.DescribeSecurityGroupsResult;
 import com.amazonaws.services.ec2.model.IpPermission;
 import com.amazonaws.services.ec2.model.RevokeSecurityGroupIngressRequest;
 import com.amazonaws.services.ec2.model.SecurityGroup;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
@@ -43,43 +41,51 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Class to query amazon ASG for its members to provide - Number of valid nodes
  * in the ASG - Number of zones - Methods for adding ACLs for the nodes
+ * <p/>
+ * The description of the ASG is cached for {@link #ASG_CACHE_TTL_SECONDS} seconds and serves both the membership and
+ * the size of the zone, so looking up a token doesn't describe the ASG several times in a row.
  */
 public class AWSMembership implements IMembership {
     private static final Logger logger = LoggerFactory.getLogger(AWSMembership.class);
+
+    @VisibleForTesting
+    static final long ASG_CACHE_TTL_SECONDS = 5;
+
     private final AmazonConfiguration amazonConfiguration;
-    private final AWSCredentialsProvider provider;
+    private final AmazonClients clients;
+    private final Supplier<List<AutoScalingGroup>> autoScalingGroups;
 
     @Inject
-    public AWSMembership(AmazonConfiguration amazonConfiguration, AWSCredentialsProvider provider) {
+    public AWSMembership(AmazonConfiguration amazonConfiguration, AmazonClients clients) {
         this.amazonConfiguration = amazonConfiguration;
-        this.provider = provider;
+        this.clients = clients;
+        // Concurrent callers wait for a single request, failures aren't cached
+        this.autoScalingGroups = Suppliers.memoizeWithExpiration(new Supplier<List<AutoScalingGroup>>() {
+            @Override
+            public List<AutoScalingGroup> get() {
+                return describeAutoScalingGroups();
+            }
+        }, ASG_CACHE_TTL_SECONDS, TimeUnit.SECONDS);
     }
 
     @Override
     public List<String> getAutoScaleGroupMembership() {
-        AmazonAutoScaling client = getAutoScalingClient();
-        try {
-            DescribeAutoScalingGroupsRequest asgReq = new DescribeAutoScalingGroupsRequest().withAutoScalingGroupNames(amazonConfiguration.getAutoScaleGroupName());
-            DescribeAutoScalingGroupsResult res = client.describeAutoScalingGroups(asgReq);
-
-            List<String> instanceIds = Lists.newArrayList();
-            for (AutoScalingGroup asg : res.getAutoScalingGroups()) {
-                for (Instance ins : asg.getInstances()) {
-                    if (!(ins.getLifecycleState().equalsIgnoreCase("Terminating") || ins.getLifecycleState().equalsIgnoreCase("shutting-down") || ins.getLifecycleState()
-                            .equalsIgnoreCase("Terminated"))) {
-                        instanceIds.add(ins.getInstanceId());
-                    }
+        List<String> instanceIds = Lists.newArrayList();
+        for (AutoScalingGroup asg : autoScalingGroups.get()) {
+            for (Instance ins : asg.getInstances()) {
+                if (!(ins.getLifecycleState().equalsIgnoreCase("Terminating") || ins.getLifecycleState().equalsIgnoreCase("shutting-down") || ins.getLifecycleState()
+                        .equalsIgnoreCase("Terminated"))) {
+                    instanceIds.add(ins.getInstanceId());
                 }
             }
-            logger.info("Querying Amazon returned the following instances in the ASG: {} --> {}", amazonConfiguration.getAutoScaleGroupName(), StringUtils.join(instanceIds, ","));
-            return instanceIds;
-        } finally {
-            client.shutdown();
         }
+        logger.info("Querying Amazon returned the following instances in the ASG: {} --> {}", amazonConfiguration.getAutoScaleGroupName(), StringUtils.join(instanceIds, ","));
+        return instanceIds;
     }
 
     /**
@@ -87,19 +93,12 @@ public class AWSMembership implements IMembership {
      */
     @Override
     public int getAvailabilityZoneMembershipSize() {
-        AmazonAutoScaling client = getAutoScalingClient();
-        try {
-            DescribeAutoScalingGroupsRequest asgReq = new DescribeAutoScalingGroupsRequest().withAutoScalingGroupNames(amazonConfiguration.getAutoScaleGroupName());
-            DescribeAutoScalingGroupsResult res = client.describeAutoScalingGroups(asgReq);
-            int size = 0;
-            for (AutoScalingGroup asg : res.getAutoScalingGroups()) {
-                size += asg.getMaxSize();
-            }
-            logger.info("Max size of ASG is {} instances", size);
-            return size;
-        } finally {
-            client.shutdown();
+        int size = 0;
+        for (AutoScalingGroup asg : autoScalingGroups.get()) {
+            size += asg.getMaxSize();
         }
+        logger.info("Max size of ASG is {} instances", size);
+        return size;
     }
 
     @Override
@@ -111,62 +110,43 @@ public class AWSMembership implements IMembership {
      * Adds an IP list to the SG.
      */
     public void addACL(Collection<String> listIPs, int fromPort, int toPort) {
-        AmazonEC2 client = getEc2Client();
-        try {
-            List<IpPermission> ipPermissions = ImmutableList.of(
-                    new IpPermission().withFromPort(fromPort).withIpProtocol("tcp").withIpRanges(listIPs).withToPort(toPort));
-            client.authorizeSecurityGroupIngress(new AuthorizeSecurityGroupIngressRequest(amazonConfiguration.getSecurityGroupName(), ipPermissions));
-            logger.info("Done adding ACL to: {}", StringUtils.join(listIPs, ","));
-        } finally {
-            client.shutdown();
-        }
+        AmazonEC2 client = clients.getEc2();
+        List<IpPermission> ipPermissions = ImmutableList.of(
+                new IpPermission().withFromPort(fromPort).withIpProtocol("tcp").withIpRanges(listIPs).withToPort(toPort));
+        client.authorizeSecurityGroupIngress(new AuthorizeSecurityGroupIngressRequest(amazonConfiguration.getSecurityGroupName(), ipPermissions));
+        logger.info("Done adding ACL to: {}", StringUtils.join(listIPs, ","));
     }
 
     /**
      * Removes an IP list from the SG
      */
     public void removeACL(Collection<String> listIPs, int fromPort, int toPort) {
-        AmazonEC2 client = getEc2Client();
-        try {
-            List<IpPermission> ipPermissions = ImmutableList.of(
-                    new IpPermission().withFromPort(fromPort).withIpProtocol("tcp").withIpRanges(listIPs).withToPort(toPort));
-            client.revokeSecurityGroupIngress(new RevokeSecurityGroupIngressRequest(amazonConfiguration.getSecurityGroupName(), ipPermissions));
-        } finally {
-            client.shutdown();
-        }
+        AmazonEC2 client = clients.getEc2();
+        List<IpPermission> ipPermissions = ImmutableList.of(
+                new IpPermission().withFromPort(fromPort).withIpProtocol("tcp").withIpRanges(listIPs).withToPort(toPort));
+        client.revokeSecurityGroupIngress(new RevokeSecurityGroupIngressRequest(amazonConfiguration.getSecurityGroupName(), ipPermissions));
     }
 
     /**
      * List SG ACL's
      */
     public List<String> listACL(int from, int to) {
-        AmazonEC2 client = getEc2Client();
-        try {
-            List<String> ipPermissions = new ArrayList<>();
-            DescribeSecurityGroupsRequest req = new DescribeSecurityGroupsRequest().withGroupNames(Arrays.asList(amazonConfiguration.getSecurityGroupName()));
-            DescribeSecurityGroupsResult result = client.describeSecurityGroups(req);
-            for (SecurityGroup group : result.getSecurityGroups()) {
-                for (IpPermission perm : group.getIpPermissions()) {
-                    if (perm.getFromPort() == from && perm.getToPort() == to) {
-                        ipPermissions.addAll(perm.getIpRanges());
-                    }
+        AmazonEC2 client = clients.getEc2();
+        List<String> ipPermissions = new ArrayList<>();
+        DescribeSecurityGroupsRequest req = new DescribeSecurityGroupsRequest().withGroupNames(Arrays.asList(amazonConfiguration.getSecurityGroupName()));
+        DescribeSecurityGroupsResult result = client.describeSecurityGroups(req);
+        for (SecurityGroup group : result.getSecurityGroups()) {
+            for (IpPermission perm : group.getIpPermissions()) {
+                if (perm.getFromPort() == from && perm.getToPort() == to) {
+                    ipPermissions.addAll(perm.getIpRanges());
                 }
             }
-            return ipPermissions;
-        } finally {
-            client.shutdown();
         }
+        return ipPermissions;
     }
 
-    protected AmazonAutoScaling getAutoScalingClient() {
-        AmazonAutoScaling client = new AmazonAutoScalingClient(provider);
-        client.setRegion(amazonConfiguration.getRegion());
-        return client;
-    }
-
-    protected AmazonEC2 getEc2Client() {
-        AmazonEC2 client = new AmazonEC2Client(provider);
-        client.setRegion(amazonConfiguration.getRegion());
-        return client;
+    private List<AutoScalingGroup> describeAutoScalingGroups() {
+        DescribeAutoScalingGroupsRequest asgReq = new DescribeAutoScalingGroupsRequest().withAutoScalingGroupNames(amazonConfiguration.getAutoScaleGroupName());
+        return ImmutableList.copyOf(clients.getAutoScaling().describeAutoScalingGroups(asgReq).getAutoScalingGroups());
     }
 }
@@ -0,0 +1,72 @@
+package com.netflix.priam.aws;
+
+import com.amazonaws.AmazonWebServiceClient;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.services.autoscaling.AmazonAutoScaling;
+import com.amazonaws.services.autoscaling.AmazonAutoScalingClient;
+import com.amazonaws.services.ec2.AmazonEC2;
+import com.amazonaws.services.ec2.AmazonEC2Client;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.priam.config.AmazonConfiguration;
+
+import java.io.Closeable;
+
+/**
+ * Long-lived EC2 and auto scaling clients for the region Priam runs in.  The clients are thread safe and hold a
+ * connection pool, so they are shared rather than created for every request.  They are created on first use, which
+ * keeps Priam from touching AWS when it doesn't run there.
+ * <p/>
+ * Throttled and failed requests are retried by the SDK with exponential backoff and jitter, up to
+ * {@link #MAX_ERROR_RETRIES} times.
+ */
+@Singleton
+public class AmazonClients implements Closeable {
+    static final int MAX_ERROR_RETRIES = 10;
+
+    private final AmazonConfiguration amazonConfiguration;
+    private final AWSCredentialsProvider provider;
+    private final ClientConfiguration clientConfiguration = new ClientConfiguration().withMaxErrorRetry(MAX_ERROR_RETRIES);
+
+    // Guarded by this
+    private AmazonEC2Client ec2;
+    private AmazonAutoScalingClient autoScaling;
+
+    @Inject
+    public AmazonClients(AmazonConfiguration amazonConfiguration, AWSCredentialsProvider provider) {
+        this.amazonConfiguration = amazonConfiguration;
+        this.provider = provider;
+    }
+
+    public synchronized AmazonEC2 getEc2() {
+        if (ec2 == null) {
+            ec2 = inRegion(new AmazonEC2Client(provider, clientConfiguration));
+        }
+        return ec2;
+    }
+
+    public synchronized AmazonAutoScaling getAutoScaling() {
+        if (autoScaling == null) {
+            autoScaling = inRegion(new AmazonAutoScalingClient(provider, clientConfiguration));
+        }
+        return autoScaling;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (ec2 != null) {
+            ec2.shutdown();
+            ec2 = null;
+        }
+        if (autoScaling != null) {
+            autoScaling.shutdown();
+            autoScaling = null;
+        }
+    }
+
+    private <C extends AmazonWebServiceClient> C inRegion(C client) {
+        client.setRegion(amazonConfiguration.getRegion());
+        return client;
+    }
+}
@@ -0,0 +1,142 @@
+package com.netflix.priam.aws;
+
+import com.amazonaws.AmazonServiceException;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.netflix.priam.utils.Sleeper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes items to SimpleDB in batches of at most {@link #MAX_BATCH_SIZE}, the most a {@code BatchPutAttributes} or
+ * {@code BatchDeleteAttributes} request takes, with several batches in flight at once.
+ * <p/>
+ * A batch that is throttled is split in halves which are retried separately after a backoff, down to single items, so
+ * a throttled domain only slows down the items it actually rejected.  Other errors fail the write immediately.
+ */
+class SDBBatchWriter<T> {
+    private static final Logger logger = LoggerFactory.getLogger(SDBBatchWriter.class);
+
+    static final int MAX_BATCH_SIZE = 25;
+    static final int MAX_THROTTLE_RETRIES = 8;
+    private static final long BASE_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 5000;
+
+    interface Batch<T> {
+        void write(List<T> items) throws AmazonServiceException;
+    }
+
+    private final Batch<T> batch;
+    private final int parallelism;
+    private final Sleeper sleeper;
+
+    SDBBatchWriter(Batch<T> batch, int parallelism, Sleeper sleeper) {
+        this.batch = batch;
+        this.parallelism = parallelism;
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Writes all items, returning once every batch succeeded.
+     *
+     * @throws AmazonServiceException the first error of a batch that couldn't be written, after all batches ran
+     */
+    void writeAll(List<T> items) throws AmazonServiceException {
+        writeAll(items, new ArrayList<T>());
+    }
+
+    /**
+     * Writes all items like {@link #writeAll(List)}, adding them to {@code written} as their batches succeed so the
+     * caller knows which items were written when some weren't.
+     */
+    void writeAll(List<T> items, final Collection<? super T> written) throws AmazonServiceException {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<List<T>> batches = Lists.partition(items, MAX_BATCH_SIZE);
+        if (batches.size() == 1 || parallelism == 1) {
+            try {
+                for (List<T> chunk : batches) {
+                    write(chunk, 0, written);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw Throwables.propagate(e);
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, batches.size()),
+                new ThreadFactoryBuilder().setNameFormat("sdb-batch-%d").setDaemon(true).build());
+        try {
+            List<Future<Void>> futures = Lists.newArrayList();
+            for (final List<T> chunk : batches) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        write(chunk, 0, written);
+                        return null;
+                    }
+                }));
+            }
+
+            Throwable failure = null;
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw Throwables.propagate(e);
+                }
+            }
+            if (failure != null) {
+                throw Throwables.propagate(failure);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void write(List<T> items, int attempt, Collection<? super T> written) throws InterruptedException {
+        try {
+            batch.write(items);
+            synchronized (written) {
+                written.addAll(items);
+            }
+        } catch (AmazonServiceException e) {
+            if (!isThrottling(e) || attempt >= MAX_THROTTLE_RETRIES) {
+                throw e;
+            }
+            long backoff = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << attempt);
+            logger.debug("Batch of {} items throttled, retrying in halves after up to {} ms", items.size(), backoff);
+            sleeper.sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+            if (items.size() == 1) {
+                write(items, attempt + 1, written);
+            } else {
+                int half = items.size() / 2;
+                write(items.subList(0, half), attempt + 1, written);
+                write(items.subList(half, items.size()), attempt + 1, written);
+            }
+        }
+    }
+
+    static boolean isThrottling(AmazonServiceException e) {
+        return e.getStatusCode() == 503 || "ServiceUnavailable".equals(e.getErrorCode())
+                || "Throttling".equals(e.getErrorCode()) || "RequestThrottled".equals(e.getErrorCode());
+    }
+}
@@ -22,28 +22,41 @@ import com.amazonaws.regions.RegionUtils;
 import com.amazonaws.services.simpledb.AmazonSimpleDB;
 import com.amazonaws.services.simpledb.AmazonSimpleDBClient;
 import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.BatchDeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.BatchPutAttributesRequest;
 import com.amazonaws.services.simpledb.model.CreateDomainRequest;
+import com.amazonaws.services.simpledb.model.DeletableItem;
 import com.amazonaws.services.simpledb.model.DeleteAttributesRequest;
 import com.amazonaws.services.simpledb.model.Item;
 import com.amazonaws.services.simpledb.model.PutAttributesRequest;
 import com.amazonaws.services.simpledb.model.ReplaceableAttribute;
+import com.amazonaws.services.simpledb.model.ReplaceableItem;
 import com.amazonaws.services.simpledb.model.SelectRequest;
 import com.amazonaws.services.simpledb.model.SelectResult;
 import com.amazonaws.services.simpledb.model.UpdateCondition;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Joiner;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.netflix.priam.aws.auth.SDBCredentialProvider;
 import com.netflix.priam.config.AmazonConfiguration;
 import com.netflix.priam.identity.Location;
 import com.netflix.priam.identity.PriamInstance;
+import com.netflix.priam.utils.ThreadSleeper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 /**
  * DAO for handling Instance identity information such as token, zone, region
@@ -62,8 +75,18 @@ public class SDBInstanceData {
         public final static String UPDATE_TS = "updateTimestamp";
         public final static String LOCATION = "location";
         public final static String HOSTNAME = "hostname";
+        // Continuation of the token list, for nodes with more tokens than fit in a single attribute value
+        public final static String TOKEN_PART = "tokenPart";
+        // Number of parts of the token list, tokenPart values beyond it are left over from a longer list
+        public final static String TOKEN_PART_COUNT = "tokenPartCount";
     }
 
+    /** SimpleDB attribute values are limited to 1024 bytes. */
+    private static final int MAX_ATTRIBUTE_VALUE_LENGTH = 1024;
+
+    /** How many batch requests are sent to SimpleDB at once. */
+    private static final int BATCH_PARALLELISM = 4;
+
     private final AWSCredentialsProvider sdbCredentialProvider;
     private final Region sdbRegion;
     private final String sdbDomain;
@@ -85,6 +108,23 @@ public class SDBInstanceData {
         return String.format("select * from %s where " + Attributes.APP_ID + "='%s'", sdbDomain, appId);
     }
 
+    /**
+     * Selects the nodes of a location, and optionally of an availability zone, so SimpleDB only returns the local rows
+     * of clusters that span several regions.  SimpleDB indexes every attribute.
+     */
+    private String getLocationQuery(String appId, Location location, String availabilityZone) {
+        String query = String.format("select * from %s where " + Attributes.APP_ID + "=%s and " + Attributes.LOCATION + "=%s",
+                sdbDomain, quote(appId), quote(location.toString()));
+        if (availabilityZone != null) {
+            query += " and " + Attributes.AVAILABILITY_ZONE + "=" + quote(availabilityZone);
+        }
+        return query;
+    }
+
+    private static String quote(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
     private String getInstanceQuery(String appId, int id) {
         return String.format("select * from %s where " + Attributes.APP_ID + "='%s' and " + Attributes.ID + "='%d'", sdbDomain, appId, id);
     }
@@ -146,12 +186,28 @@ public class SDBInstanceData {
      * @return the set of all instances in the given {@code app}
      */
     public Set<PriamInstance> getAllIds(String app, boolean consistentRead) {
+        return select(app, getAllQuery(app), consistentRead);
+    }
+
+    /**
+     * Get the set of nodes of the cluster in a location
+     *
+     * @param app Cluster name
+     * @param location The location of the nodes
+     * @param availabilityZone The availability zone of the nodes, or {@code null} for every zone of the location
+     * @param consistentRead  Whether to require strong consistency on the read
+     * @return the set of instances in the given {@code app}, {@code location} and {@code availabilityZone}
+     */
+    public Set<PriamInstance> getAllIds(String app, Location location, String availabilityZone, boolean consistentRead) {
+        return select(app, getLocationQuery(app, location, availabilityZone), consistentRead);
+    }
+
+    private Set<PriamInstance> select(String app, String query, boolean consistentRead) {
         AmazonSimpleDB simpleDBClient = getSimpleDBClient();
         Set<PriamInstance> inslist = new HashSet<>();
         String nextToken = null;
-        String allQuery = getAllQuery(app);
         do {
-            SelectRequest request = new SelectRequest(allQuery);
+            SelectRequest request = new SelectRequest(query);
             request.setConsistentRead(consistentRead);
             request.setNextToken(nextToken);
             SelectResult result = simpleDBClient.select(request);
@@ -175,6 +231,7 @@ public class SDBInstanceData {
         AmazonSimpleDB simpleDBClient = getSimpleDBClient();
         PutAttributesRequest putReq = new PutAttributesRequest(sdbDomain, getKey(instance), createAttributesToRegister(instance));
         simpleDBClient.putAttributes(putReq);
+        deleteLeftoverTokenParts(simpleDBClient, instance);
     }
 
     /**
@@ -195,6 +252,26 @@ public class SDBInstanceData {
         }
         putReq.setExpected(expected);
         simpleDBClient.putAttributes(putReq);
+        deleteLeftoverTokenParts(simpleDBClient, instance);
+    }
+
+    /**
+     * Deletes the tokenPart values of a longer token list the node registered before, once its token list fits in
+     * one attribute.  Reads ignore them already thanks to the part count, this only keeps the domain clean, so it
+     * gives up if the slot was taken by another node in the meantime.
+     */
+    private void deleteLeftoverTokenParts(AmazonSimpleDB simpleDBClient, PriamInstance instance) {
+        if (splitTokens(instance).size() > 1) {
+            return;
+        }
+        DeleteAttributesRequest delReq = new DeleteAttributesRequest(sdbDomain, getKey(instance),
+                Collections.singletonList(new Attribute().withName(Attributes.TOKEN_PART)),
+                new UpdateCondition(Attributes.INSTANCE_ID, instance.getInstanceId(), true));
+        try {
+            simpleDBClient.deleteAttributes(delReq);
+        } catch (AmazonServiceException e) {
+            logger.warn("Unable to delete the leftover token parts of {}", getKey(instance), e);
+        }
     }
 
     /**
@@ -209,6 +286,108 @@ public class SDBInstanceData {
         simpleDBClient.deleteAttributes(delReq);
     }
 
+    /**
+     * Create or overwrite many instance entries in SimpleDB with {@code BatchPutAttributes}, 25 to a request and
+     * several requests at once.  Unlike {@link #registerInstance} there is no condition on the previous entries.
+     *
+     * @throws AmazonServiceException if a batch failed, in which case other batches may have been written
+     */
+    public void createInstances(Collection<PriamInstance> instances) throws AmazonServiceException {
+        createInstances(instances, new ArrayList<PriamInstance>());
+    }
+
+    /**
+     * Create or overwrite many instance entries like {@link #createInstances(Collection)}, adding the instances to
+     * {@code created} as their batches are written.
+     *
+     * @throws AmazonServiceException if a batch failed, in which case {@code created} holds the instances written
+     */
+    public void createInstances(Collection<PriamInstance> instances, Collection<PriamInstance> created)
+            throws AmazonServiceException {
+        logger.info("Creating {} PriamInstances in SimpleDB", instances.size());
+        // A batch can't hold the same item twice, the last entry of an instance wins
+        Map<String, PriamInstance> byKey = new LinkedHashMap<>();
+        Map<String, ReplaceableItem> items = new LinkedHashMap<>();
+        Map<String, DeletableItem> leftoverTokenParts = new LinkedHashMap<>();
+        for (PriamInstance instance : instances) {
+            byKey.put(getKey(instance), instance);
+            items.put(getKey(instance), new ReplaceableItem(getKey(instance), createAttributesToRegister(instance)));
+            if (splitTokens(instance).size() == 1) {
+                leftoverTokenParts.put(getKey(instance), new DeletableItem().withName(getKey(instance))
+                        .withAttributes(new Attribute().withName(Attributes.TOKEN_PART)));
+            } else {
+                leftoverTokenParts.remove(getKey(instance));
+            }
+        }
+        final AmazonSimpleDB simpleDBClient = getSimpleDBClient();
+        List<ReplaceableItem> written = new ArrayList<>();
+        try {
+            new SDBBatchWriter<>(new SDBBatchWriter.Batch<ReplaceableItem>() {
+                @Override
+                public void write(List<ReplaceableItem> batch) {
+                    simpleDBClient.batchPutAttributes(new BatchPutAttributesRequest(sdbDomain, batch));
+                }
+            }, BATCH_PARALLELISM, new ThreadSleeper()).writeAll(new ArrayList<>(items.values()), written);
+        } finally {
+            // Batches still in flight after an interrupt keep adding
+            synchronized (written) {
+                for (ReplaceableItem item : written) {
+                    created.add(byKey.get(item.getName()));
+                }
+            }
+        }
+        // Token lists that now fit in one attribute may leave the parts of a longer list behind
+        new SDBBatchWriter<>(new SDBBatchWriter.Batch<DeletableItem>() {
+            @Override
+            public void write(List<DeletableItem> batch) {
+                simpleDBClient.batchDeleteAttributes(new BatchDeleteAttributesRequest(sdbDomain, batch));
+            }
+        }, BATCH_PARALLELISM, new ThreadSleeper()).writeAll(new ArrayList<>(leftoverTokenParts.values()));
+    }
+
+    /**
+     * Deregister many instances with {@code BatchDeleteAttributes}, 25 to a request and several requests at once.
+     *
+     * @throws AmazonServiceException if a batch failed, in which case other batches may have been deleted
+     */
+    public void deregisterInstances(Collection<PriamInstance> instances) throws AmazonServiceException {
+        deregisterInstances(instances, new ArrayList<PriamInstance>());
+    }
+
+    /**
+     * Deregister many instances like {@link #deregisterInstances(Collection)}, adding the instances to
+     * {@code deregistered} as their batches are deleted.
+     *
+     * @throws AmazonServiceException if a batch failed, in which case {@code deregistered} holds the instances deleted
+     */
+    public void deregisterInstances(Collection<PriamInstance> instances, Collection<PriamInstance> deregistered)
+            throws AmazonServiceException {
+        logger.info("De-Registering {} PriamInstances from SimpleDB", instances.size());
+        Map<String, PriamInstance> byKey = new LinkedHashMap<>();
+        Map<String, DeletableItem> items = new LinkedHashMap<>();
+        for (PriamInstance instance : instances) {
+            byKey.put(getKey(instance), instance);
+            items.put(getKey(instance), new DeletableItem().withName(getKey(instance)));
+        }
+        final AmazonSimpleDB simpleDBClient = getSimpleDBClient();
+        List<DeletableItem> deleted = new ArrayList<>();
+        try {
+            new SDBBatchWriter<>(new SDBBatchWriter.Batch<DeletableItem>() {
+                @Override
+                public void write(List<DeletableItem> batch) {
+                    simpleDBClient.batchDeleteAttributes(new BatchDeleteAttributesRequest(sdbDomain, batch));
+                }
+            }, BATCH_PARALLELISM, new ThreadSleeper()).writeAll(new ArrayList<>(items.values()), deleted);
+        } finally {
+            // Batches still in flight after an interrupt keep adding
+            synchronized (deleted) {
+                for (DeletableItem item : deleted) {
+                    deregistered.add(byKey.get(item.getName()));
+                }
+            }
+        }
+    }
+
     /**
      * List all the applications in SimpleDB.
      *
@@ -233,11 +412,17 @@ public class SDBInstanceData {
         return appIds;
     }
 
-    private List<ReplaceableAttribute> createAttributesToRegister(PriamInstance instance) {
+    @VisibleForTesting
+    static List<ReplaceableAttribute> createAttributesToRegister(PriamInstance instance) {
         instance.setUpdatetime(new Date().getTime());
         List<ReplaceableAttribute> attrs = new ArrayList<>();
         attrs.add(new ReplaceableAttribute(Attributes.INSTANCE_ID, instance.getInstanceId(), true));
-        attrs.add(new ReplaceableAttribute(Attributes.TOKEN, instance.getToken(), true));
+        List<String> tokenParts = splitTokens(instance);
+        attrs.add(new ReplaceableAttribute(Attributes.TOKEN, tokenParts.get(0), true));
+        for (int i = 1; i < tokenParts.size(); i++) {
+            attrs.add(new ReplaceableAttribute(Attributes.TOKEN_PART, i + ":" + tokenParts.get(i), true));
+        }
+        attrs.add(new ReplaceableAttribute(Attributes.TOKEN_PART_COUNT, Integer.toString(tokenParts.size()), true));
         attrs.add(new ReplaceableAttribute(Attributes.APP_ID, instance.getApp(), true));
         attrs.add(new ReplaceableAttribute(Attributes.ID, Integer.toString(instance.getId()), true));
         attrs.add(new ReplaceableAttribute(Attributes.AVAILABILITY_ZONE, instance.getAvailabilityZone(), true));
@@ -248,18 +433,53 @@ public class SDBInstanceData {
         return attrs;
     }
 
+    /**
+     * Splits the token list of a node into values that fit in SimpleDB attributes.  Tokens are never split, and
+     * unless the node has many tokens (vnodes) there is a single part.
+     */
+    private static List<String> splitTokens(PriamInstance instance) {
+        if (instance.getToken() == null || instance.getToken().length() <= MAX_ATTRIBUTE_VALUE_LENGTH) {
+            return Collections.singletonList(instance.getToken());
+        }
+        List<String> parts = new ArrayList<>();
+        List<String> part = new ArrayList<>();
+        int partLength = 0;
+        for (String token : instance.getTokens()) {
+            // Leave room for the separating comma and the "<index>:" prefix of continuation parts
+            if (!part.isEmpty() && partLength + token.length() + 1 > MAX_ATTRIBUTE_VALUE_LENGTH - 8) {
+                parts.add(PriamInstance.joinTokens(part));
+                part.clear();
+                partLength = 0;
+            }
+            part.add(token);
+            partLength += token.length() + 1;
+        }
+        parts.add(PriamInstance.joinTokens(part));
+        return parts;
+    }
+
     /**
      * Convert a simpledb item to PriamInstance
      */
-    private PriamInstance transform(Item item) {
+    @VisibleForTesting
+    static PriamInstance transform(Item item) {
         PriamInstance ins = new PriamInstance();
+        SortedMap<Integer, String> tokenParts = new TreeMap<>();
+        Integer tokenPartCount = null;
         for (Attribute att : item.getAttributes()) {
             switch (att.getName()) {
                 case Attributes.INSTANCE_ID:
                     ins.setInstanceId(att.getValue());
                     break;
                 case Attributes.TOKEN:
-                    ins.setToken(att.getValue());
+                    tokenParts.put(0, att.getValue());
+                    break;
+                case Attributes.TOKEN_PART:
+                    int separator = att.getValue().indexOf(':');
+                    tokenParts.put(Integer.parseInt(att.getValue().substring(0, separator)), att.getValue().substring(separator + 1));
+                    break;
+                case Attributes.TOKEN_PART_COUNT:
+                    tokenPartCount = Integer.parseInt(att.getValue());
                     break;
                 case Attributes.APP_ID:
                     ins.setApp(att.getValue());
@@ -284,6 +504,13 @@ public class SDBInstanceData {
                     break;
             }
         }
+        if (tokenPartCount != null) {
+            // Entries written before the count was stored use every part
+            tokenParts = tokenParts.headMap(tokenPartCount);
+        }
+        if (!tokenParts.isEmpty()) {
+            ins.setToken(Joiner.on(',').join(tokenParts.values()));
+        }
         return ins;
     }
 
@@ -291,7 +518,8 @@ public class SDBInstanceData {
         return instance.getApp() + instance.getId();
     }
 
-    private AmazonSimpleDB getSimpleDBClient() {
+    @VisibleForTesting
+    AmazonSimpleDB getSimpleDBClient() {
         //Create per request
         AmazonSimpleDB client = new AmazonSimpleDBClient(sdbCredentialProvider);
         client.setRegion(sdbRegion);
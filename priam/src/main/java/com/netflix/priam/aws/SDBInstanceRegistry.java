@@ -26,6 +26,7 @@ import com.netflix.priam.identity.PriamInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -51,6 +52,16 @@ public class SDBInstanceRegistry implements IPriamInstanceRegistry {
         return Ordering.natural().immutableSortedCopy(dao.getAllIds(appName, true));
     }
 
+    @Override
+    public List<PriamInstance> getAllIds(String appName, Location location) {
+        return Ordering.natural().immutableSortedCopy(dao.getAllIds(appName, location, null, true));
+    }
+
+    @Override
+    public List<PriamInstance> getAllIds(String appName, Location location, String availabilityZone) {
+        return Ordering.natural().immutableSortedCopy(dao.getAllIds(appName, location, availabilityZone, true));
+    }
+
     @Override
     public PriamInstance getInstance(String appName, int id) {
         return dao.getInstance(appName, id);
@@ -74,11 +85,20 @@ public class SDBInstanceRegistry implements IPriamInstanceRegistry {
                 return null;
             }
         } catch (AmazonServiceException e) {
+            if (isConditionalCheckFailure(e)) {
+                // Someone else changed the slot first
+                logger.info("Unable to acquire slot {}: {}", slotId, e.getMessage());
+                return null;
+            }
             logger.error(e.getMessage());
             throw new RuntimeException("Unable to update/create priam instance", e);
         }
     }
 
+    private static boolean isConditionalCheckFailure(AmazonServiceException e) {
+        return "ConditionalCheckFailed".equals(e.getErrorCode()) || "AttributeDoesNotExist".equals(e.getErrorCode());
+    }
+
     @Override
     public void delete(PriamInstance inst) {
         try {
@@ -96,4 +116,22 @@ public class SDBInstanceRegistry implements IPriamInstanceRegistry {
             throw new RuntimeException("Unable to update/create priam instance", e);
         }
     }
+
+    @Override
+    public void deleteAll(Collection<PriamInstance> instances) {
+        try {
+            dao.deregisterInstances(instances);
+        } catch (AmazonServiceException e) {
+            throw new RuntimeException("Unable to deregister priam instances", e);
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<PriamInstance> instances) {
+        try {
+            dao.createInstances(instances);
+        } catch (AmazonServiceException e) {
+            throw new RuntimeException("Unable to update/create priam instances", e);
+        }
+    }
 }
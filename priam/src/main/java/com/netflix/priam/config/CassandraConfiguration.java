@@ -17,6 +17,10 @@ public class CassandraConfiguration {
     @JsonProperty
     private int tokenLength = 16;  // in bytes
 
+    // Number of tokens (vnodes) per node.  Can't be changed for nodes that have already joined the ring.
+    @JsonProperty
+    private int numTokens = 1;
+
     @JsonProperty
     private String minimumToken;
 
@@ -72,7 +76,7 @@ public class CassandraConfiguration {
     private int jmxPort;
 
     @JsonProperty
-    private int compactionThroughputMBPerSec;
+    private Integer compactionThroughputMBPerSec;
 
     @JsonProperty
     private int inMemoryCompactionLimitMB;
@@ -159,10 +163,10 @@ public class CassandraConfiguration {
     private boolean interDcTcpNodelay;
 
     @JsonProperty
-    private int concurrentReads;
+    private Integer concurrentReads;
 
     @JsonProperty
-    private int concurrentWrites;
+    private Integer concurrentWrites;
 
     @JsonProperty
     private Integer concurrentCompactors;
@@ -182,6 +186,43 @@ public class CassandraConfiguration {
     @JsonProperty
     private int nodeRepairMutexAcquireTimeOut;
 
+    @JsonProperty
+    private boolean throughputControllerEnabled;
+
+    @JsonProperty
+    private int throughputControllerIntervalSeconds = 30;
+
+    @JsonProperty
+    private double throughputControllerReadP99ThresholdMs = 50;
+
+    @JsonProperty
+    private double throughputControllerWriteP99ThresholdMs = 20;
+
+    @JsonProperty
+    private double throughputControllerDiskUtilizationThreshold = 0.8;
+
+    @JsonProperty
+    private int throughputControllerPendingCompactionsThreshold = 16;
+
+    @JsonProperty
+    private int minCompactionThroughputMBPerSec = 8;
+
+    @JsonProperty
+    private int maxCompactionThroughputMBPerSec = 128;
+
+    @JsonProperty
+    private int minStreamingThroughputMbps = 50;
+
+    @JsonProperty
+    private int maxStreamingThroughputMbps = 800;
+
+    // Tables compacted, cleaned up or flushed at the same time, and which of them go first
+    @JsonProperty
+    private int maintenanceParallelism = 1;
+
+    @JsonProperty
+    private TableOrder maintenanceTableOrder = TableOrder.LARGEST_FIRST;
+
     @JsonProperty
     private Integer batchSizeWarningThresholdInKb;
 
@@ -194,6 +235,12 @@ public class CassandraConfiguration {
     @JsonProperty
     private Map<String, String> extraConfigParams;
 
+    // When enabled, heap sizes, concurrency, flush writers and compaction throughput that are not explicitly
+    // configured are derived from the cores, memory and disks of the machine Cassandra runs on.  Concurrent reads and
+    // writes are always derived, overriding the configured values.
+    @JsonProperty
+    private boolean autoTuneEnabled;
+
     // Amazon Resource Name (ARN) for SimpleDB Role Assumption.
     // If this is set STSAssumeRoleSessionCredentialsProvider is used instead of the default DefaultAWSCredentialsProviderChain for the simpleDB access.
     @JsonProperty
@@ -211,6 +258,10 @@ public class CassandraConfiguration {
         return tokenLength;
     }
 
+    public int getNumTokens() {
+        return numTokens;
+    }
+
     public String getMinimumToken() {
         return Objects.firstNonNull(minimumToken, Strings.repeat("00", tokenLength));
     }
@@ -284,7 +335,7 @@ public class CassandraConfiguration {
         return jmxPort;
     }
 
-    public int getCompactionThroughputMBPerSec() {
+    public Integer getCompactionThroughputMBPerSec() {
         return compactionThroughputMBPerSec;
     }
 
@@ -376,11 +427,11 @@ public class CassandraConfiguration {
         return interDcTcpNodelay;
     }
 
-    public int getConcurrentReads() {
+    public Integer getConcurrentReads() {
         return concurrentReads;
     }
 
-    public int getConcurrentWrites() {
+    public Integer getConcurrentWrites() {
         return concurrentWrites;
     }
 
@@ -424,6 +475,10 @@ public class CassandraConfiguration {
         return extraConfigParams;
     }
 
+    public boolean isAutoTuneEnabled() {
+        return autoTuneEnabled;
+    }
+
     public void setPartitioner(String partitioner) {
         this.partitioner = partitioner;
     }
@@ -432,6 +487,10 @@ public class CassandraConfiguration {
         this.autoBootstrap = autoBootstrap;
     }
 
+    public void setNumTokens(int numTokens) {
+        this.numTokens = numTokens;
+    }
+
     public void setTokenLength(int tokenLength) {
         this.tokenLength = tokenLength;
     }
@@ -504,7 +563,7 @@ public class CassandraConfiguration {
         this.jmxPort = jmxPort;
     }
 
-    public void setCompactionThroughputMBPerSec(int compactionThroughputMBPerSec) {
+    public void setCompactionThroughputMBPerSec(Integer compactionThroughputMBPerSec) {
         this.compactionThroughputMBPerSec = compactionThroughputMBPerSec;
     }
 
@@ -596,11 +655,11 @@ public class CassandraConfiguration {
         this.interDcTcpNodelay = interDcTcpNodelay;
     }
 
-    public void setConcurrentReads(int concurrentReads) {
+    public void setConcurrentReads(Integer concurrentReads) {
         this.concurrentReads = concurrentReads;
     }
 
-    public void setConcurrentWrites(int concurrentWrites) {
+    public void setConcurrentWrites(Integer concurrentWrites) {
         this.concurrentWrites = concurrentWrites;
     }
 
@@ -632,6 +691,10 @@ public class CassandraConfiguration {
         this.extraConfigParams = extraConfigParams;
     }
 
+    public void setAutoTuneEnabled(boolean autoTuneEnabled) {
+        this.autoTuneEnabled = autoTuneEnabled;
+    }
+
     public long getReadRequestTimeoutInMs() {
         return readRequestTimeoutInMs;
     }
@@ -683,4 +746,100 @@ public class CassandraConfiguration {
     public void setDiskOptimizationStrategy(String diskOptimizationStrategy) {
         this.diskOptimizationStrategy = diskOptimizationStrategy;
     }
+
+    public boolean isThroughputControllerEnabled() {
+        return throughputControllerEnabled;
+    }
+
+    public int getThroughputControllerIntervalSeconds() {
+        return throughputControllerIntervalSeconds;
+    }
+
+    public double getThroughputControllerReadP99ThresholdMs() {
+        return throughputControllerReadP99ThresholdMs;
+    }
+
+    public double getThroughputControllerWriteP99ThresholdMs() {
+        return throughputControllerWriteP99ThresholdMs;
+    }
+
+    public double getThroughputControllerDiskUtilizationThreshold() {
+        return throughputControllerDiskUtilizationThreshold;
+    }
+
+    public int getThroughputControllerPendingCompactionsThreshold() {
+        return throughputControllerPendingCompactionsThreshold;
+    }
+
+    public int getMinCompactionThroughputMBPerSec() {
+        return minCompactionThroughputMBPerSec;
+    }
+
+    public int getMaxCompactionThroughputMBPerSec() {
+        return maxCompactionThroughputMBPerSec;
+    }
+
+    public int getMinStreamingThroughputMbps() {
+        return minStreamingThroughputMbps;
+    }
+
+    public int getMaxStreamingThroughputMbps() {
+        return maxStreamingThroughputMbps;
+    }
+
+    public int getMaintenanceParallelism() {
+        return maintenanceParallelism;
+    }
+
+    public TableOrder getMaintenanceTableOrder() {
+        return maintenanceTableOrder;
+    }
+
+    public void setThroughputControllerEnabled(boolean throughputControllerEnabled) {
+        this.throughputControllerEnabled = throughputControllerEnabled;
+    }
+
+    public void setThroughputControllerIntervalSeconds(int throughputControllerIntervalSeconds) {
+        this.throughputControllerIntervalSeconds = throughputControllerIntervalSeconds;
+    }
+
+    public void setThroughputControllerReadP99ThresholdMs(double throughputControllerReadP99ThresholdMs) {
+        this.throughputControllerReadP99ThresholdMs = throughputControllerReadP99ThresholdMs;
+    }
+
+    public void setThroughputControllerWriteP99ThresholdMs(double throughputControllerWriteP99ThresholdMs) {
+        this.throughputControllerWriteP99ThresholdMs = throughputControllerWriteP99ThresholdMs;
+    }
+
+    public void setThroughputControllerDiskUtilizationThreshold(double throughputControllerDiskUtilizationThreshold) {
+        this.throughputControllerDiskUtilizationThreshold = throughputControllerDiskUtilizationThreshold;
+    }
+
+    public void setThroughputControllerPendingCompactionsThreshold(int throughputControllerPendingCompactionsThreshold) {
+        this.throughputControllerPendingCompactionsThreshold = throughputControllerPendingCompactionsThreshold;
+    }
+
+    public void setMinCompactionThroughputMBPerSec(int minCompactionThroughputMBPerSec) {
+        this.minCompactionThroughputMBPerSec = minCompactionThroughputMBPerSec;
+    }
+
+    public void setMaxCompactionThroughputMBPerSec(int maxCompactionThroughputMBPerSec) {
+        this.maxCompactionThroughputMBPerSec = maxCompactionThroughputMBPerSec;
+    }
+
+    public void setMinStreamingThroughputMbps(int minStreamingThroughputMbps) {
+        this.minStreamingThroughputMbps = minStreamingThroughputMbps;
+    }
+
+    public void setMaxStreamingThroughputMbps(int maxStreamingThroughputMbps) {
+        this.maxStreamingThroughputMbps = maxStreamingThroughputMbps;
+    }
+
+    public void setMaintenanceParallelism(int maintenanceParallelism) {
+        this.maintenanceParallelism = maintenanceParallelism;
+    }
+
+    public void setMaintenanceTableOrder(TableOrder maintenanceTableOrder) {
+        this.maintenanceTableOrder = maintenanceTableOrder;
+    }
 }
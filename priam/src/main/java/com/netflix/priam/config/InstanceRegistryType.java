@@ -0,0 +1,15 @@
+package com.netflix.priam.config;
+
+/**
+ * Where the registry of the nodes of each cluster, their slots and tokens, is kept.
+ */
+public enum InstanceRegistryType {
+    /** A SimpleDB domain, see {@link PriamConfiguration#getAmazonConfiguration()}. */
+    SIMPLEDB,
+
+    /** ZooKeeper, which must be enabled, see {@link PriamConfiguration#getZooKeeperConfiguration()}. */
+    ZOOKEEPER,
+
+    /** A file on the local host, for rings that run on a single host, see {@link PriamConfiguration#getInstanceRegistryFile()}. */
+    FILE,
+}
@@ -0,0 +1,11 @@
+package com.netflix.priam.config;
+
+/**
+ * Where scheduled tasks that block for a long time, like node repair, run.
+ */
+public enum LongRunningTaskExecution {
+    /** On the scheduler's threads, like every other task. */
+    SCHEDULER,
+    /** On a dedicated pool that grows as needed, so they can't starve short periodic tasks of scheduler threads. */
+    DEDICATED
+}
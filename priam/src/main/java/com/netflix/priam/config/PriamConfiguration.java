@@ -41,6 +41,11 @@ public class PriamConfiguration extends Configuration {
     @Valid
     private MonitoringConfiguration monitoring = new MonitoringConfiguration();
 
+    @JsonProperty
+    @NotNull
+    @Valid
+    private SchedulerConfiguration scheduler = new SchedulerConfiguration();
+
     @JsonProperty
     private List<String> ostrichServiceNames = Collections.emptyList();
 
@@ -50,6 +55,14 @@ public class PriamConfiguration extends Configuration {
     @JsonProperty
     private boolean isLocalInstance = false;
 
+    @JsonProperty
+    @NotNull
+    private InstanceRegistryType instanceRegistry = InstanceRegistryType.SIMPLEDB;
+
+    @JsonProperty
+    @NotNull
+    private String instanceRegistryFile = "/var/lib/priam/instances.log";
+
     public CassandraConfiguration getCassandraConfiguration() {
         return cassandra;
     }
@@ -74,6 +87,10 @@ public class PriamConfiguration extends Configuration {
         return monitoring;
     }
 
+    public SchedulerConfiguration getSchedulerConfiguration() {
+        return scheduler;
+    }
+
     public int getJvmMutexPort() {
         return jvmMutexPort;
     }
@@ -85,4 +102,15 @@ public class PriamConfiguration extends Configuration {
     public boolean getIsLocalInstance() {
         return isLocalInstance;
     }
+
+    public InstanceRegistryType getInstanceRegistryType() {
+        return instanceRegistry;
+    }
+
+    /**
+     * The registry log of {@link InstanceRegistryType#FILE}, shared by every Priam process of the host.
+     */
+    public String getInstanceRegistryFile() {
+        return instanceRegistryFile;
+    }
 }
@@ -0,0 +1,125 @@
+package com.netflix.priam.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.util.Duration;
+
+import javax.annotation.Nullable;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.Collections;
+import java.util.Map;
+
+public class SchedulerConfiguration {
+
+    @JsonProperty
+    @Min(1)
+    private int threadCount = 10;
+
+    @JsonProperty
+    @NotNull
+    private Duration misfireThreshold = Duration.minutes(1);
+
+    @JsonProperty
+    @NotNull
+    private LongRunningTaskExecution longRunningTasks = LongRunningTaskExecution.DEDICATED;
+
+    @JsonProperty
+    @Min(1)
+    private int maxLongRunningThreads = 8;
+
+    @JsonProperty
+    @NotNull
+    private TaskConcurrency concurrency = TaskConcurrency.SKIP;
+
+    @JsonProperty
+    @NotNull
+    private Map<String, TaskConcurrency> taskConcurrency = Collections.emptyMap();
+
+    @JsonProperty
+    @NotNull
+    private Map<String, Duration> taskTimeouts = Collections.emptyMap();
+
+    @JsonProperty
+    @NotNull
+    private Map<String, Duration> taskStartJitter = Collections.emptyMap();
+
+    /**
+     * @return Number of threads of the Quartz scheduler
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * @return How late a trigger may fire before Quartz counts it as misfired
+     */
+    public Duration getMisfireThreshold() {
+        return misfireThreshold;
+    }
+
+    public LongRunningTaskExecution getLongRunningTasks() {
+        return longRunningTasks;
+    }
+
+    /**
+     * @return Limit of the dedicated pool of long running tasks, beyond which their firings are dropped as misfires
+     */
+    public int getMaxLongRunningThreads() {
+        return maxLongRunningThreads;
+    }
+
+    /**
+     * @return What a task does when it fires while it's still running, unless set for the task
+     */
+    public TaskConcurrency getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * @return What the task does when it fires while it's still running
+     */
+    public TaskConcurrency getConcurrency(String taskName) {
+        TaskConcurrency policy = taskConcurrency.get(taskName);
+        return policy != null ? policy : concurrency;
+    }
+
+    /**
+     * @return How long an execution of the task may run before it is cancelled, null for no limit
+     */
+    @Nullable
+    public Duration getTimeout(String taskName) {
+        return taskTimeouts.get(taskName);
+    }
+
+    /**
+     * @return The longest the task waits at random before it starts, null for none
+     */
+    @Nullable
+    public Duration getStartJitter(String taskName) {
+        return taskStartJitter.get(taskName);
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public void setLongRunningTasks(LongRunningTaskExecution longRunningTasks) {
+        this.longRunningTasks = longRunningTasks;
+    }
+
+    public void setConcurrency(TaskConcurrency concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public void setTaskConcurrency(Map<String, TaskConcurrency> taskConcurrency) {
+        this.taskConcurrency = taskConcurrency;
+    }
+
+    public void setTaskTimeouts(Map<String, Duration> taskTimeouts) {
+        this.taskTimeouts = taskTimeouts;
+    }
+
+    public void setTaskStartJitter(Map<String, Duration> taskStartJitter) {
+        this.taskStartJitter = taskStartJitter;
+    }
+}
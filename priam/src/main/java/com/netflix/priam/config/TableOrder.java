@@ -0,0 +1,11 @@
+package com.netflix.priam.config;
+
+/**
+ * The order tables are compacted, cleaned up or flushed in.
+ */
+public enum TableOrder {
+    /** The tables using the most disk go first, so the longest operations start early. */
+    LARGEST_FIRST,
+    /** The tables using the least disk go first, for quick wins. */
+    SMALLEST_FIRST
+}
@@ -0,0 +1,13 @@
+package com.netflix.priam.config;
+
+/**
+ * What a scheduled task does when it fires while a previous execution is still running.
+ */
+public enum TaskConcurrency {
+    /** The firing is dropped and counted as a misfire. */
+    SKIP,
+    /** The firing waits for the running execution to finish, as with Quartz's {@code @DisallowConcurrentExecution}. */
+    QUEUE,
+    /** The executions run at the same time. */
+    ALLOW
+}
@@ -1,10 +1,12 @@
 package com.netflix.priam.defaultimpl;
 
+import com.google.common.base.Objects;
 import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.netflix.priam.ICassandraProcess;
 import com.netflix.priam.config.AmazonConfiguration;
 import com.netflix.priam.config.CassandraConfiguration;
+import com.netflix.priam.utils.HardwareProfile;
 import com.netflix.priam.utils.Sleeper;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -47,8 +49,23 @@ public class CassandraProcessManager implements ICassandraProcess {
 
         ProcessBuilder startCass = new ProcessBuilder(command);
         Map<String, String> env = startCass.environment();
-        env.put("HEAP_NEWSIZE", cassandraConfig.getMaxNewGenHeapSize().get(amazonConfig.getInstanceType()));
-        env.put("MAX_HEAP_SIZE", cassandraConfig.getMaxHeapSize().get(amazonConfig.getInstanceType()));
+        String maxHeapSize = getHeapSetting(cassandraConfig.getMaxHeapSize());
+        String maxNewGenHeapSize = getHeapSetting(cassandraConfig.getMaxNewGenHeapSize());
+        if (cassandraConfig.isAutoTuneEnabled() && (maxHeapSize == null || maxNewGenHeapSize == null)) {
+            try {
+                HardwareProfile hardware = HardwareProfile.local();
+                maxHeapSize = Objects.firstNonNull(maxHeapSize, hardware.getMaxHeapSizeMB() + "M");
+                maxNewGenHeapSize = Objects.firstNonNull(maxNewGenHeapSize, hardware.getNewGenHeapSizeMB() + "M");
+                logger.info("Auto-tuned heap for {}: MAX_HEAP_SIZE={} HEAP_NEWSIZE={}", hardware, maxHeapSize, maxNewGenHeapSize);
+            } catch (IllegalStateException e) {
+                logger.warn("Auto-tuning is enabled but the hardware could not be inspected, leaving heap sizes to cassandra-env.sh", e);
+            }
+        }
+        // cassandra-env.sh requires either both or neither of these to be set
+        if (maxHeapSize != null && maxNewGenHeapSize != null) {
+            env.put("HEAP_NEWSIZE", maxNewGenHeapSize);
+            env.put("MAX_HEAP_SIZE", maxHeapSize);
+        }
         env.put("CASSANDRA_HEAPDUMP_DIR", cassandraConfig.getHeapDumpLocation());
         env.put("JMX_PORT", Integer.toString(cassandraConfig.getJmxPort()));
         env.put("cassandra.join_ring", Boolean.toString(joinRing));
@@ -71,6 +88,10 @@ public class CassandraProcessManager implements ICassandraProcess {
         }
     }
 
+    private String getHeapSetting(Map<String, String> byInstanceType) {
+        return byInstanceType != null ? byInstanceType.get(amazonConfig.getInstanceType()) : null;
+    }
+
     protected List<String> getStartCommand() {
         List<String> startCmd = new LinkedList<>();
         for (String param : cassandraConfig.getCassStartScript().split(" ")) {
@@ -39,17 +39,20 @@ import com.netflix.priam.config.BackupConfiguration;
 import com.netflix.priam.config.CassandraConfiguration;
 import com.netflix.priam.config.MonitoringConfiguration;
 import com.netflix.priam.config.PriamConfiguration;
+import com.netflix.priam.config.SchedulerConfiguration;
 import com.netflix.priam.config.ZooKeeperConfiguration;
 import com.netflix.priam.dropwizard.managers.ServiceRegistryManager;
 import com.netflix.priam.identity.ConfigFileLocation;
 import com.netflix.priam.identity.IMembership;
 import com.netflix.priam.identity.IPriamInstanceRegistry;
 import com.netflix.priam.identity.Location;
+import com.netflix.priam.local.FileInstanceRegistry;
 import com.netflix.priam.local.LocalMembership;
 import com.netflix.priam.utils.Sleeper;
 import com.netflix.priam.utils.ThreadSleeper;
 import com.netflix.priam.utils.TokenManager;
 import com.netflix.priam.utils.TokenManagerProvider;
+import com.netflix.priam.zookeeper.ZkInstanceRegistry;
 import com.sun.jersey.api.client.Client;
 import io.dropwizard.client.JerseyClientBuilder;
 import io.dropwizard.jetty.ConnectorFactory;
@@ -83,8 +86,19 @@ public class PriamGuiceModule extends AbstractModule {
         bind(BackupConfiguration.class).toInstance(priamConfiguration.getBackupConfiguration());
         bind(ZooKeeperConfiguration.class).toInstance(priamConfiguration.getZooKeeperConfiguration());
         bind(MonitoringConfiguration.class).toInstance(priamConfiguration.getMonitoringConfiguration());
-
-        bind(IPriamInstanceRegistry.class).to(SDBInstanceRegistry.class).asEagerSingleton();
+        bind(SchedulerConfiguration.class).toInstance(priamConfiguration.getSchedulerConfiguration());
+
+        switch (priamConfiguration.getInstanceRegistryType()) {
+            case ZOOKEEPER:
+                bind(IPriamInstanceRegistry.class).to(ZkInstanceRegistry.class).asEagerSingleton();
+                break;
+            case FILE:
+                bind(IPriamInstanceRegistry.class).to(FileInstanceRegistry.class).asEagerSingleton();
+                break;
+            default:
+                bind(IPriamInstanceRegistry.class).to(SDBInstanceRegistry.class).asEagerSingleton();
+                break;
+        }
         if (priamConfiguration.getIsLocalInstance()) {
             bind(IMembership.class).to(LocalMembership.class).asEagerSingleton();
         } else {
@@ -1,6 +1,7 @@
 package com.netflix.priam.defaultimpl;
 
 import com.datastax.driver.core.VersionNumber;
+import com.google.common.base.Objects;
 import com.google.common.base.Optional;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
@@ -8,6 +9,7 @@ import com.google.inject.Inject;
 import com.netflix.priam.config.BackupConfiguration;
 import com.netflix.priam.config.CassandraConfiguration;
 import com.netflix.priam.utils.CassandraTuner;
+import com.netflix.priam.utils.HardwareProfile;
 import com.netflix.priam.utils.TokenManager;
 import org.apache.cassandra.locator.SnitchProperties;
 import org.slf4j.Logger;
@@ -18,11 +20,11 @@ import org.yaml.snakeyaml.Yaml;
 import javax.annotation.Nullable;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.util.List;
@@ -49,6 +51,7 @@ public class StandardTuner implements CassandraTuner {
         Yaml yaml = new Yaml(options);
         File yamlFile = new File(yamlLocation);
         Map<String, Object> map = load(yaml, yamlFile);
+        HardwareProfile hardware = getHardwareProfile();
 
         put(map, "cluster_name", cassandraConfiguration.getClusterName());
         put(map, "storage_port", cassandraConfiguration.getStoragePort());
@@ -67,11 +70,13 @@ public class StandardTuner implements CassandraTuner {
         put(map, "tombstone_warn_threshold", cassandraConfiguration.getTombstonesWarningThreshold());
         put(map, "tombstone_failure_threshold", cassandraConfiguration.getTombstonesFailureThreshold());
         put(map, "endpoint_snitch", cassandraConfiguration.getEndpointSnitch());
-        put(map, "compaction_throughput_mb_per_sec", cassandraConfiguration.getCompactionThroughputMBPerSec());
+        put(map, "compaction_throughput_mb_per_sec", Objects.firstNonNull(
+                tuned(cassandraConfiguration.getCompactionThroughputMBPerSec(), hardware != null ? hardware.getCompactionThroughputMBPerSec() : null),
+                0));
         put(map, "partitioner", derivePartitioner(map.get("partitioner").toString(), cassandraConfiguration.getPartitioner()));
 
         put(map, "memtable_total_space_in_mb", cassandraConfiguration.getMemtableTotalSpaceMB());
-        put(map, "memtable_flush_writers", cassandraConfiguration.getMemtableFlushWriters());
+        put(map, "memtable_flush_writers", tuned(cassandraConfiguration.getMemtableFlushWriters(), hardware != null ? hardware.getMemtableFlushWriters() : null));
         put(map, "stream_throughput_outbound_megabits_per_sec", cassandraConfiguration.getStreamingThroughputMbps());
 
         put(map, "max_hint_window_in_ms", cassandraConfiguration.getMaxHintWindowMS());
@@ -81,9 +86,10 @@ public class StandardTuner implements CassandraTuner {
         put(map, "internode_compression", cassandraConfiguration.getInternodeCompression());
         put(map, "inter_dc_tcp_nodelay", cassandraConfiguration.isInterDcTcpNodelay());
 
-        put(map, "concurrent_reads", cassandraConfiguration.getConcurrentReads());
-        put(map, "concurrent_writes", cassandraConfiguration.getConcurrentWrites());
-        put(map, "concurrent_compactors", cassandraConfiguration.getConcurrentCompactors());
+        // The shipped configs set read and write concurrency, so the hardware profile wins over them when auto-tuning
+        put(map, "concurrent_reads", hardware != null ? hardware.getConcurrentReads() : cassandraConfiguration.getConcurrentReads());
+        put(map, "concurrent_writes", hardware != null ? hardware.getConcurrentWrites() : cassandraConfiguration.getConcurrentWrites());
+        put(map, "concurrent_compactors", tuned(cassandraConfiguration.getConcurrentCompactors(), hardware != null ? hardware.getConcurrentCompactors() : null));
         put(map, "disk_optimization_strategy", cassandraConfiguration.getDiskOptimizationStrategy());
 
         put(map, "rpc_server_type", cassandraConfiguration.getRpcServerType());
@@ -102,19 +108,46 @@ public class StandardTuner implements CassandraTuner {
         configureGlobalCaches(cassandraConfiguration, map);
         configureBatchSizes(cassandraConfiguration, map, cassandraVersion);
 
-        //force to 1 until vnodes are properly supported
-        put(map, "num_tokens", 1);
+        // The tokens themselves are handed to Cassandra as a comma separated initial_token by the startup agent
+        put(map, "num_tokens", cassandraConfiguration.getNumTokens());
 
         addExtraCassParams(map);
 
-        logger.info(yaml.dump(map));
-        yaml.dump(map, new FileWriter(yamlFile));
+        if (logger.isInfoEnabled()) {
+            logger.info(yaml.dump(map));
+        }
+        dump(yaml, map, yamlFile);
 
         configureCommitLogBackups();
 
         writeCassandraSnitchProperties();
     }
 
+    /**
+     * Returns the local hardware profile if auto-tuning is enabled, {@code null} otherwise.  Failing to inspect the
+     * hardware is not fatal, the explicitly configured values (or the yaml defaults) are used instead.
+     */
+    @Nullable
+    private HardwareProfile getHardwareProfile() {
+        if (!cassandraConfiguration.isAutoTuneEnabled()) {
+            return null;
+        }
+        try {
+            return HardwareProfile.local();
+        } catch (IllegalStateException e) {
+            logger.warn("Auto-tuning is enabled but the hardware could not be inspected, using configured values only", e);
+            return null;
+        }
+    }
+
+    /**
+     * Explicitly configured values always win over values derived from the hardware.
+     */
+    @Nullable
+    private Integer tuned(@Nullable Integer configured, @Nullable Integer derived) {
+        return configured != null ? configured : derived;
+    }
+
     /**
      * Setup the cassandra 1.1 global cache values
      */
@@ -208,8 +241,10 @@ public class StandardTuner implements CassandraTuner {
 
         put(map, "auto_bootstrap", autobootstrap); //Don't bootstrap in restore mode
 
-        logger.info("Updating yaml {}", yaml.dump(map));
-        yaml.dump(map, new FileWriter(yamlFile));
+        if (logger.isInfoEnabled()) {
+            logger.info("Updating yaml {}", yaml.dump(map));
+        }
+        dump(yaml, map, new File(yamlFile));
     }
 
     private void addExtraCassParams(Map<String, Object> map) {
@@ -269,8 +304,16 @@ public class StandardTuner implements CassandraTuner {
     }
 
     @SuppressWarnings("unchecked")
-    private Map<String, Object> load(Yaml yaml, File yamlFile) throws FileNotFoundException {
-        return (Map<String, Object>) yaml.load(new FileInputStream(yamlFile));
+    private Map<String, Object> load(Yaml yaml, File yamlFile) throws IOException {
+        try (InputStream in = new FileInputStream(yamlFile)) {
+            return (Map<String, Object>) yaml.load(in);
+        }
+    }
+
+    private void dump(Yaml yaml, Map<String, Object> map, File yamlFile) throws IOException {
+        try (Writer writer = new FileWriter(yamlFile)) {
+            yaml.dump(map, writer);
+        }
     }
 
     @SuppressWarnings("unchecked")
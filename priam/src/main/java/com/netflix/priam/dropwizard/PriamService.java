@@ -4,17 +4,22 @@ import com.amazonaws.auth.AWSCredentialsProvider;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.netflix.priam.PriamServer;
+import com.netflix.priam.aws.AmazonClients;
 import com.netflix.priam.config.PriamConfiguration;
 import com.netflix.priam.defaultimpl.PriamGuiceModule;
 import com.netflix.priam.dropwizard.managers.ManagedCloseable;
 import com.netflix.priam.dropwizard.managers.ServiceMonitorManager;
 import com.netflix.priam.dropwizard.managers.ServiceRegistryManager;
+import com.netflix.priam.identity.IPriamInstanceRegistry;
 import com.netflix.priam.resources.CassandraAdminResource;
 import com.netflix.priam.resources.CassandraConfigResource;
 import com.netflix.priam.resources.MonitoringEnablementResource;
 import com.netflix.priam.resources.PriamInstanceResource;
+import com.netflix.priam.resources.SchedulerResource;
 import com.netflix.priam.tools.CopyInstanceData;
 import com.netflix.priam.tools.DeleteInstanceData;
+import com.netflix.priam.tools.ExportInstanceData;
+import com.netflix.priam.tools.ImportInstanceData;
 import com.netflix.priam.tools.ListClusters;
 import com.netflix.priam.tools.ListInstanceData;
 import io.dropwizard.Application;
@@ -23,6 +28,8 @@ import io.dropwizard.setup.Environment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+
 public class PriamService extends Application<PriamConfiguration> {
     protected static final Logger logger = LoggerFactory.getLogger(PriamService.class);
 
@@ -36,6 +43,8 @@ public class PriamService extends Application<PriamConfiguration> {
         bootstrap.addCommand(new ListInstanceData());
         bootstrap.addCommand(new CopyInstanceData());
         bootstrap.addCommand(new DeleteInstanceData());
+        bootstrap.addCommand(new ExportInstanceData());
+        bootstrap.addCommand(new ImportInstanceData());
     }
 
     @Override
@@ -52,11 +61,17 @@ public class PriamService extends Application<PriamConfiguration> {
             environment.lifecycle().manage(injector.getInstance(PriamServer.class));
             environment.lifecycle().manage(injector.getInstance(ServiceRegistryManager.class));
             environment.lifecycle().manage(injector.getInstance(ServiceMonitorManager.class));
+            IPriamInstanceRegistry instanceRegistry = injector.getInstance(IPriamInstanceRegistry.class);
+            if (instanceRegistry instanceof Closeable) {
+                environment.lifecycle().manage(new ManagedCloseable((Closeable) instanceRegistry));
+            }
+            environment.lifecycle().manage(new ManagedCloseable(injector.getInstance(AmazonClients.class)));
 
             environment.jersey().register(injector.getInstance(CassandraAdminResource.class));
             environment.jersey().register(injector.getInstance(CassandraConfigResource.class));
             environment.jersey().register(injector.getInstance(PriamInstanceResource.class));
             environment.jersey().register(injector.getInstance(MonitoringEnablementResource.class));
+            environment.jersey().register(injector.getInstance(SchedulerResource.class));
         } catch (Exception e) {
             logger.error(e.getMessage(), e);
             throw new RuntimeException(e.getMessage(), e);
@@ -0,0 +1,134 @@
+package com.netflix.priam.gossip;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.Maps;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * What the node knows about an endpoint through gossip, as listed by {@code nodetool gossipinfo}.
+ * <p/>
+ * Application states are kept as gossiped, by the name of the state; the common ones also have typed getters.
+ */
+public class GossipEndpointState {
+    @JsonProperty
+    private final String endpoint;
+
+    @JsonProperty
+    private final String hostname;
+
+    @JsonProperty
+    private Long generation;
+
+    @JsonProperty
+    private Long heartbeat;
+
+    @JsonProperty
+    private final Map<String, GossipValue> states = Maps.newLinkedHashMap();
+
+    public GossipEndpointState(String endpoint, String hostname) {
+        this.endpoint = endpoint;
+        this.hostname = hostname;
+    }
+
+    /**
+     * The address of the endpoint, IPv4 or IPv6.
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * The host name of the endpoint, null if the address wasn't resolved.
+     */
+    public String getHostname() {
+        return hostname;
+    }
+
+    /**
+     * When the endpoint was last started, in seconds since the epoch.
+     */
+    public Long getGeneration() {
+        return generation;
+    }
+
+    public Long getHeartbeat() {
+        return heartbeat;
+    }
+
+    public Map<String, GossipValue> getStates() {
+        return Collections.unmodifiableMap(states);
+    }
+
+    public String getState(String name) {
+        GossipValue value = states.get(name);
+        return value != null ? value.getValue() : null;
+    }
+
+    /**
+     * The status of the endpoint without its tokens, e.g. NORMAL, LEAVING or shutdown.
+     */
+    @JsonProperty
+    public String getStatus() {
+        String status = getState("STATUS");
+        if (status == null) {
+            return null;
+        }
+        int comma = status.indexOf(',');
+        return comma != -1 ? status.substring(0, comma) : status;
+    }
+
+    @JsonProperty
+    public String getDataCenter() {
+        return getState("DC");
+    }
+
+    @JsonProperty
+    public String getRack() {
+        return getState("RACK");
+    }
+
+    /**
+     * The bytes of data on disk gossiped by the endpoint, null if not gossiped yet.
+     */
+    @JsonProperty
+    public Double getLoad() {
+        String load = getState("LOAD");
+        if (load == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(load);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @JsonProperty
+    public String getHostId() {
+        return getState("HOST_ID");
+    }
+
+    @JsonProperty
+    public String getSchemaVersion() {
+        return getState("SCHEMA");
+    }
+
+    @JsonProperty
+    public String getReleaseVersion() {
+        return getState("RELEASE_VERSION");
+    }
+
+    void setGeneration(Long generation) {
+        this.generation = generation;
+    }
+
+    void setHeartbeat(Long heartbeat) {
+        this.heartbeat = heartbeat;
+    }
+
+    void putState(String name, GossipValue value) {
+        states.put(name, value);
+    }
+}
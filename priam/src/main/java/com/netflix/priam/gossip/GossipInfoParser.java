@@ -0,0 +1,102 @@
+package com.netflix.priam.gossip;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Reads the gossip state returned by {@code FailureDetectorMBean.getAllEndpointStates()} one endpoint at a time.
+ * The text looks like:
+ * <pre>
+ * host1.example.com/10.0.0.1
+ *   generation:1418684400
+ *   heartbeat:152398
+ *   STATUS:14:NORMAL,-9223372036854775808
+ *   RPC_ADDRESS:6:2001:db8::1
+ *   TOKENS:13:&lt;hidden&gt;
+ * /2001:db8::2
+ *   ...
+ * </pre>
+ * An endpoint starts on an unindented line with the host name, if resolved, and the address separated by the last
+ * "/".  Each indented line is a state, split on its first colon, and then on the next colon for the version of the
+ * value if it has one, so addresses and values that contain colons are kept whole.
+ */
+public class GossipInfoParser extends AbstractIterator<GossipEndpointState> {
+    private final BufferedReader reader;
+    private String line;
+
+    public GossipInfoParser(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    public static GossipInfoParser parse(String gossipInfo) {
+        return new GossipInfoParser(new StringReader(Strings.nullToEmpty(gossipInfo)));
+    }
+
+    @Override
+    protected GossipEndpointState computeNext() {
+        try {
+            // Skip to the next endpoint, the line may have been read with the previous endpoint
+            while (line == null || !isEndpoint(line)) {
+                line = reader.readLine();
+                if (line == null) {
+                    return endOfData();
+                }
+            }
+            GossipEndpointState endpoint = endpoint(line);
+            while ((line = reader.readLine()) != null && !isEndpoint(line)) {
+                state(endpoint, line.trim());
+            }
+            return endpoint;
+        } catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    private static boolean isEndpoint(String line) {
+        return !line.isEmpty() && !CharMatcher.WHITESPACE.matches(line.charAt(0));
+    }
+
+    private static GossipEndpointState endpoint(String line) {
+        String trimmed = line.trim();
+        int slash = trimmed.lastIndexOf('/');
+        String hostname = slash > 0 ? trimmed.substring(0, slash) : null;
+        return new GossipEndpointState(trimmed.substring(slash + 1), hostname);
+    }
+
+    private static void state(GossipEndpointState endpoint, String line) {
+        int colon = line.indexOf(':');
+        if (colon == -1) {
+            return;
+        }
+        String name = line.substring(0, colon).trim();
+        String value = line.substring(colon + 1).trim();
+        if ("generation".equals(name)) {
+            endpoint.setGeneration(parseLong(value));
+        } else if ("heartbeat".equals(name)) {
+            endpoint.setHeartbeat(parseLong(value));
+        } else if (!name.isEmpty()) {
+            Integer version = null;
+            int versionEnd = value.indexOf(':');
+            if (versionEnd > 0 && CharMatcher.DIGIT.matchesAllOf(value.substring(0, versionEnd))) {
+                version = Integer.valueOf(value.substring(0, versionEnd));
+                value = value.substring(versionEnd + 1);
+            }
+            endpoint.putState(name, new GossipValue(value, version));
+        }
+    }
+
+    private static Long parseLong(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
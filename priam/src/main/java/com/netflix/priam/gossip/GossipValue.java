@@ -0,0 +1,53 @@
+package com.netflix.priam.gossip;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Objects;
+
+/**
+ * The value of an application state in gossip, with the version it was gossiped at when Cassandra reports it.
+ */
+public class GossipValue {
+    @JsonProperty
+    private final String value;
+
+    @JsonProperty
+    private final Integer version;
+
+    public GossipValue(String value, Integer version) {
+        this.value = value;
+        this.version = version;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * The version of the value, null if Cassandra doesn't report versions.
+     */
+    public Integer getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GossipValue)) {
+            return false;
+        }
+        GossipValue that = (GossipValue) o;
+        return Objects.equal(value, that.value) && Objects.equal(version, that.version);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(value, version);
+    }
+
+    @Override
+    public String toString() {
+        return version == null ? value : version + ":" + value;
+    }
+}
@@ -1,5 +1,7 @@
 package com.netflix.priam.identity;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -16,6 +18,42 @@ public interface IPriamInstanceRegistry {
      */
     List<PriamInstance> getAllIds(String appName);
 
+    /**
+     * Return the Cassandra server nodes registered in a location.  Registries that can query by location override
+     * this; the default filters {@link #getAllIds(String)}.
+     *
+     * @param appName  the cluster name
+     * @param location the location of the nodes
+     * @return the nodes of {@code appName} in {@code location}
+     */
+    default List<PriamInstance> getAllIds(String appName, Location location) {
+        List<PriamInstance> local = new ArrayList<>();
+        for (PriamInstance instance : getAllIds(appName)) {
+            if (location.equals(instance.getLocation())) {
+                local.add(instance);
+            }
+        }
+        return local;
+    }
+
+    /**
+     * Return the Cassandra server nodes registered in an availability zone of a location.
+     *
+     * @param appName          the cluster name
+     * @param location         the location of the nodes
+     * @param availabilityZone the availability zone of the nodes
+     * @return the nodes of {@code appName} in {@code availabilityZone} of {@code location}
+     */
+    default List<PriamInstance> getAllIds(String appName, Location location, String availabilityZone) {
+        List<PriamInstance> local = new ArrayList<>();
+        for (PriamInstance instance : getAllIds(appName, location)) {
+            if (availabilityZone.equals(instance.getAvailabilityZone())) {
+                local.add(instance);
+            }
+        }
+        return local;
+    }
+
     /**
      * Return the Cassandra server node with the given {@code id}.
      *
@@ -54,4 +92,27 @@ public interface IPriamInstanceRegistry {
      */
     void update(PriamInstance inst);
 
-}
\ No newline at end of file
+    /**
+     * Delete many server nodes from the registry.  Registries that support it do so in batches; the default deletes
+     * one node at a time.
+     *
+     * @param instances the nodes to delete
+     */
+    default void deleteAll(Collection<PriamInstance> instances) {
+        for (PriamInstance instance : instances) {
+            delete(instance);
+        }
+    }
+
+    /**
+     * Update the details of many server nodes in the registry, unconditionally.  Registries that support it do so in
+     * batches; the default updates one node at a time.
+     *
+     * @param instances the nodes to update
+     */
+    default void updateAll(Collection<PriamInstance> instances) {
+        for (PriamInstance instance : instances) {
+            update(instance);
+        }
+    }
+}
@@ -16,9 +16,15 @@
 package com.netflix.priam.identity;
 
 import com.google.common.base.Objects;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.netflix.priam.config.AmazonConfiguration;
@@ -35,17 +41,24 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static com.google.common.base.Preconditions.checkState;
 
 /**
  * This class provides the central place to create and consume the identity of
  * the instance - token, seeds etc.
+ * <p/>
+ * The identity is looked up in the background from the time this is created.  The registry, auto-scale group and EBS
+ * volume lookups it depends on run at the same time, and nodes only back off when they lose a slot to another node.
  */
 @Singleton
 public class InstanceIdentity {
     private static final Logger logger = LoggerFactory.getLogger(InstanceIdentity.class);
+    private static final int MAX_CONTENTION_BACKOFF_MS = 5000;
     private final ListMultimap<LocationAZPair, PriamInstance> instancesByLocationAndAZMultiMap = ArrayListMultimap.create();
     private final IPriamInstanceRegistry instanceRegistry;
     private final IMembership membership;
@@ -56,16 +69,20 @@ public class InstanceIdentity {
     private final Sleeper sleeper;
     private final Location location;
 
-    private PriamInstance myInstance;
-    private boolean isReplace = false;
-    private String replacedIp = "";
-    private boolean isUsingReplacedVolume;
+    private final ListenableFuture<PriamInstance> instanceFuture;
+    // Set while looking up the identity, before instanceFuture completes
+    private volatile boolean isReplace = false;
+    private volatile String replacedIp = "";
+    private volatile boolean isUsingReplacedVolume;
 
+    /**
+     * Starts looking up the identity of this node in the background, see {@link #getInstanceFuture()}.
+     */
     @Inject
     public InstanceIdentity(CassandraConfiguration cassandraConfiguration, AmazonConfiguration amazonConfiguration,
                             IVolumeMetadataManager volumeMetadataManager,
                             IPriamInstanceRegistry instanceRegistry, IMembership membership, TokenManager tokenManager,
-                            Sleeper sleeper, Location location) throws Exception {
+                            Sleeper sleeper, Location location) {
         this.instanceRegistry = instanceRegistry;
         this.membership = membership;
         this.cassandraConfiguration = cassandraConfiguration;
@@ -74,38 +91,137 @@ public class InstanceIdentity {
         this.tokenManager = tokenManager;
         this.sleeper = sleeper;
         this.location = location;
-        init();
+
+        final ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setNameFormat("instance-identity-%d").setDaemon(true).build()));
+        final Lookups lookups = new Lookups(executor);
+        instanceFuture = executor.submit(new Callable<PriamInstance>() {
+            @Override
+            public PriamInstance call() throws Exception {
+                return init(lookups);
+            }
+        });
+        instanceFuture.addListener(new Runnable() {
+            @Override
+            public void run() {
+                executor.shutdown();
+            }
+        }, MoreExecutors.sameThreadExecutor());
+    }
+
+    /**
+     * The identity of this node, once it has been found or allocated.
+     */
+    public ListenableFuture<PriamInstance> getInstanceFuture() {
+        return instanceFuture;
     }
 
+    /**
+     * The identity of this node, waiting for it if necessary.
+     *
+     * @throws RuntimeException (or the unchecked cause itself) if no identity could be found or allocated
+     */
     public PriamInstance getInstance() {
-        return myInstance;
+        try {
+            return Uninterruptibles.getUninterruptibly(instanceFuture);
+        } catch (ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
     }
 
-    public void init() throws Exception {
+    private PriamInstance init(Lookups lookups) throws Exception {
         // try to grab the token which was already assigned
-        myInstance = new GetOwnToken().call();
+        PriamInstance instance = new GetOwnToken(lookups).call();
 
         // If no token has already been assigned to this instance, grab a token that belonged to an instance that is no
         // longer present
-        if (null == myInstance) {
-            myInstance = new GetDeadToken().call();
+        if (null == instance) {
+            instance = new GetDeadToken(lookups).call();
         }
 
         // If no token has already been assigned, and there are no dead tokens to resurrect, allocate a new token
-        if (null == myInstance) {
-            myInstance = new GetNewToken().call();
+        if (null == instance) {
+            instance = new GetNewToken(lookups).call();
         }
 
-        persistVolumeMetadata();
+        persistVolumeMetadata(instance, lookups.getVolumeId());
 
-        logger.info("My token: {}", myInstance.getToken());
+        logger.info("My token: {}", instance.getToken());
+        return instance;
+    }
+
+    /**
+     * The lookups the identity is chosen from, which start at the same time.  The first attempt of each step uses
+     * them; retries look again since they mostly happen because another node registered in the meantime.
+     */
+    private class Lookups {
+        private final ListenableFuture<List<PriamInstance>> localInstances;
+        private final ListenableFuture<List<String>> autoScaleGroupMembership;
+        private final ListenableFuture<String> volumeId;
+
+        Lookups(ListeningExecutorService executor) {
+            localInstances = executor.submit(new Callable<List<PriamInstance>>() {
+                @Override
+                public List<PriamInstance> call() throws Exception {
+                    return instanceRegistry.getAllIds(cassandraConfiguration.getClusterName(), location);
+                }
+            });
+            autoScaleGroupMembership = executor.submit(new Callable<List<String>>() {
+                @Override
+                public List<String> call() throws Exception {
+                    return membership.getAutoScaleGroupMembership();
+                }
+            });
+            volumeId = executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return volumeMetadataManager.getVolumeID();
+                }
+            });
+        }
+
+        List<PriamInstance> getLocalInstances(boolean fresh) throws Exception {
+            return fresh ? instanceRegistry.getAllIds(cassandraConfiguration.getClusterName(), location) : get(localInstances);
+        }
+
+        List<String> getAutoScaleGroupMembership(boolean fresh) throws Exception {
+            return fresh ? membership.getAutoScaleGroupMembership() : get(autoScaleGroupMembership);
+        }
+
+        String getVolumeId() throws Exception {
+            return get(volumeId);
+        }
+
+        private <T> T get(ListenableFuture<T> future) throws Exception {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                Throwables.propagateIfInstanceOf(e.getCause(), Exception.class);
+                throw Throwables.propagate(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Backs off for a random time after another node took the slot this one tried to acquire, so nodes that start
+     * together spread their next attempts.
+     */
+    private void backOffAfterContention() throws InterruptedException {
+        sleeper.sleep(ThreadLocalRandom.current().nextInt(MAX_CONTENTION_BACKOFF_MS));
     }
 
     public class GetOwnToken extends RetryableCallable<PriamInstance> {
+        private final Lookups lookups;
+        private boolean retry;
+
+        GetOwnToken(Lookups lookups) {
+            this.lookups = lookups;
+        }
+
         @Override
         public PriamInstance retriableCall() throws Exception {
-            // Look to see if an instance with the same instanceID is already part of the cluster.  If so, use it.
-            for (PriamInstance ins : instanceRegistry.getAllIds(cassandraConfiguration.getClusterName())) {
+            // Look to see if an instance with the same instanceID is already part of the local ring.  If so, use it.
+            for (PriamInstance ins : lookups.getLocalInstances(retry)) {
                 logger.debug("Iterating through the hosts: {}", ins.getInstanceId());
                 if (ins.getInstanceId().equals(amazonConfiguration.getInstanceID())) {
                     return ins;
@@ -113,16 +229,26 @@ public class InstanceIdentity {
             }
             return null;
         }
+
+        @Override
+        public void forEachExecution() {
+            retry = true;
+        }
     }
 
     public class GetDeadToken extends RetryableCallable<PriamInstance> {
+        private final Lookups lookups;
+        private boolean retry;
+
+        GetDeadToken(Lookups lookups) {
+            this.lookups = lookups;
+        }
+
         @Override
         public PriamInstance retriableCall() throws Exception {
-            // Get all instances and filter out those which are not in the local ring
-            List<PriamInstance> priamInstances = filteredRemote(instanceRegistry.getAllIds(cassandraConfiguration.getClusterName()));
-            List<String> asgInstanceIDs = membership.getAutoScaleGroupMembership();
-            // Sleep random interval - 10 to 15 sec
-            sleeper.sleep(new Random().nextInt(5000) + 10000);
+            // Get all instances in the local ring
+            List<PriamInstance> priamInstances = lookups.getLocalInstances(retry);
+            List<String> asgInstanceIDs = lookups.getAutoScaleGroupMembership(retry);
 
             // Build a list of dead instances that we might replace
             boolean healthyNodePresent = false;
@@ -213,7 +339,7 @@ public class InstanceIdentity {
                 // naturally, even it it assumes the instance's host ID.  Don't block because of this, but send out
                 // an alert that a repair should be performed to get this volume up-to-date.
 
-                String volumeId = volumeMetadataManager.getVolumeID();
+                String volumeId = lookups.getVolumeId();
                 if (volumeId == null) {
                     logger.warn("No volume ID was found for the current volume, so the consistency of the existing " +
                             "Cassandra data on volume could not be verified.  Repairing this instance is strongly recommended.");
@@ -253,16 +379,22 @@ public class InstanceIdentity {
 
             // Failed to acquire the slot . . throw an exception so that we retry the operation
             logger.info("New instance {} failed to acquire slot {}", newInstanceId, deadInstance.getId());
+            backOffAfterContention();
             throw new Exception("Failed to acquire token");
         }
 
+        @Override
         public void forEachExecution() {
-            populateInstanceByLocationAndAZMultiMap();
+            retry = true;
         }
     }
 
     public class GetNewToken extends RetryableCallable<PriamInstance> {
-        public GetNewToken() {
+        private final Lookups lookups;
+        private boolean retry;
+
+        GetNewToken(Lookups lookups) {
+            this.lookups = lookups;
             setRetries(100);
             setWaitTime(100);
         }
@@ -270,8 +402,6 @@ public class InstanceIdentity {
         @Override
         public PriamInstance retriableCall() throws Exception {
             logger.info("Generating my own and new token");
-            // Sleep random interval - up to 15 sec
-            sleeper.sleep(new Random().nextInt(15000));
 
             int hash = TokenManager.locationOffset(location);
 
@@ -285,11 +415,11 @@ public class InstanceIdentity {
             // - and so on...
             // Iterate over all nodes in the cluster in the same availability zone and find the max "id"
             int max = hash;
-            for (PriamInstance priamInstance : filteredRemote(instanceRegistry.getAllIds(cassandraConfiguration.getClusterName()))) {
-                if (priamInstance.getAvailabilityZone().equals(amazonConfiguration.getAvailabilityZone())
-                        && (priamInstance.getId() > max)) {
-                    max = priamInstance.getId();
-                }
+            List<PriamInstance> zoneInstances = instanceRegistry.getAllIds(cassandraConfiguration.getClusterName(),
+                    location, amazonConfiguration.getAvailabilityZone());
+            int instancesInZone = zoneInstances.size();
+            for (PriamInstance priamInstance : zoneInstances) {
+                max = Math.max(max, priamInstance.getId());
             }
 
             // If the following instances started, this is how their slots would be calculated:
@@ -302,7 +432,7 @@ public class InstanceIdentity {
 
             int maxSlot = max - hash;
             int mySlot;
-            if (hash == max && instancesByLocationAndAZMultiMap.get(new LocationAZPair(location, amazonConfiguration.getAvailabilityZone())).size() == 0) {
+            if (hash == max && instancesInZone == 0) {
                 // This is the first instance in the location and first instance in its availability zone.
                 int idx = amazonConfiguration.getUsableAvailabilityZones().indexOf(amazonConfiguration.getAvailabilityZone());
                 checkState(idx >= 0, "Zone %s is not in usable availability zones: %s", amazonConfiguration.getAvailabilityZone(), amazonConfiguration.getUsableAvailabilityZones());
@@ -313,14 +443,39 @@ public class InstanceIdentity {
 
             logger.info("Trying to createToken with slot {} with rac count {} with rac membership size {} with dc {}",
                     mySlot, membership.getUsableAvailabilityZones(), membership.getAvailabilityZoneMembershipSize(), location);
-            String token = tokenManager.createToken(mySlot, membership.getUsableAvailabilityZones(), membership.getAvailabilityZoneMembershipSize(), location);
-            return instanceRegistry.create(cassandraConfiguration.getClusterName(), mySlot + hash,
+            String token;
+            int numTokens = cassandraConfiguration.getNumTokens();
+            if (numTokens > 1) {
+                // Balance the new node's tokens against the other nodes in its availability zone
+                List<List<String>> rackTokens = Lists.newArrayList();
+                for (PriamInstance priamInstance : zoneInstances) {
+                    rackTokens.add(priamInstance.getTokens());
+                }
+                List<String> ringTokens = Lists.newArrayList();
+                for (PriamInstance priamInstance : lookups.getLocalInstances(retry)) {
+                    ringTokens.addAll(priamInstance.getTokens());
+                }
+                int totalCount = membership.getUsableAvailabilityZones() * membership.getAvailabilityZoneMembershipSize();
+                token = PriamInstance.joinTokens(tokenManager.createTokens(mySlot, totalCount, numTokens, rackTokens, ringTokens, location));
+            } else {
+                token = tokenManager.createToken(mySlot, membership.getUsableAvailabilityZones(), membership.getAvailabilityZoneMembershipSize(), location);
+            }
+            PriamInstance newInstance = instanceRegistry.create(cassandraConfiguration.getClusterName(), mySlot + hash,
                     amazonConfiguration.getInstanceID(), amazonConfiguration.getPrivateHostName(),
                     amazonConfiguration.getPrivateIP(), amazonConfiguration.getAvailabilityZone(), null, token);
+            if (newInstance != null) {
+                return newInstance;
+            }
+
+            // Another node took the slot first . . throw an exception so that we retry with the next one
+            logger.info("Slot {} was taken by another instance", mySlot + hash);
+            backOffAfterContention();
+            throw new Exception("Failed to acquire new slot");
         }
 
+        @Override
         public void forEachExecution() {
-            populateInstanceByLocationAndAZMultiMap();
+            retry = true;
         }
     }
 
@@ -332,6 +487,7 @@ public class InstanceIdentity {
     }
 
     public List<String> getSeeds() {
+        PriamInstance myInstance = getInstance();
         populateInstanceByLocationAndAZMultiMap();
         List<String> seeds = new LinkedList<>();
         // Handle single zone deployment
@@ -362,6 +518,7 @@ public class InstanceIdentity {
     }
 
     public boolean isSeed() {
+        PriamInstance myInstance = getInstance();
         populateInstanceByLocationAndAZMultiMap();
         String seedHostIPForAvailabilityZone = instancesByLocationAndAZMultiMap
                 .get(new LocationAZPair(myInstance.getLocation(), myInstance.getAvailabilityZone()))
@@ -371,14 +528,17 @@ public class InstanceIdentity {
     }
 
     public boolean isReplace() {
+        getInstance();
         return isReplace;
     }
 
     public String getReplacedIp() {
+        getInstance();
         return replacedIp;
     }
 
     public boolean isUsingReplacedVolume() {
+        getInstance();
         return isUsingReplacedVolume;
     }
 
@@ -389,25 +549,18 @@ public class InstanceIdentity {
      */
     public void updateToken() throws Exception {
         JMXNodeTool nodetool = JMXNodeTool.instance(cassandraConfiguration);
-        myInstance.setToken(tokenManager.sanitizeToken(nodetool.getTokens().get(0)));
-        instanceRegistry.update(myInstance);
-        persistVolumeMetadata();
-    }
-
-    // filter other DC's
-    private List<PriamInstance> filteredRemote(List<PriamInstance> priamInstances) {
-        List<PriamInstance> local = Lists.newArrayList();
-        for (PriamInstance priamInstance : priamInstances) {
-            if (priamInstance.getLocation().equals(location)) {
-                local.add(priamInstance);
-            }
+        List<String> tokens = Lists.newArrayList();
+        for (String token : nodetool.getTokens()) {
+            tokens.add(tokenManager.sanitizeToken(token));
         }
-        return local;
+        PriamInstance myInstance = getInstance();
+        myInstance.setTokens(tokens);
+        instanceRegistry.update(myInstance);
+        persistVolumeMetadata(myInstance, volumeMetadataManager.getVolumeID());
     }
 
-    private void persistVolumeMetadata() {
+    private void persistVolumeMetadata(PriamInstance myInstance, String volumeId) {
         try {
-            String volumeId = volumeMetadataManager.getVolumeID();
             volumeMetadataManager.setVolumeMetadata(
                     new VolumeMetadata()
                             .setVolumeId(volumeId)
@@ -1,5 +1,7 @@
 package com.netflix.priam.identity;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
 import com.google.common.base.Joiner;
 import com.google.common.base.Objects;
 
@@ -21,6 +23,7 @@ abstract public class Location implements Serializable {
     /**
      * Static helper method to create a Location from the string produced by {@link #toString()}.
      */
+    @JsonCreator
     public static Location from(String locationString) {
         String[] parts = locationString.split("/");
         checkArgument(parts.length <= 2, "Invalid location string, too many path elements");
@@ -34,6 +37,7 @@ abstract public class Location implements Serializable {
     abstract public String getDataCenterSuffix();
 
     @Override
+    @JsonValue
     public String toString() {
         // If there is no data center suffix then the location is simply the region name.  This is both for readability
         // and to maintain backwards compatibility with clusters created using an older version of Priam which only
@@ -1,16 +1,25 @@
 package com.netflix.priam.identity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
 import org.apache.commons.lang.builder.CompareToBuilder;
 
 import java.io.Serializable;
 import java.text.SimpleDateFormat;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class PriamInstance implements Serializable, Comparable<PriamInstance> {
     public static final String NEW_INSTANCE_PLACEHOLDER_ID = "new_slot";
 
     private static final long serialVersionUID = 5606412386974488659L;
+    private static final Splitter TOKEN_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+    private static final Joiner TOKEN_JOINER = Joiner.on(',');
+
     private String hostname;
     private long updatetime;
     private boolean outOfService;
@@ -86,6 +95,7 @@ public class PriamInstance implements Serializable, Comparable<PriamInstance> {
         this.hostIp = hostIp;
     }
 
+    @JsonProperty("hostName")
     public void setHost(String hostname) {
         this.hostname = hostname;
     }
@@ -102,6 +112,24 @@ public class PriamInstance implements Serializable, Comparable<PriamInstance> {
         this.token = token;
     }
 
+    /**
+     * Returns the individual tokens of a node with multiple tokens (vnodes).  The token string holds them comma
+     * separated, which is also the format Cassandra expects for {@code initial_token}.
+     */
+    @JsonIgnore
+    public List<String> getTokens() {
+        return token == null ? ImmutableList.<String>of() : TOKEN_SPLITTER.splitToList(token);
+    }
+
+    @JsonIgnore
+    public void setTokens(List<String> tokens) {
+        this.token = joinTokens(tokens);
+    }
+
+    public static String joinTokens(List<String> tokens) {
+        return TOKEN_JOINER.join(tokens);
+    }
+
     public Map<String, Object> getVolumes() {
         return volumes;
     }
@@ -0,0 +1,311 @@
+package com.netflix.priam.identity;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.inject.Inject;
+import com.netflix.priam.config.AmazonConfiguration;
+import com.netflix.priam.config.CassandraConfiguration;
+import com.netflix.priam.ring.RingNode;
+import com.netflix.priam.ring.RingPlan;
+import com.netflix.priam.ring.RingPlanner;
+import com.netflix.priam.utils.TokenManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Grows the ring of this location by any number of nodes per availability zone.
+ * <p/>
+ * The new layout comes from {@link RingPlanner}: existing nodes keep their tokens whenever the ring can grow around
+ * them (as when doubling), otherwise the fewest and shortest moves that rebalance each availability zone are planned.
+ * The new slots are registered as placeholders that new nodes claim when they start, the same way replacements claim
+ * the slots of dead nodes.  Moves are not run: they are returned with the layout and can be run with
+ * {@code /v1/cassadmin/moves}.  Existing registry entries are left untouched, new ones are only created if their slot
+ * is still free.
+ * <p/>
+ * If a slot was taken while expanding, the placeholders registered so far are deleted, entries of real nodes are never
+ * touched.  {@link #backup()} saves the registry entries of the location as JSON next to the Cassandra data so they
+ * can be put back by hand with {@link #restore()}, even after a restart.
+ */
+public class RingExpansion {
+    private static final Logger logger = LoggerFactory.getLogger(RingExpansion.class);
+    private static final String BACKUP_FILE_NAME = "priam_ring_backup.json";
+
+    private final CassandraConfiguration cassandraConfiguration;
+    private final AmazonConfiguration amazonConfiguration;
+    private final IPriamInstanceRegistry instanceRegistry;
+    private final TokenManager tokenManager;
+    private final Location location;
+    private final File backupFile;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Inject
+    public RingExpansion(CassandraConfiguration cassandraConfiguration, AmazonConfiguration amazonConfiguration,
+                         IPriamInstanceRegistry instanceRegistry, TokenManager tokenManager, Location location) {
+        this.cassandraConfiguration = cassandraConfiguration;
+        this.amazonConfiguration = amazonConfiguration;
+        this.instanceRegistry = instanceRegistry;
+        this.tokenManager = tokenManager;
+        this.location = location;
+        this.backupFile = new File(cassandraConfiguration.getDataLocation(), BACKUP_FILE_NAME);
+    }
+
+    /**
+     * Computes the slots and tokens of the expanded ring without changing anything.
+     */
+    public Layout plan(Growth growth) {
+        List<PriamInstance> instances = localInstances();
+        checkState(!instances.isEmpty(), "There are no instances in %s", location);
+        for (PriamInstance instance : instances) {
+            checkState(!PriamInstance.NEW_INSTANCE_PLACEHOLDER_ID.equals(instance.getInstanceId()),
+                    "Slot %s has not been taken by a node yet, finish the previous expansion first", instance.getId());
+        }
+
+        List<String> zones = amazonConfiguration.getUsableAvailabilityZones();
+        int newNodesPerZone = growth.newNodesPerZone(instances.size(), zones.size());
+
+        // Nodes are planned by slot id, registry entries don't always have distinct IPs
+        List<RingNode> nodes = Lists.newArrayList();
+        Map<String, PriamInstance> instancesBySlot = Maps.newHashMap();
+        for (PriamInstance instance : instances) {
+            String slot = String.valueOf(instance.getId());
+            nodes.add(new RingNode(slot, location.toString(), instance.getAvailabilityZone(), instance.getTokens()));
+            instancesBySlot.put(slot, instance);
+        }
+        // Priam keeps one replica per availability zone
+        RingPlan plan = new RingPlanner(tokenManager).plan(nodes, newNodesPerZone, zones.size());
+
+        List<RingPlan.Move> moves = Lists.newArrayList();
+        for (RingPlan.Move move : plan.getMoves()) {
+            moves.add(new RingPlan.Move(instancesBySlot.get(move.getEndpoint()).getHostIP(), move.getDataCenter(),
+                    move.getRack(), move.getOldToken(), move.getNewToken()));
+        }
+
+        Set<Integer> usedIds = Sets.newHashSet();
+        Map<String, Integer> lastIdByZone = Maps.newHashMap();
+        for (PriamInstance instance : instances) {
+            usedIds.add(instance.getId());
+            Integer last = lastIdByZone.get(instance.getAvailabilityZone());
+            if (last == null || instance.getId() > last) {
+                lastIdByZone.put(instance.getAvailabilityZone(), instance.getId());
+            }
+        }
+
+        // New slots continue the numbering of their zone, as InstanceIdentity numbers new nodes
+        List<PriamInstance> newInstances = Lists.newArrayList();
+        for (RingNode node : plan.getNewNodes()) {
+            int id = lastIdByZone.get(node.getRack());
+            do {
+                id += zones.size();
+            } while (!usedIds.add(id));
+            lastIdByZone.put(node.getRack(), id);
+            newInstances.add(PriamInstance.from(cassandraConfiguration.getClusterName(), id, PriamInstance.NEW_INSTANCE_PLACEHOLDER_ID,
+                    amazonConfiguration.getPrivateHostName(), amazonConfiguration.getPrivateIP(), node.getRack(), null,
+                    PriamInstance.joinTokens(node.getTokens()), location));
+        }
+        return new Layout(instances.size(), newInstances, moves, plan);
+    }
+
+    /**
+     * Registers the new slots of the expanded ring.
+     *
+     * @throws IllegalStateException if the ring can't be expanded, or if a slot was taken in the meantime, in which
+     *                               case the placeholders registered so far are deleted
+     */
+    public Layout expand(Growth growth) {
+        return expand(plan(growth));
+    }
+
+    /**
+     * Registers the new slots of a layout returned by {@link #plan(Growth)}.
+     *
+     * @throws IllegalStateException if a slot was taken in the meantime, in which case the placeholders registered
+     *                               so far are deleted
+     */
+    public Layout expand(Layout layout) {
+        List<PriamInstance> created = Lists.newArrayList();
+        try {
+            for (PriamInstance instance : layout.getNewInstances()) {
+                PriamInstance acquired = instanceRegistry.acquireSlotId(instance.getId(), null, instance.getApp(),
+                        instance.getInstanceId(), instance.getHostName(), instance.getHostIP(), instance.getAvailabilityZone(),
+                        null, instance.getToken());
+                checkState(acquired != null, "Slot %s was taken while expanding the ring", instance.getId());
+                created.add(acquired);
+            }
+        } catch (RuntimeException e) {
+            deletePlaceholders(created);
+            throw e;
+        }
+        logger.info("Expanded {} from {} to {} nodes, {} nodes still need to move",
+                location, layout.getCurrentSize(), layout.getNewSize(), layout.getMoves().size());
+        return layout;
+    }
+
+    /**
+     * Deletes the slots registered by a failed expansion that no node has claimed yet.
+     */
+    private void deletePlaceholders(List<PriamInstance> created) {
+        for (PriamInstance instance : created) {
+            try {
+                PriamInstance current = instanceRegistry.getInstance(instance.getApp(), instance.getId());
+                if (current != null && PriamInstance.NEW_INSTANCE_PLACEHOLDER_ID.equals(current.getInstanceId())) {
+                    instanceRegistry.delete(current);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Unable to delete the placeholder of slot {}", instance.getId(), e);
+            }
+        }
+        logger.info("Deleted the {} slots registered before the expansion failed", created.size());
+    }
+
+    /**
+     * Saves the registry entries of this location.
+     */
+    public void backup() throws IOException {
+        File parent = backupFile.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Unable to create " + parent);
+        }
+        // Write then rename so a crash never leaves a partial backup behind
+        File tmpFile = new File(backupFile.getPath() + ".tmp");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(tmpFile, localInstances());
+        if (!tmpFile.renameTo(backupFile)) {
+            throw new IOException("Unable to rename " + tmpFile + " to " + backupFile);
+        }
+        logger.info("Wrote the backup of the instances to: {}", backupFile.getAbsolutePath());
+    }
+
+    /**
+     * Puts the registry entries of this location back the way they were when {@link #backup()} last ran.  Slots added
+     * since are deleted only while they are placeholders, nodes that joined in the meantime keep theirs.
+     */
+    public void restore() throws IOException {
+        checkState(backupFile.exists(), "There is no backup at %s", backupFile.getAbsolutePath());
+        List<PriamInstance> backedUp = objectMapper.readValue(backupFile, new TypeReference<List<PriamInstance>>() {});
+
+        Set<Integer> backedUpIds = Sets.newHashSet();
+        for (PriamInstance instance : backedUp) {
+            backedUpIds.add(instance.getId());
+        }
+        List<PriamInstance> placeholders = Lists.newArrayList();
+        for (PriamInstance instance : localInstances()) {
+            if (!backedUpIds.contains(instance.getId()) &&
+                    PriamInstance.NEW_INSTANCE_PLACEHOLDER_ID.equals(instance.getInstanceId())) {
+                placeholders.add(instance);
+            }
+        }
+        instanceRegistry.deleteAll(placeholders);
+        instanceRegistry.updateAll(backedUp);
+        logger.info("Successfully restored the Instances from the backup: {}", backupFile.getAbsolutePath());
+    }
+
+    private List<PriamInstance> localInstances() {
+        List<PriamInstance> local = Lists.newArrayList(instanceRegistry.getAllIds(cassandraConfiguration.getClusterName(), location));
+        Collections.sort(local);
+        return local;
+    }
+
+    /**
+     * How much a ring grows: by a factor of its size, or by a number of nodes in each availability zone.
+     */
+    public static class Growth {
+        private final double factor;
+        private final int nodesPerZone;
+
+        private Growth(double factor, int nodesPerZone) {
+            this.factor = factor;
+            this.nodesPerZone = nodesPerZone;
+        }
+
+        /**
+         * Grows the ring to {@code factor} times its size, rounded to a whole number of nodes per zone.
+         */
+        public static Growth factor(double factor) {
+            checkArgument(factor > 1, "factor must be > 1");
+            return new Growth(factor, 0);
+        }
+
+        public static Growth perZone(int nodesPerZone) {
+            checkArgument(nodesPerZone > 0, "nodesPerZone must be > 0");
+            return new Growth(0, nodesPerZone);
+        }
+
+        int newNodesPerZone(int ringSize, int zones) {
+            if (nodesPerZone > 0) {
+                return nodesPerZone;
+            }
+            int newNodesPerZone = (int) Math.round(ringSize * (factor - 1) / zones);
+            checkArgument(newNodesPerZone > 0, "Growing %s nodes by a factor of %s doesn't add a node to each of the %s zones", ringSize, factor, zones);
+            return newNodesPerZone;
+        }
+    }
+
+    /**
+     * The slots and tokens of an expanded ring.
+     */
+    public static class Layout {
+        @JsonProperty
+        private final int currentSize;
+
+        @JsonProperty
+        private final List<PriamInstance> newInstances;
+
+        @JsonProperty
+        private final List<RingPlan.Move> moves;
+
+        @JsonProperty
+        private final RingPlan plan;
+
+        public Layout(int currentSize, List<PriamInstance> newInstances, List<RingPlan.Move> moves, RingPlan plan) {
+            this.currentSize = currentSize;
+            this.newInstances = ImmutableList.copyOf(newInstances);
+            this.moves = ImmutableList.copyOf(moves);
+            this.plan = plan;
+        }
+
+        public int getCurrentSize() {
+            return currentSize;
+        }
+
+        @JsonProperty
+        public int getNewSize() {
+            return currentSize + newInstances.size();
+        }
+
+        /**
+         * Placeholder registry entries for the new slots.
+         */
+        public List<PriamInstance> getNewInstances() {
+            return newInstances;
+        }
+
+        /**
+         * Existing nodes that need a new token to balance the expanded ring, by IP.
+         */
+        public List<RingPlan.Move> getMoves() {
+            return moves;
+        }
+
+        /**
+         * The plan the layout was made from, with the ownership before and after the expansion.  Its nodes are
+         * identified by slot id.
+         */
+        public RingPlan getPlan() {
+            return plan;
+        }
+    }
+}
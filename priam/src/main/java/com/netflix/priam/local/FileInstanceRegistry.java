@@ -0,0 +1,382 @@
+package com.netflix.priam.local;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.priam.config.PriamConfiguration;
+import com.netflix.priam.identity.IPriamInstanceRegistry;
+import com.netflix.priam.identity.Location;
+import com.netflix.priam.identity.PriamInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Instance registry kept in a local file, for rings that run on a single host or without AWS.
+ * <p/>
+ * The file is an append-only log with one JSON entry per line: a header with the generation of the file, then a
+ * {@code PUT} or {@code DELETE} for each change.  Every Priam process sharing the file keeps the registry in memory
+ * and reads the entries appended since its last operation, so reads cost a lock and a stat when nothing changed.
+ * Changes are made under an exclusive lock on {@code <file>.lock}, which makes slot acquisition atomic across
+ * processes.  Once the log holds mostly overwritten entries it is compacted into a new generation, which is written
+ * next to it and renamed over it.
+ */
+@Singleton
+public class FileInstanceRegistry implements IPriamInstanceRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(FileInstanceRegistry.class);
+
+    /** Compact once the log has this many entries and more than twice as many as there are instances. */
+    @VisibleForTesting
+    static final int COMPACTION_THRESHOLD = 1000;
+
+    private final Path logFile;
+    private final Path lockFile;
+    private final Location location;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Guarded by this: the registry as of the first 'position' bytes of generation 'generation' of the log
+    private final Map<String, Map<Integer, PriamInstance>> instances = Maps.newHashMap();
+    private long generation = -1;
+    private long position;
+    private int entries;
+
+    @Inject
+    public FileInstanceRegistry(PriamConfiguration priamConfiguration, Location location) {
+        this(new File(priamConfiguration.getInstanceRegistryFile()), location);
+    }
+
+    @VisibleForTesting
+    FileInstanceRegistry(File logFile, Location location) {
+        this.logFile = logFile.toPath();
+        this.lockFile = new File(logFile.getPath() + ".lock").toPath();
+        this.location = location;
+    }
+
+    @Override
+    public synchronized List<PriamInstance> getAllIds(String appName) {
+        try (FileChannel lock = lock(true)) {
+            catchUp();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read priam instances from " + logFile, e);
+        }
+        Map<Integer, PriamInstance> app = instances.get(appName);
+        if (app == null) {
+            return Collections.emptyList();
+        }
+        List<PriamInstance> copies = Lists.newArrayList();
+        for (PriamInstance instance : app.values()) {
+            copies.add(copy(instance));
+        }
+        return Ordering.natural().immutableSortedCopy(copies);
+    }
+
+    @Override
+    public synchronized PriamInstance getInstance(String appName, int id) {
+        try (FileChannel lock = lock(true)) {
+            catchUp();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read priam instances from " + logFile, e);
+        }
+        PriamInstance instance = find(appName, id);
+        return instance != null ? copy(instance) : null;
+    }
+
+    @Override
+    public PriamInstance create(String app, int id, String instanceID, String hostname, String ip, String rac, Map<String, Object> volumes, String token) {
+        return acquireSlotId(id, null, app, instanceID, hostname, ip, rac, volumes, token);
+    }
+
+    @Override
+    public synchronized PriamInstance acquireSlotId(int slotId, String expectedInstanceId, String app, String instanceID, String hostname, String ip, String rac, Map<String, Object> volumes, String token) {
+        try (FileChannel lock = lock(false)) {
+            catchUp();
+            PriamInstance current = find(app, slotId);
+            boolean canAcquire = expectedInstanceId == null
+                    ? current == null
+                    : current != null && expectedInstanceId.equals(current.getInstanceId());
+            if (!canAcquire) {
+                return null;
+            }
+            PriamInstance ins = PriamInstance.from(app, slotId, instanceID, hostname, ip, rac, volumes, token, location);
+            append(Collections.singletonList(Entry.put(ins)));
+            return ins;
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to update/create priam instance", e);
+        }
+    }
+
+    @Override
+    public void delete(PriamInstance inst) {
+        deleteAll(Collections.singletonList(inst));
+    }
+
+    @Override
+    public void update(PriamInstance inst) {
+        updateAll(Collections.singletonList(inst));
+    }
+
+    @Override
+    public synchronized void deleteAll(Collection<PriamInstance> insts) {
+        List<Entry> changes = Lists.newArrayList();
+        for (PriamInstance inst : insts) {
+            changes.add(Entry.delete(inst));
+        }
+        try (FileChannel lock = lock(false)) {
+            catchUp();
+            append(changes);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to deregister priam instance", e);
+        }
+    }
+
+    @Override
+    public synchronized void updateAll(Collection<PriamInstance> insts) {
+        List<Entry> changes = Lists.newArrayList();
+        for (PriamInstance inst : insts) {
+            changes.add(Entry.put(inst));
+        }
+        try (FileChannel lock = lock(false)) {
+            catchUp();
+            append(changes);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to update/create priam instance", e);
+        }
+    }
+
+    /**
+     * Locks the lock file, shared for reads and exclusive for changes.  The lock is released when the returned
+     * channel is closed.
+     */
+    private FileChannel lock(boolean shared) throws IOException {
+        Path parent = lockFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            channel.lock(0, Long.MAX_VALUE, shared);
+            return channel;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Applies the entries appended to the log since it was last read, or reads it again from the start if it was
+     * compacted in the meantime.  Must hold the lock.
+     */
+    private void catchUp() throws IOException {
+        if (!Files.exists(logFile)) {
+            reset();
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (generation < 0 || size < position || readGeneration(channel) != generation) {
+                reset();
+            }
+            if (size == position) {
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) (size - position));
+            while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) >= 0) {
+                // Keep reading until the end of the file
+            }
+            byte[] bytes = buffer.array();
+            int start = 0;
+            for (int i = 0; i < bytes.length; i++) {
+                if (bytes[i] == '\n') {
+                    apply(objectMapper.readValue(bytes, start, i - start, Entry.class));
+                    start = i + 1;
+                }
+            }
+            // A line without its newline is the end of a write that didn't finish, it is left out
+            position += start;
+        }
+    }
+
+    private long readGeneration(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), 256));
+        channel.read(buffer, 0);
+        String firstLine = new String(buffer.array(), 0, buffer.position(), Charsets.UTF_8);
+        int end = firstLine.indexOf('\n');
+        if (end < 0) {
+            return -1;
+        }
+        Entry header = objectMapper.readValue(firstLine.substring(0, end), Entry.class);
+        return header.type == Entry.Type.HEADER ? header.generation : -1;
+    }
+
+    private void apply(Entry entry) {
+        entries++;
+        switch (entry.type) {
+            case HEADER:
+                generation = entry.generation;
+                break;
+            case PUT:
+                getApp(entry.instance.getApp()).put(entry.instance.getId(), entry.instance);
+                break;
+            case DELETE:
+                Map<Integer, PriamInstance> app = instances.get(entry.instance.getApp());
+                if (app != null) {
+                    app.remove(entry.instance.getId());
+                }
+                break;
+        }
+    }
+
+    /**
+     * Appends changes to the log and applies them.  Must hold the exclusive lock and have caught up with the log.
+     */
+    private void append(List<Entry> changes) throws IOException {
+        long now = System.currentTimeMillis();
+        for (Entry change : changes) {
+            change.instance.setUpdatetime(now);
+        }
+        if (generation < 0) {
+            // A new log
+            rewrite(Lists.<PriamInstance>newArrayList(), 0);
+        }
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+            // Drop what's left of a write that didn't finish
+            if (channel.size() > position) {
+                channel.truncate(position);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(toLines(changes));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, position + buffer.position());
+            }
+            channel.force(false);
+        }
+        // Read the changes back so the registry doesn't hold on to the instances it was given
+        catchUp();
+
+        int live = 0;
+        for (Map<Integer, PriamInstance> app : instances.values()) {
+            live += app.size();
+        }
+        if (entries >= COMPACTION_THRESHOLD && entries > 2 * live) {
+            List<PriamInstance> all = Lists.newArrayList();
+            for (Map<Integer, PriamInstance> app : instances.values()) {
+                all.addAll(app.values());
+            }
+            logger.info("Compacting {} entries of {} into {} instances", entries, logFile, live);
+            rewrite(all, generation + 1);
+        }
+    }
+
+    /**
+     * Replaces the log with a new generation holding the given instances.
+     */
+    private void rewrite(List<PriamInstance> all, long newGeneration) throws IOException {
+        List<Entry> lines = Lists.newArrayList();
+        lines.add(Entry.header(newGeneration));
+        for (PriamInstance instance : all) {
+            lines.add(Entry.put(instance));
+        }
+        Path tmpFile = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(toLines(lines));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmpFile, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        reset();
+        catchUp();
+    }
+
+    private void reset() {
+        instances.clear();
+        generation = -1;
+        position = 0;
+        entries = 0;
+    }
+
+    private byte[] toLines(List<Entry> lines) throws IOException {
+        StringBuilder buf = new StringBuilder();
+        for (Entry line : lines) {
+            buf.append(objectMapper.writeValueAsString(line)).append('\n');
+        }
+        return buf.toString().getBytes(Charsets.UTF_8);
+    }
+
+    private PriamInstance find(String app, int id) {
+        Map<Integer, PriamInstance> appInstances = instances.get(app);
+        return appInstances != null ? appInstances.get(id) : null;
+    }
+
+    /**
+     * Copies an instance, so callers changing what they read don't change the registry.
+     */
+    private PriamInstance copy(PriamInstance instance) {
+        return objectMapper.convertValue(instance, PriamInstance.class);
+    }
+
+    private Map<Integer, PriamInstance> getApp(String app) {
+        Map<Integer, PriamInstance> appInstances = instances.get(app);
+        if (appInstances == null) {
+            appInstances = Maps.newHashMap();
+            instances.put(app, appInstances);
+        }
+        return appInstances;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static class Entry {
+        enum Type {HEADER, PUT, DELETE}
+
+        @JsonProperty
+        private final Type type;
+
+        @JsonProperty
+        private final Long generation;
+
+        @JsonProperty
+        private final PriamInstance instance;
+
+        @JsonCreator
+        Entry(@JsonProperty("type") Type type, @JsonProperty("generation") Long generation,
+              @JsonProperty("instance") PriamInstance instance) {
+            this.type = type;
+            this.generation = generation;
+            this.instance = instance;
+        }
+
+        static Entry header(long generation) {
+            return new Entry(Type.HEADER, generation, null);
+        }
+
+        static Entry put(PriamInstance instance) {
+            return new Entry(Type.PUT, null, instance);
+        }
+
+        static Entry delete(PriamInstance instance) {
+            return new Entry(Type.DELETE, null, instance);
+        }
+    }
+}
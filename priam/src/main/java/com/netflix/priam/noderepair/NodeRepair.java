@@ -7,6 +7,7 @@ import com.google.inject.Singleton;
 import com.netflix.priam.config.AmazonConfiguration;
 import com.netflix.priam.config.CassandraConfiguration;
 import com.netflix.priam.scheduler.Task;
+import com.netflix.priam.scheduler.TaskResource;
 import com.netflix.priam.utils.JMXNodeTool;
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.recipes.locks.InterProcessMutex;
@@ -14,8 +15,10 @@ import org.joda.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 @Singleton
@@ -50,6 +53,7 @@ public final class NodeRepair extends Task {
 
             //while there are unrepaired keyspaces
             while (keyspaceQueue.size() > 0) {
+                checkCancelled();
                 String keyspace = keyspaceQueue.remove();
                 //get mutex for the keyspace
                 InterProcessMutex mutex = new InterProcessMutex(curator.get(), getMutexPath(keyspace));
@@ -87,6 +91,22 @@ public final class NodeRepair extends Task {
         return cassandraConfig.getNodeRepairTime();
     }
 
+    @Override
+    public Set<TaskResource> getResources() {
+        return EnumSet.allOf(TaskResource.class);
+    }
+
+    @Override
+    public boolean isLongRunning() {
+        return true;
+    }
+
+    @Override
+    public int getPriority() {
+        // Repairs can wait for shorter maintenance
+        return -10;
+    }
+
     public String getTriggerName() {
         return "noderepair-trigger";
     }
@@ -15,32 +15,53 @@
  */
 package com.netflix.priam.resources;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.base.Objects;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import com.google.common.net.HostAndPort;
 import com.google.inject.Inject;
 import com.netflix.priam.ICassandraProcess;
 import com.netflix.priam.PriamServer;
+import com.netflix.priam.admin.AdminJob;
+import com.netflix.priam.admin.AdminJobManager;
+import com.netflix.priam.admin.AdminOperation;
 import com.netflix.priam.config.CassandraConfiguration;
 import com.netflix.priam.config.PriamConfiguration;
+import com.netflix.priam.config.TableOrder;
+import com.netflix.priam.gossip.GossipEndpointState;
+import com.netflix.priam.gossip.GossipInfoParser;
+import com.netflix.priam.ring.MoveJob;
+import com.netflix.priam.ring.MoveOrchestrator;
+import com.netflix.priam.ring.RingCache;
+import com.netflix.priam.ring.RingNode;
+import com.netflix.priam.ring.RingPlan;
+import com.netflix.priam.ring.RingPlanner;
+import com.netflix.priam.streaming.StreamingMonitor;
+import com.netflix.priam.streaming.StreamingPeer;
+import com.netflix.priam.streaming.StreamingStatus;
 import com.netflix.priam.utils.JMXConnectionException;
 import com.netflix.priam.utils.JMXNodeTool;
+import com.netflix.priam.utils.TableFilter;
+import com.netflix.priam.utils.TableOperation;
+import com.netflix.priam.utils.TableRun;
+import com.netflix.priam.utils.TokenManager;
 import com.sun.jersey.api.client.Client;
 import com.sun.jersey.api.client.GenericType;
 import org.apache.cassandra.db.compaction.CompactionManagerMBean;
-import org.apache.cassandra.streaming.ProgressInfo;
-import org.apache.cassandra.streaming.SessionInfo;
-import org.apache.cassandra.streaming.StreamState;
 import org.apache.cassandra.utils.EstimatedHistogram;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
@@ -48,12 +69,14 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
 import java.io.IOException;
 import java.text.DecimalFormat;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Do general operations. Start/Stop and some JMX node tool commands
@@ -73,16 +96,28 @@ public class CassandraAdminResource {
     private final ICassandraProcess cassProcess;
     private final Client jersey;
     private final Integer port;
+    private final TokenManager tokenManager;
+    private final MoveOrchestrator moveOrchestrator;
+    private final AdminJobManager adminJobManager;
+    private final RingCache ringCache;
+    private final StreamingMonitor streamingMonitor;
 
     @Inject
     public CassandraAdminResource(PriamServer priamServer, CassandraConfiguration cassandraConfiguration,
-                                  PriamConfiguration priamConfiguration, ICassandraProcess cassProcess, Client jersey, HostAndPort hostAndPort) {
+                                  PriamConfiguration priamConfiguration, ICassandraProcess cassProcess, Client jersey, HostAndPort hostAndPort,
+                                  TokenManager tokenManager, MoveOrchestrator moveOrchestrator, AdminJobManager adminJobManager,
+                                  RingCache ringCache, StreamingMonitor streamingMonitor) {
         this.priamServer = priamServer;
         this.cassandraConfiguration = cassandraConfiguration;
         this.priamConfiguration = priamConfiguration;
         this.cassProcess = cassProcess;
         this.jersey = jersey;
         this.port = hostAndPort.getPort();
+        this.tokenManager = tokenManager;
+        this.moveOrchestrator = moveOrchestrator;
+        this.adminJobManager = adminJobManager;
+        this.ringCache = ringCache;
+        this.streamingMonitor = streamingMonitor;
     }
 
     private JMXNodeTool getNodeTool() {
@@ -95,6 +130,16 @@ public class CassandraAdminResource {
         }
     }
 
+    private List<Map<String, Object>> getRing(String keyspace) {
+        try {
+            return ringCache.ring(keyspace);
+        } catch (JMXConnectionException e) {
+            throw new WebApplicationException(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .entity("JMXConnectionException")
+                    .build());
+        }
+    }
+
     @GET
     @Path("/start")
     public Response cassStart() throws IOException, InterruptedException {
@@ -111,11 +156,14 @@ public class CassandraAdminResource {
 
     @GET
     @Path("/refresh")
-    public Response cassRefresh(@QueryParam("keyspaces") String keyspaces) throws Exception {
+    public Response cassRefresh(@QueryParam("keyspaces") String keyspaces, @QueryParam("async") boolean async) throws Exception {
         logger.info("node tool refresh is being called");
         if (StringUtils.isBlank(keyspaces)) {
             return Response.status(400).entity("Missing keyspace in request").build();
         }
+        if (async) {
+            return submitJob(AdminOperation.REFRESH, keyspaces, ImmutableMap.<String, String>of());
+        }
 
         JMXNodeTool nodetool = getNodeTool();
         nodetool.refresh(Lists.newArrayList(keyspaces.split(",")));
@@ -133,11 +181,16 @@ public class CassandraAdminResource {
     @GET
     @Path("/estimateKeys")
     public Response estimateKeys(@QueryParam("keyspaces") String keyspaces) throws Exception {
-        JMXNodeTool nodetool = getNodeTool();
-        Optional<Collection<String>> keyspaceCollection = StringUtils.isBlank(keyspaces) ?
-                Optional.absent() :
-                Optional.of(Lists.newArrayList(keyspaces.split(",")));
-        return Response.ok(nodetool.estimateKeys(keyspaceCollection), MediaType.APPLICATION_JSON).build();
+        final JMXNodeTool nodetool = getNodeTool();
+        final Optional<Collection<String>> keyspaceCollection = StringUtils.isBlank(keyspaces) ?
+                Optional.<Collection<String>>absent() :
+                Optional.<Collection<String>>of(Lists.newArrayList(keyspaces.split(",")));
+        return Response.ok(new JsonStreamingOutput() {
+            @Override
+            protected void write(JsonGenerator generator) throws IOException {
+                nodetool.writeEstimateKeys(keyspaceCollection, generator);
+            }
+        }, MediaType.APPLICATION_JSON).build();
     }
 
     /**
@@ -149,7 +202,7 @@ public class CassandraAdminResource {
     @GET
     @Path("/hints/ring")
     public Response cassHintsInRing() throws Exception {
-        List<Map<String, Object>> ring = getNodeTool().ring();
+        List<Map<String, Object>> ring = getRing(null);
         List<Map<String, Object>> hintsInfo = Lists.newArrayList();
         String selfIP = priamServer.getInstanceIdentity().getInstance().getHostIP();
         for (Map<String, Object> node : ring) {
@@ -211,51 +264,102 @@ public class CassandraAdminResource {
     @GET
     @Path("/ring/{keyspace}")
     public Response cassRing(@PathParam("keyspace") String keyspace) throws Exception {
-        JMXNodeTool nodetool = getNodeTool();
-        logger.info("node tool ring being called");
-        return Response.ok(nodetool.ring(keyspace), MediaType.APPLICATION_JSON).build();
+        return Response.ok(JsonStreamingOutput.rows(getRing(keyspace)), MediaType.APPLICATION_JSON).build();
     }
 
     @GET
     @Path("/ring")
     public Response cassRingAllKeyspaces() throws Exception {
-        JMXNodeTool nodetool = getNodeTool();
-        logger.info("node tool ring being called");
-        return Response.ok(nodetool.ring(), MediaType.APPLICATION_JSON).build();
+        return Response.ok(JsonStreamingOutput.rows(getRing(null)), MediaType.APPLICATION_JSON).build();
+    }
+
+    /**
+     * Returns the ownership of every node and rack, and the token moves that would balance the ring after adding
+     * {@code add} nodes to every rack.  Nothing is changed.
+     */
+    @GET
+    @Path("/ring/plan")
+    public Response cassRingPlan(@QueryParam("add") @DefaultValue("0") int newNodesPerRack,
+                                 @QueryParam("rf") @DefaultValue("3") int replicationFactor) throws Exception {
+        if (newNodesPerRack < 0 || replicationFactor < 1) {
+            return Response.status(400).entity("add must be >= 0 and rf must be >= 1").build();
+        }
+        logger.info("ring plan being called");
+        List<RingNode> nodes = RingNode.fromRing(getRing(null));
+        return Response.ok(new RingPlanner(tokenManager).plan(nodes, newNodesPerRack, replicationFactor), MediaType.APPLICATION_JSON).build();
     }
 
+    /**
+     * Flushes the selected tables, every table by default, and returns the time each table took.
+     */
     @GET
     @Path("/flush")
-    public Response cassFlush() throws Exception {
-        JMXNodeTool nodetool = getNodeTool();
-        logger.info("node tool flush being called");
-        nodetool.flush();
-        return Response.ok(RESULT_OK, MediaType.APPLICATION_JSON).build();
+    public Response cassFlush(@QueryParam("keyspaces") String keyspaces, @QueryParam("tables") String tables,
+                              @QueryParam("parallelism") Integer parallelism, @QueryParam("order") TableOrder order,
+                              @QueryParam("async") boolean async) throws Exception {
+        return runPerTable(AdminOperation.FLUSH, keyspaces, tables, parallelism, order, async);
     }
 
+    /**
+     * Compacts the selected tables, every table by default, and returns the time each table took.
+     */
     @GET
     @Path("/compact")
-    public Response cassCompact() throws Exception {
-        JMXNodeTool nodetool = getNodeTool();
-        logger.info("node tool compact being called");
-        nodetool.compact();
-        return Response.ok(RESULT_OK, MediaType.APPLICATION_JSON).build();
+    public Response cassCompact(@QueryParam("keyspaces") String keyspaces, @QueryParam("tables") String tables,
+                                @QueryParam("parallelism") Integer parallelism, @QueryParam("order") TableOrder order,
+                                @QueryParam("async") boolean async) throws Exception {
+        return runPerTable(AdminOperation.COMPACT, keyspaces, tables, parallelism, order, async);
     }
 
+    /**
+     * Cleans up the selected tables, every table but the system ones by default, and returns the time each table
+     * took.
+     */
     @GET
     @Path("/cleanup")
-    public Response cassCleanup() throws Exception {
+    public Response cassCleanup(@QueryParam("keyspaces") String keyspaces, @QueryParam("tables") String tables,
+                                @QueryParam("parallelism") Integer parallelism, @QueryParam("order") TableOrder order,
+                                @QueryParam("async") boolean async) throws Exception {
+        return runPerTable(AdminOperation.CLEANUP, keyspaces, tables, parallelism, order, async);
+    }
+
+    private Response runPerTable(AdminOperation operation, String keyspaces, String tables, Integer parallelism,
+                                 TableOrder order, boolean async) throws Exception {
+        if (parallelism != null && parallelism < 1) {
+            return Response.status(400).entity("parallelism must be >= 1").build();
+        }
+        if (async) {
+            Map<String, String> parameters = Maps.newHashMap();
+            if (tables != null) {
+                parameters.put(AdminJobManager.TABLES, tables);
+            }
+            if (parallelism != null) {
+                parameters.put(AdminJobManager.PARALLELISM, parallelism.toString());
+            }
+            if (order != null) {
+                parameters.put(AdminJobManager.ORDER, order.name());
+            }
+            return submitJob(operation, keyspaces, parameters);
+        }
+
         JMXNodeTool nodetool = getNodeTool();
-        logger.info("node tool cleanup being called");
-        nodetool.cleanup();
-        return Response.ok(RESULT_OK, MediaType.APPLICATION_JSON).build();
+        logger.info("node tool {} being called", operation.name().toLowerCase());
+        TableOperation tableOperation = operation.getTableOperation();
+        List<TableRun> runs = nodetool.runPerTable(tableOperation,
+                nodetool.tables(tableOperation, TableFilter.parse(keyspaces, tables), Objects.firstNonNull(order, cassandraConfiguration.getMaintenanceTableOrder())),
+                Objects.firstNonNull(parallelism, cassandraConfiguration.getMaintenanceParallelism()));
+        return Response.ok(ImmutableMap.<String, Object>of("result", "ok", "tables", runs), MediaType.APPLICATION_JSON).build();
     }
 
     @GET
     @Path("/repair")
     public Response cassRepair(@QueryParam("sequential") boolean isSequential,
                                @QueryParam("localDC") boolean localDCOnly,
-                               @QueryParam("primaryRange") boolean primaryRange) throws Exception {
+                               @QueryParam("primaryRange") boolean primaryRange,
+                               @QueryParam("async") boolean async) throws Exception {
+        if (async) {
+            return submitJob(AdminOperation.REPAIR, null, repairParameters(isSequential, localDCOnly, primaryRange));
+        }
         JMXNodeTool nodetool = getNodeTool();
         logger.info("node tool repair being called");
         nodetool.repair(isSequential, localDCOnly, primaryRange);
@@ -298,6 +402,7 @@ public class CassandraAdminResource {
     public Response disablegossip() throws Exception {
         JMXNodeTool nodetool = getNodeTool();
         nodetool.stopGossiping();
+        ringCache.invalidate();
         return Response.ok(RESULT_OK, MediaType.APPLICATION_JSON).build();
     }
 
@@ -306,6 +411,7 @@ public class CassandraAdminResource {
     public Response enablegossip() throws Exception {
         JMXNodeTool nodetool = getNodeTool();
         nodetool.startGossiping();
+        ringCache.invalidate();
         return Response.ok(RESULT_OK, MediaType.APPLICATION_JSON).build();
     }
 
@@ -346,67 +452,228 @@ public class CassandraAdminResource {
         return Response.status(Response.Status.SERVICE_UNAVAILABLE).build();
     }
 
+    /**
+     * Returns the gossip state of every endpoint known to the node, by endpoint address.
+     */
     @GET
     @Path("/gossipinfo")
     public Response gossipinfo() throws Exception {
         JMXNodeTool nodetool = getNodeTool();
-        Map<String, Object> rootObj = Maps.newLinkedHashMap();
-        String[] ginfo = nodetool.getGossipInfo().split("/");
-        for (String info : ginfo) {
-            String[] data = info.split("\n");
-            String key = "";
-            Map<String, Object> obj = Maps.newLinkedHashMap();
-            for (String element : data) {
-                String[] kv = element.split(":");
-                if (kv.length == 1) {
-                    key = kv[0];
-                } else {
-                    obj.put(kv[0], kv[1]);
+        final String gossipInfo = nodetool.getGossipInfo();
+        return Response.ok(new JsonStreamingOutput() {
+            @Override
+            protected void write(JsonGenerator generator) throws IOException {
+                generator.writeStartObject();
+                GossipInfoParser endpoints = GossipInfoParser.parse(gossipInfo);
+                while (endpoints.hasNext()) {
+                    GossipEndpointState endpoint = endpoints.next();
+                    generator.writeFieldName(endpoint.getEndpoint());
+                    generator.writeObject(endpoint);
                 }
+                generator.writeEndObject();
             }
-            if (StringUtils.isNotBlank(key)) {
-                rootObj.put(key, obj);
-            }
-        }
-        return Response.ok(rootObj, MediaType.APPLICATION_JSON).build();
+        }, MediaType.APPLICATION_JSON).build();
     }
 
+    /**
+     * Returns the operation mode of the node and its streams by peer, with the bytes and files streamed so far, and
+     * the rates and ETA measured since the previous call.
+     */
     @GET
     @Path("/netstats")
     public Response netstats() throws Exception {
-        JMXNodeTool nodetool = getNodeTool();
-        Map<String, Object> rootObj = Maps.newLinkedHashMap();
-        rootObj.put("mode", nodetool.getOperationMode());
-
-        // Collect Sending Netstats
-        Set<StreamState> netstats = nodetool.getStreamStatus();
-
-        for (StreamState streamState : netstats) {
-            final Set<SessionInfo> streamSessions = streamState.sessions;
-            for (SessionInfo streamSession : streamSessions) {
-                final Collection<ProgressInfo> sendingFiles = streamSession.getSendingFiles();
-                final Collection<ProgressInfo> receivingFiles = streamSession.getReceivingFiles();
-                final String connectingHost = streamSession.connecting.getHostName();
-                final Set<Collection<ProgressInfo>> streams = rootObj.containsKey(connectingHost) ? (Set<Collection<ProgressInfo>>) rootObj.get(connectingHost) : Sets.newHashSet();
-                streams.add(sendingFiles);
-                streams.add(receivingFiles);
-                rootObj.put(connectingHost, streams);
-            }
+        final StreamingStatus status;
+        try {
+            status = streamingMonitor.poll();
+        } catch (JMXConnectionException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity("JMXConnectionException").build();
         }
-
-        return Response.ok(rootObj, MediaType.APPLICATION_JSON).build();
+        return Response.ok(new JsonStreamingOutput() {
+            @Override
+            protected void write(JsonGenerator generator) throws IOException {
+                generator.writeStartObject();
+                generator.writeStringField("mode", status.getMode());
+                generator.writeNumberField("time", status.getTime());
+                generator.writeArrayFieldStart("peers");
+                for (StreamingPeer peer : status.getPeers()) {
+                    generator.writeObject(peer);
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        }, MediaType.APPLICATION_JSON).build();
     }
 
     @GET
     @Path("/move")
-    public Response moveToken(@QueryParam("token") String newToken)
+    public Response moveToken(@QueryParam("token") String newToken, @QueryParam("async") boolean async)
             throws Exception {
+        if (async) {
+            return submitJob(AdminOperation.MOVE, null, newToken == null ? ImmutableMap.<String, String>of() :
+                    ImmutableMap.of(AdminJobManager.TOKEN, newToken));
+        }
         JMXNodeTool nodetool = getNodeTool();
         nodetool.move(newToken);
+        ringCache.invalidate();
         priamServer.getInstanceIdentity().updateToken();
         return Response.ok(RESULT_OK, MediaType.APPLICATION_JSON).build();
     }
 
+    /**
+     * Starts moving nodes of the ring to new tokens, one at a time or one per rack at a time, as a background job.
+     * Takes the moves listed by {@code /ring/plan}; only the endpoint and new token of each move are required.
+     */
+    @POST
+    @Path("/moves")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response startMoves(List<RingPlan.Move> moves,
+                               @QueryParam("parallelism") @DefaultValue("SERIAL") MoveJob.Parallelism parallelism,
+                               @QueryParam("pauseSeconds") @DefaultValue("60") int pauseSeconds) throws Exception {
+        if (pauseSeconds < 0) {
+            return Response.status(400).entity("pauseSeconds must be >= 0").build();
+        }
+        try {
+            MoveJob job = moveOrchestrator.submit(moves, parallelism, TimeUnit.SECONDS.toMillis(pauseSeconds));
+            return Response.status(Response.Status.ACCEPTED).entity(job).type(MediaType.APPLICATION_JSON).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+        } catch (JMXConnectionException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity("JMXConnectionException").build();
+        }
+    }
+
+    @GET
+    @Path("/moves")
+    public Response moveJobs() {
+        return Response.ok(moveOrchestrator.getJobs(), MediaType.APPLICATION_JSON).build();
+    }
+
+    @GET
+    @Path("/moves/{id}")
+    public Response moveJob(@PathParam("id") String id) {
+        MoveJob job = moveOrchestrator.getJob(id);
+        if (job == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.ok(job, MediaType.APPLICATION_JSON).build();
+    }
+
+    /**
+     * Stops a move job once the moves in progress complete.
+     */
+    @POST
+    @Path("/moves/{id}/cancel")
+    public Response cancelMoveJob(@PathParam("id") String id) {
+        MoveJob job = moveOrchestrator.cancel(id);
+        if (job == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.ok(job, MediaType.APPLICATION_JSON).build();
+    }
+
+    /**
+     * Starts a long admin operation in the background, on the given keyspaces or every keyspace.  The job is
+     * returned right away and polled at the returned location.  Operations are {@code compact}, {@code cleanup},
+     * {@code flush}, {@code repair}, {@code refresh}, {@code drain} and {@code move}.
+     */
+    @POST
+    @Path("/jobs")
+    public Response startJob(@QueryParam("operation") String operation,
+                             @QueryParam("keyspaces") String keyspaces,
+                             @QueryParam("tables") String tables,
+                             @QueryParam("parallelism") String parallelism,
+                             @QueryParam("order") String order,
+                             @QueryParam("sequential") boolean isSequential,
+                             @QueryParam("localDC") boolean localDCOnly,
+                             @QueryParam("primaryRange") boolean primaryRange,
+                             @QueryParam("token") String newToken) {
+        if (StringUtils.isBlank(operation)) {
+            return Response.status(400).entity("Missing operation in request").build();
+        }
+        AdminOperation adminOperation;
+        try {
+            adminOperation = AdminOperation.parse(operation);
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        }
+        Map<String, String> parameters = Maps.newHashMap(repairParameters(isSequential, localDCOnly, primaryRange));
+        if (newToken != null) {
+            parameters.put(AdminJobManager.TOKEN, newToken);
+        }
+        if (tables != null) {
+            parameters.put(AdminJobManager.TABLES, tables);
+        }
+        if (parallelism != null) {
+            parameters.put(AdminJobManager.PARALLELISM, parallelism);
+        }
+        if (order != null) {
+            parameters.put(AdminJobManager.ORDER, order);
+        }
+        return submitJob(adminOperation, keyspaces, parameters);
+    }
+
+    @GET
+    @Path("/jobs")
+    public Response adminJobs() {
+        return Response.ok(adminJobManager.getJobs(), MediaType.APPLICATION_JSON).build();
+    }
+
+    /**
+     * Returns a job, with the progress of its compactions while it runs.
+     */
+    @GET
+    @Path("/jobs/{id}")
+    public Response adminJob(@PathParam("id") String id) {
+        AdminJob job = adminJobManager.getJob(id);
+        if (job == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.ok(job, MediaType.APPLICATION_JSON).build();
+    }
+
+    /**
+     * Cancels a job.  Queued jobs never run, compactions and cleanups are stopped, other operations stop after the
+     * keyspace in progress.  Drains and moves can't be cancelled once started.
+     */
+    @DELETE
+    @Path("/jobs/{id}")
+    public Response cancelAdminJob(@PathParam("id") String id) {
+        AdminJob job = adminJobManager.cancel(id);
+        if (job == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.ok(job, MediaType.APPLICATION_JSON).build();
+    }
+
+    private Response submitJob(AdminOperation operation, String keyspaces, Map<String, String> parameters) {
+        List<String> keyspaceList = StringUtils.isBlank(keyspaces) ?
+                ImmutableList.<String>of() :
+                ImmutableList.copyOf(keyspaces.split(","));
+        try {
+            AdminJob job = adminJobManager.submit(operation, keyspaceList, parameters);
+            return Response.status(Response.Status.ACCEPTED)
+                    .location(UriBuilder.fromResource(CassandraAdminResource.class).path("jobs/{id}").build(job.getId()))
+                    .entity(job)
+                    .type(MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(400).entity(e.getMessage()).build();
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+        } catch (RejectedExecutionException e) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE).entity("Too many admin jobs queued").build();
+        }
+    }
+
+    private static Map<String, String> repairParameters(boolean isSequential, boolean localDCOnly, boolean primaryRange) {
+        return ImmutableMap.of(
+                AdminJobManager.SEQUENTIAL, Boolean.toString(isSequential),
+                AdminJobManager.LOCAL_DC, Boolean.toString(localDCOnly),
+                AdminJobManager.PRIMARY_RANGE, Boolean.toString(primaryRange));
+    }
+
     @GET
     @Path("/cfhistograms")
     public Response cfhistograms(@QueryParam("keyspace") String keyspace, @QueryParam("cfname") String cfname)
@@ -445,7 +712,10 @@ public class CassandraAdminResource {
 
     @GET
     @Path("/drain")
-    public Response cassDrain() throws Exception {
+    public Response cassDrain(@QueryParam("async") boolean async) throws Exception {
+        if (async) {
+            return submitJob(AdminOperation.DRAIN, null, ImmutableMap.<String, String>of());
+        }
         JMXNodeTool nodetool = getNodeTool();
         logger.info("node tool drain being called");
         nodetool.drain();
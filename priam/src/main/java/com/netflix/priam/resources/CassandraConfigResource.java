@@ -18,6 +18,7 @@ package com.netflix.priam.resources;
 import com.google.inject.Inject;
 import com.netflix.priam.PriamServer;
 import com.netflix.priam.identity.DoubleRing;
+import com.netflix.priam.identity.RingExpansion;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
@@ -27,6 +28,7 @@ import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.io.IOException;
@@ -43,11 +45,13 @@ public class CassandraConfigResource {
 
     private final PriamServer priamServer;
     private final DoubleRing doubleRing;
+    private final RingExpansion ringExpansion;
 
     @Inject
-    public CassandraConfigResource(PriamServer server, DoubleRing doubleRing) {
+    public CassandraConfigResource(PriamServer server, DoubleRing doubleRing, RingExpansion ringExpansion) {
         this.priamServer = server;
         this.doubleRing = doubleRing;
+        this.ringExpansion = ringExpansion;
     }
 
     @GET
@@ -134,4 +138,60 @@ public class CassandraConfigResource {
         }
         return Response.status(200).build();
     }
+
+    /**
+     * Returns the slots and tokens the ring would have after growing by {@code factor} or by {@code perZone} nodes in
+     * every availability zone, without changing anything.
+     */
+    @GET
+    @Path("/expand_ring")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response planRingExpansion(@QueryParam("factor") Double factor, @QueryParam("perZone") Integer perZone) {
+        try {
+            return Response.ok(ringExpansion.plan(growth(factor, perZone))).build();
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return Response.status(400).entity(e.getMessage()).type(MediaType.TEXT_PLAIN).build();
+        }
+    }
+
+    /**
+     * Registers the new slots of the ring grown by {@code factor} or by {@code perZone} nodes in every availability
+     * zone.  The registry is backed up first, see {@code /restore_ring}.  If a slot is taken while expanding, the
+     * placeholders registered so far are deleted and 409 is returned.
+     */
+    @POST
+    @Path("/expand_ring")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response expandRing(@QueryParam("factor") Double factor, @QueryParam("perZone") Integer perZone) throws IOException {
+        RingExpansion.Layout layout;
+        try {
+            layout = ringExpansion.plan(growth(factor, perZone));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return Response.status(400).entity(e.getMessage()).type(MediaType.TEXT_PLAIN).build();
+        }
+        ringExpansion.backup();
+        try {
+            return Response.ok(ringExpansion.expand(layout)).build();
+        } catch (IllegalStateException e) {
+            logger.error("Error in expanding the ring...", e);
+            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).type(MediaType.TEXT_PLAIN).build();
+        }
+    }
+
+    /**
+     * Puts the registry entries of this data center back the way they were before the last expansion.
+     */
+    @POST
+    @Path("/restore_ring")
+    public Response restoreRing() throws IOException {
+        ringExpansion.restore();
+        return Response.status(200).build();
+    }
+
+    private static RingExpansion.Growth growth(Double factor, Integer perZone) {
+        if ((factor == null) == (perZone == null)) {
+            throw new IllegalArgumentException("Exactly one of factor and perZone is required");
+        }
+        return factor != null ? RingExpansion.Growth.factor(factor) : RingExpansion.Growth.perZone(perZone);
+    }
 }
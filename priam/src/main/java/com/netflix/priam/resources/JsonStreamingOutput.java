@@ -0,0 +1,54 @@
+package com.netflix.priam.resources;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A JSON response written as it is produced, e.g. row by row from JMX, instead of being built as a tree of maps and
+ * serialized once complete.  The status and headers are sent with the first bytes, so errors after that cut the
+ * response short.
+ */
+public abstract class JsonStreamingOutput implements StreamingOutput {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        // Jersey owns the stream, it's flushed but not closed
+        JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(output);
+        write(generator);
+        generator.flush();
+    }
+
+    protected abstract void write(JsonGenerator generator) throws IOException;
+
+    /**
+     * Writes rows as an array of objects.
+     */
+    public static JsonStreamingOutput rows(final List<Map<String, Object>> rows) {
+        return new JsonStreamingOutput() {
+            @Override
+            protected void write(JsonGenerator generator) throws IOException {
+                generator.writeStartArray();
+                for (Map<String, Object> row : rows) {
+                    writeRow(generator, row);
+                }
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    static void writeRow(JsonGenerator generator, Map<String, ?> row) throws IOException {
+        generator.writeStartObject();
+        for (Map.Entry<String, ?> field : row.entrySet()) {
+            generator.writeFieldName(field.getKey());
+            generator.writeObject(field.getValue());
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,103 @@
+package com.netflix.priam.resources;
+
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.annotation.Timed;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.priam.scheduler.Task;
+import com.netflix.priam.scheduler.TaskCoordinator;
+import com.netflix.priam.scheduler.TaskRegistry;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Executions of the scheduled tasks.  Durations are in ms, times in ms since the epoch with 0 for never.
+ */
+@Singleton
+@Path("/v1/scheduler")
+@Produces(MediaType.APPLICATION_JSON)
+public class SchedulerResource {
+    private final TaskRegistry taskRegistry;
+    private final TaskCoordinator taskCoordinator;
+
+    @Inject
+    public SchedulerResource(TaskRegistry taskRegistry, TaskCoordinator taskCoordinator) {
+        this.taskRegistry = taskRegistry;
+        this.taskCoordinator = taskCoordinator;
+    }
+
+    @GET
+    @Path("/tasks")
+    @Timed
+    public List<Map<String, Object>> getTasks() {
+        List<Map<String, Object>> tasks = Lists.newArrayList();
+        for (Task task : taskRegistry.getTasks()) {
+            Map<String, Object> info = Maps.newLinkedHashMap();
+            info.put("name", task.getName());
+            info.put("state", task.state());
+            info.put("concurrency", task.getConcurrency());
+            info.put("priority", task.getPriority());
+            info.put("resources", task.getResources());
+            info.put("dependencies", task.getDependencies());
+            info.put("executions", task.getExecutionCount());
+            info.put("errors", task.getErrorCount());
+            info.put("misfires", task.getMisfireCount());
+            info.put("running", task.getRunningCount());
+            info.put("runningTime", task.getRunningTimeMillis());
+            info.put("lastStartTime", task.getLastStartTime());
+            info.put("lastEndTime", task.getLastEndTime());
+            info.put("lastError", task.getLastError());
+
+            Snapshot snapshot = task.getDurations().getSnapshot();
+            Map<String, Object> durations = Maps.newLinkedHashMap();
+            durations.put("count", task.getDurations().getCount());
+            durations.put("min", snapshot.getMin());
+            durations.put("mean", snapshot.getMean());
+            durations.put("p50", snapshot.getMedian());
+            durations.put("p95", snapshot.get95thPercentile());
+            durations.put("p99", snapshot.get99thPercentile());
+            durations.put("max", snapshot.getMax());
+            info.put("duration", durations);
+            tasks.add(info);
+        }
+        return tasks;
+    }
+
+    /**
+     * Names of the tasks waiting for others to finish, in the order they'll start.
+     */
+    @GET
+    @Path("/waiting")
+    @Timed
+    public List<String> getWaiting() {
+        return taskCoordinator.getWaiting();
+    }
+
+    /**
+     * Cancels the running executions of a task.  They stop at their next cancellation check, e.g. node repair after
+     * the keyspace being repaired.
+     */
+    @POST
+    @Path("/tasks/{name}/cancel")
+    @Timed
+    public Map<String, Object> cancel(@PathParam("name") String name) {
+        Task task = taskRegistry.get(name);
+        if (task == null) {
+            throw new WebApplicationException(Response.Status.NOT_FOUND);
+        }
+        int cancelled = task.cancel("Cancelled via REST");
+        return ImmutableMap.<String, Object>of("name", name, "cancelled", cancelled);
+    }
+}
@@ -0,0 +1,172 @@
+package com.netflix.priam.ring;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Progress of a set of token moves run by {@link MoveOrchestrator}.  Updated by the orchestrator thread while it is
+ * read by the admin resource, so every field is safe to read at any time.
+ */
+public class MoveJob {
+    public enum State {RUNNING, SUCCEEDED, FAILED, CANCELLED}
+
+    public enum Parallelism {
+        /** One move at a time across the whole ring. */
+        SERIAL,
+        /**
+         * One move at a time in each rack, racks moving concurrently.  Cassandra refuses concurrent range movements
+         * unless {@code cassandra.consistent.rangemovement} is disabled.
+         */
+        PER_RACK
+    }
+
+    @JsonProperty
+    private final String id;
+
+    @JsonProperty
+    private final Parallelism parallelism;
+
+    @JsonProperty
+    private final List<Step> steps;
+
+    @JsonProperty
+    private final List<String> cleanedUp = new CopyOnWriteArrayList<>();
+
+    @JsonProperty
+    private final long startTime = System.currentTimeMillis();
+
+    @JsonProperty
+    private volatile long endTime;
+
+    @JsonProperty
+    private volatile State state = State.RUNNING;
+
+    @JsonProperty
+    private volatile String error;
+
+    private volatile boolean cancelRequested;
+
+    public MoveJob(String id, Parallelism parallelism, List<RingPlan.Move> moves) {
+        this.id = id;
+        this.parallelism = parallelism;
+        List<Step> steps = Lists.newArrayList();
+        for (RingPlan.Move move : moves) {
+            steps.add(new Step(move));
+        }
+        this.steps = ImmutableList.copyOf(steps);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Parallelism getParallelism() {
+        return parallelism;
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * Endpoints asked to run {@code nodetool cleanup} once every move completed.
+     */
+    public List<String> getCleanedUp() {
+        return cleanedUp;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /**
+     * Stops the job once the moves in progress complete.  Moves already started can't be interrupted.
+     */
+    void cancel() {
+        cancelRequested = true;
+    }
+
+    void cleanedUp(String endpoint) {
+        cleanedUp.add(endpoint);
+    }
+
+    void finish(State state, String error) {
+        this.error = error;
+        this.endTime = System.currentTimeMillis();
+        this.state = state;
+    }
+
+    public static class Step {
+        public enum State {PENDING, MOVING, DONE, FAILED, SKIPPED}
+
+        @JsonProperty
+        private final RingPlan.Move move;
+
+        @JsonProperty
+        private volatile State state = State.PENDING;
+
+        @JsonProperty
+        private volatile long startTime;
+
+        @JsonProperty
+        private volatile long endTime;
+
+        @JsonProperty
+        private volatile String error;
+
+        Step(RingPlan.Move move) {
+            this.move = move;
+        }
+
+        public RingPlan.Move getMove() {
+            return move;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public long getEndTime() {
+            return endTime;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        void started() {
+            startTime = System.currentTimeMillis();
+            state = State.MOVING;
+        }
+
+        void finish(State state, String error) {
+            this.error = error;
+            this.endTime = System.currentTimeMillis();
+            this.state = state;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.netflix.priam.ring;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.net.HostAndPort;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.priam.config.CassandraConfiguration;
+import com.netflix.priam.identity.IPriamInstanceRegistry;
+import com.netflix.priam.identity.PriamInstance;
+import com.netflix.priam.utils.JMXConnectionException;
+import com.netflix.priam.utils.JMXNodeTool;
+import com.netflix.priam.utils.Sleeper;
+import com.netflix.priam.utils.TokenManager;
+import com.sun.jersey.api.client.Client;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Runs the token moves of a {@link RingPlan} across the cluster.
+ * <p/>
+ * Each move is started through the Priam API of the node being moved, which runs {@code nodetool move} in the
+ * background.  The orchestrator then polls the ring from the local node until the node is back to {@code Normal}
+ * with its new token, records the token in the instance registry and goes on with the next move after a pause.
+ * Moves only start while every node of the ring is up and {@code Normal}.  Once all moves completed every node of the
+ * data centers involved is asked to run {@code nodetool cleanup}.
+ * <p/>
+ * Only one job runs at a time.  Jobs run on a background thread and are reported through {@link MoveJob}.
+ */
+@Singleton
+public class MoveOrchestrator {
+    private static final Logger logger = LoggerFactory.getLogger(MoveOrchestrator.class);
+
+    @VisibleForTesting
+    static final long POLL_INTERVAL_MS = TimeUnit.SECONDS.toMillis(10);
+
+    /** Number of polls a node gets to show up as {@code Moving} before its move is considered failed. */
+    @VisibleForTesting
+    static final int MOVE_START_POLLS = 12;
+
+    private static final int MAX_JOBS = 20;
+
+    private final CassandraConfiguration cassandraConfiguration;
+    private final IPriamInstanceRegistry instanceRegistry;
+    private final TokenManager tokenManager;
+    private final Client jersey;
+    private final int port;
+    private final Sleeper sleeper;
+    private final ExecutorService executor;
+    private final Map<String, MoveJob> jobs = Maps.newLinkedHashMap();
+    private MoveJob current;
+
+    @Inject
+    public MoveOrchestrator(CassandraConfiguration cassandraConfiguration, IPriamInstanceRegistry instanceRegistry,
+                            TokenManager tokenManager, Client jersey, HostAndPort hostAndPort, Sleeper sleeper) {
+        this.cassandraConfiguration = cassandraConfiguration;
+        this.instanceRegistry = instanceRegistry;
+        this.tokenManager = tokenManager;
+        this.jersey = jersey;
+        this.port = hostAndPort.getPort();
+        this.sleeper = sleeper;
+        this.executor = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("move-orchestrator-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Starts moving nodes to new tokens, pausing {@code pauseMs} between moves.
+     *
+     * @throws IllegalArgumentException if a move doesn't apply to the current ring
+     * @throws IllegalStateException    if another job is still running
+     */
+    public synchronized MoveJob submit(List<RingPlan.Move> moves, MoveJob.Parallelism parallelism, final long pauseMs)
+            throws JMXConnectionException {
+        checkState(current == null || current.getState() != MoveJob.State.RUNNING, "Move job %s is still running", current != null ? current.getId() : null);
+        final MoveJob job = prepare(ring(), moves, parallelism);
+
+        if (jobs.size() >= MAX_JOBS) {
+            jobs.remove(jobs.keySet().iterator().next());
+        }
+        jobs.put(job.getId(), job);
+        current = job;
+
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                MoveOrchestrator.this.run(job, pauseMs);
+            }
+        });
+        return job;
+    }
+
+    public synchronized List<MoveJob> getJobs() {
+        return ImmutableList.copyOf(jobs.values());
+    }
+
+    /**
+     * Returns the job with the given id, or {@code null} if it isn't known.
+     */
+    public synchronized MoveJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * Asks the job with the given id to stop after the moves in progress.  Returns {@code null} if it isn't known.
+     */
+    public synchronized MoveJob cancel(String id) {
+        MoveJob job = jobs.get(id);
+        if (job != null) {
+            job.cancel();
+        }
+        return job;
+    }
+
+    /**
+     * Checks the moves against the ring and fills in the data center, rack and current token of each node.
+     */
+    @VisibleForTesting
+    MoveJob prepare(List<Map<String, Object>> ring, List<RingPlan.Move> moves, MoveJob.Parallelism parallelism) {
+        checkArgument(moves != null && !moves.isEmpty(), "No moves given");
+        checkArgument(parallelism != null, "No parallelism given");
+
+        Map<String, RingNode> nodesByEndpoint = Maps.newHashMap();
+        for (RingNode node : RingNode.fromRing(ring)) {
+            nodesByEndpoint.put(node.getEndpoint(), node);
+        }
+
+        Set<String> endpoints = Sets.newHashSet();
+        List<RingPlan.Move> resolved = Lists.newArrayList();
+        for (RingPlan.Move move : moves) {
+            checkArgument(move.getEndpoint() != null && move.getNewToken() != null, "Every move needs an endpoint and a new token");
+            RingNode node = nodesByEndpoint.get(move.getEndpoint());
+            checkArgument(node != null, "%s is not in the ring", move.getEndpoint());
+            checkArgument(node.getTokens().size() == 1, "%s has %s tokens, only single token nodes can move", move.getEndpoint(), node.getTokens().size());
+            checkArgument(endpoints.add(move.getEndpoint()), "%s is moved more than once", move.getEndpoint());
+            try {
+                tokenManager.parseToken(move.getNewToken());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid token " + move.getNewToken() + " for " + move.getEndpoint());
+            }
+            resolved.add(new RingPlan.Move(node.getEndpoint(), node.getDataCenter(), node.getRack(), node.getTokens().get(0), move.getNewToken()));
+        }
+        return new MoveJob(UUID.randomUUID().toString(), parallelism, resolved);
+    }
+
+    @VisibleForTesting
+    void run(MoveJob job, long pauseMs) {
+        logger.info("Starting move job {} with {} moves", job.getId(), job.getSteps().size());
+        try {
+            List<List<MoveJob.Step>> waves = waves(job);
+            for (int i = 0; i < waves.size(); i++) {
+                if (i > 0) {
+                    sleeper.sleep(pauseMs);
+                }
+                if (job.isCancelRequested()) {
+                    logger.info("Move job {} cancelled", job.getId());
+                    skipPending(job);
+                    job.finish(MoveJob.State.CANCELLED, null);
+                    return;
+                }
+                checkSettled(ring());
+                runWave(waves.get(i));
+            }
+            cleanup(job);
+            logger.info("Move job {} completed", job.getId());
+            job.finish(MoveJob.State.SUCCEEDED, null);
+        } catch (Exception e) {
+            logger.error("Move job {} failed", job.getId(), e);
+            skipPending(job);
+            job.finish(MoveJob.State.FAILED, e.getMessage());
+        }
+    }
+
+    /**
+     * Groups the steps that run together, in order.
+     */
+    private static List<List<MoveJob.Step>> waves(MoveJob job) {
+        List<List<MoveJob.Step>> waves = Lists.newArrayList();
+        if (job.getParallelism() == MoveJob.Parallelism.SERIAL) {
+            for (MoveJob.Step step : job.getSteps()) {
+                waves.add(Collections.singletonList(step));
+            }
+            return waves;
+        }
+
+        // The n-th wave holds the n-th move of every rack
+        Map<String, Integer> movesPerRack = Maps.newHashMap();
+        for (MoveJob.Step step : job.getSteps()) {
+            String rack = step.getMove().getDataCenter() + "/" + step.getMove().getRack();
+            int wave = movesPerRack.containsKey(rack) ? movesPerRack.get(rack) : 0;
+            movesPerRack.put(rack, wave + 1);
+            if (wave == waves.size()) {
+                waves.add(Lists.<MoveJob.Step>newArrayList());
+            }
+            waves.get(wave).add(step);
+        }
+        return waves;
+    }
+
+    private void runWave(List<MoveJob.Step> wave) throws InterruptedException {
+        for (MoveJob.Step step : wave) {
+            RingPlan.Move move = step.getMove();
+            logger.info("Moving {} from {} to {}", move.getEndpoint(), move.getOldToken(), move.getNewToken());
+            step.started();
+            requestMove(move.getEndpoint(), move.getNewToken());
+        }
+
+        Map<MoveJob.Step, Integer> pollsBeforeMoving = Maps.newHashMap();
+        for (MoveJob.Step step : wave) {
+            pollsBeforeMoving.put(step, 0);
+        }
+        List<String> failures = Lists.newArrayList();
+        Set<MoveJob.Step> pending = Sets.newLinkedHashSet(wave);
+        while (!pending.isEmpty()) {
+            sleeper.sleep(POLL_INTERVAL_MS);
+            List<Map<String, Object>> ring;
+            try {
+                ring = ring();
+            } catch (JMXConnectionException e) {
+                logger.warn("Unable to read the ring, will retry", e);
+                continue;
+            }
+            Map<String, Map<String, Object>> rowsByEndpoint = Maps.newHashMap();
+            for (Map<String, Object> row : ring) {
+                rowsByEndpoint.put(row.get("endpoint").toString(), row);
+            }
+
+            for (Iterator<MoveJob.Step> it = pending.iterator(); it.hasNext(); ) {
+                MoveJob.Step step = it.next();
+                RingPlan.Move move = step.getMove();
+                String failure = null;
+
+                Map<String, Object> row = rowsByEndpoint.get(move.getEndpoint());
+                if (row == null) {
+                    failure = move.getEndpoint() + " left the ring while moving";
+                } else if ("Moving".equals(row.get("state"))) {
+                    pollsBeforeMoving.remove(step);
+                    continue;
+                } else if ("Normal".equals(row.get("state")) && sameToken(row.get("token").toString(), move.getNewToken())) {
+                    updateRegistry(move);
+                    logger.info("Moved {} to {}", move.getEndpoint(), move.getNewToken());
+                    step.finish(MoveJob.Step.State.DONE, null);
+                    it.remove();
+                    continue;
+                } else if (!pollsBeforeMoving.containsKey(step)) {
+                    failure = String.format("%s stopped moving with token %s", move.getEndpoint(), row.get("token"));
+                } else if (pollsBeforeMoving.get(step) >= MOVE_START_POLLS) {
+                    failure = move.getEndpoint() + " never started moving";
+                } else {
+                    pollsBeforeMoving.put(step, pollsBeforeMoving.get(step) + 1);
+                    continue;
+                }
+
+                logger.error("Move of {} to {} failed: {}", move.getEndpoint(), move.getNewToken(), failure);
+                step.finish(MoveJob.Step.State.FAILED, failure);
+                failures.add(failure);
+                it.remove();
+            }
+        }
+        checkState(failures.isEmpty(), "Moves failed: %s", failures);
+    }
+
+    /**
+     * Asks every node of the data centers where nodes moved to drop the data it no longer owns.
+     */
+    private void cleanup(MoveJob job) throws JMXConnectionException {
+        Set<String> dataCenters = Sets.newHashSet();
+        for (MoveJob.Step step : job.getSteps()) {
+            dataCenters.add(step.getMove().getDataCenter());
+        }
+        for (RingNode node : RingNode.fromRing(ring())) {
+            if (!dataCenters.contains(node.getDataCenter())) {
+                continue;
+            }
+            try {
+                requestCleanup(node.getEndpoint());
+                job.cleanedUp(node.getEndpoint());
+            } catch (Exception e) {
+                logger.warn("Unable to start cleanup on {}", node.getEndpoint(), e);
+            }
+        }
+    }
+
+    private static void checkSettled(List<Map<String, Object>> ring) {
+        for (Map<String, Object> row : ring) {
+            checkState("Up".equals(row.get("status")) && "Normal".equals(row.get("state")),
+                    "%s is %s and %s, waiting for a settled ring", row.get("endpoint"), row.get("status"), row.get("state"));
+        }
+    }
+
+    private static void skipPending(MoveJob job) {
+        for (MoveJob.Step step : job.getSteps()) {
+            if (step.getState() == MoveJob.Step.State.PENDING) {
+                step.finish(MoveJob.Step.State.SKIPPED, null);
+            }
+        }
+    }
+
+    private boolean sameToken(String left, String right) {
+        return tokenManager.parseToken(left).equals(tokenManager.parseToken(right));
+    }
+
+    /**
+     * Records the new token in the registry.  The moved node does the same once its move completes, this covers a
+     * node that failed to.
+     */
+    private void updateRegistry(RingPlan.Move move) {
+        for (PriamInstance instance : instanceRegistry.getAllIds(cassandraConfiguration.getClusterName())) {
+            if (move.getEndpoint().equals(instance.getHostIP())) {
+                instance.setTokens(Collections.singletonList(move.getNewToken()));
+                instanceRegistry.update(instance);
+                return;
+            }
+        }
+        logger.warn("{} is not registered, its new token was not recorded", move.getEndpoint());
+    }
+
+    @VisibleForTesting
+    List<Map<String, Object>> ring() throws JMXConnectionException {
+        return JMXNodeTool.instance(cassandraConfiguration).ring();
+    }
+
+    @VisibleForTesting
+    void requestMove(String endpoint, String token) {
+        jersey.resource(adminUrl(endpoint, "move"))
+                .queryParam("token", token)
+                .queryParam("async", "true")
+                .get(String.class);
+    }
+
+    @VisibleForTesting
+    void requestCleanup(String endpoint) {
+        jersey.resource(adminUrl(endpoint, "cleanup"))
+                .queryParam("async", "true")
+                .get(String.class);
+    }
+
+    private String adminUrl(String endpoint, String operation) {
+        return String.format("http://%s:%s/v1/cassadmin/%s", endpoint, port, operation);
+    }
+}
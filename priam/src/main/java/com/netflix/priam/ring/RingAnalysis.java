@@ -0,0 +1,148 @@
+package com.netflix.priam.ring;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * Ownership of the ring as computed by {@link RingAnalyzer}.  Ownership is a fraction of the ring: primary ownership
+ * sums to 1 in each data center, effective ownership to the replication factor.
+ */
+public class RingAnalysis {
+    @JsonProperty
+    private final int replicationFactor;
+
+    @JsonProperty
+    private final List<DataCenter> dataCenters;
+
+    public RingAnalysis(int replicationFactor, List<DataCenter> dataCenters) {
+        this.replicationFactor = replicationFactor;
+        this.dataCenters = ImmutableList.copyOf(dataCenters);
+    }
+
+    public int getReplicationFactor() {
+        return replicationFactor;
+    }
+
+    public List<DataCenter> getDataCenters() {
+        return dataCenters;
+    }
+
+    public static class DataCenter {
+        @JsonProperty
+        private final String name;
+
+        @JsonProperty
+        private final List<Node> nodes;
+
+        @JsonProperty
+        private final List<Rack> racks;
+
+        public DataCenter(String name, List<Node> nodes, List<Rack> racks) {
+            this.name = name;
+            this.nodes = ImmutableList.copyOf(nodes);
+            this.racks = ImmutableList.copyOf(racks);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<Node> getNodes() {
+            return nodes;
+        }
+
+        public List<Rack> getRacks() {
+            return racks;
+        }
+
+        /**
+         * Returns how much more data the fullest node holds than the emptiest, 1 being perfectly balanced.
+         */
+        @JsonProperty
+        public double getImbalance() {
+            double most = 0;
+            double least = Double.MAX_VALUE;
+            for (Node node : nodes) {
+                most = Math.max(most, node.getEffectiveOwnership());
+                least = Math.min(least, node.getEffectiveOwnership());
+            }
+            return least > 0 ? most / least : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    public static class Node {
+        @JsonProperty
+        private final String endpoint;
+
+        @JsonProperty
+        private final String rack;
+
+        @JsonProperty
+        private final int tokens;
+
+        @JsonProperty
+        private final double primaryOwnership;
+
+        @JsonProperty
+        private final double effectiveOwnership;
+
+        public Node(String endpoint, String rack, int tokens, double primaryOwnership, double effectiveOwnership) {
+            this.endpoint = endpoint;
+            this.rack = rack;
+            this.tokens = tokens;
+            this.primaryOwnership = primaryOwnership;
+            this.effectiveOwnership = effectiveOwnership;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public String getRack() {
+            return rack;
+        }
+
+        public int getTokens() {
+            return tokens;
+        }
+
+        public double getPrimaryOwnership() {
+            return primaryOwnership;
+        }
+
+        public double getEffectiveOwnership() {
+            return effectiveOwnership;
+        }
+    }
+
+    public static class Rack {
+        @JsonProperty
+        private final String name;
+
+        @JsonProperty
+        private final double primaryOwnership;
+
+        @JsonProperty
+        private final double effectiveOwnership;
+
+        public Rack(String name, double primaryOwnership, double effectiveOwnership) {
+            this.name = name;
+            this.primaryOwnership = primaryOwnership;
+            this.effectiveOwnership = effectiveOwnership;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getPrimaryOwnership() {
+            return primaryOwnership;
+        }
+
+        public double getEffectiveOwnership() {
+            return effectiveOwnership;
+        }
+    }
+}
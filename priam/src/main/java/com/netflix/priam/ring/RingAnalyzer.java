@@ -0,0 +1,169 @@
+package com.netflix.priam.ring;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.netflix.priam.utils.TokenManager;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes how much of the ring each node and rack owns.
+ * <p/>
+ * Primary ownership is the share of the token ring between a node's tokens and the tokens preceding them.  Effective
+ * ownership is the share of the data a node holds once replicas are placed the way {@code NetworkTopologyStrategy}
+ * places them: walking the ring clockwise, preferring nodes in racks that don't hold a replica yet.  Data centers
+ * are analyzed independently.
+ */
+public class RingAnalyzer {
+    private final TokenManager tokenManager;
+
+    public RingAnalyzer(TokenManager tokenManager) {
+        this.tokenManager = tokenManager;
+    }
+
+    public RingAnalysis analyze(List<RingNode> nodes, int replicationFactor) {
+        ListMultimap<String, RingNode> nodesByDataCenter = ArrayListMultimap.create();
+        for (RingNode node : nodes) {
+            nodesByDataCenter.put(node.getDataCenter(), node);
+        }
+
+        List<RingAnalysis.DataCenter> dataCenters = Lists.newArrayList();
+        for (String dataCenter : nodesByDataCenter.keySet()) {
+            dataCenters.add(analyzeDataCenter(dataCenter, nodesByDataCenter.get(dataCenter), replicationFactor));
+        }
+        return new RingAnalysis(replicationFactor, dataCenters);
+    }
+
+    private RingAnalysis.DataCenter analyzeDataCenter(String dataCenter, List<RingNode> nodes, int replicationFactor) {
+        BigInteger ringSize = tokenManager.getTokenRangeSize();
+        List<Position> ring = positions(nodes);
+
+        Set<String> racks = Sets.newHashSet();
+        for (RingNode node : nodes) {
+            racks.add(node.getRack());
+        }
+        int replicas = Math.min(replicationFactor, nodes.size());
+
+        Map<RingNode, BigInteger> primary = Maps.newHashMap();
+        Map<RingNode, BigInteger> effective = Maps.newHashMap();
+        for (RingNode node : nodes) {
+            primary.put(node, BigInteger.ZERO);
+            effective.put(node, BigInteger.ZERO);
+        }
+
+        for (int i = 0; i < ring.size(); i++) {
+            // Each range belongs to the token at its end
+            BigInteger range = ring.size() == 1
+                    ? ringSize
+                    : ring.get(i).position.subtract(ring.get((i + ring.size() - 1) % ring.size()).position).mod(ringSize);
+            RingNode owner = ring.get(i).node;
+            primary.put(owner, primary.get(owner).add(range));
+            for (RingNode replica : replicasFor(ring, i, racks.size(), replicas)) {
+                effective.put(replica, effective.get(replica).add(range));
+            }
+        }
+
+        List<RingAnalysis.Node> nodeOwnership = Lists.newArrayList();
+        Map<String, Double> primaryByRack = Maps.newTreeMap();
+        Map<String, Double> effectiveByRack = Maps.newTreeMap();
+        for (RingNode node : nodes) {
+            double nodePrimary = fraction(primary.get(node), ringSize);
+            double nodeEffective = fraction(effective.get(node), ringSize);
+            nodeOwnership.add(new RingAnalysis.Node(node.getEndpoint(), node.getRack(), node.getTokens().size(), nodePrimary, nodeEffective));
+            primaryByRack.put(node.getRack(), add(primaryByRack.get(node.getRack()), nodePrimary));
+            effectiveByRack.put(node.getRack(), add(effectiveByRack.get(node.getRack()), nodeEffective));
+        }
+
+        List<RingAnalysis.Rack> rackOwnership = Lists.newArrayList();
+        for (String rack : primaryByRack.keySet()) {
+            rackOwnership.add(new RingAnalysis.Rack(rack, primaryByRack.get(rack), effectiveByRack.get(rack)));
+        }
+        return new RingAnalysis.DataCenter(dataCenter, nodeOwnership, rackOwnership);
+    }
+
+    /**
+     * Returns the nodes holding the range ending at {@code ring[index]}, following {@code NetworkTopologyStrategy}:
+     * the first node clockwise from each rack until every rack holds a replica, then whichever nodes follow, starting
+     * with the ones skipped earlier.
+     */
+    private static Set<RingNode> replicasFor(List<Position> ring, int index, int rackCount, int replicas) {
+        Set<RingNode> result = Sets.newLinkedHashSet();
+        Set<String> seenRacks = Sets.newHashSet();
+        Set<RingNode> skipped = Sets.newLinkedHashSet();
+        for (int i = 0; i < ring.size() && result.size() < replicas; i++) {
+            RingNode node = ring.get((index + i) % ring.size()).node;
+            if (result.contains(node)) {
+                continue;
+            }
+            if (seenRacks.size() == rackCount) {
+                result.add(node);
+            } else if (seenRacks.add(node.getRack())) {
+                result.add(node);
+                if (seenRacks.size() == rackCount) {
+                    for (RingNode skippedNode : skipped) {
+                        if (result.size() >= replicas) {
+                            break;
+                        }
+                        result.add(skippedNode);
+                    }
+                }
+            } else {
+                skipped.add(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns every token of {@code nodes} as a position on the ring, relative to the minimum token, in ring order.
+     */
+    List<Position> positions(List<RingNode> nodes) {
+        BigInteger minimum = tokenManager.getMinimumTokenValue();
+        List<Position> ring = Lists.newArrayList();
+        for (RingNode node : nodes) {
+            for (String token : node.getTokens()) {
+                ring.add(new Position(tokenManager.parseToken(token).subtract(minimum), node));
+            }
+        }
+        Collections.sort(ring, Position.RING_ORDER);
+        return ring;
+    }
+
+    static double fraction(BigInteger part, BigInteger whole) {
+        return new BigDecimal(part).divide(new BigDecimal(whole), MathContext.DECIMAL64).doubleValue();
+    }
+
+    private static double add(Double total, double value) {
+        return total == null ? value : total + value;
+    }
+
+    /**
+     * A token of a node as a position on the ring, relative to the minimum token.
+     */
+    static class Position {
+        static final Comparator<Position> RING_ORDER = new Comparator<Position>() {
+            @Override
+            public int compare(Position left, Position right) {
+                return left.position.compareTo(right.position);
+            }
+        };
+
+        final BigInteger position;
+        final RingNode node;
+
+        Position(BigInteger position, RingNode node) {
+            this.position = position;
+            this.node = node;
+        }
+    }
+}
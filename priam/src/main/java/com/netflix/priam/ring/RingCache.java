@@ -0,0 +1,150 @@
+package com.netflix.priam.ring;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Strings;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.priam.config.CassandraConfiguration;
+import com.netflix.priam.utils.JMXConnectionException;
+import com.netflix.priam.utils.JMXNodeTool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.Notification;
+import javax.management.NotificationListener;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snapshots of the ring as returned by {@link JMXNodeTool#ring(String)}, so reading the ring doesn't cost a dozen JMX
+ * calls and two snitch lookups per endpoint every time.
+ * <p/>
+ * Snapshots are immutable and in token order.  They are taken on demand and kept for {@link #MAX_AGE_MS}, or until
+ * the StorageService MBean notifies the progress of a bootstrap or the ring is changed through Priam.  Repair
+ * notifications, by far the most frequent, leave the snapshots alone.  Cassandra doesn't notify gossip state changes
+ * over JMX, so a node going up or down, or joining, leaving or moving on its own, shows up once the snapshot expires.
+ */
+@Singleton
+public class RingCache implements NotificationListener {
+    private static final Logger logger = LoggerFactory.getLogger(RingCache.class);
+
+    @VisibleForTesting
+    static final long MAX_AGE_MS = TimeUnit.SECONDS.toMillis(5);
+
+    private static final String PROGRESS_NOTIFICATION = "progress";
+    private static final String BOOTSTRAP_TAG = "bootstrap";
+
+    private final CassandraConfiguration cassandraConfiguration;
+    private final Ticker ticker;
+    // Snapshots by keyspace, "" for the ring without keyspace
+    private final ConcurrentMap<String, Snapshot> snapshots = Maps.newConcurrentMap();
+    private final AtomicLong generation = new AtomicLong();
+    private JMXNodeTool listeningTo;
+
+    @Inject
+    public RingCache(CassandraConfiguration cassandraConfiguration) {
+        this(cassandraConfiguration, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    RingCache(CassandraConfiguration cassandraConfiguration, Ticker ticker) {
+        this.cassandraConfiguration = cassandraConfiguration;
+        this.ticker = ticker;
+    }
+
+    public List<Map<String, Object>> ring() throws JMXConnectionException {
+        return ring(null);
+    }
+
+    /**
+     * Returns the ring with the effective ownership of every node for the keyspace, or its share of the tokens if no
+     * keyspace is given.
+     */
+    public List<Map<String, Object>> ring(String keyspace) throws JMXConnectionException {
+        String key = Strings.nullToEmpty(keyspace);
+        Snapshot snapshot = snapshots.get(key);
+        if (isFresh(snapshot)) {
+            return snapshot.ring;
+        }
+        synchronized (this) {
+            // Concurrent requests wait for the same refresh
+            snapshot = snapshots.get(key);
+            if (!isFresh(snapshot)) {
+                long loadGeneration = generation.get();
+                long loadTime = ticker.read();
+                snapshot = new Snapshot(load(keyspace), loadGeneration, loadTime);
+                snapshots.put(key, snapshot);
+            }
+            return snapshot.ring;
+        }
+    }
+
+    /**
+     * Drops the snapshots, the next read takes a new one.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (changesRing(notification)) {
+            logger.debug("Ring snapshots invalidated by {} notification of {}", notification.getType(), notification.getSource());
+            invalidate();
+        }
+    }
+
+    /**
+     * Whether the notification tells of a change of the ring.  StorageService only sends progress notifications, tagged
+     * {@code repair:<command>} for repairs and {@code bootstrap} while the node joins, and legacy {@code repair} ones.
+     */
+    @VisibleForTesting
+    static boolean changesRing(Notification notification) {
+        return PROGRESS_NOTIFICATION.equals(notification.getType()) && BOOTSTRAP_TAG.equals(notification.getSource());
+    }
+
+    private boolean isFresh(Snapshot snapshot) {
+        return snapshot != null && snapshot.generation == generation.get() &&
+                ticker.read() - snapshot.time < TimeUnit.MILLISECONDS.toNanos(MAX_AGE_MS);
+    }
+
+    @VisibleForTesting
+    List<Map<String, Object>> load(String keyspace) throws JMXConnectionException {
+        JMXNodeTool nodetool = JMXNodeTool.instance(cassandraConfiguration);
+        if (nodetool != listeningTo) {
+            // First connection or JMXNodeTool reconnected, notifications missed in the meantime don't matter as the
+            // ring is read right after
+            try {
+                nodetool.addStorageServiceListener(this);
+                listeningTo = nodetool;
+            } catch (Exception e) {
+                logger.warn("Unable to listen to StorageService notifications, the ring is cached for {} ms", MAX_AGE_MS, e);
+            }
+        }
+
+        ImmutableList.Builder<Map<String, Object>> ring = ImmutableList.builder();
+        for (Map<String, Object> row : nodetool.ring(keyspace)) {
+            ring.add(Collections.unmodifiableMap(Maps.newLinkedHashMap(row)));
+        }
+        return ring.build();
+    }
+
+    private static class Snapshot {
+        private final List<Map<String, Object>> ring;
+        private final long generation;
+        private final long time;
+
+        Snapshot(List<Map<String, Object>> ring, long generation, long time) {
+            this.ring = ring;
+            this.generation = generation;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.netflix.priam.ring;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A node of the Cassandra ring along with the tokens it owns.
+ */
+public class RingNode {
+    @JsonProperty
+    private final String endpoint;
+
+    @JsonProperty
+    private final String dataCenter;
+
+    @JsonProperty
+    private final String rack;
+
+    @JsonProperty
+    private final List<String> tokens;
+
+    public RingNode(String endpoint, String dataCenter, String rack, List<String> tokens) {
+        this.endpoint = endpoint;
+        this.dataCenter = dataCenter;
+        this.rack = rack;
+        this.tokens = ImmutableList.copyOf(tokens);
+    }
+
+    /**
+     * Groups the per-token rows returned by {@link com.netflix.priam.utils.JMXNodeTool#ring()} by endpoint.
+     */
+    public static List<RingNode> fromRing(List<Map<String, Object>> ring) {
+        Map<String, Map<String, Object>> firstRowByEndpoint = Maps.newLinkedHashMap();
+        Map<String, List<String>> tokensByEndpoint = Maps.newHashMap();
+        for (Map<String, Object> row : ring) {
+            String endpoint = row.get("endpoint").toString();
+            if (!firstRowByEndpoint.containsKey(endpoint)) {
+                firstRowByEndpoint.put(endpoint, row);
+                tokensByEndpoint.put(endpoint, Lists.<String>newArrayList());
+            }
+            tokensByEndpoint.get(endpoint).add(row.get("token").toString());
+        }
+
+        List<RingNode> nodes = Lists.newArrayList();
+        for (Map.Entry<String, Map<String, Object>> entry : firstRowByEndpoint.entrySet()) {
+            Map<String, Object> row = entry.getValue();
+            nodes.add(new RingNode(entry.getKey(), row.get("dc").toString(), row.get("rack").toString(),
+                    tokensByEndpoint.get(entry.getKey())));
+        }
+        return nodes;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public String getDataCenter() {
+        return dataCenter;
+    }
+
+    public String getRack() {
+        return rack;
+    }
+
+    public List<String> getTokens() {
+        return tokens;
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this)
+                .add("endpoint", endpoint)
+                .add("dataCenter", dataCenter)
+                .add("rack", rack)
+                .add("tokens", tokens)
+                .toString();
+    }
+}
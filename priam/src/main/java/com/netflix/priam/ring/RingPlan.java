@@ -0,0 +1,132 @@
+package com.netflix.priam.ring;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * Token moves and new nodes that take a ring to a balanced layout, as planned by {@link RingPlanner}.
+ */
+public class RingPlan {
+    @JsonProperty
+    private final List<Move> moves;
+
+    @JsonProperty
+    private final List<RingNode> newNodes;
+
+    @JsonProperty
+    private final double streamedOwnership;
+
+    @JsonProperty
+    private final List<String> warnings;
+
+    @JsonProperty
+    private final RingAnalysis before;
+
+    @JsonProperty
+    private final RingAnalysis after;
+
+    public RingPlan(List<Move> moves, List<RingNode> newNodes, double streamedOwnership, List<String> warnings,
+                    RingAnalysis before, RingAnalysis after) {
+        this.moves = ImmutableList.copyOf(moves);
+        this.newNodes = ImmutableList.copyOf(newNodes);
+        this.streamedOwnership = streamedOwnership;
+        this.warnings = ImmutableList.copyOf(warnings);
+        this.before = before;
+        this.after = after;
+    }
+
+    /**
+     * Existing nodes that need a new token, in the order they should be moved.
+     */
+    public List<Move> getMoves() {
+        return moves;
+    }
+
+    /**
+     * Nodes to add, with the tokens they should join with.  Their endpoints are placeholders.
+     */
+    public List<RingNode> getNewNodes() {
+        return newNodes;
+    }
+
+    /**
+     * Returns the total distance the moved tokens travel as a share of the ring.  The data streamed by the moves
+     * grows with it.
+     */
+    public double getStreamedOwnership() {
+        return streamedOwnership;
+    }
+
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    public RingAnalysis getBefore() {
+        return before;
+    }
+
+    public RingAnalysis getAfter() {
+        return after;
+    }
+
+    public static class Move {
+        @JsonProperty
+        private final String endpoint;
+
+        @JsonProperty
+        private final String dataCenter;
+
+        @JsonProperty
+        private final String rack;
+
+        @JsonProperty
+        private final String oldToken;
+
+        @JsonProperty
+        private final String newToken;
+
+        @JsonCreator
+        public Move(@JsonProperty("endpoint") String endpoint, @JsonProperty("dataCenter") String dataCenter,
+                    @JsonProperty("rack") String rack, @JsonProperty("oldToken") String oldToken,
+                    @JsonProperty("newToken") String newToken) {
+            this.endpoint = endpoint;
+            this.dataCenter = dataCenter;
+            this.rack = rack;
+            this.oldToken = oldToken;
+            this.newToken = newToken;
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public String getDataCenter() {
+            return dataCenter;
+        }
+
+        public String getRack() {
+            return rack;
+        }
+
+        public String getOldToken() {
+            return oldToken;
+        }
+
+        public String getNewToken() {
+            return newToken;
+        }
+
+        @Override
+        public String toString() {
+            return Objects.toStringHelper(this)
+                    .add("endpoint", endpoint)
+                    .add("oldToken", oldToken)
+                    .add("newToken", newToken)
+                    .toString();
+        }
+    }
+}
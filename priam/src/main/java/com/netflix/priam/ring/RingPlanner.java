@@ -0,0 +1,272 @@
+package com.netflix.priam.ring;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
+import com.netflix.priam.identity.Location;
+import com.netflix.priam.utils.TokenManager;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Plans token moves that balance a ring, optionally while adding nodes to every rack.
+ * <p/>
+ * Priam keeps a full replica in every rack (availability zone), so a data center is balanced when the nodes of each
+ * rack divide the ring evenly.  For each rack the planner lays an evenly spaced grid of slots over the ring, one per
+ * node after the expansion, and assigns the existing nodes to slots in ring order so that their tokens move as little
+ * as possible in total.  The grid is anchored on one of the existing tokens, so at least one node per rack never moves.
+ * Slots left over are the tokens for the new nodes.
+ * <p/>
+ * Moves shorter than a millionth of the ring are skipped: they are rounding differences between token layouts, not
+ * worth streaming for.
+ * <p/>
+ * Cassandra can only move nodes that have a single token.  Racks of vnodes are never rebalanced; new vnodes get
+ * tokens from {@link TokenManager#createTokens}, which balances them as they join.
+ */
+public class RingPlanner {
+    private static final int MIN_MOVE_SHIFT = 20;
+
+    private final TokenManager tokenManager;
+    private final RingAnalyzer analyzer;
+
+    public RingPlanner(TokenManager tokenManager) {
+        this.tokenManager = tokenManager;
+        this.analyzer = new RingAnalyzer(tokenManager);
+    }
+
+    /**
+     * Plans how to balance {@code nodes} after adding {@code newNodesPerRack} nodes to every rack.
+     */
+    public RingPlan plan(List<RingNode> nodes, int newNodesPerRack, int replicationFactor) {
+        checkArgument(newNodesPerRack >= 0, "newNodesPerRack must be >= 0");
+        BigInteger ringSize = tokenManager.getTokenRangeSize();
+
+        Map<String, ListMultimap<String, RingNode>> racksByDataCenter = Maps.newLinkedHashMap();
+        for (RingNode node : nodes) {
+            if (!racksByDataCenter.containsKey(node.getDataCenter())) {
+                racksByDataCenter.put(node.getDataCenter(), ArrayListMultimap.<String, RingNode>create());
+            }
+            racksByDataCenter.get(node.getDataCenter()).put(node.getRack(), node);
+        }
+
+        List<RingPlan.Move> moves = Lists.newArrayList();
+        List<RingNode> newNodes = Lists.newArrayList();
+        List<String> warnings = Lists.newArrayList();
+        BigInteger moved = BigInteger.ZERO;
+
+        for (Map.Entry<String, ListMultimap<String, RingNode>> dataCenter : racksByDataCenter.entrySet()) {
+            Set<BigInteger> taken = Sets.newHashSet();
+            for (RingNode node : dataCenter.getValue().values()) {
+                for (String token : node.getTokens()) {
+                    taken.add(position(token));
+                }
+            }
+
+            for (String rack : Ordering.natural().sortedCopy(dataCenter.getValue().keySet())) {
+                List<RingNode> rackNodes = dataCenter.getValue().get(rack);
+                if (!hasSingleTokens(rackNodes)) {
+                    warnings.add(String.format("Rack %s in %s has nodes with multiple tokens, only new nodes are planned", rack, dataCenter.getKey()));
+                    newNodes.addAll(planNewVnodes(dataCenter.getKey(), rack, rackNodes, newNodesPerRack, taken));
+                    continue;
+                }
+                moved = moved.add(planRack(dataCenter.getKey(), rack, rackNodes, newNodesPerRack, taken, moves, newNodes));
+            }
+        }
+
+        RingAnalysis before = analyzer.analyze(nodes, replicationFactor);
+        RingAnalysis after = analyzer.analyze(apply(nodes, moves, newNodes), replicationFactor);
+        return new RingPlan(moves, newNodes, RingAnalyzer.fraction(moved, ringSize), warnings, before, after);
+    }
+
+    /**
+     * Plans the moves and new nodes of a rack of single token nodes.  Returns the total distance the tokens move.
+     */
+    private BigInteger planRack(String dataCenter, String rack, List<RingNode> rackNodes, int newNodes, Set<BigInteger> taken,
+                                List<RingPlan.Move> moves, List<RingNode> added) {
+        BigInteger ringSize = tokenManager.getTokenRangeSize();
+        int nodeCount = rackNodes.size();
+        int slotCount = nodeCount + newNodes;
+        BigInteger step = ringSize.divide(BigInteger.valueOf(slotCount));
+
+        List<RingAnalyzer.Position> positions = analyzer.positions(rackNodes);
+
+        // Anchor the grid on each node in turn and keep the anchoring that moves tokens the least
+        int[] bestSlots = null;
+        int bestAnchor = 0;
+        double bestCost = Double.MAX_VALUE;
+        for (int anchor = 0; anchor < nodeCount; anchor++) {
+            BigInteger origin = positions.get(anchor).position;
+            double[][] cost = new double[nodeCount][slotCount];
+            for (int i = 0; i < nodeCount; i++) {
+                BigInteger position = positions.get((anchor + i) % nodeCount).position;
+                for (int j = 0; j < slotCount; j++) {
+                    cost[i][j] = RingAnalyzer.fraction(distance(position, slot(origin, step, j, slotCount, ringSize), ringSize), ringSize);
+                }
+            }
+            int[] slots = new int[nodeCount];
+            double total = assignInOrder(cost, slots);
+            if (total < bestCost) {
+                bestCost = total;
+                bestSlots = slots;
+                bestAnchor = anchor;
+            }
+        }
+
+        BigInteger moved = BigInteger.ZERO;
+        BigInteger minMove = ringSize.shiftRight(MIN_MOVE_SHIFT);
+        BigInteger origin = positions.get(bestAnchor).position;
+        boolean[] used = new boolean[slotCount];
+        for (int i = 0; i < nodeCount; i++) {
+            RingAnalyzer.Position current = positions.get((bestAnchor + i) % nodeCount);
+            used[bestSlots[i]] = true;
+            BigInteger target = slot(origin, step, bestSlots[i], slotCount, ringSize);
+            if (distance(current.position, target, ringSize).compareTo(minMove) < 0) {
+                continue;
+            }
+            taken.remove(current.position);
+            target = unused(target, ringSize, taken);
+            moved = moved.add(distance(current.position, target, ringSize));
+            moves.add(new RingPlan.Move(current.node.getEndpoint(), dataCenter, rack,
+                    current.node.getTokens().get(0), token(target)));
+        }
+
+        int newNode = 0;
+        for (int j = 0; j < slotCount; j++) {
+            if (!used[j]) {
+                BigInteger target = unused(slot(origin, step, j, slotCount, ringSize), ringSize, taken);
+                added.add(new RingNode(newEndpoint(rack, newNode++), dataCenter, rack, ImmutableList.of(token(target))));
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Assigns nodes to slots keeping their ring order, minimizing the total cost.  Node 0 always gets slot 0.
+     * Fills {@code slots} with the slot of each node and returns the total cost.
+     */
+    private static double assignInOrder(double[][] cost, int[] slots) {
+        int nodeCount = cost.length;
+        int slotCount = cost[0].length;
+        // best[i][j]: cheapest way of placing the first i nodes in the first j slots
+        double[][] best = new double[nodeCount + 1][slotCount + 1];
+        boolean[][] placed = new boolean[nodeCount + 1][slotCount + 1];
+        for (int i = 1; i <= nodeCount; i++) {
+            best[i][0] = Double.MAX_VALUE;
+        }
+        for (int i = 1; i <= nodeCount; i++) {
+            for (int j = 1; j <= slotCount; j++) {
+                double skip = j > i ? best[i][j - 1] : Double.MAX_VALUE;
+                double place = best[i - 1][j - 1] == Double.MAX_VALUE ? Double.MAX_VALUE : best[i - 1][j - 1] + cost[i - 1][j - 1];
+                if (i == 1 && j > 1) {
+                    place = Double.MAX_VALUE;
+                }
+                best[i][j] = Math.min(skip, place);
+                placed[i][j] = place <= skip;
+            }
+        }
+        for (int i = nodeCount, j = slotCount; i > 0; j--) {
+            if (placed[i][j]) {
+                slots[--i] = j - 1;
+            }
+        }
+        return best[nodeCount][slotCount];
+    }
+
+    private List<RingNode> planNewVnodes(String dataCenter, String rack, List<RingNode> rackNodes, int newNodes, Set<BigInteger> taken) {
+        int numTokens = 1;
+        List<List<String>> rackTokens = Lists.newArrayList();
+        for (RingNode node : rackNodes) {
+            numTokens = Math.max(numTokens, node.getTokens().size());
+            rackTokens.add(node.getTokens());
+        }
+        List<String> ringTokens = Lists.newArrayList();
+        for (BigInteger position : taken) {
+            ringTokens.add(token(position));
+        }
+
+        List<RingNode> added = Lists.newArrayList();
+        for (int i = 0; i < newNodes; i++) {
+            // The rack is never empty, so the slot and location of the first token don't matter
+            List<String> tokens = tokenManager.createTokens(0, 1, numTokens, rackTokens, ringTokens, Location.from(dataCenter));
+            rackTokens.add(tokens);
+            ringTokens.addAll(tokens);
+            for (String token : tokens) {
+                taken.add(position(token));
+            }
+            added.add(new RingNode(newEndpoint(rack, i), dataCenter, rack, tokens));
+        }
+        return added;
+    }
+
+    private static List<RingNode> apply(List<RingNode> nodes, List<RingPlan.Move> moves, List<RingNode> newNodes) {
+        Map<String, String> newTokens = Maps.newHashMap();
+        for (RingPlan.Move move : moves) {
+            newTokens.put(move.getEndpoint(), move.getNewToken());
+        }
+        List<RingNode> result = Lists.newArrayList();
+        for (RingNode node : nodes) {
+            String newToken = newTokens.get(node.getEndpoint());
+            result.add(newToken == null ? node : new RingNode(node.getEndpoint(), node.getDataCenter(), node.getRack(),
+                    Collections.singletonList(newToken)));
+        }
+        result.addAll(newNodes);
+        return result;
+    }
+
+    private static boolean hasSingleTokens(List<RingNode> nodes) {
+        for (RingNode node : nodes) {
+            if (node.getTokens().size() != 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String newEndpoint(String rack, int index) {
+        return "new-" + rack + "-" + index;
+    }
+
+    /**
+     * Returns the position of a slot of a rack's grid.  Slots past the end of the ring wrap around by the span of the
+     * grid rather than by the size of the ring, so what's left over from dividing the ring stays in a single gap, as
+     * it does between the tokens of {@link TokenManager#createToken}.
+     */
+    private static BigInteger slot(BigInteger origin, BigInteger step, int index, int slotCount, BigInteger ringSize) {
+        BigInteger slot = origin.add(step.multiply(BigInteger.valueOf(index)));
+        return slot.compareTo(ringSize) < 0 ? slot : slot.subtract(step.multiply(BigInteger.valueOf(slotCount)));
+    }
+
+    /**
+     * Returns the distance between two positions going whichever way around the ring is shorter.
+     */
+    private static BigInteger distance(BigInteger from, BigInteger to, BigInteger ringSize) {
+        BigInteger forward = to.subtract(from).mod(ringSize);
+        return forward.min(ringSize.subtract(forward));
+    }
+
+    private static BigInteger unused(BigInteger position, BigInteger ringSize, Set<BigInteger> taken) {
+        BigInteger result = position.mod(ringSize);
+        while (!taken.add(result)) {
+            result = result.add(BigInteger.ONE).mod(ringSize);
+        }
+        return result;
+    }
+
+    private BigInteger position(String token) {
+        return tokenManager.parseToken(token).subtract(tokenManager.getMinimumTokenValue());
+    }
+
+    private String token(BigInteger position) {
+        return tokenManager.formatToken(position.mod(tokenManager.getTokenRangeSize()).add(tokenManager.getMinimumTokenValue()));
+    }
+}
@@ -0,0 +1,57 @@
+package com.netflix.priam.scheduler;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Cancellation of one execution of a {@link Task}.  Cancelling interrupts the thread running the execution, and the
+ * task checks {@link #throwIfCancelled()} between steps, so it stops at the next step or the next blocking call that
+ * can be interrupted.
+ */
+public class CancellationToken {
+    private final Thread thread;
+    private volatile String reason;
+    private boolean finished;  // Guarded by this
+
+    CancellationToken(Thread thread) {
+        this.thread = thread;
+    }
+
+    public boolean isCancelled() {
+        return reason != null;
+    }
+
+    /**
+     * @throws CancellationException if the execution was cancelled
+     */
+    public void throwIfCancelled() {
+        String cancelledBecause = reason;
+        if (cancelledBecause != null) {
+            throw new CancellationException(cancelledBecause);
+        }
+    }
+
+    /**
+     * @return Whether the execution was running and is now cancelled
+     */
+    synchronized boolean cancel(String why) {
+        if (finished || reason != null) {
+            return false;
+        }
+        reason = why;
+        thread.interrupt();
+        return true;
+    }
+
+    /**
+     * Called by the thread of the execution once it's over, so the thread is no longer interrupted on cancel.
+     */
+    synchronized void finish() {
+        finished = true;
+        // Don't leave the scheduler thread interrupted
+        Thread.interrupted();
+    }
+
+    String getReason() {
+        return reason;
+    }
+}
@@ -17,15 +17,22 @@ package com.netflix.priam.scheduler;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.netflix.priam.config.SchedulerConfiguration;
 import org.quartz.JobDetail;
 import org.quartz.JobKey;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
 import org.quartz.Trigger;
 import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.listeners.TriggerListenerSupport;
+import org.quartz.simpl.RAMJobStore;
+import org.quartz.simpl.SimpleThreadPool;
+
+import java.util.Properties;
 
 /**
- * Scheduling class to schedule Priam tasks. Uses Quartz scheduler
+ * Scheduling class to schedule Priam tasks. Uses Quartz scheduler, with the thread pool set by
+ * {@link SchedulerConfiguration} rather than a quartz.properties from the classpath.
  */
 @Singleton
 public class PriamScheduler {
@@ -33,16 +40,44 @@ public class PriamScheduler {
     private final GuiceJobFactory jobFactory;
 
     @Inject
-    public PriamScheduler(GuiceJobFactory jobFactory) {
+    public PriamScheduler(GuiceJobFactory jobFactory, final TaskRegistry taskRegistry, SchedulerConfiguration configuration) {
         try {
-            this.scheduler = new StdSchedulerFactory().getScheduler();
+            this.scheduler = new StdSchedulerFactory(getQuartzProperties(configuration)).getScheduler();
             this.scheduler.setJobFactory(jobFactory);
+            this.scheduler.getListenerManager().addTriggerListener(new TriggerListenerSupport() {
+                @Override
+                public String getName() {
+                    return "priam-misfires";
+                }
+
+                @Override
+                public void triggerMisfired(Trigger trigger) {
+                    // Jobs are grouped by the name of their task
+                    Task task = taskRegistry.get(trigger.getJobKey().getGroup());
+                    if (task != null) {
+                        task.misfired();
+                    }
+                }
+            });
             this.jobFactory = jobFactory;
         } catch (SchedulerException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private static Properties getQuartzProperties(SchedulerConfiguration configuration) {
+        Properties properties = new Properties();
+        properties.setProperty(StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, "PriamScheduler");
+        properties.setProperty(StdSchedulerFactory.PROP_SCHED_SKIP_UPDATE_CHECK, "true");
+        properties.setProperty(StdSchedulerFactory.PROP_THREAD_POOL_CLASS, SimpleThreadPool.class.getName());
+        properties.setProperty(StdSchedulerFactory.PROP_THREAD_POOL_PREFIX + ".threadCount", Integer.toString(configuration.getThreadCount()));
+        properties.setProperty(StdSchedulerFactory.PROP_THREAD_POOL_PREFIX + ".threadNamePrefix", "priam-scheduler");
+        properties.setProperty(StdSchedulerFactory.PROP_THREAD_POOL_PREFIX + ".makeThreadsDaemons", "true");
+        properties.setProperty(StdSchedulerFactory.PROP_JOB_STORE_CLASS, RAMJobStore.class.getName());
+        properties.setProperty(StdSchedulerFactory.PROP_JOB_STORE_PREFIX + ".misfireThreshold", Long.toString(configuration.getMisfireThreshold().toMilliseconds()));
+        return properties;
+    }
+
     //This method should be used to add a Task
     public void addTask(JobDetail job, Trigger trigger) throws SchedulerException {
         scheduler.scheduleJob(job, trigger);
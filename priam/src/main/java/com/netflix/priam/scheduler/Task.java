@@ -15,9 +15,14 @@
  */
 package com.netflix.priam.scheduler;
 
+import com.codahale.metrics.ExponentiallyDecayingReservoir;
+import com.codahale.metrics.Histogram;
 import com.google.common.base.Throwables;
+import com.google.common.collect.Sets;
+import com.google.inject.Inject;
+import com.netflix.priam.config.TaskConcurrency;
 import org.quartz.CronScheduleBuilder;
-import org.quartz.Job;
+import org.quartz.InterruptableJob;
 import org.quartz.JobBuilder;
 import org.quartz.JobDetail;
 import org.quartz.JobExecutionContext;
@@ -31,24 +36,54 @@ import org.slf4j.LoggerFactory;
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
 import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Task class that should be implemented by all cron tasks. Jobconf will contain
  * any instance specific data
  * <p/>
  * NOTE: Constructor must not throw any exception. This will cause Quartz to set the job to failure
+ * <p/>
+ * Each task keeps the duration of its executions, when it last ran, its last error and its misfires.  Tasks created
+ * by Guice are registered with the {@link TaskRegistry}, which publishes them as metrics and sets how the task runs:
+ * what happens when it fires while it's still running, and after how long an execution is cancelled.
+ * <p/>
+ * Cancellation is cooperative: long tasks should call {@link #checkCancelled()} between steps.
+ * <p/>
+ * Tasks declare the resources they use, the tasks they depend on and their priority.  The {@link TaskCoordinator}
+ * holds their executions back until these allow them to start, after an optional random start jitter that spreads
+ * tasks firing at the same time across the cluster.
  */
-public abstract class Task implements Job, TaskMBean {
-    public State status = State.DONE;
-
+public abstract class Task implements InterruptableJob, TaskMBean {
     public static enum State {
-        ERROR, RUNNING, DONE
+        ERROR, RUNNING, DONE, CANCELLED
     }
 
     private static final Logger logger = LoggerFactory.getLogger(Task.class);
     private final AtomicInteger errors = new AtomicInteger();
     private final AtomicInteger executions = new AtomicInteger();
+    private final AtomicInteger misfires = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final Histogram durations = new Histogram(new ExponentiallyDecayingReservoir());
+    private final AtomicLong lastStartTime = new AtomicLong();
+    private final AtomicLong lastEndTime = new AtomicLong();
+    private volatile String lastError;
+
+    private final AtomicReference<State> status = new AtomicReference<>(State.DONE);
+    private final ReentrantLock queue = new ReentrantLock(true);
+    private final Set<CancellationToken> runningTokens = Sets.newConcurrentHashSet();
+    private final ThreadLocal<CancellationToken> currentToken = new ThreadLocal<>();
+    private volatile TaskRegistry taskRegistry;
+    private volatile TaskCoordinator taskCoordinator;
 
     protected Task() {
         this(ManagementFactory.getPlatformMBeanServer());
@@ -65,6 +100,17 @@ public abstract class Task implements Job, TaskMBean {
         }
     }
 
+    @Inject
+    void register(TaskRegistry taskRegistry) {
+        this.taskRegistry = taskRegistry;
+        taskRegistry.register(this);
+    }
+
+    @Inject
+    void setTaskCoordinator(TaskCoordinator taskCoordinator) {
+        this.taskCoordinator = taskCoordinator;
+    }
+
     /**
      * This method has to be implemented and cannot throw any exception.
      */
@@ -79,25 +125,199 @@ public abstract class Task implements Job, TaskMBean {
      */
     public void execute(JobExecutionContext context) throws JobExecutionException {
         executions.incrementAndGet();
+        Executor executor = taskRegistry != null ? taskRegistry.getExecutor(this) : null;
+        if (executor == null) {
+            fire();
+            return;
+        }
         try {
-            if (status == State.RUNNING) {
-                return;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    fire();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Every thread for long running tasks is busy, skipping this firing of {}", getName());
+            misfires.incrementAndGet();
+        }
+    }
+
+    private void fire() {
+        switch (getConcurrency()) {
+            case SKIP:
+                if (!compareAndSetRunning()) {
+                    // Still running from a previous firing
+                    misfires.incrementAndGet();
+                    return;
+                }
+                run();
+                break;
+            case QUEUE:
+                try {
+                    queue.lockInterruptibly();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    status.set(State.RUNNING);
+                    run();
+                } finally {
+                    queue.unlock();
+                }
+                break;
+            default:
+                status.set(State.RUNNING);
+                run();
+                break;
+        }
+    }
+
+    private boolean compareAndSetRunning() {
+        while (true) {
+            State current = status.get();
+            if (current == State.RUNNING) {
+                return false;
+            }
+            if (status.compareAndSet(current, State.RUNNING)) {
+                return true;
+            }
+        }
+    }
+
+    private void run() {
+        CancellationToken token = new CancellationToken(Thread.currentThread());
+        runningTokens.add(token);
+        currentToken.set(token);
+        Future<?> timeout = taskRegistry != null ? taskRegistry.scheduleTimeout(this, token) : null;
+        running.incrementAndGet();
+        State outcome = State.DONE;
+        long start = 0;
+        try {
+            long jitter = taskRegistry != null ? taskRegistry.getStartJitterMillis(this) : 0;
+            if (jitter > 0) {
+                Thread.sleep(ThreadLocalRandom.current().nextLong(jitter));
+            }
+            try (TaskCoordinator.Permit permit = taskCoordinator != null ? taskCoordinator.acquire(this) : null) {
+                start = System.currentTimeMillis();
+                lastStartTime.set(start);
+                execute();
             }
-            status = State.RUNNING;
-            execute();
 
         } catch (Throwable e) {
-            status = State.ERROR;
-            logger.error("Couldn't execute the task because of {}", e.toString(), e);
-            errors.incrementAndGet();
+            if (token.isCancelled()) {
+                outcome = State.CANCELLED;
+                logger.warn("Task {} was cancelled: {}", getName(), token.getReason());
+            } else {
+                outcome = State.ERROR;
+                logger.error("Couldn't execute the task because of {}", e.toString(), e);
+                errors.incrementAndGet();
+                lastError = e.toString();
+            }
+        } finally {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            token.finish();
+            runningTokens.remove(token);
+            currentToken.remove();
+            if (start > 0) {
+                long end = System.currentTimeMillis();
+                durations.update(end - start);
+                lastEndTime.set(end);
+            }
+            running.decrementAndGet();
+            status.set(outcome);
+        }
+    }
+
+    /**
+     * Cancels the running executions of this task.
+     *
+     * @return How many executions were cancelled
+     */
+    public int cancel(String reason) {
+        int cancelled = 0;
+        for (CancellationToken token : runningTokens) {
+            if (token.cancel(reason)) {
+                cancelled++;
+            }
         }
-        if (status != State.ERROR) {
-            status = State.DONE;
+        return cancelled;
+    }
+
+    /**
+     * Called by Quartz on {@link org.quartz.Scheduler#interrupt}.
+     */
+    @Override
+    public void interrupt() {
+        cancel("Interrupted by the scheduler");
+    }
+
+    /**
+     * @return Whether the execution running on this thread was cancelled
+     */
+    protected boolean isCancelled() {
+        CancellationToken token = currentToken.get();
+        return token != null && token.isCancelled();
+    }
+
+    /**
+     * Stops the execution running on this thread if it was cancelled.
+     *
+     * @throws java.util.concurrent.CancellationException if the execution was cancelled
+     */
+    protected void checkCancelled() {
+        CancellationToken token = currentToken.get();
+        if (token != null) {
+            token.throwIfCancelled();
         }
     }
 
+    /**
+     * @return The resources the task uses heavily.  Executions of tasks sharing a resource don't overlap.
+     */
+    public Set<TaskResource> getResources() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * @return Names of the tasks that go first: executions of this task wait for theirs, running or waiting.
+     */
+    public Set<String> getDependencies() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * @return Whether the task blocks for a long time.  Such tasks can run on a dedicated pool, see
+     * {@link com.netflix.priam.config.SchedulerConfiguration#getLongRunningTasks()}.
+     */
+    public boolean isLongRunning() {
+        return false;
+    }
+
+    /**
+     * @return The priority of the task, among waiting executions higher priorities start first
+     */
+    public int getPriority() {
+        return 0;
+    }
+
+    public TaskConcurrency getConcurrency() {
+        return taskRegistry != null ? taskRegistry.getConcurrency(this) : TaskConcurrency.SKIP;
+    }
+
+    /**
+     * Counts a firing Quartz missed, e.g. because every scheduler thread was busy.
+     */
+    void misfired() {
+        misfires.incrementAndGet();
+    }
+
     public State state() {
-        return status;
+        // Executions that are allowed to overlap each set the state when they finish
+        return running.get() > 0 ? State.RUNNING : status.get();
     }
 
     public int getErrorCount() {
@@ -108,6 +328,39 @@ public abstract class Task implements Job, TaskMBean {
         return executions.get();
     }
 
+    public int getMisfireCount() {
+        return misfires.get();
+    }
+
+    public int getRunningCount() {
+        return running.get();
+    }
+
+    /**
+     * @return How long the current execution has been running in ms, 0 if the task isn't running
+     */
+    public long getRunningTimeMillis() {
+        long start = lastStartTime.get();
+        // Not while waiting to start
+        return running.get() > 0 && start > 0 && start >= lastEndTime.get() ? System.currentTimeMillis() - start : 0;
+    }
+
+    public long getLastStartTime() {
+        return lastStartTime.get();
+    }
+
+    public long getLastEndTime() {
+        return lastEndTime.get();
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public Histogram getDurations() {
+        return durations;
+    }
+
     public abstract String getName();
 
     public JobDetail getJobDetail() {
@@ -0,0 +1,159 @@
+package com.netflix.priam.scheduler;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decides when the executions of {@link Task}s may start, so maintenance doesn't pile up on the node.
+ * <p/>
+ * An execution waits while:
+ * <ul>
+ *     <li>a running execution uses one of its {@link Task#getResources() resources}, or is of a task it depends on
+ *     or that depends on it,</li>
+ *     <li>a waiting execution ahead of it uses one of its resources.  Waiting executions are ordered by
+ *     {@link Task#getPriority() priority}, then by when they fired,</li>
+ *     <li>an execution of a task it {@link Task#getDependencies() depends on} is waiting.</li>
+ * </ul>
+ * Tasks without resources or dependencies never wait.  Dependencies must not be cyclic.
+ */
+@Singleton
+public class TaskCoordinator {
+    private static final Logger logger = LoggerFactory.getLogger(TaskCoordinator.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    // Guarded by lock, waiting is in the order executions start
+    private final List<Permit> running = Lists.newArrayList();
+    private final List<Permit> waiting = Lists.newArrayList();
+    private long fired;
+
+    /**
+     * Waits until the task may start.
+     *
+     * @return The permit of the execution, to close once it's done
+     */
+    public Permit acquire(Task task) throws InterruptedException {
+        lock.lock();
+        try {
+            Permit permit = new Permit(task, fired++);
+            int position = 0;
+            while (position < waiting.size() && !permit.isBefore(waiting.get(position))) {
+                position++;
+            }
+            waiting.add(position, permit);
+            try {
+                boolean logged = false;
+                while (!canStart(permit)) {
+                    if (!logged) {
+                        logger.info("Task {} waits for {}", permit.name, getBlockers(permit));
+                        logged = true;
+                    }
+                    changed.await();
+                }
+            } finally {
+                waiting.remove(permit);
+                // Executions behind this one may start now
+                changed.signalAll();
+            }
+            running.add(permit);
+            return permit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return Names of the tasks with executions waiting to start, in the order they'll start
+     */
+    public List<String> getWaiting() {
+        lock.lock();
+        try {
+            List<String> names = Lists.newArrayList();
+            for (Permit permit : waiting) {
+                names.add(permit.name);
+            }
+            return names;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Permit permit) {
+        lock.lock();
+        try {
+            if (running.remove(permit)) {
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean canStart(Permit permit) {
+        return getBlockers(permit).isEmpty();
+    }
+
+    private Set<String> getBlockers(Permit permit) {
+        Set<String> blockers = Sets.newLinkedHashSet();
+        for (Permit other : running) {
+            if (permit.sharesResources(other) || permit.dependsOn(other) || other.dependsOn(permit)) {
+                blockers.add(other.name);
+            }
+        }
+        boolean ahead = true;
+        for (Permit other : waiting) {
+            if (other == permit) {
+                ahead = false;
+            } else if ((ahead && permit.sharesResources(other)) || permit.dependsOn(other)) {
+                blockers.add(other.name);
+            }
+        }
+        return blockers;
+    }
+
+    /**
+     * Permission for an execution to run, given back on close.
+     */
+    public class Permit implements AutoCloseable {
+        private final String name;
+        private final Set<TaskResource> resources;
+        private final Set<String> dependencies;
+        private final int priority;
+        private final long order;
+
+        private Permit(Task task, long order) {
+            this.name = task.getName();
+            this.resources = ImmutableSet.copyOf(task.getResources());
+            this.dependencies = ImmutableSet.copyOf(task.getDependencies());
+            this.priority = task.getPriority();
+            this.order = order;
+        }
+
+        private boolean isBefore(Permit other) {
+            return priority != other.priority ? priority > other.priority : order < other.order;
+        }
+
+        private boolean sharesResources(Permit other) {
+            return !Sets.intersection(resources, other.resources).isEmpty();
+        }
+
+        private boolean dependsOn(Permit other) {
+            return dependencies.contains(other.name);
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+}
@@ -23,5 +23,17 @@ public interface TaskMBean {
 
     public int getExecutionCount();
 
+    public int getMisfireCount();
+
+    public int getRunningCount();
+
+    public long getRunningTimeMillis();
+
+    public long getLastStartTime();
+
+    public long getLastEndTime();
+
+    public String getLastError();
+
     public String getName();
 }
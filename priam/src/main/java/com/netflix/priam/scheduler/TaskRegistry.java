@@ -0,0 +1,149 @@
+package com.netflix.priam.scheduler;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.priam.config.LongRunningTaskExecution;
+import com.netflix.priam.config.SchedulerConfiguration;
+import com.netflix.priam.config.TaskConcurrency;
+import io.dropwizard.util.Duration;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tasks of this Priam by name.  The executions of each task are published in the metric registry under
+ * {@code priam.scheduler.<task name>}: a histogram of their durations in ms, and gauges of executions, errors,
+ * misfires, running executions and how long the current one has been running.
+ * <p/>
+ * It also applies the {@link SchedulerConfiguration} to the tasks: what a task does when it fires while it's still
+ * running, how long it waits before it starts, when its executions are cancelled for running too long and whether
+ * it runs on the pool of long running tasks instead of a scheduler thread.
+ */
+@Singleton
+public class TaskRegistry {
+    private static final String METRIC_PREFIX = "priam.scheduler";
+
+    private final MetricRegistry metricRegistry;
+    private final SchedulerConfiguration configuration;
+    private final ConcurrentMap<String, Task> tasks = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor timeouts = new ScheduledThreadPoolExecutor(1,
+            new ThreadFactoryBuilder().setNameFormat("task-timeouts-%d").setDaemon(true).build());
+    private final ThreadPoolExecutor longRunning;
+
+    @Inject
+    public TaskRegistry(MetricRegistry metricRegistry, SchedulerConfiguration configuration) {
+        this.metricRegistry = metricRegistry;
+        this.configuration = configuration;
+        // Executions usually finish before their timeout, don't keep the cancelled timeouts around
+        timeouts.setRemoveOnCancelPolicy(true);
+        // Grows up to the limit and shrinks when idle, firings beyond the limit are rejected
+        longRunning = new ThreadPoolExecutor(0, configuration.getMaxLongRunningThreads(), 1, TimeUnit.MINUTES,
+                new SynchronousQueue<Runnable>(),
+                new ThreadFactoryBuilder().setNameFormat("long-running-task-%d").setDaemon(true).build());
+    }
+
+    public void register(final Task task) {
+        if (tasks.putIfAbsent(task.getName(), task) != null) {
+            return;
+        }
+        metricRegistry.register(name(task, "duration"), task.getDurations());
+        metricRegistry.register(name(task, "executions"), new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return task.getExecutionCount();
+            }
+        });
+        metricRegistry.register(name(task, "errors"), new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return task.getErrorCount();
+            }
+        });
+        metricRegistry.register(name(task, "misfires"), new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return task.getMisfireCount();
+            }
+        });
+        metricRegistry.register(name(task, "running"), new Gauge<Integer>() {
+            @Override
+            public Integer getValue() {
+                return task.getRunningCount();
+            }
+        });
+        metricRegistry.register(name(task, "running-time"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return task.getRunningTimeMillis();
+            }
+        });
+    }
+
+    @Nullable
+    public Task get(String name) {
+        return tasks.get(name);
+    }
+
+    public TaskConcurrency getConcurrency(Task task) {
+        return configuration.getConcurrency(task.getName());
+    }
+
+    /**
+     * @return The executor to run the firings of the task on, or null to run them on the scheduler thread
+     */
+    @Nullable
+    Executor getExecutor(Task task) {
+        return task.isLongRunning() && configuration.getLongRunningTasks() == LongRunningTaskExecution.DEDICATED
+                ? longRunning : null;
+    }
+
+    /**
+     * @return The longest the task waits before it starts, at random so nodes don't start it together
+     */
+    long getStartJitterMillis(Task task) {
+        Duration jitter = configuration.getStartJitter(task.getName());
+        return jitter != null ? jitter.toMilliseconds() : 0;
+    }
+
+    /**
+     * Cancels an execution of the task once it has run for the configured timeout of the task.
+     *
+     * @return The timeout, to cancel when the execution finishes, or null if the task has no timeout
+     */
+    @Nullable
+    Future<?> scheduleTimeout(Task task, final CancellationToken token) {
+        final Duration timeout = configuration.getTimeout(task.getName());
+        if (timeout == null) {
+            return null;
+        }
+        return timeouts.schedule(new Runnable() {
+            @Override
+            public void run() {
+                token.cancel("Timed out after " + timeout);
+            }
+        }, timeout.toMilliseconds(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return The registered tasks, ordered by name
+     */
+    public Collection<Task> getTasks() {
+        return ImmutableSortedMap.copyOf(tasks).values();
+    }
+
+    private static String name(Task task, String metric) {
+        return MetricRegistry.name(METRIC_PREFIX, task.getName(), metric);
+    }
+}
@@ -0,0 +1,13 @@
+package com.netflix.priam.scheduler;
+
+/**
+ * Resources a {@link Task} uses heavily.  Tasks that share a resource don't run at the same time.
+ */
+public enum TaskResource {
+    /** Reads or writes a large part of the data, e.g. repair, compaction or cleanup. */
+    DISK_IO,
+    /** Streams data to or from other nodes or S3. */
+    NETWORK,
+    /** Keeps Cassandra busy over JMX for a long time. */
+    JMX
+}
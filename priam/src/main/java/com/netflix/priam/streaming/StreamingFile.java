@@ -0,0 +1,48 @@
+package com.netflix.priam.streaming;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A file being streamed to or from a peer.
+ */
+public class StreamingFile {
+    public enum Direction {IN, OUT}
+
+    @JsonProperty
+    private final String fileName;
+
+    @JsonProperty
+    private final Direction direction;
+
+    @JsonProperty
+    private final long bytes;
+
+    @JsonProperty
+    private final long totalBytes;
+
+    public StreamingFile(String fileName, Direction direction, long bytes, long totalBytes) {
+        this.fileName = fileName;
+        this.direction = direction;
+        this.bytes = bytes;
+        this.totalBytes = totalBytes;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * Bytes streamed so far.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+}
@@ -0,0 +1,131 @@
+package com.netflix.priam.streaming;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.priam.config.CassandraConfiguration;
+import com.netflix.priam.utils.JMXConnectionException;
+import com.netflix.priam.utils.JMXNodeTool;
+import org.apache.cassandra.streaming.ProgressInfo;
+import org.apache.cassandra.streaming.SessionInfo;
+import org.apache.cassandra.streaming.StreamState;
+
+import javax.management.JMException;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the streams of the node and measures their throughput by peer since the previous poll, so bootstraps,
+ * rebuilds and repairs can be followed as they go.
+ */
+@Singleton
+public class StreamingMonitor {
+    private final CassandraConfiguration cassandraConfiguration;
+    private final Ticker ticker;
+    // Bytes streamed by peer at the previous poll
+    private Map<String, Sample> samples = Collections.emptyMap();
+
+    @Inject
+    public StreamingMonitor(CassandraConfiguration cassandraConfiguration) {
+        this(cassandraConfiguration, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    StreamingMonitor(CassandraConfiguration cassandraConfiguration, Ticker ticker) {
+        this.cassandraConfiguration = cassandraConfiguration;
+        this.ticker = ticker;
+    }
+
+    public StreamingStatus poll() throws JMXConnectionException, JMException, IOException {
+        JMXNodeTool nodetool = JMXNodeTool.instance(cassandraConfiguration);
+        String mode = nodetool.getOperationMode();
+        List<StreamingPeer> peers = peers(nodetool.getStreamStates());
+        return new StreamingStatus(mode, System.currentTimeMillis(), measure(peers));
+    }
+
+    /**
+     * Sets the rates and ETA of the peers from the bytes streamed since the previous poll.
+     */
+    @VisibleForTesting
+    synchronized List<StreamingPeer> measure(List<StreamingPeer> peers) {
+        long now = ticker.read();
+        Map<String, Sample> current = Maps.newHashMap();
+        for (StreamingPeer peer : peers) {
+            Sample sample = new Sample(peer.getBytesReceived(), peer.getBytesSent(), now);
+            current.put(peer.getPeer(), sample);
+
+            Sample previous = samples.get(peer.getPeer());
+            if (previous == null || now <= previous.time ||
+                    sample.bytesReceived < previous.bytesReceived || sample.bytesSent < previous.bytesSent) {
+                // First time the peer is seen, or a session ended and its bytes are no longer counted
+                continue;
+            }
+            double seconds = (double) (now - previous.time) / TimeUnit.SECONDS.toNanos(1);
+            double receiveRate = (sample.bytesReceived - previous.bytesReceived) / seconds;
+            double sendRate = (sample.bytesSent - previous.bytesSent) / seconds;
+            Long eta = null;
+            if (peer.getRemainingBytes() == 0) {
+                eta = 0L;
+            } else if (receiveRate + sendRate > 0) {
+                eta = (long) Math.ceil(peer.getRemainingBytes() / (receiveRate + sendRate));
+            }
+            peer.setRates(receiveRate, sendRate, eta);
+        }
+        samples = current;
+        return peers;
+    }
+
+    /**
+     * Adds up the sessions of the streams by peer.
+     */
+    @VisibleForTesting
+    static List<StreamingPeer> peers(Collection<StreamState> streams) {
+        Map<String, StreamingPeer> peers = Maps.newTreeMap();
+        for (StreamState stream : streams) {
+            for (SessionInfo session : stream.sessions) {
+                String address = session.peer.getHostAddress();
+                StreamingPeer peer = peers.get(address);
+                if (peer == null) {
+                    peer = new StreamingPeer(address);
+                    peers.put(address, peer);
+                }
+                peer.addSession(session.state.name());
+                peer.addReceiving(session.getTotalSizeToReceive(), session.getTotalSizeReceived(),
+                        session.getTotalFilesToReceive(), session.getTotalFilesReceived());
+                peer.addSending(session.getTotalSizeToSend(), session.getTotalSizeSent(),
+                        session.getTotalFilesToSend(), session.getTotalFilesSent());
+                addFiles(peer, session.getReceivingFiles());
+                addFiles(peer, session.getSendingFiles());
+            }
+        }
+        return Lists.newArrayList(peers.values());
+    }
+
+    private static void addFiles(StreamingPeer peer, Collection<ProgressInfo> files) {
+        for (ProgressInfo file : files) {
+            if (!file.isCompleted()) {
+                peer.addFile(new StreamingFile(file.fileName, StreamingFile.Direction.valueOf(file.direction.name()),
+                        file.currentBytes, file.totalBytes));
+            }
+        }
+    }
+
+    private static class Sample {
+        private final long bytesReceived;
+        private final long bytesSent;
+        private final long time;
+
+        Sample(long bytesReceived, long bytesSent, long time) {
+            this.bytesReceived = bytesReceived;
+            this.bytesSent = bytesSent;
+            this.time = time;
+        }
+    }
+}
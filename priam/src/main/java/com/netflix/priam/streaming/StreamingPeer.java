@@ -0,0 +1,176 @@
+package com.netflix.priam.streaming;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The streams between this node and a peer, added up over all the stream sessions with the peer, e.g. those of a
+ * bootstrap and a repair running at the same time.
+ * <p/>
+ * Rates are measured between two polls of {@link StreamingMonitor}, they are null on the first poll that sees the
+ * peer or when a session ended in the meantime.
+ */
+public class StreamingPeer {
+    @JsonProperty
+    private final String peer;
+
+    @JsonProperty
+    private int sessions;
+
+    @JsonProperty
+    private final Set<String> states = Sets.newTreeSet();
+
+    @JsonProperty
+    private long bytesToReceive;
+
+    @JsonProperty
+    private long bytesReceived;
+
+    @JsonProperty
+    private long filesToReceive;
+
+    @JsonProperty
+    private long filesReceived;
+
+    @JsonProperty
+    private long bytesToSend;
+
+    @JsonProperty
+    private long bytesSent;
+
+    @JsonProperty
+    private long filesToSend;
+
+    @JsonProperty
+    private long filesSent;
+
+    @JsonProperty
+    private Double receiveBytesPerSecond;
+
+    @JsonProperty
+    private Double sendBytesPerSecond;
+
+    @JsonProperty
+    private Long etaSeconds;
+
+    @JsonProperty
+    private final List<StreamingFile> files = Lists.newArrayList();
+
+    public StreamingPeer(String peer) {
+        this.peer = peer;
+    }
+
+    /**
+     * The address of the peer.
+     */
+    public String getPeer() {
+        return peer;
+    }
+
+    public int getSessions() {
+        return sessions;
+    }
+
+    /**
+     * The states of the sessions with the peer, e.g. PREPARING or STREAMING.
+     */
+    public Set<String> getStates() {
+        return Collections.unmodifiableSet(states);
+    }
+
+    public long getBytesToReceive() {
+        return bytesToReceive;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public long getFilesToReceive() {
+        return filesToReceive;
+    }
+
+    public long getFilesReceived() {
+        return filesReceived;
+    }
+
+    public long getBytesToSend() {
+        return bytesToSend;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getFilesToSend() {
+        return filesToSend;
+    }
+
+    public long getFilesSent() {
+        return filesSent;
+    }
+
+    public Double getReceiveBytesPerSecond() {
+        return receiveBytesPerSecond;
+    }
+
+    public Double getSendBytesPerSecond() {
+        return sendBytesPerSecond;
+    }
+
+    /**
+     * Seconds left to stream the remaining bytes at the current rates, null if unknown or if nothing is moving.
+     */
+    public Long getEtaSeconds() {
+        return etaSeconds;
+    }
+
+    /**
+     * The files being streamed, files already complete are left out.
+     */
+    public List<StreamingFile> getFiles() {
+        return Collections.unmodifiableList(files);
+    }
+
+    /**
+     * Bytes left to receive and send.
+     */
+    @JsonProperty
+    public long getRemainingBytes() {
+        return Math.max(0, bytesToReceive - bytesReceived) + Math.max(0, bytesToSend - bytesSent);
+    }
+
+    void addSession(String state) {
+        sessions++;
+        states.add(state);
+    }
+
+    void addReceiving(long totalBytes, long bytes, long totalFiles, long files) {
+        bytesToReceive += totalBytes;
+        bytesReceived += bytes;
+        filesToReceive += totalFiles;
+        filesReceived += files;
+    }
+
+    void addSending(long totalBytes, long bytes, long totalFiles, long files) {
+        bytesToSend += totalBytes;
+        bytesSent += bytes;
+        filesToSend += totalFiles;
+        filesSent += files;
+    }
+
+    void addFile(StreamingFile file) {
+        files.add(file);
+    }
+
+    void setRates(Double receiveBytesPerSecond, Double sendBytesPerSecond, Long etaSeconds) {
+        this.receiveBytesPerSecond = receiveBytesPerSecond;
+        this.sendBytesPerSecond = sendBytesPerSecond;
+        this.etaSeconds = etaSeconds;
+    }
+}
@@ -0,0 +1,43 @@
+package com.netflix.priam.streaming;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * The operation mode of the node and its streams by peer, as returned by {@link StreamingMonitor#poll()}.
+ */
+public class StreamingStatus {
+    @JsonProperty
+    private final String mode;
+
+    @JsonProperty
+    private final long time;
+
+    @JsonProperty
+    private final List<StreamingPeer> peers;
+
+    public StreamingStatus(String mode, long time, List<StreamingPeer> peers) {
+        this.mode = mode;
+        this.time = time;
+        this.peers = peers;
+    }
+
+    /**
+     * The operation mode of the node, e.g. NORMAL, JOINING or MOVING.
+     */
+    public String getMode() {
+        return mode;
+    }
+
+    /**
+     * When the streams were polled, in ms since the epoch.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public List<StreamingPeer> getPeers() {
+        return peers;
+    }
+}
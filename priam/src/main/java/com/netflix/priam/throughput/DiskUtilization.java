@@ -0,0 +1,82 @@
+package com.netflix.priam.throughput;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+import com.netflix.priam.utils.HardwareProfile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Samples disk utilization from {@code /proc/diskstats}, the same way {@code iostat} computes {@code %util}: the
+ * fraction of wall clock time a device had at least one I/O in flight.
+ */
+public class DiskUtilization {
+    private static final Splitter WHITESPACE = Splitter.on(' ').omitEmptyStrings().trimResults();
+
+    /** Index of the "milliseconds spent doing I/Os" column in /proc/diskstats. */
+    private static final int IO_TICKS_COLUMN = 12;
+
+    private final File diskStats;
+    private final File sysBlockDir;
+    private Map<String, Long> previousIoTicks;
+    private long previousSampleMillis;
+
+    public DiskUtilization() {
+        this(new File("/proc/diskstats"), new File("/sys/block"));
+    }
+
+    @VisibleForTesting
+    DiskUtilization(File diskStats, File sysBlockDir) {
+        this.diskStats = diskStats;
+        this.sysBlockDir = sysBlockDir;
+    }
+
+    /**
+     * Returns the utilization, between 0 and 1, of the busiest disk since the previous sample.  The first sample
+     * has nothing to compare against and returns 0.
+     */
+    public synchronized double sample() throws IOException {
+        return sample(System.currentTimeMillis());
+    }
+
+    @VisibleForTesting
+    synchronized double sample(long nowMillis) throws IOException {
+        Map<String, Long> ioTicks = readIoTicks();
+        double utilization = 0;
+        if (previousIoTicks != null && nowMillis > previousSampleMillis) {
+            long elapsed = nowMillis - previousSampleMillis;
+            for (Map.Entry<String, Long> entry : ioTicks.entrySet()) {
+                Long previous = previousIoTicks.get(entry.getKey());
+                if (previous != null) {
+                    utilization = Math.max(utilization, (double) (entry.getValue() - previous) / elapsed);
+                }
+            }
+        }
+        previousIoTicks = ioTicks;
+        previousSampleMillis = nowMillis;
+        return Math.min(1.0, utilization);
+    }
+
+    private Map<String, Long> readIoTicks() throws IOException {
+        Map<String, Long> ioTicks = Maps.newHashMap();
+        for (String line : Files.readLines(diskStats, Charsets.UTF_8)) {
+            List<String> columns = WHITESPACE.splitToList(line);
+            if (columns.size() <= IO_TICKS_COLUMN) {
+                continue;
+            }
+            String device = columns.get(2);
+            // Only whole disks are listed in /sys/block, partitions are not
+            if (HardwareProfile.isVirtualBlockDevice(device) || !new File(sysBlockDir, device).exists()) {
+                continue;
+            }
+            ioTicks.put(device, Long.parseLong(columns.get(IO_TICKS_COLUMN)));
+        }
+        return ioTicks;
+    }
+}
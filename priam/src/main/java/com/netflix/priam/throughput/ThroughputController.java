@@ -0,0 +1,70 @@
+package com.netflix.priam.throughput;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.priam.config.CassandraConfiguration;
+import com.netflix.priam.scheduler.Task;
+import com.netflix.priam.utils.JMXNodeTool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop controller for compaction and streaming throughput.  Periodically samples pending compactions and
+ * p99 client latency over JMX and disk utilization from {@code /proc/diskstats}, then adjusts Cassandra's throttles
+ * live as decided by {@link ThroughputPolicy}.
+ */
+@Singleton
+public class ThroughputController extends Task {
+    public static final String JOBNAME = "ThroughputController";
+    private static final Logger logger = LoggerFactory.getLogger(ThroughputController.class);
+
+    private final CassandraConfiguration cassandraConfig;
+    private final ThroughputPolicy policy;
+    private final DiskUtilization diskUtilization;
+
+    @Inject
+    public ThroughputController(CassandraConfiguration cassandraConfig) {
+        this.cassandraConfig = cassandraConfig;
+        this.policy = new ThroughputPolicy(cassandraConfig);
+        this.diskUtilization = new DiskUtilization();
+    }
+
+    @Override
+    public void execute() throws Exception {
+        JMXNodeTool nodeTool = JMXNodeTool.instance(cassandraConfig);
+
+        ThroughputPolicy.Sample sample = new ThroughputPolicy.Sample(
+                nodeTool.getClientRequestLatencyP99Ms("Read"),
+                nodeTool.getClientRequestLatencyP99Ms("Write"),
+                diskUtilization.sample(),
+                nodeTool.getPendingCompactions());
+        ThroughputPolicy.Throughput current = new ThroughputPolicy.Throughput(nodeTool.getCompactionThroughput(), nodeTool.getStreamThroughput());
+        ThroughputPolicy.Throughput target = policy.decide(sample, current);
+
+        if (target.getCompactionMBPerSec() != current.getCompactionMBPerSec()) {
+            logger.info("Changing compaction throughput from {} to {} MB/s based on {}", current.getCompactionMBPerSec(), target.getCompactionMBPerSec(), sample);
+            nodeTool.setCompactionThroughput(target.getCompactionMBPerSec());
+        }
+        if (target.getStreamingMbps() != current.getStreamingMbps()) {
+            logger.info("Changing stream throughput from {} to {} Mb/s based on {}", current.getStreamingMbps(), target.getStreamingMbps(), sample);
+            nodeTool.setStreamThroughput(target.getStreamingMbps());
+        }
+    }
+
+    @Override
+    public String getName() {
+        return JOBNAME;
+    }
+
+    @Override
+    public String getTriggerName() {
+        return "throughputcontroller-trigger";
+    }
+
+    @Override
+    public long getIntervalInMilliseconds() {
+        return TimeUnit.SECONDS.toMillis(cassandraConfig.getThroughputControllerIntervalSeconds());
+    }
+}
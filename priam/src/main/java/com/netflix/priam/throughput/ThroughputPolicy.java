@@ -0,0 +1,176 @@
+package com.netflix.priam.throughput;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.netflix.priam.config.CassandraConfiguration;
+
+/**
+ * Decides compaction and streaming throughput from the observed load of the node.
+ * <p/>
+ * The node is considered busy when p99 read or write latency or disk utilization is above its threshold, and idle
+ * when all of them are below half of their threshold.  Anything in between is steady and leaves the throttles alone,
+ * which together with requiring the same reading several times in a row keeps the throttles from flapping.
+ * <p/>
+ * Throttles are halved while busy and doubled while idle, but compaction is only opened up when there is a compaction
+ * backlog to work off.  Both always stay within their configured bounds.
+ */
+public class ThroughputPolicy {
+    @VisibleForTesting
+    static final int REQUIRED_CONSECUTIVE_SAMPLES = 2;
+
+    enum Load {
+        BUSY, STEADY, IDLE
+    }
+
+    private final CassandraConfiguration config;
+    private Load lastLoad;
+    private int consecutiveSamples;
+
+    public ThroughputPolicy(CassandraConfiguration config) {
+        this.config = config;
+    }
+
+    /**
+     * Returns the throughput the node should run at given the latest sample.  Returns the current throughput
+     * when nothing should change.
+     */
+    public synchronized Throughput decide(Sample sample, Throughput current) {
+        Load load = classify(sample);
+        if (load == lastLoad) {
+            consecutiveSamples++;
+        } else {
+            lastLoad = load;
+            consecutiveSamples = 1;
+        }
+        if (consecutiveSamples < REQUIRED_CONSECUTIVE_SAMPLES) {
+            return current;
+        }
+
+        int minCompaction = config.getMinCompactionThroughputMBPerSec();
+        int maxCompaction = config.getMaxCompactionThroughputMBPerSec();
+        int minStreaming = config.getMinStreamingThroughputMbps();
+        int maxStreaming = config.getMaxStreamingThroughputMbps();
+
+        // Zero means unthrottled as far as Cassandra is concerned, which is as high as we would ever go
+        int compaction = current.getCompactionMBPerSec() > 0 ? current.getCompactionMBPerSec() : maxCompaction;
+        int streaming = current.getStreamingMbps() > 0 ? current.getStreamingMbps() : maxStreaming;
+
+        switch (load) {
+            case BUSY:
+                compaction = compaction / 2;
+                streaming = streaming / 2;
+                break;
+            case IDLE:
+                if (sample.getPendingCompactions() > config.getThroughputControllerPendingCompactionsThreshold()) {
+                    compaction = compaction * 2;
+                }
+                streaming = streaming * 2;
+                break;
+            case STEADY:
+                return current;
+        }
+
+        return new Throughput(bound(compaction, minCompaction, maxCompaction), bound(streaming, minStreaming, maxStreaming));
+    }
+
+    @VisibleForTesting
+    Load classify(Sample sample) {
+        double readRatio = sample.getReadP99Ms() / config.getThroughputControllerReadP99ThresholdMs();
+        double writeRatio = sample.getWriteP99Ms() / config.getThroughputControllerWriteP99ThresholdMs();
+        double diskRatio = sample.getDiskUtilization() / config.getThroughputControllerDiskUtilizationThreshold();
+        double worst = Math.max(readRatio, Math.max(writeRatio, diskRatio));
+        if (worst > 1.0) {
+            return Load.BUSY;
+        } else if (worst < 0.5) {
+            return Load.IDLE;
+        }
+        return Load.STEADY;
+    }
+
+    private static int bound(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    public static class Sample {
+        private final double readP99Ms;
+        private final double writeP99Ms;
+        private final double diskUtilization;
+        private final int pendingCompactions;
+
+        public Sample(double readP99Ms, double writeP99Ms, double diskUtilization, int pendingCompactions) {
+            this.readP99Ms = readP99Ms;
+            this.writeP99Ms = writeP99Ms;
+            this.diskUtilization = diskUtilization;
+            this.pendingCompactions = pendingCompactions;
+        }
+
+        public double getReadP99Ms() {
+            return readP99Ms;
+        }
+
+        public double getWriteP99Ms() {
+            return writeP99Ms;
+        }
+
+        public double getDiskUtilization() {
+            return diskUtilization;
+        }
+
+        public int getPendingCompactions() {
+            return pendingCompactions;
+        }
+
+        @Override
+        public String toString() {
+            return Objects.toStringHelper(this)
+                    .add("readP99Ms", readP99Ms)
+                    .add("writeP99Ms", writeP99Ms)
+                    .add("diskUtilization", diskUtilization)
+                    .add("pendingCompactions", pendingCompactions)
+                    .toString();
+        }
+    }
+
+    public static class Throughput {
+        private final int compactionMBPerSec;
+        private final int streamingMbps;
+
+        public Throughput(int compactionMBPerSec, int streamingMbps) {
+            this.compactionMBPerSec = compactionMBPerSec;
+            this.streamingMbps = streamingMbps;
+        }
+
+        public int getCompactionMBPerSec() {
+            return compactionMBPerSec;
+        }
+
+        public int getStreamingMbps() {
+            return streamingMbps;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Throughput)) {
+                return false;
+            }
+            Throughput that = (Throughput) o;
+            return compactionMBPerSec == that.compactionMBPerSec && streamingMbps == that.streamingMbps;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(compactionMBPerSec, streamingMbps);
+        }
+
+        @Override
+        public String toString() {
+            return Objects.toStringHelper(this)
+                    .add("compactionMBPerSec", compactionMBPerSec)
+                    .add("streamingMbps", streamingMbps)
+                    .toString();
+        }
+    }
+}
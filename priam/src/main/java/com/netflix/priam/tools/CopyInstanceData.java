@@ -5,6 +5,7 @@ import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
 import com.amazonaws.auth.STSAssumeRoleSessionCredentialsProvider;
 import com.google.common.base.Optional;
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Ordering;
 import com.netflix.priam.aws.SDBInstanceData;
 import com.netflix.priam.config.AmazonConfiguration;
@@ -15,6 +16,8 @@ import io.dropwizard.setup.Bootstrap;
 import net.sourceforge.argparse4j.inf.Namespace;
 import net.sourceforge.argparse4j.inf.Subparser;
 
+import java.util.List;
+
 /**
  * Copy simple db data for a particular cluster from one AWS region to another.  This can be useful when migrating a
  * live cluster that used to store simple db data in us-east-1 but now wants to store it in the local region for better
@@ -53,14 +56,19 @@ public class CopyInstanceData extends ConfiguredCommand<PriamConfiguration> {
         SDBInstanceData srcSdb = getSimpleDB(domain, srcRegion, assumeRoleARN);
         SDBInstanceData destSdb = getSimpleDB(domain, destRegion, assumeRoleARN);
 
-        for (PriamInstance id : Ordering.natural().sortedCopy(srcSdb.getAllIds(cluster))) {
-            System.out.println("Copying " + id + "...");
-            try {
-                destSdb.createInstance(id);
-            } catch (Exception e) {
-                System.err.println("Copy failed for " + id + ":" + e);
-            }
+        List<PriamInstance> instances = Ordering.natural().sortedCopy(srcSdb.getAllIds(cluster));
+        System.out.println("Copying " + instances.size() + " instances...");
+        List<PriamInstance> copied = Lists.newArrayList();
+        try {
+            destSdb.createInstances(instances, copied);
+        } catch (Exception e) {
+            System.err.println("Copy failed:" + e);
+        }
+        // Batches are written in any order
+        for (PriamInstance id : Ordering.natural().sortedCopy(copied)) {
+            System.out.println("Copied " + id);
         }
+        System.out.println("Copied " + copied.size() + " of " + instances.size() + " instances.");
     }
 
     private static SDBInstanceData getSimpleDB(String domain, String region, String assumeRoleARN) {
@@ -5,6 +5,8 @@ import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
 import com.amazonaws.auth.STSAssumeRoleSessionCredentialsProvider;
 import com.google.common.base.Optional;
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
 import com.netflix.priam.aws.SDBInstanceData;
 import com.netflix.priam.config.AmazonConfiguration;
 import com.netflix.priam.config.PriamConfiguration;
@@ -51,14 +53,22 @@ public class DeleteInstanceData extends ConfiguredCommand<PriamConfiguration> {
 
         SDBInstanceData sdb = getSimpleDB(domain, region, assumeRoleARN);
 
+        List<PriamInstance> instances = Lists.newArrayList();
         for (String id : ids) {
             PriamInstance instance = sdb.getInstance(cluster, Integer.parseInt(id));
             if (instance == null) {
                 System.err.println("No priam instance with id " + id + " found.");
                 continue;
             }
-            sdb.deregisterInstance(instance);
-            System.out.println("Deleted: " + id);
+            instances.add(instance);
+        }
+        List<PriamInstance> deleted = Lists.newArrayList();
+        try {
+            sdb.deregisterInstances(instances, deleted);
+        } finally {
+            for (PriamInstance instance : Ordering.natural().sortedCopy(deleted)) {
+                System.out.println("Deleted: " + instance.getId());
+            }
         }
     }
 
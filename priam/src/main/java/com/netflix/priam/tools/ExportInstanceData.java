@@ -0,0 +1,102 @@
+package com.netflix.priam.tools;
+
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
+import com.amazonaws.auth.STSAssumeRoleSessionCredentialsProvider;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Optional;
+import com.google.common.base.Strings;
+import com.google.common.collect.Ordering;
+import com.netflix.priam.aws.SDBInstanceData;
+import com.netflix.priam.config.AmazonConfiguration;
+import com.netflix.priam.config.PriamConfiguration;
+import com.netflix.priam.identity.PriamInstance;
+import io.dropwizard.cli.ConfiguredCommand;
+import io.dropwizard.setup.Bootstrap;
+import net.sourceforge.argparse4j.inf.Namespace;
+import net.sourceforge.argparse4j.inf.Subparser;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Export simple db data for a particular cluster as a JSON array of instances, to a file or stdout.  The export can be
+ * loaded into another region or domain with {@link ImportInstanceData}.
+ * <p>
+ * AWS credentials can be supplied via environment variables "AWS_ACCESS_KEY_ID" and "AWS_SECRET_KEY" or JVM system
+ * properties "aws.accessKeyId" and "aws.secretKey" or IAM instance profiles.
+ */
+public class ExportInstanceData extends ConfiguredCommand<PriamConfiguration> {
+
+    public ExportInstanceData() {
+        super("export-instance-data", "Exports SimpleDB instance data for a particular Cassandra cluster as JSON.");
+    }
+
+    @Override
+    public void configure(Subparser subparser) {
+        super.configure(subparser);
+        subparser.addArgument("-c", "--cluster").required(true).help("Cassandra cluster name");
+        subparser.addArgument("-d", "--domain").required(true).help("AWS SimpleDB domain");
+        subparser.addArgument("-r", "--region").required(false).help("AWS SimpleDB region");
+        subparser.addArgument("-o", "--output").required(false).help("File to write to, stdout if not set");
+        subparser.addArgument("--sdb-assume-role-arn").required(false).help("assume role ARN for simpleDB");
+    }
+
+    @Override
+    protected void run(Bootstrap<PriamConfiguration> bootstrap, Namespace namespace, PriamConfiguration priamConfiguration)
+            throws Exception {
+        String cluster = namespace.getString("cluster");
+        String domain = namespace.getString("domain");
+        String region = namespace.getString("region");
+        String output = namespace.getString("output");
+        String assumeRoleARN = Optional.fromNullable(namespace.getString("sdb-assume-role-arn"))
+                .or(priamConfiguration.getCassandraConfiguration().getSdbRoleAssumptionArn())
+                .orNull();
+
+        SDBInstanceData sdb = getSimpleDB(domain, region, assumeRoleARN);
+
+        int count;
+        if (output != null) {
+            try (OutputStream out = new FileOutputStream(new File(output))) {
+                count = write(sdb, cluster, out);
+            }
+        } else {
+            // stdout is left open
+            count = write(sdb, cluster, System.out);
+        }
+        System.err.println("Exported " + count + " instances of " + cluster + ".");
+    }
+
+    /**
+     * Writes the instances one at a time, the export is never held in memory as JSON.
+     */
+    private static int write(SDBInstanceData sdb, String cluster, OutputStream out) throws IOException {
+        int count = 0;
+        JsonGenerator generator = new ObjectMapper().getFactory().createGenerator(out);
+        generator.useDefaultPrettyPrinter();
+        generator.writeStartArray();
+        for (PriamInstance instance : Ordering.natural().sortedCopy(sdb.getAllIds(cluster))) {
+            generator.writeObject(instance);
+            count++;
+        }
+        generator.writeEndArray();
+        generator.writeRaw('\n');
+        generator.flush();
+        return count;
+    }
+
+    private static SDBInstanceData getSimpleDB(String domain, String region, String assumeRoleARN) {
+        AWSCredentialsProvider awsCredentialsProvider = new DefaultAWSCredentialsProviderChain();
+        if (!Strings.isNullOrEmpty(assumeRoleARN)) {
+            awsCredentialsProvider = new STSAssumeRoleSessionCredentialsProvider(awsCredentialsProvider, assumeRoleARN, "awsRoleAssumptionSessionName");
+        }
+
+        AmazonConfiguration awsConfig = new AmazonConfiguration();
+        awsConfig.setSimpleDbDomain(domain);
+        awsConfig.setSimpleDbRegion(region);
+        return new SDBInstanceData(awsCredentialsProvider, awsConfig);
+    }
+}
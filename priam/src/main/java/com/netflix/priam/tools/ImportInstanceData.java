@@ -0,0 +1,228 @@
+package com.netflix.priam.tools;
+
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
+import com.amazonaws.auth.STSAssumeRoleSessionCredentialsProvider;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.netflix.priam.aws.SDBInstanceData;
+import com.netflix.priam.config.AmazonConfiguration;
+import com.netflix.priam.config.PriamConfiguration;
+import com.netflix.priam.identity.PriamInstance;
+import io.dropwizard.cli.ConfiguredCommand;
+import io.dropwizard.setup.Bootstrap;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.Namespace;
+import net.sourceforge.argparse4j.inf.Subparser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Load simple db data for a particular cluster from the JSON written by {@link ExportInstanceData}.  The changes to
+ * the domain are listed first; with {@code --diff} nothing else is done.  New and changed instances are written with
+ * batched, parallel requests.  Instances missing from the export are only deleted with {@code --delete-missing}, which
+ * refuses to run if the input has no instance of the cluster, or if it would delete more than
+ * {@link #MAX_DELETED_FRACTION} of the instances unless {@code --force} is given.
+ * <p>
+ * AWS credentials can be supplied via environment variables "AWS_ACCESS_KEY_ID" and "AWS_SECRET_KEY" or JVM system
+ * properties "aws.accessKeyId" and "aws.secretKey" or IAM instance profiles.
+ */
+public class ImportInstanceData extends ConfiguredCommand<PriamConfiguration> {
+
+    /** The share of the instances of the cluster {@code --delete-missing} deletes without {@code --force}. */
+    static final double MAX_DELETED_FRACTION = 0.1;
+
+    public ImportInstanceData() {
+        super("import-instance-data", "Imports SimpleDB instance data for a particular Cassandra cluster from JSON.");
+    }
+
+    @Override
+    public void configure(Subparser subparser) {
+        super.configure(subparser);
+        subparser.addArgument("-c", "--cluster").required(true).help("Cassandra cluster name");
+        subparser.addArgument("-d", "--domain").required(true).help("AWS SimpleDB domain");
+        subparser.addArgument("-r", "--region").required(false).help("AWS SimpleDB region");
+        subparser.addArgument("-i", "--input").required(false).help("File to read from, stdin if not set");
+        subparser.addArgument("--diff").action(Arguments.storeTrue()).help("Only list the changes, don't apply them");
+        subparser.addArgument("--delete-missing").dest("delete_missing").action(Arguments.storeTrue()).help("Delete instances that aren't in the input");
+        subparser.addArgument("--force").action(Arguments.storeTrue()).help("Delete missing instances even if it removes more than " + (int) (MAX_DELETED_FRACTION * 100) + "% of the cluster");
+        subparser.addArgument("--sdb-assume-role-arn").required(false).help("assume role ARN for simpleDB");
+    }
+
+    @Override
+    protected void run(Bootstrap<PriamConfiguration> bootstrap, Namespace namespace, PriamConfiguration priamConfiguration)
+            throws Exception {
+        String cluster = namespace.getString("cluster");
+        String domain = namespace.getString("domain");
+        String region = namespace.getString("region");
+        String input = namespace.getString("input");
+        boolean diffOnly = namespace.getBoolean("diff");
+        boolean deleteMissing = namespace.getBoolean("delete_missing");
+        boolean force = namespace.getBoolean("force");
+        String assumeRoleARN = Optional.fromNullable(namespace.getString("sdb-assume-role-arn"))
+                .or(priamConfiguration.getCassandraConfiguration().getSdbRoleAssumptionArn())
+                .orNull();
+
+        // Instances are read one at a time, only those of the cluster are kept
+        List<PriamInstance> imported = Lists.newArrayList();
+        InputStream in = input != null ? new FileInputStream(new File(input)) : System.in;
+        try (MappingIterator<PriamInstance> instances = new ObjectMapper().reader(PriamInstance.class).readValues(in)) {
+            while (instances.hasNext()) {
+                PriamInstance instance = instances.next();
+                if (cluster.equals(instance.getApp())) {
+                    imported.add(instance);
+                }
+            }
+        }
+
+        SDBInstanceData sdb = getSimpleDB(domain, region, assumeRoleARN);
+        Diff diff = Diff.between(sdb.getAllIds(cluster), imported);
+
+        for (PriamInstance instance : diff.getAdded()) {
+            System.out.println("+ " + instance);
+        }
+        for (PriamInstance instance : diff.getChanged()) {
+            System.out.println("~ " + instance);
+        }
+        for (PriamInstance instance : diff.getRemoved()) {
+            System.out.println((deleteMissing ? "- " : "  (kept) ") + instance);
+        }
+        System.out.println(String.format("%d added, %d changed, %d %s, %d unchanged.",
+                diff.getAdded().size(), diff.getChanged().size(), diff.getRemoved().size(),
+                deleteMissing ? "removed" : "not in the input", diff.getUnchanged()));
+        if (deleteMissing) {
+            Optional<String> refusal = refuseDeletes(diff, force);
+            if (refusal.isPresent()) {
+                System.err.println(refusal.get() + " Nothing was changed.");
+                return;
+            }
+        }
+        if (diffOnly) {
+            return;
+        }
+
+        List<PriamInstance> writes = Lists.newArrayList(diff.getAdded());
+        writes.addAll(diff.getChanged());
+        sdb.createInstances(writes);
+        if (deleteMissing) {
+            sdb.deregisterInstances(diff.getRemoved());
+        }
+        System.out.println("Imported " + imported.size() + " instances of " + cluster + ".");
+    }
+
+    /**
+     * Returns why deleting the instances missing from the input is refused, if it is.  An empty input, or one of
+     * another cluster, would delete every instance; a truncated one most of them.
+     */
+    @VisibleForTesting
+    static Optional<String> refuseDeletes(Diff diff, boolean force) {
+        if (diff.getRemoved().isEmpty()) {
+            return Optional.absent();
+        }
+        if (diff.getImportedSize() == 0) {
+            return Optional.of("The input has no instances of the cluster, refusing to delete all of them.");
+        }
+        if (!force && diff.getRemoved().size() > MAX_DELETED_FRACTION * diff.getCurrentSize()) {
+            return Optional.of(String.format("Refusing to delete %d of the %d instances of the cluster without --force.",
+                    diff.getRemoved().size(), diff.getCurrentSize()));
+        }
+        return Optional.absent();
+    }
+
+    private static SDBInstanceData getSimpleDB(String domain, String region, String assumeRoleARN) {
+        AWSCredentialsProvider awsCredentialsProvider = new DefaultAWSCredentialsProviderChain();
+        if (!Strings.isNullOrEmpty(assumeRoleARN)) {
+            awsCredentialsProvider = new STSAssumeRoleSessionCredentialsProvider(awsCredentialsProvider, assumeRoleARN, "awsRoleAssumptionSessionName");
+        }
+
+        AmazonConfiguration awsConfig = new AmazonConfiguration();
+        awsConfig.setSimpleDbDomain(domain);
+        awsConfig.setSimpleDbRegion(region);
+        return new SDBInstanceData(awsCredentialsProvider, awsConfig);
+    }
+
+    /**
+     * The difference between the instances of a cluster and those being imported, by slot id.  Only the fields stored
+     * in SimpleDB are compared: update times are ignored as every write sets them, and volumes and the out of service
+     * flag are not stored, so an import that only changes them leaves the instance unchanged.
+     */
+    static class Diff {
+        private final List<PriamInstance> added = Lists.newArrayList();
+        private final List<PriamInstance> changed = Lists.newArrayList();
+        private final List<PriamInstance> removed = Lists.newArrayList();
+        private int unchanged;
+
+        static Diff between(Collection<PriamInstance> current, Collection<PriamInstance> imported) {
+            Map<Integer, PriamInstance> currentById = Maps.newHashMap();
+            for (PriamInstance instance : current) {
+                currentById.put(instance.getId(), instance);
+            }
+            SortedMap<Integer, PriamInstance> importedById = new TreeMap<>();
+            for (PriamInstance instance : imported) {
+                importedById.put(instance.getId(), instance);
+            }
+
+            Diff diff = new Diff();
+            for (PriamInstance instance : importedById.values()) {
+                PriamInstance existing = currentById.remove(instance.getId());
+                if (existing == null) {
+                    diff.added.add(instance);
+                } else if (!sameEntry(existing, instance)) {
+                    diff.changed.add(instance);
+                } else {
+                    diff.unchanged++;
+                }
+            }
+            diff.removed.addAll(new TreeMap<>(currentById).values());
+            return diff;
+        }
+
+        private static boolean sameEntry(PriamInstance a, PriamInstance b) {
+            return Objects.equal(a.getInstanceId(), b.getInstanceId())
+                    && Objects.equal(a.getHostName(), b.getHostName())
+                    && Objects.equal(a.getHostIP(), b.getHostIP())
+                    && Objects.equal(a.getAvailabilityZone(), b.getAvailabilityZone())
+                    && Objects.equal(a.getLocation(), b.getLocation())
+                    && Objects.equal(a.getToken(), b.getToken());
+        }
+
+        List<PriamInstance> getAdded() {
+            return added;
+        }
+
+        List<PriamInstance> getChanged() {
+            return changed;
+        }
+
+        List<PriamInstance> getRemoved() {
+            return removed;
+        }
+
+        int getUnchanged() {
+            return unchanged;
+        }
+
+        /** The number of instances in the input. */
+        int getImportedSize() {
+            return added.size() + changed.size() + unchanged;
+        }
+
+        /** The number of instances of the cluster before the import. */
+        int getCurrentSize() {
+            return changed.size() + unchanged + removed.size();
+        }
+    }
+}
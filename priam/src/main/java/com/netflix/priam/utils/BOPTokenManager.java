@@ -139,6 +139,26 @@ public class BOPTokenManager extends TokenManager {
         return partitioner.getToken(ByteBuffer.wrap(tokenBytes));
     }
 
+    @Override
+    public BigInteger parseToken(String token) {
+        return new BigInteger(1, (byte[]) partitioner.getTokenFactory().fromString(checkTokenString(token)).getTokenValue());
+    }
+
+    @Override
+    public String formatToken(BigInteger value) {
+        return partitioner.getTokenFactory().toString(numberToToken(value));
+    }
+
+    @Override
+    public BigInteger getMinimumTokenValue() {
+        return new BigInteger(1, (byte[]) minimumToken.getTokenValue());
+    }
+
+    @Override
+    public BigInteger getTokenRangeSize() {
+        return new BigInteger(1, (byte[]) maximumToken.getTokenValue()).add(BigInteger.ONE).subtract(getMinimumTokenValue());
+    }
+
     public String sanitizeToken(String jmxTokenString) {
         // BytesToken.toString() returns "Token(bytes[<hex>])" but ByteOrderedPartitioner expects just "<hex>".
         String prefix = "Token(bytes[", suffix = "])";
@@ -98,6 +98,26 @@ public class BigIntegerTokenManager extends TokenManager {
         return sortedTokens.get(i).toString();
     }
 
+    @Override
+    public BigInteger parseToken(String token) {
+        return new BigInteger(token);
+    }
+
+    @Override
+    public String formatToken(BigInteger value) {
+        return value.toString();
+    }
+
+    @Override
+    public BigInteger getMinimumTokenValue() {
+        return minimumToken;
+    }
+
+    @Override
+    public BigInteger getTokenRangeSize() {
+        return maximumToken.add(BigInteger.ONE).subtract(minimumToken);
+    }
+
     @Override
     public String sanitizeToken(String jmxTokenString) {
         // BigIntegerToken.toString() returns BigInteger.toString() which is the format expected by the RandomPartitioner.
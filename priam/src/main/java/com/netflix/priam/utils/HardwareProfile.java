@@ -0,0 +1,196 @@
+package com.netflix.priam.utils;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
+import com.google.common.base.Objects;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Describes the hardware Cassandra is running on, as reported by {@code /proc} and {@code /sys/block}, and derives
+ * Cassandra settings from it.  The derivations follow the guidance in {@code cassandra-env.sh} and the comments in
+ * the stock {@code cassandra.yaml}; they are only used for settings that have not been explicitly configured.
+ */
+public class HardwareProfile {
+    private static final Logger logger = LoggerFactory.getLogger(HardwareProfile.class);
+
+    /** Block device name prefixes that never hold Cassandra data (loopback, ram disks, optical, device mapper, etc). */
+    private static final List<String> VIRTUAL_DEVICE_PREFIXES = ImmutableList.of("loop", "ram", "zram", "sr", "fd", "dm-", "md", "nbd");
+
+    private static final Supplier<HardwareProfile> LOCAL = Suppliers.memoize(new Supplier<HardwareProfile>() {
+        @Override
+        public HardwareProfile get() {
+            try {
+                HardwareProfile profile = detect(new File("/proc"), new File("/sys/block"));
+                logger.info("Detected hardware: {}", profile);
+                return profile;
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to detect the local hardware profile", e);
+            }
+        }
+    });
+
+    private final int cores;
+    private final long memoryMB;
+    private final int disks;
+    private final boolean solidState;
+
+    public HardwareProfile(int cores, long memoryMB, int disks, boolean solidState) {
+        this.cores = Math.max(1, cores);
+        this.memoryMB = memoryMB;
+        this.disks = Math.max(1, disks);
+        this.solidState = solidState;
+    }
+
+    /**
+     * Returns the profile of the machine Priam is running on.  The hardware is only inspected once.
+     *
+     * @throws IllegalStateException if the hardware could not be inspected (for example, when not running on Linux)
+     */
+    public static HardwareProfile local() {
+        return LOCAL.get();
+    }
+
+    @VisibleForTesting
+    static HardwareProfile detect(File procDir, File sysBlockDir) throws IOException {
+        int cores = 0;
+        for (String line : Files.readLines(new File(procDir, "cpuinfo"), Charsets.UTF_8)) {
+            if (line.startsWith("processor")) {
+                cores++;
+            }
+        }
+        if (cores == 0) {
+            cores = Runtime.getRuntime().availableProcessors();
+        }
+
+        long memoryKB = 0;
+        for (String line : Files.readLines(new File(procDir, "meminfo"), Charsets.UTF_8)) {
+            if (line.startsWith("MemTotal:")) {
+                // e.g. "MemTotal:       16329268 kB"
+                memoryKB = Long.parseLong(line.substring("MemTotal:".length()).replace("kB", "").trim());
+                break;
+            }
+        }
+        if (memoryKB == 0) {
+            throw new IOException("MemTotal not found in " + new File(procDir, "meminfo"));
+        }
+
+        int disks = 0;
+        boolean solidState = true;
+        File[] devices = sysBlockDir.listFiles();
+        if (devices != null) {
+            for (File device : devices) {
+                if (isVirtualBlockDevice(device.getName())) {
+                    continue;
+                }
+                disks++;
+                File rotational = new File(device, "queue/rotational");
+                if (!rotational.exists() || !"0".equals(Files.toString(rotational, Charsets.UTF_8).trim())) {
+                    solidState = false;
+                }
+            }
+        }
+        if (disks == 0) {
+            // Nothing we recognize, assume the worst: a single spinning disk
+            solidState = false;
+        }
+
+        return new HardwareProfile(cores, memoryKB / 1024, disks, solidState);
+    }
+
+    /**
+     * Returns true for block devices that never hold Cassandra data, such as loopback devices and ram disks.
+     */
+    public static boolean isVirtualBlockDevice(String name) {
+        for (String prefix : VIRTUAL_DEVICE_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getCores() {
+        return cores;
+    }
+
+    public long getMemoryMB() {
+        return memoryMB;
+    }
+
+    public int getDisks() {
+        return disks;
+    }
+
+    public boolean isSolidState() {
+        return solidState;
+    }
+
+    /**
+     * Same calculation as {@code cassandra-env.sh}: max(min(1/2 ram, 1GB), min(1/4 ram, 8GB)).
+     */
+    public long getMaxHeapSizeMB() {
+        return Math.max(Math.min(memoryMB / 2, 1024), Math.min(memoryMB / 4, 8192));
+    }
+
+    /**
+     * Same calculation as {@code cassandra-env.sh}: min(100MB per core, 1/4 of the heap).
+     */
+    public long getNewGenHeapSizeMB() {
+        return Math.min(100L * cores, getMaxHeapSizeMB() / 4);
+    }
+
+    /**
+     * Reads are usually disk bound: 16 per drive, doubled when the drives don't have to seek.
+     */
+    public int getConcurrentReads() {
+        return (solidState ? 32 : 16) * disks;
+    }
+
+    /**
+     * Writes are CPU bound: 8 per core.
+     */
+    public int getConcurrentWrites() {
+        return 8 * cores;
+    }
+
+    /**
+     * The smaller of the number of disks and cores bounded to [2, 8], or the number of cores up to 8 on SSDs.
+     */
+    public int getConcurrentCompactors() {
+        return bound(solidState ? cores : Math.min(disks, cores), 2, 8);
+    }
+
+    /**
+     * The smaller of the number of disks and cores bounded to [2, 8], or the number of cores up to 8 on SSDs.
+     */
+    public int getMemtableFlushWriters() {
+        return bound(solidState ? cores : Math.min(disks, cores), 2, 8);
+    }
+
+    public int getCompactionThroughputMBPerSec() {
+        return solidState ? 64 : 16;
+    }
+
+    private static int bound(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this)
+                .add("cores", cores)
+                .add("memoryMB", memoryMB)
+                .add("disks", disks)
+                .add("solidState", solidState)
+                .toString();
+    }
+}
@@ -15,29 +15,40 @@
  */
 package com.netflix.priam.utils;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Objects;
 import com.google.common.base.Optional;
 import com.google.common.base.Strings;
-import com.google.common.collect.ImmutableMap;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.io.Closeables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.netflix.priam.config.CassandraConfiguration;
+import com.netflix.priam.config.TableOrder;
 import org.apache.cassandra.db.ColumnFamilyStoreMBean;
 import org.apache.cassandra.db.HintedHandOffManagerMBean;
 import org.apache.cassandra.repair.messages.RepairOption;
+import org.apache.cassandra.streaming.StreamManagerMBean;
+import org.apache.cassandra.streaming.StreamState;
+import org.apache.cassandra.streaming.management.StreamStateCompositeData;
 import org.apache.cassandra.tools.NodeProbe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.management.JMException;
 import javax.management.JMX;
 import javax.management.MBeanServerConnection;
 import javax.management.MalformedObjectNameException;
+import javax.management.NotificationListener;
 import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.lang.management.MemoryUsage;
 import java.lang.reflect.Field;
 import java.net.InetAddress;
@@ -45,12 +56,24 @@ import java.net.UnknownHostException;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 
 
 /**
@@ -60,6 +83,11 @@ import java.util.concurrent.ExecutionException;
 public class JMXNodeTool extends NodeProbe implements Closeable {
     private static final Logger logger = LoggerFactory.getLogger(JMXNodeTool.class);
     private static volatile JMXNodeTool tool = null;
+
+    /** The most table operations that run at once, across every call to {@link #runPerTable}. */
+    private static final int MAX_TABLE_THREADS = 8;
+
+    private static final ExecutorService TABLE_EXECUTOR = newTableExecutor();
     private MBeanServerConnection mbeanServerConn = null;
 
     /**
@@ -147,20 +175,21 @@ public class JMXNodeTool extends NodeProbe implements Closeable {
      * You must do the compaction before running this to get an accurate number.  Otherwise the result
      * will likely significantly overestimate the actual number of keys.
      */
-    public List<Map<String, Object>> estimateKeys(Optional<Collection<String>> keyspaces) {
+    public void writeEstimateKeys(Optional<Collection<String>> keyspaces, JsonGenerator generator) throws IOException {
+        // One JMX call per table, each table is written as soon as it's estimated
         Iterator<Entry<String, ColumnFamilyStoreMBean>> it = getColumnFamilyStoreMBeanProxies();
-        List<Map<String, Object>> list = Lists.newArrayList();
+        generator.writeStartArray();
         while (it.hasNext()) {
             Entry<String, ColumnFamilyStoreMBean> entry = it.next();
             if (!keyspaces.isPresent() || keyspaces.get().contains(entry.getKey())) {
-                list.add(ImmutableMap.<String, Object>builder()
-                        .put("keyspace", entry.getKey())
-                        .put("column_family", entry.getValue().getColumnFamilyName())
-                        .put("estimated_size", entry.getValue().estimateKeys())
-                        .build());
+                generator.writeStartObject();
+                generator.writeStringField("keyspace", entry.getKey());
+                generator.writeStringField("column_family", entry.getValue().getColumnFamilyName());
+                generator.writeNumberField("estimated_size", entry.getValue().estimateKeys());
+                generator.writeEndObject();
             }
         }
-        return list;
+        generator.writeEndArray();
     }
 
     @SuppressWarnings("unchecked")
@@ -193,6 +222,46 @@ public class JMXNodeTool extends NodeProbe implements Closeable {
         return totalEndpointsPendingHints;
     }
 
+    /**
+     * Returns the number of compactions Cassandra estimates are needed to catch up.
+     */
+    public int getPendingCompactions() throws JMException, IOException {
+        ObjectName name = new ObjectName("org.apache.cassandra.metrics:type=Compaction,name=PendingTasks");
+        return ((Number) mbeanServerConn.getAttribute(name, "Value")).intValue();
+    }
+
+    /**
+     * Returns the recent 99th percentile coordinator latency in milliseconds for client requests of the given
+     * type, such as "Read" or "Write".
+     */
+    public double getClientRequestLatencyP99Ms(String scope) throws JMException, IOException {
+        ObjectName name = new ObjectName("org.apache.cassandra.metrics:type=ClientRequest,scope=" + scope + ",name=Latency");
+        // Latency timers are reported in microseconds
+        return ((Number) mbeanServerConn.getAttribute(name, "99thPercentile")).doubleValue() / 1000;
+    }
+
+    /**
+     * Listens to the notifications of the StorageService MBean, such as the progress of bootstraps, moves and
+     * repairs.
+     */
+    public void addStorageServiceListener(NotificationListener listener) throws JMException, IOException {
+        mbeanServerConn.addNotificationListener(new ObjectName("org.apache.cassandra.db:type=StorageService"), listener, null, null);
+    }
+
+    /**
+     * Reads the current streams from the composite data of the StreamManager MBean, with the progress of every
+     * session and file.
+     */
+    public List<StreamState> getStreamStates() throws JMException, IOException {
+        StreamManagerMBean streamManager = JMX.newMBeanProxy(mbeanServerConn,
+                new ObjectName(StreamManagerMBean.OBJECT_NAME), StreamManagerMBean.class);
+        List<StreamState> streams = Lists.newArrayList();
+        for (CompositeData stream : streamManager.getCurrentStreams()) {
+            streams.add(StreamStateCompositeData.fromCompositeData(stream));
+        }
+        return streams;
+    }
+
     @SuppressWarnings("unchecked")
     public List<Map<String, Object>> ring() {
         return ring(null);
@@ -200,7 +269,7 @@ public class JMXNodeTool extends NodeProbe implements Closeable {
 
     @SuppressWarnings("unchecked")
     public List<Map<String, Object>> ring(String keyspace) {
-        logger.info("JMX ring being called");
+        logger.debug("JMX ring being called");
         List<Map<String, Object>> ring = Lists.newArrayList();
         Map<String, String> tokenToEndpoint = getTokenToEndpointMap();
         List<String> sortedTokens = new ArrayList<>(tokenToEndpoint.keySet());
@@ -212,27 +281,38 @@ public class JMXNodeTool extends NodeProbe implements Closeable {
         Collection<String> movingNodes = getMovingNodes();
         Map<String, String> loadMap = getLoadMap();
 
-        // Calculate per-token ownership of the ring
+        // Calculate per-node ownership of the ring.  Cassandra keys it by address, the token map by address string.
         Map<InetAddress, Float> ownerships;
         if (Strings.isNullOrEmpty(keyspace)) {
             ownerships = getOwnership();
         } else {
             ownerships = effectiveOwnership(keyspace);
         }
+        Map<String, Float> ownershipByEndpoint = Maps.newHashMap();
+        for (Entry<InetAddress, Float> ownership : ownerships.entrySet()) {
+            ownershipByEndpoint.put(ownership.getKey().getHostAddress(), ownership.getValue());
+        }
 
+        // With vnodes endpoints own many tokens, look up their data center and rack once
+        Map<String, String> dataCenters = Maps.newHashMap();
+        Map<String, String> racks = Maps.newHashMap();
         for (String token : sortedTokens) {
             String primaryEndpoint = tokenToEndpoint.get(token);
-            String dataCenter;
-            try {
-                dataCenter = getEndpointSnitchInfoProxy().getDatacenter(primaryEndpoint);
-            } catch (UnknownHostException e) {
-                dataCenter = "Unknown";
-            }
-            String rack;
-            try {
-                rack = getEndpointSnitchInfoProxy().getRack(primaryEndpoint);
-            } catch (UnknownHostException e) {
-                rack = "Unknown";
+            String dataCenter = dataCenters.get(primaryEndpoint);
+            String rack = racks.get(primaryEndpoint);
+            if (dataCenter == null) {
+                try {
+                    dataCenter = getEndpointSnitchInfoProxy().getDatacenter(primaryEndpoint);
+                } catch (UnknownHostException e) {
+                    dataCenter = "Unknown";
+                }
+                try {
+                    rack = getEndpointSnitchInfoProxy().getRack(primaryEndpoint);
+                } catch (UnknownHostException e) {
+                    rack = "Unknown";
+                }
+                dataCenters.put(primaryEndpoint, dataCenter);
+                racks.put(primaryEndpoint, rack);
             }
             String status = liveNodes.contains(primaryEndpoint)
                     ? "Up"
@@ -251,15 +331,21 @@ public class JMXNodeTool extends NodeProbe implements Closeable {
             }
 
             String load = Objects.firstNonNull(loadMap.get(primaryEndpoint), "?");
-            // TODO: ownerships is keyed by InetAddress, lookup is by String
-            String owns = new DecimalFormat("##0.00%").format(Objects.firstNonNull(ownerships.get(primaryEndpoint), 0.0F));
+            String owns = new DecimalFormat("##0.00%").format(Objects.firstNonNull(ownershipByEndpoint.get(primaryEndpoint), 0.0F));
             ring.add(createJson(primaryEndpoint, dataCenter, rack, status, state, load, owns, token));
         }
-        logger.info(ring.toString());
         return ring;
     }
 
-    private Map<String, Object> createJson(String primaryEndpoint, String dataCenter, String rack, String status, String state, String load, String owns, String token) {
+    private static ExecutorService newTableExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_TABLE_THREADS, MAX_TABLE_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactoryBuilder().setNameFormat("table-operation-%d").setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    @VisibleForTesting
+    static Map<String, Object> createJson(String primaryEndpoint, String dataCenter, String rack, String status, String state, String load, String owns, String token) {
         Map<String, Object> object = Maps.newLinkedHashMap();
         object.put("endpoint", primaryEndpoint);
         object.put("dc", dataCenter);
@@ -285,6 +371,14 @@ public class JMXNodeTool extends NodeProbe implements Closeable {
     }
 
     public void repair(String keyspace, boolean isSequential, boolean localDataCenterOnly, boolean primaryRange) throws IOException {
+        repair(keyspace, isSequential, localDataCenterOnly, primaryRange, System.out);
+    }
+
+    /**
+     * Repairs a keyspace, waiting for the repair to complete.  The progress notifications of the repair are printed
+     * to {@code out}.
+     */
+    public void repair(String keyspace, boolean isSequential, boolean localDataCenterOnly, boolean primaryRange, PrintStream out) throws IOException {
         Map<String, String> repairOptions = new HashMap<>();
         repairOptions.put(RepairOption.PARALLELISM_KEY, Boolean.toString(!isSequential));
         repairOptions.put(RepairOption.PRIMARY_RANGE_KEY, Boolean.toString(primaryRange));
@@ -292,7 +386,7 @@ public class JMXNodeTool extends NodeProbe implements Closeable {
             repairOptions.put(RepairOption.DATACENTERS_KEY, getDataCenter());
         }
 
-        repairAsync(System.out, keyspace, repairOptions);
+        repairAsync(out, keyspace, repairOptions);
     }
 
     public void cleanup() throws IOException, ExecutionException, InterruptedException {
@@ -310,6 +404,116 @@ public class JMXNodeTool extends NodeProbe implements Closeable {
         }
     }
 
+    /**
+     * Lists the selected tables an operation can run on, with their size, in the given order.  Secondary indexes
+     * go with their table, and the system keyspace is never cleaned up.
+     */
+    public List<TableRun> tables(TableOperation operation, TableFilter filter, final TableOrder order) {
+        List<TableRun> tables = Lists.newArrayList();
+        Iterator<Entry<String, ColumnFamilyStoreMBean>> it = getColumnFamilyStoreMBeanProxies();
+        while (it.hasNext()) {
+            Entry<String, ColumnFamilyStoreMBean> entry = it.next();
+            String keyspace = entry.getKey();
+            String table = entry.getValue().getColumnFamilyName();
+            if (table.contains(".") || !filter.matches(keyspace, table) ||
+                    (operation == TableOperation.CLEANUP && "system".equalsIgnoreCase(keyspace))) {
+                continue;
+            }
+            tables.add(new TableRun(keyspace, table, liveDiskSpaceUsed(keyspace, table)));
+        }
+        Collections.sort(tables, new Comparator<TableRun>() {
+            @Override
+            public int compare(TableRun left, TableRun right) {
+                int bySize = Long.compare(left.getLiveDiskSpaceUsed(), right.getLiveDiskSpaceUsed());
+                return order == TableOrder.LARGEST_FIRST ? -bySize : bySize;
+            }
+        });
+        return tables;
+    }
+
+    /**
+     * Runs an operation on tables in the order given, {@code parallelism} at a time.  Tables {@link TableRun#skip()
+     * skipped} in the meantime are left alone.  The tables run on a pool shared by every call, which caps the tables
+     * running at once at {@link #MAX_TABLE_THREADS}.
+     *
+     * @return The tables
+     * @throws IllegalStateException if the operation failed on a table, once every other table is done
+     */
+    public List<TableRun> runPerTable(final TableOperation operation, List<TableRun> tables, int parallelism)
+            throws InterruptedException {
+        checkArgument(parallelism >= 1, "parallelism must be >= 1");
+        // Each worker takes the next table until none are left, so no more than 'parallelism' run at a time
+        final Queue<TableRun> pending = new ConcurrentLinkedQueue<>(tables);
+        List<Future<?>> workers = Lists.newArrayList();
+        try {
+            for (int i = 0; i < Math.min(parallelism, tables.size()); i++) {
+                workers.add(TABLE_EXECUTOR.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        TableRun table;
+                        while ((table = pending.poll()) != null) {
+                            runOnTable(operation, table);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    throw Throwables.propagate(e.getCause());
+                }
+            }
+        } finally {
+            pending.clear();
+            for (Future<?> worker : workers) {
+                worker.cancel(true);
+            }
+        }
+
+        List<TableRun> failed = Lists.newArrayList();
+        for (TableRun table : tables) {
+            if (table.getState() == TableRun.State.FAILED) {
+                failed.add(table);
+            }
+        }
+        checkState(failed.isEmpty(), "%s failed on %s", operation, failed);
+        return tables;
+    }
+
+    private void runOnTable(TableOperation operation, TableRun table) {
+        if (!table.start()) {
+            return;
+        }
+        try {
+            switch (operation) {
+                case COMPACT:
+                    forceKeyspaceCompaction(false, table.getKeyspace(), table.getTable());
+                    break;
+                case CLEANUP:
+                    forceKeyspaceCleanup(0, table.getKeyspace(), table.getTable());
+                    break;
+                case FLUSH:
+                    forceKeyspaceFlush(table.getKeyspace(), table.getTable());
+                    break;
+            }
+            table.finish(null);
+            logger.info("{} of {} took {} ms", operation, table, table.getDurationMs());
+        } catch (Exception e) {
+            logger.warn("{} of {} failed", operation, table, e);
+            table.finish(e.toString());
+        }
+    }
+
+    private long liveDiskSpaceUsed(String keyspace, String table) {
+        try {
+            return ((Number) getColumnFamilyMetric(keyspace, table, "LiveDiskSpaceUsed")).longValue();
+        } catch (Exception e) {
+            logger.debug("Unable to read the size of {}.{}", keyspace, table, e);
+            return 0;
+        }
+    }
+
     public void refresh(List<String> keyspaces) throws IOException {
         Iterator<Entry<String, ColumnFamilyStoreMBean>> it = getColumnFamilyStoreMBeanProxies();
         while (it.hasNext()) {
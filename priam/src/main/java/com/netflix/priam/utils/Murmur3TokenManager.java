@@ -0,0 +1,117 @@
+package com.netflix.priam.utils;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.netflix.priam.identity.Location;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A token manager for the Murmur3Partitioner that does its token math on primitive longs.
+ * <p/>
+ * Murmur3 tokens are exactly the signed 64-bit range, so arithmetic that wraps around the top of the ring is plain
+ * two's complement overflow and nothing needs to be boxed.  It produces the same tokens as
+ * {@link BigIntegerTokenManager#forMurmur3Partitioner()} but avoids allocating a {@code BigInteger} per token, which
+ * matters once nodes carry many tokens.
+ */
+public class Murmur3TokenManager extends TokenManager {
+    private static final BigInteger MINIMUM_TOKEN = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger RANGE_SIZE = BigInteger.ONE.shiftLeft(64);
+
+    /**
+     * Calculate a token for the given position, evenly spaced from other size-1 nodes.
+     *
+     * @param size     number of slots by which the token space will be divided
+     * @param position slot number, multiplier
+     * @param offset   added to token
+     * @return 2^64 / size * position + offset + MINIMUM_TOKEN, wrapped around the ring
+     */
+    @VisibleForTesting
+    long initialToken(int size, int position, int offset) {
+        Preconditions.checkArgument(size > 0, "size must be > 0");
+        Preconditions.checkArgument(offset >= 0, "offset must be >= 0");
+        Preconditions.checkArgument(position >= 0, "position must be >= 0");
+        return rangePerSlot(size) * position + offset + Long.MIN_VALUE;
+    }
+
+    /**
+     * Returns 2^64 / size as an unsigned long.  2^64 itself doesn't fit, so divide 2^64 - 1 instead and correct for
+     * the one case where that rounds down too far.  A single slot covers the whole ring, which wraps to 0.
+     */
+    private static long rangePerSlot(int size) {
+        long quotient = Long.divideUnsigned(-1L, size);
+        if (Long.remainderUnsigned(-1L, size) == size - 1) {
+            quotient++;
+        }
+        return quotient;
+    }
+
+    @Override
+    public String createToken(int mySlot, int totalCount, Location location) {
+        return Long.toString(initialToken(totalCount, mySlot, locationOffset(location)));
+    }
+
+    @Override
+    public String findClosestToken(String tokenToSearch, List<String> tokenList) {
+        Preconditions.checkArgument(!tokenList.isEmpty(), "token list must not be empty");
+        return Long.toString(findClosestToken(Long.parseLong(tokenToSearch), sortedTokens(tokenList)));
+    }
+
+    /**
+     * Parses tokens into a sorted array suitable for {@link #findClosestToken(long, long[])}.  Callers looking up
+     * many tokens against the same list should sort it once.
+     */
+    public static long[] sortedTokens(List<String> tokenList) {
+        long[] tokens = new long[tokenList.size()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = Long.parseLong(tokenList.get(i));
+        }
+        Arrays.sort(tokens);
+        return tokens;
+    }
+
+    /**
+     * Returns the token in {@code sortedTokens} closest to {@code tokenToSearch}.  Ties go to the larger token.
+     */
+    public static long findClosestToken(long tokenToSearch, long[] sortedTokens) {
+        Preconditions.checkArgument(sortedTokens.length > 0, "token list must not be empty");
+        int i = Arrays.binarySearch(sortedTokens, tokenToSearch);
+        if (i < 0) {
+            i = -i - 1;
+            // The differences between tokens can exceed Long.MAX_VALUE, but never 2^64, so compare them unsigned
+            if ((i >= sortedTokens.length) ||
+                    (i > 0 && Long.compareUnsigned(sortedTokens[i] - tokenToSearch, tokenToSearch - sortedTokens[i - 1]) > 0)) {
+                --i;
+            }
+        }
+        return sortedTokens[i];
+    }
+
+    @Override
+    public BigInteger parseToken(String token) {
+        return new BigInteger(token);
+    }
+
+    @Override
+    public String formatToken(BigInteger value) {
+        return Long.toString(value.longValue());
+    }
+
+    @Override
+    public BigInteger getMinimumTokenValue() {
+        return MINIMUM_TOKEN;
+    }
+
+    @Override
+    public BigInteger getTokenRangeSize() {
+        return RANGE_SIZE;
+    }
+
+    @Override
+    public String sanitizeToken(String jmxTokenString) {
+        // LongToken.toString() returns Long.toString() which is the format expected by the Murmur3Partitioner.
+        return jmxTokenString;
+    }
+}
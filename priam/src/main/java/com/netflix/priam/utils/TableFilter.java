@@ -0,0 +1,47 @@
+package com.netflix.priam.utils;
+
+import com.google.common.collect.ImmutableSet;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Selects the tables a maintenance operation runs on.  Tables are given by name or as {@code keyspace.table}; no
+ * keyspaces or no tables select them all.
+ */
+public class TableFilter {
+    public static final TableFilter ALL = new TableFilter(ImmutableSet.<String>of(), ImmutableSet.<String>of());
+
+    private final Set<String> keyspaces;
+    private final Set<String> tables;
+
+    public TableFilter(Collection<String> keyspaces, Collection<String> tables) {
+        this.keyspaces = ImmutableSet.copyOf(keyspaces);
+        this.tables = ImmutableSet.copyOf(tables);
+    }
+
+    /**
+     * Parses comma separated lists of keyspaces and tables, either of which may be blank.
+     */
+    public static TableFilter parse(String keyspaces, String tables) {
+        return new TableFilter(split(keyspaces), split(tables));
+    }
+
+    public boolean matches(String keyspace, String table) {
+        return (keyspaces.isEmpty() || keyspaces.contains(keyspace)) &&
+                (tables.isEmpty() || tables.contains(table) || tables.contains(keyspace + "." + table));
+    }
+
+    private static Set<String> split(String names) {
+        ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        if (StringUtils.isNotBlank(names)) {
+            for (String name : names.split(",")) {
+                if (StringUtils.isNotBlank(name)) {
+                    builder.add(name.trim());
+                }
+            }
+        }
+        return builder.build();
+    }
+}
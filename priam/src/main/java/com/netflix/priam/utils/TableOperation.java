@@ -0,0 +1,8 @@
+package com.netflix.priam.utils;
+
+/**
+ * Maintenance operations {@link JMXNodeTool} runs one table at a time.
+ */
+public enum TableOperation {
+    COMPACT, CLEANUP, FLUSH
+}
@@ -0,0 +1,112 @@
+package com.netflix.priam.utils;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Progress and timing of a maintenance operation on one table.  Updated by the thread running the operation while
+ * it is read by the admin resource, so every field is safe to read at any time.
+ */
+public class TableRun {
+    public enum State {PENDING, RUNNING, DONE, FAILED, SKIPPED}
+
+    @JsonProperty
+    private final String keyspace;
+
+    @JsonProperty
+    private final String table;
+
+    @JsonProperty
+    private final long liveDiskSpaceUsed;
+
+    @JsonProperty
+    private volatile State state = State.PENDING;
+
+    @JsonProperty
+    private volatile long startTime;
+
+    @JsonProperty
+    private volatile long endTime;
+
+    @JsonProperty
+    private volatile String error;
+
+    public TableRun(String keyspace, String table, long liveDiskSpaceUsed) {
+        this.keyspace = keyspace;
+        this.table = table;
+        this.liveDiskSpaceUsed = liveDiskSpaceUsed;
+    }
+
+    public String getKeyspace() {
+        return keyspace;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * Bytes used on disk by the table when the operation was planned.
+     */
+    public long getLiveDiskSpaceUsed() {
+        return liveDiskSpaceUsed;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * How long the operation took or has been running in ms, 0 if it didn't start.
+     */
+    @JsonProperty
+    public long getDurationMs() {
+        if (startTime == 0) {
+            return 0;
+        }
+        return (endTime != 0 ? endTime : System.currentTimeMillis()) - startTime;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return Whether the operation should run, i.e. the table wasn't skipped
+     */
+    synchronized boolean start() {
+        if (state != State.PENDING) {
+            return false;
+        }
+        startTime = System.currentTimeMillis();
+        state = State.RUNNING;
+        return true;
+    }
+
+    /**
+     * Skips the table if its operation didn't start yet.
+     */
+    public synchronized void skip() {
+        if (state == State.PENDING) {
+            state = State.SKIPPED;
+        }
+    }
+
+    synchronized void finish(String error) {
+        this.error = error;
+        this.endTime = System.currentTimeMillis();
+        this.state = error == null ? State.DONE : State.FAILED;
+    }
+
+    @Override
+    public String toString() {
+        return keyspace + "." + table;
+    }
+}
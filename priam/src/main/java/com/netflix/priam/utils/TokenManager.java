@@ -15,10 +15,24 @@
  */
 package com.netflix.priam.utils;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
 import com.netflix.priam.identity.Location;
 import org.apache.cassandra.dht.ByteOrderedPartitioner;
 
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 public abstract class TokenManager {
     /**
@@ -35,6 +49,128 @@ public abstract class TokenManager {
 
     public abstract String createToken(int mySlot, int totalCount, Location location);
 
+    /**
+     * Creates {@code numTokens} tokens for a new node.  With a single token this is the same as
+     * {@link #createToken(int, int, Location)}.
+     * <p/>
+     * With multiple tokens allocation balances ownership within the node's availability zone.  Priam places one
+     * replica in each availability zone (rack), so each rack owns the whole ring and what matters for balance is how
+     * evenly the ring is divided between the nodes of a rack.  The first node of a rack spreads its tokens evenly
+     * starting at the token its slot would have had.  Every later node greedily takes its share of the ring one token at
+     * a time from whichever node of the rack currently owns the most, which spreads the ownership it takes over (and
+     * the data it streams from) many of the rack's nodes instead of a single neighbour.
+     *
+     * @param mySlot     slot of the new node
+     * @param totalCount expected number of nodes in the ring
+     * @param numTokens  number of tokens to create
+     * @param rackTokens tokens of each of the other nodes in the same availability zone and location
+     * @param ringTokens tokens of all nodes in the location, new tokens never collide with these
+     * @param location   location where the tokens are created
+     * @return the new tokens in ring order
+     */
+    public List<String> createTokens(int mySlot, int totalCount, int numTokens, Collection<? extends Collection<String>> rackTokens,
+                                     Collection<String> ringTokens, Location location) {
+        checkArgument(numTokens > 0, "numTokens must be > 0");
+        if (numTokens == 1) {
+            return ImmutableList.of(createToken(mySlot, totalCount, location));
+        }
+
+        BigInteger min = getMinimumTokenValue();
+        BigInteger size = getTokenRangeSize();
+        Set<BigInteger> taken = Sets.newHashSet();
+        for (String token : ringTokens) {
+            taken.add(parseToken(token).subtract(min));
+        }
+
+        List<BigInteger> allocated = Lists.newArrayList();
+        if (Iterables.isEmpty(Iterables.concat(rackTokens))) {
+            BigInteger first = parseToken(createToken(mySlot, totalCount, location)).subtract(min);
+            BigInteger step = size.divide(BigInteger.valueOf(numTokens));
+            for (int i = 0; i < numTokens; i++) {
+                allocated.add(unused(first.add(step.multiply(BigInteger.valueOf(i))).mod(size), size, taken));
+            }
+        } else {
+            // Each of the rack's ranges belongs to the token at its end; gaps are kept per owning node
+            List<PriorityQueue<Gap>> gapsByNode = Lists.newArrayList();
+            List<BigInteger> ownership = Lists.newArrayList();
+            List<BigInteger> sorted = Lists.newArrayList();
+            Map<BigInteger, Integer> owners = Maps.newHashMap();
+            for (Collection<String> nodeTokens : rackTokens) {
+                int node = gapsByNode.size();
+                gapsByNode.add(new PriorityQueue<>(Math.max(1, nodeTokens.size()), Gap.LARGEST_FIRST));
+                ownership.add(BigInteger.ZERO);
+                for (String token : nodeTokens) {
+                    BigInteger value = parseToken(token).subtract(min);
+                    if (owners.put(value, node) == null) {
+                        sorted.add(value);
+                    }
+                }
+            }
+            sorted = Ordering.natural().sortedCopy(sorted);
+            for (int i = 0; i < sorted.size(); i++) {
+                BigInteger start = i > 0 ? sorted.get(i - 1) : sorted.get(sorted.size() - 1).subtract(size);
+                BigInteger length = sorted.get(i).subtract(start);
+                int node = owners.get(sorted.get(i));
+                gapsByNode.get(node).add(new Gap(start.mod(size), length));
+                ownership.set(node, ownership.get(node).add(length));
+            }
+
+            // Once balanced every node of the rack, including the new one, owns 1/(n+1) of the ring.  Take an equal
+            // share of that for each token from whichever node currently owns the most.
+            BigInteger share = size.divide(BigInteger.valueOf(gapsByNode.size() + 1).multiply(BigInteger.valueOf(numTokens)));
+            for (int i = 0; i < numTokens; i++) {
+                int node = 0;
+                for (int j = 1; j < ownership.size(); j++) {
+                    if (ownership.get(j).compareTo(ownership.get(node)) > 0) {
+                        node = j;
+                    }
+                }
+                Gap gap = gapsByNode.get(node).remove();
+                BigInteger stolen = share.min(gap.length.shiftRight(1));
+                BigInteger token = gap.start.add(stolen).mod(size);
+                allocated.add(unused(token, size, taken));
+                gapsByNode.get(node).add(new Gap(token, gap.length.subtract(stolen)));
+                ownership.set(node, ownership.get(node).subtract(stolen));
+            }
+        }
+
+        List<String> tokens = Lists.newArrayList();
+        for (BigInteger token : Ordering.natural().sortedCopy(allocated)) {
+            tokens.add(formatToken(token.add(min)));
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns {@code token}, or the next token after it that isn't already taken.  Marks the returned token as taken.
+     */
+    private static BigInteger unused(BigInteger token, BigInteger size, Set<BigInteger> taken) {
+        while (!taken.add(token)) {
+            token = token.add(BigInteger.ONE).mod(size);
+        }
+        return token;
+    }
+
+    /**
+     * Returns the numeric value of a token, for token arithmetic.
+     */
+    public abstract BigInteger parseToken(String token);
+
+    /**
+     * Returns the token string for a numeric value in [minimum, minimum + range size).
+     */
+    public abstract String formatToken(BigInteger value);
+
+    /**
+     * Returns the numeric value of the smallest token.
+     */
+    public abstract BigInteger getMinimumTokenValue();
+
+    /**
+     * Returns the number of distinct token values in the ring.
+     */
+    public abstract BigInteger getTokenRangeSize();
+
     public abstract String findClosestToken(String tokenToSearch, List<String> tokenList);
 
     /**
@@ -61,4 +197,24 @@ public abstract class TokenManager {
         }
         return partitioner;
     }
+
+    /**
+     * A range of the ring between two tokens, relative to the minimum token.
+     */
+    private static class Gap {
+        static final Comparator<Gap> LARGEST_FIRST = new Comparator<Gap>() {
+            @Override
+            public int compare(Gap left, Gap right) {
+                return right.length.compareTo(left.length);
+            }
+        };
+
+        final BigInteger start;
+        final BigInteger length;
+
+        Gap(BigInteger start, BigInteger length) {
+            this.start = start;
+            this.length = length;
+        }
+    }
 }
@@ -34,7 +34,7 @@ public class TokenManagerProvider implements Provider<TokenManager> {
             return BigIntegerTokenManager.forRandomPartitioner();
         }
         if (partitioner instanceof Murmur3Partitioner) {
-            return BigIntegerTokenManager.forMurmur3Partitioner();
+            return new Murmur3TokenManager();
         }
         if (partitioner instanceof ByteOrderedPartitioner) {
             return new BOPTokenManager(_cassandraConfiguration.getTokenLength(),
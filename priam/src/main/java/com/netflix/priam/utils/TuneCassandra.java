@@ -40,6 +40,7 @@ public class TuneCassandra extends Task {
         boolean isDone = false;
 
         while (!isDone) {
+            checkCancelled();
             try {
                 tuner.writeAllProperties(cassandraConfiguration.getYamlLocation(),
                         amazonConfiguration.getPrivateIP(),
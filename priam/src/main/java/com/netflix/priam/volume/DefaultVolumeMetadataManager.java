@@ -1,8 +1,5 @@
 package com.netflix.priam.volume;
 
-import com.amazonaws.auth.AWSCredentialsProvider;
-import com.amazonaws.services.ec2.AmazonEC2;
-import com.amazonaws.services.ec2.AmazonEC2Client;
 import com.amazonaws.services.ec2.model.AttachmentStatus;
 import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
 import com.amazonaws.services.ec2.model.DescribeInstancesResult;
@@ -14,6 +11,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Throwables;
 import com.google.inject.Inject;
+import com.netflix.priam.aws.AmazonClients;
 import com.netflix.priam.config.AmazonConfiguration;
 import com.netflix.priam.config.CassandraConfiguration;
 import com.netflix.priam.utils.RetryableCallable;
@@ -52,16 +50,16 @@ public class DefaultVolumeMetadataManager implements IVolumeMetadataManager {
     private final File metadataFile;
     private final String blockDeviceName;
     private final AmazonConfiguration amazonConfiguration;
-    private final AWSCredentialsProvider credentialsProvider;
+    private final AmazonClients clients;
     private final ObjectMapper objectMapper;
 
     @Inject
     public DefaultVolumeMetadataManager(AmazonConfiguration amazonConfiguration,
                                         CassandraConfiguration cassandraConfiguration,
-                                        AWSCredentialsProvider credentialsProvider) {
+                                        AmazonClients clients) {
         this.metadataFile = new File(cassandraConfiguration.getDataLocation(), METADATA_FILE_NAME);
         this.blockDeviceName = amazonConfiguration.getCassandraVolumeBlockDevice();
-        this.credentialsProvider = credentialsProvider;
+        this.clients = clients;
         this.amazonConfiguration = amazonConfiguration;
         objectMapper = Jackson.getObjectMapper();
     }
@@ -109,24 +107,18 @@ public class DefaultVolumeMetadataManager implements IVolumeMetadataManager {
         @Override
         public String retriableCall() throws Exception {
             if (blockDeviceName != null) {
-                AmazonEC2 client = new AmazonEC2Client(credentialsProvider);
-                client.setRegion(amazonConfiguration.getRegion());
-                try {
-                    DescribeInstancesRequest desc = new DescribeInstancesRequest().withInstanceIds(amazonConfiguration.getInstanceID());
-                    DescribeInstancesResult res = client.describeInstances(desc);
+                DescribeInstancesRequest desc = new DescribeInstancesRequest().withInstanceIds(amazonConfiguration.getInstanceID());
+                DescribeInstancesResult res = clients.getEc2().describeInstances(desc);
 
-                    for (Reservation resr : res.getReservations()) {
-                        for (Instance ins : resr.getInstances()) {
-                            for (InstanceBlockDeviceMapping blockDevice : ins.getBlockDeviceMappings()) {
-                                if (blockDeviceName.equals(blockDevice.getDeviceName()) &&
-                                        AttachmentStatus.fromValue(blockDevice.getEbs().getStatus()) == AttachmentStatus.Attached) {
-                                    return blockDevice.getEbs().getVolumeId();
-                                }
+                for (Reservation resr : res.getReservations()) {
+                    for (Instance ins : resr.getInstances()) {
+                        for (InstanceBlockDeviceMapping blockDevice : ins.getBlockDeviceMappings()) {
+                            if (blockDeviceName.equals(blockDevice.getDeviceName()) &&
+                                    AttachmentStatus.fromValue(blockDevice.getEbs().getStatus()) == AttachmentStatus.Attached) {
+                                return blockDevice.getEbs().getVolumeId();
                             }
                         }
                     }
-                } finally {
-                    client.shutdown();
                 }
             }
             return null;
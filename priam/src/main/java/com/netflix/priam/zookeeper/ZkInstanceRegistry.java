@@ -0,0 +1,241 @@
+package com.netflix.priam.zookeeper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.netflix.priam.identity.IPriamInstanceRegistry;
+import com.netflix.priam.identity.Location;
+import com.netflix.priam.identity.PriamInstance;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.PathChildrenCache;
+import org.apache.curator.utils.CloseableUtils;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * ZooKeeper based instance registry.  Each node is a znode holding the JSON of its {@link PriamInstance} under
+ * {@code /applications/priam/instances/<cluster>/<slot id>}.
+ * <p/>
+ * Reads are served from a {@link PathChildrenCache} of each cluster, which ZooKeeper keeps up to date with watches.
+ * Slots are acquired with a create, which fails if the slot exists, or a set on the znode version the expected
+ * instance was read at, which fails if the slot changed in the meantime.  Updates and deletes are made the same way
+ * and only apply while the slot is held by the instance id of the entry they're given, so a node that lost its slot
+ * never overwrites or deletes the entry of the node that took it.
+ */
+@Singleton
+public class ZkInstanceRegistry implements IPriamInstanceRegistry, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ZkInstanceRegistry.class);
+    private static final String BASE_PATH = "/applications/priam/instances";
+
+    private final CuratorFramework curator;
+    private final Location location;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentMap<String, PathChildrenCache> caches = new ConcurrentHashMap<>();
+
+    @Inject
+    public ZkInstanceRegistry(Optional<CuratorFramework> curator, Location location) {
+        checkState(curator.isPresent(), "ZooKeeper must be enabled to keep the instance registry in ZooKeeper");
+        this.curator = curator.get();
+        this.location = location;
+    }
+
+    @Override
+    public List<PriamInstance> getAllIds(String appName) {
+        List<PriamInstance> instances = Lists.newArrayList();
+        for (ChildData child : getCache(appName).getCurrentData()) {
+            instances.add(fromJson(child.getData()));
+        }
+        return Ordering.natural().immutableSortedCopy(instances);
+    }
+
+    @Override
+    public PriamInstance getInstance(String appName, int id) {
+        ChildData child = getCache(appName).getCurrentData(getPath(appName, id));
+        return child != null ? fromJson(child.getData()) : null;
+    }
+
+    @Override
+    public PriamInstance create(String app, int id, String instanceID, String hostname, String ip, String rac, Map<String, Object> volumes, String token) {
+        return acquireSlotId(id, null, app, instanceID, hostname, ip, rac, volumes, token);
+    }
+
+    @Override
+    public PriamInstance acquireSlotId(int slotId, String expectedInstanceId, String app, String instanceID, String hostname, String ip, String rac, Map<String, Object> volumes, String token) {
+        PriamInstance ins = PriamInstance.from(app, slotId, instanceID, hostname, ip, rac, volumes, token, location);
+        ins.setUpdatetime(System.currentTimeMillis());
+        String path = getPath(app, slotId);
+        try {
+            if (expectedInstanceId == null) {
+                curator.create().creatingParentsIfNeeded().forPath(path, toJson(ins));
+            } else {
+                Stat stat = new Stat();
+                PriamInstance current = fromJson(curator.getData().storingStatIn(stat).forPath(path));
+                if (!expectedInstanceId.equals(current.getInstanceId())) {
+                    return null;
+                }
+                curator.setData().withVersion(stat.getVersion()).forPath(path, toJson(ins));
+            }
+        } catch (KeeperException.NodeExistsException | KeeperException.NoNodeException | KeeperException.BadVersionException e) {
+            // Someone else got there first
+            logger.info("Unable to acquire slot {} of {}: {}", slotId, app, e.getMessage());
+            return null;
+        } catch (Exception e) {
+            throw new RuntimeException("Unable to update/create priam instance", e);
+        }
+        refresh(app, path);
+        return ins;
+    }
+
+    /**
+     * Deletes the slot of the instance, unless another node holds it by now.
+     */
+    @Override
+    public void delete(PriamInstance inst) {
+        String path = getPath(inst.getApp(), inst.getId());
+        try {
+            while (true) {
+                Stat stat = new Stat();
+                PriamInstance current = fromJson(curator.getData().storingStatIn(stat).forPath(path));
+                if (!Objects.equal(inst.getInstanceId(), current.getInstanceId())) {
+                    logger.warn("Not deleting slot {} of {}, it is held by {} rather than {}",
+                            inst.getId(), inst.getApp(), current.getInstanceId(), inst.getInstanceId());
+                    break;
+                }
+                try {
+                    curator.delete().withVersion(stat.getVersion()).forPath(path);
+                    break;
+                } catch (KeeperException.BadVersionException e) {
+                    // Changed since it was read, check again
+                }
+            }
+        } catch (KeeperException.NoNodeException e) {
+            // Already gone
+        } catch (Exception e) {
+            throw new RuntimeException("Unable to deregister priam instance", e);
+        }
+        refresh(inst.getApp(), path);
+    }
+
+    /**
+     * Writes the instance to its slot if the slot is free or held by the same instance id.
+     *
+     * @throws IllegalStateException if another node holds the slot
+     */
+    @Override
+    public void update(PriamInstance inst) {
+        inst.setUpdatetime(System.currentTimeMillis());
+        String path = getPath(inst.getApp(), inst.getId());
+        PriamInstance holder;
+        try {
+            holder = write(path, inst, toJson(inst));
+        } catch (Exception e) {
+            throw new RuntimeException("Unable to update/create priam instance", e);
+        }
+        refresh(inst.getApp(), path);
+        checkState(holder == null, "Slot %s of %s is held by %s, not %s",
+                inst.getId(), inst.getApp(), holder != null ? holder.getInstanceId() : null, inst.getInstanceId());
+    }
+
+    @Override
+    public void close() {
+        for (PathChildrenCache cache : caches.values()) {
+            CloseableUtils.closeQuietly(cache);
+        }
+        caches.clear();
+    }
+
+    /**
+     * Writes an instance to its slot if the slot is free or held by the same instance id.  Returns {@code null} once
+     * written, or the instance of the other node holding the slot.
+     */
+    private PriamInstance write(String path, PriamInstance inst, byte[] data) throws Exception {
+        while (true) {
+            Stat stat = new Stat();
+            try {
+                PriamInstance current = fromJson(curator.getData().storingStatIn(stat).forPath(path));
+                if (!Objects.equal(inst.getInstanceId(), current.getInstanceId())) {
+                    return current;
+                }
+                curator.setData().withVersion(stat.getVersion()).forPath(path, data);
+                return null;
+            } catch (KeeperException.NoNodeException e) {
+                try {
+                    curator.create().creatingParentsIfNeeded().forPath(path, data);
+                    return null;
+                } catch (KeeperException.NodeExistsException e2) {
+                    // Created concurrently, check who holds it
+                }
+            } catch (KeeperException.BadVersionException e) {
+                // Changed since it was read, check again
+            }
+        }
+    }
+
+    /**
+     * Returns the cache of a cluster, starting it and waiting for its initial contents the first time.
+     */
+    private PathChildrenCache getCache(String app) {
+        PathChildrenCache cache = caches.get(app);
+        if (cache != null) {
+            return cache;
+        }
+        synchronized (caches) {
+            cache = caches.get(app);
+            if (cache == null) {
+                cache = new PathChildrenCache(curator, ZKPaths.makePath(BASE_PATH, app), true);
+                try {
+                    cache.start(PathChildrenCache.StartMode.BUILD_INITIAL_CACHE);
+                } catch (Exception e) {
+                    CloseableUtils.closeQuietly(cache);
+                    throw new RuntimeException("Unable to read the priam instances of " + app, e);
+                }
+                caches.put(app, cache);
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Reads a node we just wrote into the cache, so this registry reads its own writes without waiting for the watch.
+     */
+    private void refresh(String app, String path) {
+        try {
+            getCache(app).rebuildNode(path);
+        } catch (Exception e) {
+            logger.warn("Unable to refresh {}, the cache will catch up when notified", path, e);
+        }
+    }
+
+    private String getPath(String app, int id) {
+        return ZKPaths.makePath(ZKPaths.makePath(BASE_PATH, app), Integer.toString(id));
+    }
+
+    private byte[] toJson(PriamInstance instance) throws IOException {
+        return objectMapper.writeValueAsBytes(instance);
+    }
+
+    private PriamInstance fromJson(byte[] data) {
+        try {
+            return objectMapper.readValue(data, PriamInstance.class);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read priam instance", e);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.netflix.priam.admin;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.netflix.priam.TestCassandraConfiguration;
+import com.netflix.priam.utils.TableRun;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AdminJobManagerTest {
+
+    @Test
+    public void jobRunsEveryKeyspaceInTheBackground() throws Exception {
+        FakeManager manager = new FakeManager();
+        AdminJob job = manager.submit(AdminOperation.REPAIR, Collections.<String>emptyList(), ImmutableMap.<String, String>of());
+
+        waitUntilDone(job);
+        assertEquals(AdminJob.State.SUCCEEDED, job.getState());
+        assertEquals(ImmutableList.of("ks1", "ks2", "ks3"), job.getKeyspaces());
+        assertEquals(ImmutableList.of("ks1", "ks2", "ks3"), job.getCompletedKeyspaces());
+        assertEquals(ImmutableList.of("ks1", "ks2", "ks3"), manager.run);
+        assertTrue(job.getEndTime() >= job.getStartTime());
+        assertEquals(job, manager.getJob(job.getId()));
+    }
+
+    @Test
+    public void cancelledJobStopsAfterTheKeyspaceInProgress() throws Exception {
+        FakeManager manager = new FakeManager();
+        manager.blocked = new CountDownLatch(1);
+        AdminJob job = manager.submit(AdminOperation.REFRESH, ImmutableList.of("ks1", "ks2"), ImmutableMap.<String, String>of());
+        assertTrue(manager.started.await(5, TimeUnit.SECONDS));
+
+        // Another refresh has to wait for this one
+        try {
+            manager.submit(AdminOperation.REFRESH, ImmutableList.of("ks3"), ImmutableMap.<String, String>of());
+            fail();
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+
+        manager.cancel(job.getId());
+        manager.blocked.countDown();
+        waitUntilDone(job);
+        assertEquals(AdminJob.State.CANCELLED, job.getState());
+        assertEquals(ImmutableList.of("ks1"), job.getCompletedKeyspaces());
+        assertFalse(manager.stopped);
+    }
+
+    @Test
+    public void cancelledTableJobSkipsTablesNotStarted() throws Exception {
+        FakeManager manager = new FakeManager();
+        manager.blocked = new CountDownLatch(1);
+        AdminJob job = manager.submit(AdminOperation.COMPACT, ImmutableList.of("ks1"), ImmutableMap.of(AdminJobManager.PARALLELISM, "2"));
+        assertTrue(manager.started.await(5, TimeUnit.SECONDS));
+        assertEquals(ImmutableList.of("ks1", "ks2"), job.getKeyspaces());
+        assertEquals(2, manager.parallelism);
+
+        manager.cancel(job.getId());
+        manager.blocked.countDown();
+        waitUntilDone(job);
+        assertEquals(AdminJob.State.CANCELLED, job.getState());
+        for (TableRun table : job.getTables()) {
+            assertEquals(TableRun.State.SKIPPED, table.getState());
+        }
+        assertTrue(manager.stopped);
+    }
+
+    @Test
+    public void invalidParametersAreRejected() throws Exception {
+        FakeManager manager = new FakeManager();
+        try {
+            manager.submit(AdminOperation.FLUSH, Collections.<String>emptyList(), ImmutableMap.of(AdminJobManager.PARALLELISM, "0"));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            manager.submit(AdminOperation.FLUSH, Collections.<String>emptyList(), ImmutableMap.of(AdminJobManager.ORDER, "random"));
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void moveDoesNotWaitForMaintenanceJobs() throws Exception {
+        FakeManager manager = new FakeManager();
+        manager.blocked = new CountDownLatch(1);
+        // Both maintenance threads are busy
+        AdminJob compaction = manager.submit(AdminOperation.COMPACT, ImmutableList.of("ks1"), ImmutableMap.of(AdminJobManager.PARALLELISM, "1"));
+        AdminJob repair = manager.submit(AdminOperation.REPAIR, ImmutableList.of("ks1"), ImmutableMap.<String, String>of());
+
+        AdminJob move = manager.submit(AdminOperation.MOVE, Collections.<String>emptyList(), ImmutableMap.of(AdminJobManager.TOKEN, "42"));
+        waitUntilDone(move);
+        assertEquals(AdminJob.State.SUCCEEDED, move.getState());
+        assertEquals(ImmutableList.of("MOVE"), manager.nodeRun);
+        assertFalse(compaction.isDone());
+        assertFalse(repair.isDone());
+
+        manager.blocked.countDown();
+        waitUntilDone(compaction);
+        waitUntilDone(repair);
+    }
+
+    @Test
+    public void queuedJobIsCancelledRightAway() throws Exception {
+        FakeManager manager = new FakeManager();
+        AdminJob job = new AdminJob("id", AdminOperation.COMPACT, ImmutableList.of("ks1"), ImmutableMap.<String, String>of());
+        job.cancel();
+        manager.run(job);
+
+        assertEquals(AdminJob.State.CANCELLED, job.getState());
+        assertTrue(manager.run.isEmpty());
+    }
+
+    @Test
+    public void missingParametersAreRejected() throws Exception {
+        FakeManager manager = new FakeManager();
+        try {
+            manager.submit(AdminOperation.MOVE, Collections.<String>emptyList(), ImmutableMap.<String, String>of());
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void repairNotificationsAreRecorded() throws Exception {
+        AdminJob job = new AdminJob("id", AdminOperation.REPAIR, ImmutableList.of("ks1"), ImmutableMap.<String, String>of());
+        job.messageStream().println("Starting repair command #1");
+        job.messageStream().print("Repair session 1 finished\n");
+
+        assertEquals(ImmutableList.of("Starting repair command #1", "Repair session 1 finished"), job.getMessages());
+    }
+
+    private static void waitUntilDone(AdminJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isDone() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isDone());
+    }
+
+    private static class FakeManager extends AdminJobManager {
+        private final List<String> run = new CopyOnWriteArrayList<>();
+        private final List<String> nodeRun = new CopyOnWriteArrayList<>();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private CountDownLatch blocked;
+        private volatile boolean stopped;
+        private volatile int parallelism;
+
+        FakeManager() {
+            super(new TestCassandraConfiguration("test"), null, null);
+        }
+
+        @Override
+        List<String> allKeyspaces(AdminOperation operation) {
+            return Lists.newArrayList("ks1", "ks2", "ks3");
+        }
+
+        @Override
+        List<TableRun> tables(AdminJob job) {
+            return ImmutableList.of(new TableRun("ks1", "big", 100), new TableRun("ks2", "small", 1));
+        }
+
+        @Override
+        void runTables(AdminJob job, List<TableRun> tables) throws Exception {
+            parallelism = Integer.parseInt(job.getParameters().get(AdminJobManager.PARALLELISM));
+            started.countDown();
+            blocked.await();
+        }
+
+        @Override
+        void runKeyspace(AdminJob job, String keyspace) throws Exception {
+            run.add(keyspace);
+            started.countDown();
+            if (blocked != null) {
+                blocked.await();
+            }
+        }
+
+        @Override
+        void runNode(AdminJob job) {
+            nodeRun.add(job.getOperation().name());
+        }
+
+        @Override
+        void stopCompactions(String compactionType) {
+            stopped = true;
+        }
+    }
+}
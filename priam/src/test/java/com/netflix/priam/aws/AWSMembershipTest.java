@@ -0,0 +1,51 @@
+package com.netflix.priam.aws;
+
+import com.amazonaws.services.autoscaling.AmazonAutoScaling;
+import com.amazonaws.services.autoscaling.model.AutoScalingGroup;
+import com.amazonaws.services.autoscaling.model.DescribeAutoScalingGroupsRequest;
+import com.amazonaws.services.autoscaling.model.DescribeAutoScalingGroupsResult;
+import com.amazonaws.services.autoscaling.model.Instance;
+import com.google.common.collect.ImmutableList;
+import com.netflix.priam.config.AmazonConfiguration;
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.integration.junit4.JMockit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JMockit.class)
+public class AWSMembershipTest {
+
+    @Mocked
+    private AmazonConfiguration amazonConfiguration;
+
+    @Mocked
+    private AmazonClients clients;
+
+    @Mocked
+    private AmazonAutoScaling autoScaling;
+
+    @Test
+    public void membershipAndSizeShareOneDescription() {
+        final AutoScalingGroup asg = new AutoScalingGroup()
+                .withMaxSize(3)
+                .withInstances(
+                        new Instance().withInstanceId("i-1").withLifecycleState("InService"),
+                        new Instance().withInstanceId("i-2").withLifecycleState("Terminating"),
+                        new Instance().withInstanceId("i-3").withLifecycleState("Pending"));
+        new Expectations() {{
+            clients.getAutoScaling();
+            result = autoScaling;
+            autoScaling.describeAutoScalingGroups((DescribeAutoScalingGroupsRequest) any);
+            result = new DescribeAutoScalingGroupsResult().withAutoScalingGroups(asg);
+            times = 1;
+        }};
+
+        AWSMembership membership = new AWSMembership(amazonConfiguration, clients);
+        assertEquals(ImmutableList.of("i-1", "i-3"), membership.getAutoScaleGroupMembership());
+        assertEquals(3, membership.getAvailabilityZoneMembershipSize());
+        assertEquals(ImmutableList.of("i-1", "i-3"), membership.getAutoScaleGroupMembership());
+    }
+}
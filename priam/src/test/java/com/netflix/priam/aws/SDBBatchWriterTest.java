@@ -0,0 +1,128 @@
+package com.netflix.priam.aws;
+
+import com.amazonaws.AmazonServiceException;
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+import com.netflix.priam.utils.FakeSleeper;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SDBBatchWriterTest {
+
+    @Test
+    public void writesEveryItemInBatchesOf25() {
+        final List<Integer> batchSizes = Collections.synchronizedList(Lists.<Integer>newArrayList());
+        final Set<Integer> written = Collections.synchronizedSet(Sets.<Integer>newHashSet());
+        new SDBBatchWriter<>(new SDBBatchWriter.Batch<Integer>() {
+            @Override
+            public void write(List<Integer> items) {
+                batchSizes.add(items.size());
+                written.addAll(items);
+            }
+        }, 4, new FakeSleeper()).writeAll(items(101));
+
+        assertEquals(101, written.size());
+        assertEquals(5, batchSizes.size());
+        for (int size : batchSizes) {
+            assertTrue(size <= SDBBatchWriter.MAX_BATCH_SIZE);
+        }
+    }
+
+    @Test
+    public void throttledBatchesAreSplitAndRetried() {
+        final Set<Integer> written = Collections.synchronizedSet(Sets.<Integer>newHashSet());
+        final AtomicInteger requests = new AtomicInteger();
+        new SDBBatchWriter<>(new SDBBatchWriter.Batch<Integer>() {
+            @Override
+            public void write(List<Integer> items) {
+                requests.incrementAndGet();
+                // Only batches holding item 7 are throttled, and only until it is written on its own
+                if (items.contains(7) && items.size() > 1) {
+                    throw throttled();
+                }
+                written.addAll(items);
+            }
+        }, 4, new FakeSleeper()).writeAll(items(50));
+
+        assertEquals(50, written.size());
+        // 2 batches, then 25 -> 12 + 13 -> 6 + 6 -> 3 + 3 -> 1 + 2 -> 1 + 1
+        assertEquals(2 + 2 * 5, requests.get());
+    }
+
+    @Test
+    public void otherErrorsFailTheWrite() {
+        final AtomicInteger requests = new AtomicInteger();
+        try {
+            new SDBBatchWriter<>(new SDBBatchWriter.Batch<Integer>() {
+                @Override
+                public void write(List<Integer> items) {
+                    requests.incrementAndGet();
+                    if (items.contains(30)) {
+                        AmazonServiceException e = new AmazonServiceException("No such domain");
+                        e.setStatusCode(400);
+                        e.setErrorCode("NoSuchDomain");
+                        throw e;
+                    }
+                }
+            }, 4, new FakeSleeper()).writeAll(items(75));
+            fail();
+        } catch (AmazonServiceException e) {
+            assertEquals("NoSuchDomain", e.getErrorCode());
+        }
+        // The other batches still ran, the failed one wasn't retried
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void writtenItemsAreReportedWhenABatchFails() {
+        final Set<Integer> written = Collections.synchronizedSet(Sets.<Integer>newHashSet());
+        try {
+            new SDBBatchWriter<>(new SDBBatchWriter.Batch<Integer>() {
+                @Override
+                public void write(List<Integer> items) {
+                    if (items.contains(30)) {
+                        throw new AmazonServiceException("No such domain");
+                    }
+                }
+            }, 4, new FakeSleeper()).writeAll(items(75), written);
+            fail();
+        } catch (AmazonServiceException e) {
+            // Expected
+        }
+        Set<Integer> expected = Sets.newHashSet(items(75));
+        expected.removeAll(items(50).subList(25, 50));
+        assertEquals(expected, written);
+    }
+
+    @Test(expected = AmazonServiceException.class)
+    public void givesUpWhenThrottledTooLong() {
+        new SDBBatchWriter<>(new SDBBatchWriter.Batch<Integer>() {
+            @Override
+            public void write(List<Integer> items) {
+                throw throttled();
+            }
+        }, 1, new FakeSleeper()).writeAll(items(3));
+    }
+
+    private static List<Integer> items(int count) {
+        return Lists.newArrayList(ContiguousSet.create(Range.closedOpen(0, count), DiscreteDomain.integers()));
+    }
+
+    private static AmazonServiceException throttled() {
+        AmazonServiceException e = new AmazonServiceException("Service unavailable");
+        e.setStatusCode(503);
+        e.setErrorCode("ServiceUnavailable");
+        return e;
+    }
+}
@@ -0,0 +1,198 @@
+package com.netflix.priam.aws;
+
+import com.amazonaws.services.simpledb.AbstractAmazonSimpleDB;
+import com.amazonaws.services.simpledb.AmazonSimpleDB;
+import com.amazonaws.services.simpledb.model.Attribute;
+import com.amazonaws.services.simpledb.model.BatchDeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.BatchDeleteAttributesResult;
+import com.amazonaws.services.simpledb.model.BatchPutAttributesRequest;
+import com.amazonaws.services.simpledb.model.BatchPutAttributesResult;
+import com.amazonaws.services.simpledb.model.CreateDomainRequest;
+import com.amazonaws.services.simpledb.model.CreateDomainResult;
+import com.amazonaws.services.simpledb.model.DeletableItem;
+import com.amazonaws.services.simpledb.model.DeleteAttributesRequest;
+import com.amazonaws.services.simpledb.model.DeleteAttributesResult;
+import com.amazonaws.services.simpledb.model.Item;
+import com.amazonaws.services.simpledb.model.PutAttributesRequest;
+import com.amazonaws.services.simpledb.model.PutAttributesResult;
+import com.amazonaws.services.simpledb.model.ReplaceableAttribute;
+import com.amazonaws.services.simpledb.model.ReplaceableItem;
+import com.amazonaws.services.simpledb.model.SelectRequest;
+import com.amazonaws.services.simpledb.model.SelectResult;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.netflix.priam.TestAmazonConfiguration;
+import com.netflix.priam.identity.Location;
+import com.netflix.priam.identity.PriamInstance;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class SDBInstanceDataTest {
+    private final FakeSDBInstanceData instanceData = new FakeSDBInstanceData();
+
+    @Test
+    public void longTokenListsAreReadBack() {
+        PriamInstance instance = instance(longTokens());
+        instanceData.registerInstance(instance, null);
+
+        assertEquals(instance.getToken(), instanceData.getInstance("app", 1).getToken());
+    }
+
+    @Test
+    public void shortTokensReplaceLongTokens() {
+        instanceData.registerInstance(instance(longTokens()), null);
+        instanceData.registerInstance(instance("42"), "i-1");
+
+        assertEquals("42", instanceData.getInstance("app", 1).getToken());
+        assertEquals(Collections.<String>emptyList(), instanceData.simpleDB.values("app1", SDBInstanceData.Attributes.TOKEN_PART));
+    }
+
+    @Test
+    public void shortTokensReplaceLongTokensInBatches() {
+        instanceData.createInstances(Collections.singletonList(instance(longTokens())));
+        instanceData.createInstances(Collections.singletonList(instance("42")));
+
+        assertEquals("42", instanceData.getInstance("app", 1).getToken());
+        assertEquals(Collections.<String>emptyList(), instanceData.simpleDB.values("app1", SDBInstanceData.Attributes.TOKEN_PART));
+    }
+
+    @Test
+    public void leftoverTokenPartsAreIgnored() {
+        instanceData.registerInstance(instance(longTokens()), null);
+        // As if the leftover parts couldn't be deleted after a short token list was written
+        List<ReplaceableAttribute> attributes = SDBInstanceData.createAttributesToRegister(instance("42"));
+        instanceData.simpleDB.putAttributes(new PutAttributesRequest("domain", "app1", attributes));
+
+        assertEquals("42", instanceData.getInstance("app", 1).getToken());
+    }
+
+    private static PriamInstance instance(String token) {
+        return PriamInstance.from("app", 1, "i-1", "host1", "10.0.0.1", "az1", null, token, Location.from("us-east-1"));
+    }
+
+    private static String longTokens() {
+        List<String> tokens = Lists.newArrayList();
+        for (int i = 0; i < 256; i++) {
+            tokens.add(Long.toString(Long.MAX_VALUE - i * 36028797018963968L));
+        }
+        return PriamInstance.joinTokens(tokens);
+    }
+
+    private static class FakeSDBInstanceData extends SDBInstanceData {
+        // Not initialized in the declaration, the constructor of SDBInstanceData already creates the domain
+        private FakeSimpleDB simpleDB;
+
+        FakeSDBInstanceData() {
+            super(null, new TestAmazonConfiguration("test", "us-east-1", "az1", "i-1"));
+        }
+
+        @Override
+        AmazonSimpleDB getSimpleDBClient() {
+            if (simpleDB == null) {
+                simpleDB = new FakeSimpleDB();
+            }
+            return simpleDB;
+        }
+    }
+
+    /**
+     * A single domain with the replace and delete semantics of SimpleDB.  Selects return every item and conditions
+     * are ignored.
+     */
+    private static class FakeSimpleDB extends AbstractAmazonSimpleDB {
+        private final Map<String, ListMultimap<String, String>> items = Maps.newLinkedHashMap();
+
+        List<String> values(String itemName, String attributeName) {
+            ListMultimap<String, String> item = items.get(itemName);
+            return item == null ? Collections.<String>emptyList() : ImmutableList.copyOf(item.get(attributeName));
+        }
+
+        @Override
+        public CreateDomainResult createDomain(CreateDomainRequest request) {
+            return new CreateDomainResult();
+        }
+
+        @Override
+        public synchronized PutAttributesResult putAttributes(PutAttributesRequest request) {
+            put(request.getItemName(), request.getAttributes());
+            return new PutAttributesResult();
+        }
+
+        @Override
+        public synchronized BatchPutAttributesResult batchPutAttributes(BatchPutAttributesRequest request) {
+            for (ReplaceableItem item : request.getItems()) {
+                put(item.getName(), item.getAttributes());
+            }
+            return new BatchPutAttributesResult();
+        }
+
+        @Override
+        public synchronized DeleteAttributesResult deleteAttributes(DeleteAttributesRequest request) {
+            delete(request.getItemName(), request.getAttributes());
+            return new DeleteAttributesResult();
+        }
+
+        @Override
+        public synchronized BatchDeleteAttributesResult batchDeleteAttributes(BatchDeleteAttributesRequest request) {
+            for (DeletableItem item : request.getItems()) {
+                delete(item.getName(), item.getAttributes());
+            }
+            return new BatchDeleteAttributesResult();
+        }
+
+        @Override
+        public synchronized SelectResult select(SelectRequest request) {
+            List<Item> result = Lists.newArrayList();
+            for (Map.Entry<String, ListMultimap<String, String>> item : items.entrySet()) {
+                List<Attribute> attributes = Lists.newArrayList();
+                for (Map.Entry<String, String> value : item.getValue().entries()) {
+                    attributes.add(new Attribute(value.getKey(), value.getValue()));
+                }
+                result.add(new Item(item.getKey(), attributes));
+            }
+            return new SelectResult().withItems(result);
+        }
+
+        private void put(String itemName, List<ReplaceableAttribute> attributes) {
+            ListMultimap<String, String> item = items.get(itemName);
+            if (item == null) {
+                item = ArrayListMultimap.create();
+                items.put(itemName, item);
+            }
+            // Replaced attributes lose their previous values, every value of the request is kept
+            for (ReplaceableAttribute attribute : attributes) {
+                if (Boolean.TRUE.equals(attribute.getReplace())) {
+                    item.removeAll(attribute.getName());
+                }
+            }
+            for (ReplaceableAttribute attribute : attributes) {
+                item.put(attribute.getName(), attribute.getValue());
+            }
+        }
+
+        private void delete(String itemName, List<Attribute> attributes) {
+            if (attributes == null || attributes.isEmpty()) {
+                items.remove(itemName);
+                return;
+            }
+            ListMultimap<String, String> item = items.get(itemName);
+            if (item != null) {
+                for (Attribute attribute : attributes) {
+                    if (attribute.getValue() == null) {
+                        item.removeAll(attribute.getName());
+                    } else {
+                        item.remove(attribute.getName(), attribute.getValue());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.netflix.priam.gossip;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class GossipInfoParserTest {
+    private static final String GOSSIP_INFO = "" +
+            "host1.example.com/10.0.0.1\n" +
+            "  generation:1418684400\n" +
+            "  heartbeat:152398\n" +
+            "  STATUS:14:NORMAL,-9223372036854775808\n" +
+            "  LOAD:152380:35123.0\n" +
+            "  DC:6:us-east\n" +
+            "  RACK:8:1a\n" +
+            "  RPC_ADDRESS:3:10.0.0.1\n" +
+            "  TOKENS:13:<hidden>\n" +
+            "/2001:db8::2\n" +
+            "  generation:1418684500\n" +
+            "  heartbeat:12\n" +
+            "  STATUS:20:LEAVING,42\n" +
+            "  RPC_ADDRESS:3:2001:db8::2\n" +
+            "  TOKENS: not present\n";
+
+    @Test
+    public void endpointsAreParsedOneAtATime() {
+        List<GossipEndpointState> endpoints = Lists.newArrayList(GossipInfoParser.parse(GOSSIP_INFO));
+        assertEquals(2, endpoints.size());
+
+        GossipEndpointState first = endpoints.get(0);
+        assertEquals("10.0.0.1", first.getEndpoint());
+        assertEquals("host1.example.com", first.getHostname());
+        assertEquals(Long.valueOf(1418684400), first.getGeneration());
+        assertEquals(Long.valueOf(152398), first.getHeartbeat());
+        assertEquals("NORMAL", first.getStatus());
+        assertEquals(Double.valueOf(35123.0), first.getLoad());
+        assertEquals("us-east", first.getDataCenter());
+        assertEquals("1a", first.getRack());
+        assertEquals(new GossipValue("<hidden>", 13), first.getStates().get("TOKENS"));
+    }
+
+    @Test
+    public void ipv6AddressesAndValuesWithColonsAreKeptWhole() {
+        List<GossipEndpointState> endpoints = Lists.newArrayList(GossipInfoParser.parse(GOSSIP_INFO));
+
+        GossipEndpointState second = endpoints.get(1);
+        assertEquals("2001:db8::2", second.getEndpoint());
+        assertNull(second.getHostname());
+        assertEquals("LEAVING", second.getStatus());
+        assertEquals(new GossipValue("2001:db8::2", 3), second.getStates().get("RPC_ADDRESS"));
+        assertEquals(new GossipValue("not present", null), second.getStates().get("TOKENS"));
+    }
+
+    @Test
+    public void emptyGossipInfoHasNoEndpoints() {
+        assertEquals(0, Lists.newArrayList(GossipInfoParser.parse("")).size());
+        assertEquals(0, Lists.newArrayList(GossipInfoParser.parse(null)).size());
+    }
+}
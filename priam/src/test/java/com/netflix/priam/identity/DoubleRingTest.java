@@ -1,16 +1,17 @@
 package com.netflix.priam.identity;
 
 import com.google.common.base.Function;
-import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.Ordering;
-import com.google.common.collect.SetMultimap;
-import com.netflix.priam.utils.TokenManager;
 import org.junit.Test;
 
 import javax.annotation.Nullable;
+import java.math.BigInteger;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 
@@ -30,7 +31,7 @@ public class DoubleRingTest extends InstanceTestUtils {
 
         List<PriamInstance> doubled = Ordering.natural().immutableSortedCopy(doubledInstances.get(location));
         assertEquals(originalSize * 2, doubled.size());
-        validate(doubled);
+        validate(doubled, originalInstances.get(location));
 
         // Verify instances in remote locations are unchanged
         for (Location remoteLocation : originalInstances.keySet()) {
@@ -40,25 +41,36 @@ public class DoubleRingTest extends InstanceTestUtils {
         }
     }
 
-    private void validate(List<PriamInstance> doubled) {
-        List<String> validator = Lists.newArrayList();
-        for (int i = 0; i < doubled.size(); i++) {
-            validator.add(tokenManager.createToken(i, doubled.size(), location));
-
+    private void validate(List<PriamInstance> doubled, Collection<PriamInstance> original) {
+        // Existing nodes keep their slots and tokens, new slots are placeholders
+        Map<Integer, PriamInstance> originalById = Maps.newHashMap();
+        for (PriamInstance ins : original) {
+            originalById.put(ins.getId(), ins);
+        }
+        for (PriamInstance ins : doubled) {
+            PriamInstance originalIns = originalById.get(ins.getId());
+            if (originalIns == null) {
+                assertEquals(PriamInstance.NEW_INSTANCE_PLACEHOLDER_ID, ins.getInstanceId());
+            } else {
+                assertEquals(originalIns.getInstanceId(), ins.getInstanceId());
+                assertEquals(originalIns.getToken(), ins.getToken());
+            }
         }
 
+        List<PriamInstance> byToken = Ordering.natural().onResultOf(new Function<PriamInstance, BigInteger>() {
+            @Override
+            public BigInteger apply(PriamInstance instance) {
+                return tokenManager.parseToken(instance.getToken());
+            }
+        }).sortedCopy(doubled);
+
         int numZones = amazonConfiguration.getUsableAvailabilityZones().size();
 
-        for (int i = 0; i < doubled.size(); i++) {
-            PriamInstance ins = doubled.get(i);
-            assertEquals(validator.get(i), ins.getToken());
-            int id = ins.getId() - TokenManager.locationOffset(location);
-            //System.out.println(ins);
-            if (0 != id % 2) {
-                assertEquals(ins.getInstanceId(), PriamInstance.NEW_INSTANCE_PLACEHOLDER_ID);
-            }
+        for (int i = 0; i < byToken.size(); i++) {
+            PriamInstance ins = byToken.get(i);
+            assertEquals(tokenManager.createToken(i, byToken.size(), location), ins.getToken());
             // Verify that instances are spread across AZs evenly and in sequence.
-            assertEquals(ins.getAvailabilityZone(), doubled.get((i + numZones) % numZones).getAvailabilityZone());
+            assertEquals(byToken.get(i % numZones).getAvailabilityZone(), ins.getAvailabilityZone());
         }
     }
 
@@ -3,11 +3,14 @@ package com.netflix.priam.identity;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
+import com.netflix.priam.FakePriamInstanceRegistry;
 import com.netflix.priam.volume.VolumeMetadata;
+import com.netflix.priam.utils.FakeSleeper;
 import com.netflix.priam.utils.TokenManager;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
@@ -163,6 +166,33 @@ public class InstanceIdentityTest extends InstanceTestUtils {
     }
 
 
+    @Test
+    public void testNewTokenRetriesWhenSlotIsTaken() throws Exception {
+        final int hash = TokenManager.locationOffset(location);
+        final List<Long> sleeps = Lists.newArrayList();
+        sleeper = new FakeSleeper() {
+            @Override
+            public void sleep(long waitTimeMs) {
+                sleeps.add(waitTimeMs);
+            }
+        };
+        // Another node takes the first slot of the zone between our registry lookup and our registration
+        instanceRegistry = new FakePriamInstanceRegistry(location) {
+            @Override
+            public PriamInstance create(String app, int id, String instanceID, String hostname, String ip, String rac, Map<String, Object> volumes, String token) {
+                if (id == hash && getInstance(app, id) == null) {
+                    super.create(app, id, "racer", "racer", "racer", rac, volumes, token);
+                }
+                return super.create(app, id, instanceID, hostname, ip, rac, volumes, token);
+            }
+        };
+
+        identity = createInstanceIdentity("az1", "fakeinstance1");
+        assertEquals(3, identity.getInstance().getId() - hash);
+        // Only the lost race backs off
+        assertEquals(1, sleeps.size());
+    }
+
     public void printInstance(PriamInstance ins, int hash) {
         //System.out.println("ID: " + (ins.getInstanceIdentity() - hash));
         //System.out.println("PayLoad: " + ins.getToken());
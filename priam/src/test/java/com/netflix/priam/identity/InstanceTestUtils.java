@@ -101,6 +101,9 @@ public abstract class InstanceTestUtils {
         amazonConfiguration.setAvailabilityZone(zone);
         amazonConfiguration.setInstanceID(instanceId);
         amazonConfiguration.setPrivateHostName(instanceId);
-        return new InstanceIdentity(cassandraConfiguration, amazonConfiguration, volumeMetadataManager, instanceRegistry, membership, tokenManager, sleeper, location);
+        InstanceIdentity identity = new InstanceIdentity(cassandraConfiguration, amazonConfiguration, volumeMetadataManager, instanceRegistry, membership, tokenManager, sleeper, location);
+        // Instances start one after the other
+        identity.getInstance();
+        return identity;
     }
 }
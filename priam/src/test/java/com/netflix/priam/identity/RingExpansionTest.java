@@ -0,0 +1,158 @@
+package com.netflix.priam.identity;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multiset;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RingExpansionTest extends InstanceTestUtils {
+
+    @Test
+    public void planDoesNotChangeRegistry() throws Exception {
+        createInstances();
+        int clusterSize = instanceRegistry.getAllIds(cassandraConfiguration.getClusterName()).size();
+
+        RingExpansion.Layout layout = newRingExpansion().plan(RingExpansion.Growth.factor(2));
+
+        assertEquals(9, layout.getCurrentSize());
+        assertEquals(18, layout.getNewSize());
+        // Doubling fits new nodes between the existing ones
+        assertTrue(layout.getMoves().isEmpty());
+        assertEquals(clusterSize, instanceRegistry.getAllIds(cassandraConfiguration.getClusterName()).size());
+    }
+
+    @Test
+    public void growByHalf() throws Exception {
+        createInstances();
+        Map<Integer, String> originalTokens = localTokens();
+
+        RingExpansion.Layout layout = newRingExpansion().expand(RingExpansion.Growth.factor(1.5));
+
+        // 4.5 new nodes round to 2 per zone
+        assertEquals(15, layout.getNewSize());
+        assertEquals(15, localTokens().size());
+        Multiset<String> zones = HashMultiset.create();
+        for (PriamInstance instance : localInstances()) {
+            zones.add(instance.getAvailabilityZone());
+        }
+        for (String zone : amazonConfiguration.getUsableAvailabilityZones()) {
+            assertEquals(5, zones.count(zone));
+        }
+
+        // Existing entries keep their token until their node actually moves
+        for (Map.Entry<Integer, String> entry : originalTokens.entrySet()) {
+            assertEquals(entry.getValue(), localTokens().get(entry.getKey()));
+        }
+        assertEquals(6, layout.getMoves().size());
+        assertEquals(1.0, layout.getPlan().getAfter().getDataCenters().get(0).getImbalance(), 1e-6);
+    }
+
+    @Test
+    public void growPerZone() throws Exception {
+        createInstances();
+        RingExpansion.Layout layout = newRingExpansion().expand(RingExpansion.Growth.perZone(1));
+
+        assertEquals(12, layout.getNewSize());
+        for (PriamInstance instance : layout.getNewInstances()) {
+            assertEquals(PriamInstance.NEW_INSTANCE_PLACEHOLDER_ID, instance.getInstanceId());
+        }
+        assertEquals(12, localInstances().size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unfilledSlotsBlockNextExpansion() throws Exception {
+        createInstances();
+        newRingExpansion().expand(RingExpansion.Growth.perZone(1));
+        newRingExpansion().plan(RingExpansion.Growth.perZone(1));
+    }
+
+    @Test
+    public void takenSlotDeletesOnlyTheNewPlaceholders() throws Exception {
+        createInstances();
+        Map<Integer, String> originalTokens = localTokens();
+        RingExpansion expansion = newRingExpansion();
+        RingExpansion.Layout layout = expansion.plan(RingExpansion.Growth.perZone(1));
+
+        // A node takes the last new slot before the expansion gets to it
+        PriamInstance taken = layout.getNewInstances().get(layout.getNewInstances().size() - 1);
+        instanceRegistry.create(taken.getApp(), taken.getId(), "i-real", "host", "10.0.0.99", taken.getAvailabilityZone(),
+                null, taken.getToken());
+        try {
+            expansion.expand(layout);
+            fail();
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+
+        Map<Integer, String> expected = Maps.newHashMap(originalTokens);
+        expected.put(taken.getId(), taken.getToken());
+        assertEquals(expected, localTokens());
+        assertEquals("i-real", instanceRegistry.getInstance(taken.getApp(), taken.getId()).getInstanceId());
+    }
+
+    @Test
+    public void backupSurvivesRestart() throws Exception {
+        createInstances();
+        Map<Integer, String> originalTokens = localTokens();
+        int clusterSize = instanceRegistry.getAllIds(cassandraConfiguration.getClusterName()).size();
+
+        RingExpansion expansion = newRingExpansion();
+        expansion.backup();
+        expansion.expand(RingExpansion.Growth.factor(2));
+        assertEquals(clusterSize + 9, instanceRegistry.getAllIds(cassandraConfiguration.getClusterName()).size());
+
+        // A new instance reads the backup from disk
+        newRingExpansion().restore();
+        assertEquals(clusterSize, instanceRegistry.getAllIds(cassandraConfiguration.getClusterName()).size());
+        assertEquals(originalTokens, localTokens());
+    }
+
+    @Test
+    public void restoreKeepsNodesThatJoinedAfterTheBackup() throws Exception {
+        createInstances();
+        Map<Integer, String> originalTokens = localTokens();
+
+        RingExpansion expansion = newRingExpansion();
+        expansion.backup();
+        RingExpansion.Layout layout = expansion.expand(RingExpansion.Growth.perZone(1));
+        PriamInstance joined = layout.getNewInstances().get(0);
+        instanceRegistry.update(PriamInstance.from(joined.getApp(), joined.getId(), "i-real", "host", "10.0.0.99",
+                joined.getAvailabilityZone(), null, joined.getToken(), joined.getLocation()));
+
+        expansion.restore();
+        Map<Integer, String> expected = Maps.newHashMap(originalTokens);
+        expected.put(joined.getId(), joined.getToken());
+        assertEquals(expected, localTokens());
+        assertEquals("i-real", instanceRegistry.getInstance(joined.getApp(), joined.getId()).getInstanceId());
+    }
+
+    private RingExpansion newRingExpansion() {
+        return new RingExpansion(cassandraConfiguration, amazonConfiguration, instanceRegistry, tokenManager, location);
+    }
+
+    private List<PriamInstance> localInstances() {
+        List<PriamInstance> local = Lists.newArrayList();
+        for (PriamInstance instance : instanceRegistry.getAllIds(cassandraConfiguration.getClusterName())) {
+            if (location.equals(instance.getLocation())) {
+                local.add(instance);
+            }
+        }
+        return local;
+    }
+
+    private Map<Integer, String> localTokens() {
+        Map<Integer, String> tokens = Maps.newHashMap();
+        for (PriamInstance instance : localInstances()) {
+            tokens.put(instance.getId(), instance.getToken());
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,108 @@
+package com.netflix.priam.local;
+
+import com.netflix.priam.identity.Location;
+import com.netflix.priam.identity.PriamInstance;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FileInstanceRegistryTest {
+    private static final Location LOCATION = Location.from("us-east-1");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File logFile;
+
+    @Before
+    public void setUp() {
+        logFile = new File(folder.getRoot(), "instances.log");
+    }
+
+    @Test
+    public void slotsAreAcquiredOnce() {
+        FileInstanceRegistry registry = new FileInstanceRegistry(logFile, LOCATION);
+
+        assertNotNull(registry.create("test", 1, "i-1", "host1", "10.0.0.1", "1a", null, "0"));
+        assertNull(registry.create("test", 1, "i-2", "host2", "10.0.0.2", "1a", null, "0"));
+        assertNull(registry.acquireSlotId(1, "i-3", "test", "i-2", "host2", "10.0.0.2", "1a", null, "0"));
+        assertNotNull(registry.acquireSlotId(1, "i-1", "test", "i-2", "host2", "10.0.0.2", "1a", null, "0"));
+
+        assertEquals("i-2", registry.getInstance("test", 1).getInstanceId());
+        assertEquals(1, registry.getAllIds("test").size());
+        assertTrue(registry.getAllIds("other").isEmpty());
+    }
+
+    @Test
+    public void readsReturnCopies() {
+        FileInstanceRegistry registry = new FileInstanceRegistry(logFile, LOCATION);
+        registry.create("test", 1, "i-1", "host1", "10.0.0.1", "1a", null, "0");
+
+        registry.getInstance("test", 1).setToken("100");
+        registry.getAllIds("test").get(0).setToken("200");
+
+        assertEquals("0", registry.getInstance("test", 1).getToken());
+        assertNull(registry.getInstance("other", 1));
+    }
+
+    @Test
+    public void processesSeeEachOthersChanges() {
+        FileInstanceRegistry first = new FileInstanceRegistry(logFile, LOCATION);
+        FileInstanceRegistry second = new FileInstanceRegistry(logFile, LOCATION);
+
+        first.create("test", 1, "i-1", "host1", "10.0.0.1", "1a", null, "0");
+        assertNull(second.create("test", 1, "i-2", "host2", "10.0.0.2", "1a", null, "0"));
+        second.create("test", 2, "i-2", "host2", "10.0.0.2", "1b", null, "100");
+        assertEquals(2, first.getAllIds("test").size());
+
+        first.delete(second.getInstance("test", 2));
+        assertNull(second.getInstance("test", 2));
+        assertEquals("10.0.0.1", second.getInstance("test", 1).getHostIP());
+        assertEquals(LOCATION, second.getInstance("test", 1).getLocation());
+    }
+
+    @Test
+    public void compactionKeepsInstances() throws Exception {
+        FileInstanceRegistry registry = new FileInstanceRegistry(logFile, LOCATION);
+        FileInstanceRegistry other = new FileInstanceRegistry(logFile, LOCATION);
+        registry.create("test", 1, "i-1", "host1", "10.0.0.1", "1a", null, "0");
+        other.getAllIds("test");
+
+        PriamInstance instance = registry.create("test", 2, "i-2", "host2", "10.0.0.2", "1b", null, "100");
+        for (int i = 0; i < FileInstanceRegistry.COMPACTION_THRESHOLD; i++) {
+            instance.setToken(Integer.toString(i));
+            registry.update(instance);
+        }
+
+        assertTrue(Files.readAllLines(logFile.toPath(), StandardCharsets.UTF_8).size() < 10);
+        assertEquals(Integer.toString(FileInstanceRegistry.COMPACTION_THRESHOLD - 1), other.getInstance("test", 2).getToken());
+        assertEquals(2, other.getAllIds("test").size());
+        assertEquals(2, new FileInstanceRegistry(logFile, LOCATION).getAllIds("test").size());
+    }
+
+    @Test
+    public void unfinishedWriteIsIgnored() throws Exception {
+        FileInstanceRegistry registry = new FileInstanceRegistry(logFile, LOCATION);
+        registry.create("test", 1, "i-1", "host1", "10.0.0.1", "1a", null, "0");
+        try (OutputStream out = new FileOutputStream(logFile, true)) {
+            out.write("{\"type\":\"PUT\",\"instance\":{\"app\":\"te".getBytes(StandardCharsets.UTF_8));
+        }
+
+        FileInstanceRegistry restarted = new FileInstanceRegistry(logFile, LOCATION);
+        assertEquals(1, restarted.getAllIds("test").size());
+        restarted.create("test", 2, "i-2", "host2", "10.0.0.2", "1b", null, "100");
+        assertEquals(2, new FileInstanceRegistry(logFile, LOCATION).getAllIds("test").size());
+    }
+}
@@ -5,6 +5,7 @@ import com.netflix.priam.PriamServer;
 import com.netflix.priam.identity.DoubleRing;
 import com.netflix.priam.identity.InstanceIdentity;
 import com.netflix.priam.identity.PriamInstance;
+import com.netflix.priam.identity.RingExpansion;
 import mockit.Expectations;
 import mockit.Mocked;
 import mockit.NonStrictExpectations;
@@ -29,11 +30,14 @@ public class CassandraConfigResourceTest {
     private
     @Mocked
     DoubleRing doubleRing;
+    private
+    @Mocked
+    RingExpansion ringExpansion;
     private CassandraConfigResource resource;
 
     @Before
     public void setUp() {
-        resource = new CassandraConfigResource(priamServer, doubleRing);
+        resource = new CassandraConfigResource(priamServer, doubleRing, ringExpansion);
     }
 
     @Test
@@ -223,4 +227,11 @@ public class CassandraConfigResourceTest {
 
         resource.doubleRing();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void expandRing_requiresExactlyOneGrowth() throws Exception {
+        assertEquals(400, resource.expandRing(null, null).getStatus());
+        assertEquals(400, resource.expandRing(2.0, 1).getStatus());
+        assertEquals(400, resource.planRingExpansion(0.5, null).getStatus());
+    }
+}
@@ -0,0 +1,187 @@
+package com.netflix.priam.ring;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.net.HostAndPort;
+import com.netflix.priam.FakePriamInstanceRegistry;
+import com.netflix.priam.TestCassandraConfiguration;
+import com.netflix.priam.identity.IPriamInstanceRegistry;
+import com.netflix.priam.identity.Location;
+import com.netflix.priam.identity.PriamInstance;
+import com.netflix.priam.utils.FakeSleeper;
+import com.netflix.priam.utils.Murmur3TokenManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MoveOrchestratorTest {
+    private IPriamInstanceRegistry registry;
+    private FakeCluster cluster;
+
+    @Before
+    public void setUp() {
+        registry = new FakePriamInstanceRegistry(Location.from("us-east-1"));
+        cluster = new FakeCluster(registry);
+        cluster.addNode(1, "10.0.0.1", "1a", "0");
+        cluster.addNode(2, "10.0.0.2", "1b", "100");
+        cluster.addNode(3, "10.0.0.3", "1a", "200");
+        cluster.addNode(4, "10.0.0.4", "1b", "300");
+    }
+
+    @Test
+    public void serialMovesRunOneAtATime() throws Exception {
+        MoveJob job = cluster.prepare(cluster.ring(), ImmutableList.of(move("10.0.0.1", "50"), move("10.0.0.2", "150")), MoveJob.Parallelism.SERIAL);
+        cluster.run(job, 0);
+
+        assertEquals(MoveJob.State.SUCCEEDED, job.getState());
+        for (MoveJob.Step step : job.getSteps()) {
+            assertEquals(MoveJob.Step.State.DONE, step.getState());
+        }
+        assertEquals(ImmutableList.of("10.0.0.1", "10.0.0.2"), cluster.moveRequests);
+        assertEquals(1, cluster.mostConcurrentMoves);
+        assertEquals("0", job.getSteps().get(0).getMove().getOldToken());
+        assertEquals("1a", job.getSteps().get(0).getMove().getRack());
+    }
+
+    @Test
+    public void movesUpdateRegistryAndCleanUp() throws Exception {
+        MoveJob job = cluster.prepare(cluster.ring(), ImmutableList.of(move("10.0.0.1", "50")), MoveJob.Parallelism.SERIAL);
+        cluster.run(job, 0);
+
+        assertEquals(Collections.singletonList("50"), registry.getInstance("test", 1).getTokens());
+        assertEquals(Collections.singletonList("100"), registry.getInstance("test", 2).getTokens());
+        assertEquals(Sets.newHashSet("10.0.0.1", "10.0.0.2", "10.0.0.3", "10.0.0.4"), Sets.newHashSet(job.getCleanedUp()));
+    }
+
+    @Test
+    public void perRackMovesOneNodePerRackAtATime() throws Exception {
+        MoveJob job = cluster.prepare(cluster.ring(), ImmutableList.of(
+                move("10.0.0.1", "50"), move("10.0.0.3", "250"), move("10.0.0.2", "150"), move("10.0.0.4", "350")),
+                MoveJob.Parallelism.PER_RACK);
+        cluster.run(job, 0);
+
+        assertEquals(MoveJob.State.SUCCEEDED, job.getState());
+        assertEquals(ImmutableList.of("10.0.0.1", "10.0.0.2", "10.0.0.3", "10.0.0.4"), cluster.moveRequests);
+        assertEquals(2, cluster.mostConcurrentMoves);
+    }
+
+    @Test
+    public void moveThatNeverStartsFailsJob() throws Exception {
+        cluster.stuck.add("10.0.0.1");
+        MoveJob job = cluster.prepare(cluster.ring(), ImmutableList.of(move("10.0.0.1", "50"), move("10.0.0.2", "150")), MoveJob.Parallelism.SERIAL);
+        cluster.run(job, 0);
+
+        assertEquals(MoveJob.State.FAILED, job.getState());
+        assertEquals(MoveJob.Step.State.FAILED, job.getSteps().get(0).getState());
+        assertEquals(MoveJob.Step.State.SKIPPED, job.getSteps().get(1).getState());
+        assertEquals(ImmutableList.of("10.0.0.1"), cluster.moveRequests);
+        assertTrue(job.getCleanedUp().isEmpty());
+    }
+
+    @Test
+    public void cancelledJobSkipsRemainingMoves() throws Exception {
+        MoveJob job = cluster.prepare(cluster.ring(), ImmutableList.of(move("10.0.0.1", "50")), MoveJob.Parallelism.SERIAL);
+        job.cancel();
+        cluster.run(job, 0);
+
+        assertEquals(MoveJob.State.CANCELLED, job.getState());
+        assertEquals(MoveJob.Step.State.SKIPPED, job.getSteps().get(0).getState());
+        assertTrue(cluster.moveRequests.isEmpty());
+    }
+
+    @Test
+    public void unsettledRingFailsJob() throws Exception {
+        cluster.rows.get("10.0.0.4").put("status", "Down");
+        MoveJob job = cluster.prepare(cluster.ring(), ImmutableList.of(move("10.0.0.1", "50")), MoveJob.Parallelism.SERIAL);
+        cluster.run(job, 0);
+
+        assertEquals(MoveJob.State.FAILED, job.getState());
+        assertTrue(cluster.moveRequests.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownEndpoint() throws Exception {
+        cluster.prepare(cluster.ring(), ImmutableList.of(move("10.0.0.9", "50")), MoveJob.Parallelism.SERIAL);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidToken() throws Exception {
+        cluster.prepare(cluster.ring(), ImmutableList.of(move("10.0.0.1", "fifty")), MoveJob.Parallelism.SERIAL);
+    }
+
+    private static RingPlan.Move move(String endpoint, String newToken) {
+        return new RingPlan.Move(endpoint, null, null, null, newToken);
+    }
+
+    /**
+     * A ring where a node shows up as moving on the first poll after its move was requested and has its new token on
+     * the second.
+     */
+    private static class FakeCluster extends MoveOrchestrator {
+        final Map<String, Map<String, Object>> rows = Maps.newLinkedHashMap();
+        final Map<String, String> moving = Maps.newHashMap();
+        final Set<String> stuck = Sets.newHashSet();
+        final List<String> moveRequests = Lists.newArrayList();
+        int mostConcurrentMoves;
+        private final IPriamInstanceRegistry registry;
+
+        FakeCluster(IPriamInstanceRegistry registry) {
+            super(new TestCassandraConfiguration("test"), registry, new Murmur3TokenManager(), null,
+                    HostAndPort.fromParts("localhost", 8080), new FakeSleeper());
+            this.registry = registry;
+        }
+
+        void addNode(int id, String endpoint, String rack, String token) {
+            Map<String, Object> row = Maps.newHashMap();
+            row.put("endpoint", endpoint);
+            row.put("dc", "us-east");
+            row.put("rack", rack);
+            row.put("status", "Up");
+            row.put("state", "Normal");
+            row.put("token", token);
+            rows.put(endpoint, row);
+            registry.create("test", id, "i-" + id, "host" + id, endpoint, rack, null, token);
+        }
+
+        @Override
+        List<Map<String, Object>> ring() {
+            for (Map.Entry<String, String> move : Lists.newArrayList(moving.entrySet())) {
+                Map<String, Object> row = rows.get(move.getKey());
+                if ("Moving".equals(row.get("state"))) {
+                    row.put("state", "Normal");
+                    row.put("token", move.getValue());
+                    moving.remove(move.getKey());
+                } else {
+                    row.put("state", "Moving");
+                }
+            }
+            List<Map<String, Object>> ring = Lists.newArrayList();
+            for (Map<String, Object> row : rows.values()) {
+                ring.add(Maps.newHashMap(row));
+            }
+            return ring;
+        }
+
+        @Override
+        void requestMove(String endpoint, String token) {
+            moveRequests.add(endpoint);
+            if (!stuck.contains(endpoint)) {
+                moving.put(endpoint, token);
+                mostConcurrentMoves = Math.max(mostConcurrentMoves, moving.size());
+            }
+        }
+
+        @Override
+        void requestCleanup(String endpoint) {
+        }
+    }
+}
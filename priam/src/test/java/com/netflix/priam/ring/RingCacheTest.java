@@ -0,0 +1,96 @@
+package com.netflix.priam.ring;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.netflix.priam.TestCassandraConfiguration;
+import org.junit.Test;
+
+import javax.management.Notification;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class RingCacheTest {
+    private final FakeTicker ticker = new FakeTicker();
+    private final CountingRingCache cache = new CountingRingCache(ticker);
+
+    @Test
+    public void snapshotIsReusedUntilItExpires() throws Exception {
+        List<Map<String, Object>> ring = cache.ring();
+        assertSame(ring, cache.ring());
+        assertEquals(1, cache.loads.size());
+
+        ticker.advance(RingCache.MAX_AGE_MS);
+        cache.ring();
+        assertEquals(2, cache.loads.size());
+    }
+
+    @Test
+    public void keyspacesHaveTheirOwnSnapshot() throws Exception {
+        cache.ring();
+        cache.ring("ks1");
+        cache.ring("ks1");
+
+        assertEquals(Lists.newArrayList("", "ks1"), cache.loads);
+    }
+
+    @Test
+    public void bootstrapNotificationsInvalidateSnapshots() throws Exception {
+        cache.ring();
+        cache.ring("ks1");
+
+        cache.handleNotification(new Notification("progress", "bootstrap", 1), null);
+        cache.ring();
+        cache.ring("ks1");
+
+        assertEquals(Lists.newArrayList("", "ks1", "", "ks1"), cache.loads);
+    }
+
+    @Test
+    public void repairNotificationsKeepSnapshots() throws Exception {
+        cache.ring();
+
+        cache.handleNotification(new Notification("progress", "repair:1", 1), null);
+        cache.handleNotification(new Notification("repair", "StorageService", 2), null);
+        cache.ring();
+
+        assertEquals(Lists.newArrayList(""), cache.loads);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void snapshotsAreImmutable() throws Exception {
+        cache.ring().get(0).put("status", "Down");
+    }
+
+    private static class CountingRingCache extends RingCache {
+        private final List<String> loads = Lists.newArrayList();
+
+        CountingRingCache(Ticker ticker) {
+            super(new TestCassandraConfiguration("test"), ticker);
+        }
+
+        @Override
+        List<Map<String, Object>> load(String keyspace) {
+            loads.add(keyspace == null ? "" : keyspace);
+            return ImmutableList.<Map<String, Object>>of(ImmutableMap.<String, Object>of("endpoint", "10.0.0.1", "status", "Up"));
+        }
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(long millis) {
+            nanos += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+    }
+}
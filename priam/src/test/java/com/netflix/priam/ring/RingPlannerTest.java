@@ -0,0 +1,144 @@
+package com.netflix.priam.ring;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.netflix.priam.identity.Location;
+import com.netflix.priam.utils.Murmur3TokenManager;
+import com.netflix.priam.utils.TokenManager;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RingPlannerTest {
+    private static final TokenManager tokenManager = new Murmur3TokenManager();
+    private static final Location LOCATION = Location.from("us-east-1");
+    private static final List<String> RACKS = ImmutableList.of("1a", "1b", "1c");
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void analyzeBalancedRing() {
+        RingAnalysis analysis = new RingAnalyzer(tokenManager).analyze(balancedRing(2), 3);
+
+        RingAnalysis.DataCenter dataCenter = analysis.getDataCenters().get(0);
+        assertEquals(6, dataCenter.getNodes().size());
+        for (RingAnalysis.Node node : dataCenter.getNodes()) {
+            assertEquals(1.0 / 6, node.getPrimaryOwnership(), DELTA);
+            // Every rack holds a full replica, split over its two nodes
+            assertEquals(0.5, node.getEffectiveOwnership(), DELTA);
+        }
+        for (RingAnalysis.Rack rack : dataCenter.getRacks()) {
+            assertEquals(1.0 / 3, rack.getPrimaryOwnership(), DELTA);
+            assertEquals(1.0, rack.getEffectiveOwnership(), DELTA);
+        }
+        assertEquals(1.0, dataCenter.getImbalance(), DELTA);
+    }
+
+    @Test
+    public void analyzeReplicationFactorLargerThanRacks() {
+        // A single rack, so replicas simply go to the next nodes clockwise
+        List<RingNode> nodes = Lists.newArrayList();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(node("10.0.0." + i, "1a", i / 4.0));
+        }
+        RingAnalysis.DataCenter dataCenter = new RingAnalyzer(tokenManager).analyze(nodes, 2).getDataCenters().get(0);
+        for (RingAnalysis.Node node : dataCenter.getNodes()) {
+            assertEquals(0.25, node.getPrimaryOwnership(), DELTA);
+            assertEquals(0.5, node.getEffectiveOwnership(), DELTA);
+        }
+    }
+
+    @Test
+    public void balancedRingNeedsNoMoves() {
+        RingPlan plan = new RingPlanner(tokenManager).plan(balancedRing(2), 0, 3);
+        assertTrue(plan.getMoves().isEmpty());
+        assertTrue(plan.getNewNodes().isEmpty());
+        assertEquals(0.0, plan.getStreamedOwnership(), DELTA);
+    }
+
+    @Test
+    public void balanceMovesAsLittleAsPossible() {
+        List<RingNode> nodes = ImmutableList.of(
+                node("10.0.0.1", "1a", 0.0),
+                node("10.0.0.2", "1a", 0.1),
+                node("10.0.0.3", "1a", 0.6),
+                node("10.0.0.4", "1a", 0.75));
+        RingPlan plan = new RingPlanner(tokenManager).plan(nodes, 0, 1);
+
+        // Keeping 0.0 and 0.75 where they are only needs two small moves: 0.1 -> 0.25 and 0.6 -> 0.5
+        assertEquals(2, plan.getMoves().size());
+        assertEquals(0.25, plan.getStreamedOwnership(), 1e-6);
+        assertEquals(1.0, plan.getAfter().getDataCenters().get(0).getImbalance(), 1e-6);
+        assertTrue(plan.getBefore().getDataCenters().get(0).getImbalance() > 2);
+    }
+
+    @Test
+    public void expansionAddsNodesToEveryRack() {
+        RingPlan plan = new RingPlanner(tokenManager).plan(balancedRing(2), 1, 3);
+
+        // In every rack one of the two nodes moves by a sixth of the ring to make room for the new node
+        assertEquals(3, plan.getNewNodes().size());
+        assertEquals(3, plan.getMoves().size());
+        assertEquals(0.5, plan.getStreamedOwnership(), 1e-6);
+        RingAnalysis.DataCenter after = plan.getAfter().getDataCenters().get(0);
+        assertEquals(9, after.getNodes().size());
+        assertEquals(1.0, after.getImbalance(), 1e-6);
+    }
+
+    @Test
+    public void vnodesOnlyGetNewNodes() {
+        List<RingNode> nodes = Lists.newArrayList();
+        List<List<String>> rackTokens = Lists.newArrayList();
+        for (int i = 0; i < 2; i++) {
+            List<String> tokens = tokenManager.createTokens(i, 2, 8, rackTokens, Collections.<String>emptyList(), LOCATION);
+            rackTokens.add(tokens);
+            nodes.add(new RingNode("10.0.0." + i, "us-east", "1a", tokens));
+        }
+        RingPlan plan = new RingPlanner(tokenManager).plan(nodes, 1, 1);
+
+        assertTrue(plan.getMoves().isEmpty());
+        assertEquals(1, plan.getWarnings().size());
+        assertEquals(1, plan.getNewNodes().size());
+        assertEquals(8, plan.getNewNodes().get(0).getTokens().size());
+    }
+
+    @Test
+    public void fromRing() {
+        List<RingNode> nodes = RingNode.fromRing(ImmutableList.of(
+                ringRow("10.0.0.1", "1a", "-10"),
+                ringRow("10.0.0.2", "1b", "0"),
+                ringRow("10.0.0.1", "1a", "10")));
+        assertEquals(2, nodes.size());
+        assertEquals(ImmutableList.of("-10", "10"), nodes.get(0).getTokens());
+        assertEquals("1b", nodes.get(1).getRack());
+    }
+
+    /**
+     * The layout Priam creates: slots interleaved across racks, evenly spaced.
+     */
+    private static List<RingNode> balancedRing(int nodesPerRack) {
+        List<RingNode> nodes = Lists.newArrayList();
+        for (int slot = 0; slot < RACKS.size() * nodesPerRack; slot++) {
+            String token = tokenManager.createToken(slot, RACKS.size(), nodesPerRack, LOCATION);
+            nodes.add(new RingNode("10.0.0." + slot, "us-east", RACKS.get(slot % RACKS.size()), ImmutableList.of(token)));
+        }
+        return nodes;
+    }
+
+    private static RingNode node(String endpoint, String rack, double position) {
+        BigInteger offset = new BigDecimal(tokenManager.getTokenRangeSize()).multiply(BigDecimal.valueOf(position)).toBigInteger();
+        String token = tokenManager.formatToken(tokenManager.getMinimumTokenValue().add(offset));
+        return new RingNode(endpoint, "us-east", rack, ImmutableList.of(token));
+    }
+
+    private static Map<String, Object> ringRow(String endpoint, String rack, String token) {
+        return ImmutableMap.<String, Object>of("endpoint", endpoint, "dc", "us-east", "rack", rack, "token", token);
+    }
+}
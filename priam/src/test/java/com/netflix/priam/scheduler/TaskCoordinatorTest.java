@@ -0,0 +1,138 @@
+package com.netflix.priam.scheduler;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServerFactory;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TaskCoordinatorTest {
+    private final TaskCoordinator coordinator = new TaskCoordinator();
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void conflictingTasksRunOneAtATimeByPriority() throws Exception {
+        TaskCoordinator.Permit repair = coordinator.acquire(new FakeTask("repair", 0, ImmutableSet.of(TaskResource.DISK_IO)));
+
+        Future<TaskCoordinator.Permit> cleanup = acquireLater(new FakeTask("cleanup", 0, ImmutableSet.of(TaskResource.DISK_IO)));
+        waitForWaiting(ImmutableList.of("cleanup"));
+        Future<TaskCoordinator.Permit> compaction = acquireLater(new FakeTask("compaction", 5, ImmutableSet.of(TaskResource.DISK_IO, TaskResource.JMX)));
+        waitForWaiting(ImmutableList.of("compaction", "cleanup"));
+
+        // Tasks without resources don't wait
+        coordinator.acquire(new FakeTask("metrics", 0, ImmutableSet.<TaskResource>of())).close();
+
+        repair.close();
+        compaction.get(5, TimeUnit.SECONDS).close();
+        cleanup.get(5, TimeUnit.SECONDS).close();
+        assertTrue(coordinator.getWaiting().isEmpty());
+    }
+
+    @Test
+    public void dependenciesGoFirst() throws Exception {
+        TaskCoordinator.Permit flush = coordinator.acquire(new FakeTask("flush", 0, ImmutableSet.<TaskResource>of()));
+        FakeTask snapshot = new FakeTask("snapshot", 10, ImmutableSet.<TaskResource>of());
+        snapshot.dependencies = ImmutableSet.of("flush");
+
+        Future<TaskCoordinator.Permit> snapshotPermit = acquireLater(snapshot);
+        waitForWaiting(ImmutableList.of("snapshot"));
+        assertFalse(snapshotPermit.isDone());
+
+        flush.close();
+        snapshotPermit.get(5, TimeUnit.SECONDS).close();
+    }
+
+    @Test
+    public void interruptedExecutionsStopWaiting() throws Exception {
+        TaskCoordinator.Permit repair = coordinator.acquire(new FakeTask("repair", 0, ImmutableSet.of(TaskResource.NETWORK)));
+        Future<TaskCoordinator.Permit> restore = acquireLater(new FakeTask("restore", 0, ImmutableSet.of(TaskResource.NETWORK)));
+        waitForWaiting(ImmutableList.of("restore"));
+
+        restore.cancel(true);
+        waitForWaiting(ImmutableList.<String>of());
+        repair.close();
+    }
+
+    private Future<TaskCoordinator.Permit> acquireLater(final Task task) {
+        return executor.submit(new Callable<TaskCoordinator.Permit>() {
+            @Override
+            public TaskCoordinator.Permit call() throws Exception {
+                return coordinator.acquire(task);
+            }
+        });
+    }
+
+    private void waitForWaiting(List<String> expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!expected.equals(coordinator.getWaiting()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, coordinator.getWaiting());
+    }
+
+    private static class FakeTask extends Task {
+        private final String name;
+        private final int priority;
+        private final Set<TaskResource> resources;
+        private Set<String> dependencies = ImmutableSet.of();
+
+        FakeTask(String name, int priority, Set<TaskResource> resources) {
+            super(MBeanServerFactory.newMBeanServer());
+            this.name = name;
+            this.priority = priority;
+            this.resources = resources;
+        }
+
+        @Override
+        public void execute() {
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getTriggerName() {
+            return name + "-trigger";
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public Set<TaskResource> getResources() {
+            return resources;
+        }
+
+        @Override
+        public Set<String> getDependencies() {
+            return dependencies;
+        }
+    }
+}
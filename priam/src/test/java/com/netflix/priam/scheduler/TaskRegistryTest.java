@@ -0,0 +1,175 @@
+package com.netflix.priam.scheduler;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableMap;
+import com.netflix.priam.config.SchedulerConfiguration;
+import io.dropwizard.util.Duration;
+import org.junit.Test;
+
+import javax.management.MBeanServerFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TaskRegistryTest {
+
+    @Test
+    public void executionsArePublished() throws Exception {
+        MetricRegistry metricRegistry = new MetricRegistry();
+        TaskRegistry taskRegistry = new TaskRegistry(metricRegistry, new SchedulerConfiguration());
+        FlakyTask task = new FlakyTask();
+        task.register(taskRegistry);
+        task.register(taskRegistry);
+
+        task.execute(null);
+        assertNull(task.getLastError());
+        task.fail = true;
+        task.execute(null);
+
+        assertSame(task, taskRegistry.get("flaky"));
+        assertEquals(2, task.getDurations().getCount());
+        assertEquals(1, task.getErrorCount());
+        assertEquals("java.lang.IllegalStateException: failed", task.getLastError());
+        assertEquals(0, task.getRunningCount());
+        assertEquals(0, task.getRunningTimeMillis());
+        assertTrue(task.getLastEndTime() >= task.getLastStartTime());
+
+        assertEquals(2L, metricRegistry.getHistograms().get("priam.scheduler.flaky.duration").getCount());
+        assertEquals(1, metricRegistry.getGauges().get("priam.scheduler.flaky.errors").getValue());
+        Gauge misfires = metricRegistry.getGauges().get("priam.scheduler.flaky.misfires");
+        task.misfired();
+        assertEquals(1, misfires.getValue());
+    }
+
+    @Test
+    public void overlappingFiringsAreSkippedAndRunningExecutionsCancelled() throws Exception {
+        BlockingTask task = new BlockingTask();
+        task.register(new TaskRegistry(new MetricRegistry(), new SchedulerConfiguration()));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = executor.submit(task.firing());
+            assertTrue(task.started.await(5, TimeUnit.SECONDS));
+            assertEquals(Task.State.RUNNING, task.state());
+
+            task.execute(null);
+            assertEquals(1, task.getMisfireCount());
+
+            assertEquals(1, task.cancel("test"));
+            first.get(5, TimeUnit.SECONDS);
+            assertEquals(Task.State.CANCELLED, task.state());
+            assertEquals(0, task.getErrorCount());
+            assertEquals(0, task.cancel("test"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void executionsAreCancelledAfterTheirTimeout() throws Exception {
+        SchedulerConfiguration configuration = new SchedulerConfiguration();
+        configuration.setTaskTimeouts(ImmutableMap.of("blocking", Duration.milliseconds(50)));
+        BlockingTask task = new BlockingTask();
+        task.register(new TaskRegistry(new MetricRegistry(), configuration));
+
+        task.execute(null);
+
+        assertEquals(Task.State.CANCELLED, task.state());
+    }
+
+    @Test
+    public void longRunningTasksRunOnTheirOwnPool() throws Exception {
+        final CountDownLatch ran = new CountDownLatch(1);
+        final String[] thread = new String[1];
+        Task task = new FlakyTask() {
+            @Override
+            public void execute() {
+                thread[0] = Thread.currentThread().getName();
+                ran.countDown();
+            }
+
+            @Override
+            public boolean isLongRunning() {
+                return true;
+            }
+        };
+        task.register(new TaskRegistry(new MetricRegistry(), new SchedulerConfiguration()));
+
+        task.execute(null);
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertTrue(thread[0], thread[0].startsWith("long-running-task-"));
+    }
+
+    private static class BlockingTask extends Task {
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        BlockingTask() {
+            super(MBeanServerFactory.newMBeanServer());
+        }
+
+        @Override
+        public void execute() throws InterruptedException {
+            started.countDown();
+            while (true) {
+                checkCancelled();
+                Thread.sleep(10000);
+            }
+        }
+
+        Runnable firing() {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        execute(null);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public String getName() {
+            return "blocking";
+        }
+
+        @Override
+        public String getTriggerName() {
+            return "blocking-trigger";
+        }
+    }
+
+    private static class FlakyTask extends Task {
+        private boolean fail;
+
+        FlakyTask() {
+            super(MBeanServerFactory.newMBeanServer());
+        }
+
+        @Override
+        public void execute() {
+            if (fail) {
+                throw new IllegalStateException("failed");
+            }
+        }
+
+        @Override
+        public String getName() {
+            return "flaky";
+        }
+
+        @Override
+        public String getTriggerName() {
+            return "flaky-trigger";
+        }
+    }
+}
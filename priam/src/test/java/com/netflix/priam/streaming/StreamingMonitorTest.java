@@ -0,0 +1,79 @@
+package com.netflix.priam.streaming;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.Lists;
+import com.netflix.priam.TestCassandraConfiguration;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class StreamingMonitorTest {
+    private final FakeTicker ticker = new FakeTicker();
+    private final StreamingMonitor monitor = new StreamingMonitor(new TestCassandraConfiguration("test"), ticker);
+
+    @Test
+    public void ratesAreUnknownOnTheFirstPoll() {
+        StreamingPeer peer = monitor.measure(peers(receiving(1000, 100))).get(0);
+
+        assertNull(peer.getReceiveBytesPerSecond());
+        assertNull(peer.getEtaSeconds());
+    }
+
+    @Test
+    public void ratesAndEtaAreMeasuredBetweenPolls() {
+        monitor.measure(peers(receiving(1000, 100)));
+        ticker.advance(2);
+        StreamingPeer peer = monitor.measure(peers(receiving(1000, 300))).get(0);
+
+        assertEquals(100.0, peer.getReceiveBytesPerSecond(), 0.001);
+        assertEquals(0.0, peer.getSendBytesPerSecond(), 0.001);
+        assertEquals(Long.valueOf(7), peer.getEtaSeconds());
+    }
+
+    @Test
+    public void ratesAreUnknownWhenASessionEnded() {
+        monitor.measure(peers(receiving(1000, 500)));
+        ticker.advance(2);
+        StreamingPeer peer = monitor.measure(peers(receiving(100, 50))).get(0);
+
+        assertNull(peer.getReceiveBytesPerSecond());
+    }
+
+    @Test
+    public void etaIsUnknownWhenNothingMoves() {
+        monitor.measure(peers(receiving(1000, 500)));
+        ticker.advance(2);
+        StreamingPeer peer = monitor.measure(peers(receiving(1000, 500))).get(0);
+
+        assertEquals(0.0, peer.getReceiveBytesPerSecond(), 0.001);
+        assertNull(peer.getEtaSeconds());
+    }
+
+    private static StreamingPeer receiving(long totalBytes, long bytes) {
+        StreamingPeer peer = new StreamingPeer("10.0.0.2");
+        peer.addSession("STREAMING");
+        peer.addReceiving(totalBytes, bytes, 1, 0);
+        return peer;
+    }
+
+    private static List<StreamingPeer> peers(StreamingPeer... peers) {
+        return Lists.newArrayList(peers);
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(long seconds) {
+            nanos += TimeUnit.SECONDS.toNanos(seconds);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.netflix.priam.throughput;
+
+import com.netflix.priam.TestCassandraConfiguration;
+import com.netflix.priam.throughput.ThroughputPolicy.Sample;
+import com.netflix.priam.throughput.ThroughputPolicy.Throughput;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ThroughputPolicyTest {
+    private static final Sample BUSY = new Sample(120, 5, 0.3, 100);
+    private static final Sample STEADY = new Sample(40, 5, 0.3, 100);
+    private static final Sample IDLE_WITH_BACKLOG = new Sample(5, 2, 0.1, 100);
+    private static final Sample IDLE_WITHOUT_BACKLOG = new Sample(5, 2, 0.1, 0);
+
+    private ThroughputPolicy policy;
+
+    @Before
+    public void setUp() {
+        policy = new ThroughputPolicy(new TestCassandraConfiguration("throughput-test"));
+    }
+
+    @Test
+    public void classify() {
+        assertEquals(ThroughputPolicy.Load.BUSY, policy.classify(BUSY));
+        assertEquals(ThroughputPolicy.Load.BUSY, policy.classify(new Sample(5, 2, 0.95, 0)));
+        assertEquals(ThroughputPolicy.Load.STEADY, policy.classify(STEADY));
+        assertEquals(ThroughputPolicy.Load.IDLE, policy.classify(IDLE_WITH_BACKLOG));
+    }
+
+    @Test
+    public void singleSampleDoesNotChangeAnything() {
+        Throughput current = new Throughput(32, 400);
+        assertEquals(current, policy.decide(BUSY, current));
+    }
+
+    @Test
+    public void busyPullsBack() {
+        Throughput current = new Throughput(32, 400);
+        policy.decide(BUSY, current);
+        assertEquals(new Throughput(16, 200), policy.decide(BUSY, current));
+    }
+
+    @Test
+    public void busyStaysWithinBounds() {
+        Throughput current = new Throughput(8, 50);
+        policy.decide(BUSY, current);
+        assertEquals(current, policy.decide(BUSY, current));
+    }
+
+    @Test
+    public void unthrottledIsTreatedAsMaximum() {
+        Throughput current = new Throughput(0, 0);
+        policy.decide(BUSY, current);
+        assertEquals(new Throughput(64, 400), policy.decide(BUSY, current));
+    }
+
+    @Test
+    public void idleWorksOffBacklog() {
+        Throughput current = new Throughput(32, 400);
+        policy.decide(IDLE_WITH_BACKLOG, current);
+        assertEquals(new Throughput(64, 800), policy.decide(IDLE_WITH_BACKLOG, current));
+    }
+
+    @Test
+    public void idleWithoutBacklogLeavesCompactionAlone() {
+        Throughput current = new Throughput(32, 400);
+        policy.decide(IDLE_WITHOUT_BACKLOG, current);
+        assertEquals(new Throughput(32, 800), policy.decide(IDLE_WITHOUT_BACKLOG, current));
+    }
+
+    @Test
+    public void steadyHolds() {
+        Throughput current = new Throughput(32, 400);
+        policy.decide(STEADY, current);
+        assertEquals(current, policy.decide(STEADY, current));
+    }
+
+    @Test
+    public void flappingLoadHolds() {
+        Throughput current = new Throughput(32, 400);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(current, policy.decide(i % 2 == 0 ? BUSY : IDLE_WITH_BACKLOG, current));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.netflix.priam.tools;
+
+import com.google.common.collect.ImmutableList;
+import com.netflix.priam.identity.Location;
+import com.netflix.priam.identity.PriamInstance;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ImportInstanceDataTest {
+
+    @Test
+    public void diffListsAddedChangedUnchangedAndMissingInstances() {
+        List<PriamInstance> current = ImmutableList.of(instance(1, "i-1", "10"), instance(2, "i-2", "20"), instance(3, "i-3", "30"));
+        List<PriamInstance> imported = ImmutableList.of(instance(1, "i-1", "10"), instance(2, "i-2", "21"), instance(4, "i-4", "40"));
+
+        ImportInstanceData.Diff diff = ImportInstanceData.Diff.between(current, imported);
+
+        assertEquals(ImmutableList.of(4), ids(diff.getAdded()));
+        assertEquals(ImmutableList.of(2), ids(diff.getChanged()));
+        assertEquals(ImmutableList.of(3), ids(diff.getRemoved()));
+        assertEquals(1, diff.getUnchanged());
+        assertEquals(3, diff.getImportedSize());
+        assertEquals(3, diff.getCurrentSize());
+    }
+
+    @Test
+    public void diffIgnoresFieldsNotStoredInSimpleDB() {
+        PriamInstance outOfService = instance(1, "i-1", "10");
+        outOfService.setOutOfService(true);
+        outOfService.setUpdatetime(42);
+
+        ImportInstanceData.Diff diff = ImportInstanceData.Diff.between(
+                ImmutableList.of(instance(1, "i-1", "10")), ImmutableList.of(outOfService));
+
+        assertEquals(1, diff.getUnchanged());
+        assertTrue(diff.getChanged().isEmpty());
+    }
+
+    @Test
+    public void deletingEveryInstanceIsRefusedEvenWithForce() {
+        ImportInstanceData.Diff diff = ImportInstanceData.Diff.between(
+                ImmutableList.of(instance(1, "i-1", "10"), instance(2, "i-2", "20")), Collections.<PriamInstance>emptyList());
+
+        assertTrue(ImportInstanceData.refuseDeletes(diff, true).isPresent());
+    }
+
+    @Test
+    public void deletingManyInstancesNeedsForce() {
+        ImportInstanceData.Diff diff = ImportInstanceData.Diff.between(
+                ImmutableList.of(instance(1, "i-1", "10"), instance(2, "i-2", "20")), ImmutableList.of(instance(1, "i-1", "10")));
+
+        assertTrue(ImportInstanceData.refuseDeletes(diff, false).isPresent());
+        assertFalse(ImportInstanceData.refuseDeletes(diff, true).isPresent());
+    }
+
+    @Test
+    public void deletingFewInstancesIsAllowed() {
+        List<PriamInstance> current = ImmutableList.of(
+                instance(1, "i-1", "10"), instance(2, "i-2", "20"), instance(3, "i-3", "30"), instance(4, "i-4", "40"),
+                instance(5, "i-5", "50"), instance(6, "i-6", "60"), instance(7, "i-7", "70"), instance(8, "i-8", "80"),
+                instance(9, "i-9", "90"), instance(10, "i-10", "100"), instance(11, "i-11", "110"));
+        ImportInstanceData.Diff diff = ImportInstanceData.Diff.between(current, current.subList(0, 10));
+
+        assertFalse(ImportInstanceData.refuseDeletes(diff, false).isPresent());
+    }
+
+    private static PriamInstance instance(int id, String instanceId, String token) {
+        return PriamInstance.from("app", id, instanceId, instanceId, "10.0.0." + id, "az1", null, token, Location.from("us-east-1"));
+    }
+
+    private static List<Integer> ids(List<PriamInstance> instances) {
+        ImmutableList.Builder<Integer> ids = ImmutableList.builder();
+        for (PriamInstance instance : instances) {
+            ids.add(instance.getId());
+        }
+        return ids.build();
+    }
+}
@@ -0,0 +1,118 @@
+package com.netflix.priam.utils;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HardwareProfileTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void detect_solidStateDisks() throws IOException {
+        File proc = procDir(8, 32L * 1024 * 1024);
+        File sysBlock = folder.newFolder("block");
+        blockDevice(sysBlock, "nvme0n1", "0");
+        blockDevice(sysBlock, "nvme1n1", "0");
+        blockDevice(sysBlock, "loop0", "1");
+
+        HardwareProfile profile = HardwareProfile.detect(proc, sysBlock);
+        assertEquals(8, profile.getCores());
+        assertEquals(32 * 1024, profile.getMemoryMB());
+        assertEquals(2, profile.getDisks());
+        assertTrue(profile.isSolidState());
+    }
+
+    @Test
+    public void detect_anySpinningDiskMeansRotational() throws IOException {
+        File proc = procDir(4, 16L * 1024 * 1024);
+        File sysBlock = folder.newFolder("block");
+        blockDevice(sysBlock, "xvda", "0");
+        blockDevice(sysBlock, "xvdb", "1");
+
+        HardwareProfile profile = HardwareProfile.detect(proc, sysBlock);
+        assertEquals(2, profile.getDisks());
+        assertFalse(profile.isSolidState());
+    }
+
+    @Test
+    public void detect_noDisks() throws IOException {
+        HardwareProfile profile = HardwareProfile.detect(procDir(2, 4L * 1024 * 1024), folder.newFolder("block"));
+        assertEquals(1, profile.getDisks());
+        assertFalse(profile.isSolidState());
+    }
+
+    @Test(expected = IOException.class)
+    public void detect_missingMemTotal() throws IOException {
+        File proc = folder.newFolder("proc");
+        Files.write("processor\t: 0\n", new File(proc, "cpuinfo"), Charsets.UTF_8);
+        Files.write("MemFree: 100 kB\n", new File(proc, "meminfo"), Charsets.UTF_8);
+        HardwareProfile.detect(proc, folder.newFolder("block"));
+    }
+
+    @Test
+    public void heap_followsCassandraEnv() {
+        // Small machine: half of ram, up to 1GB
+        assertEquals(1024, new HardwareProfile(2, 2048, 1, false).getMaxHeapSizeMB());
+        // Medium machine: a quarter of ram
+        assertEquals(4096, new HardwareProfile(4, 16384, 1, false).getMaxHeapSizeMB());
+        // Large machine: capped at 8GB
+        assertEquals(8192, new HardwareProfile(16, 122880, 1, false).getMaxHeapSizeMB());
+
+        assertEquals(400, new HardwareProfile(4, 16384, 1, false).getNewGenHeapSizeMB());
+        assertEquals(2048, new HardwareProfile(32, 122880, 1, false).getNewGenHeapSizeMB());
+    }
+
+    @Test
+    public void concurrency_rotational() {
+        HardwareProfile profile = new HardwareProfile(16, 65536, 2, false);
+        assertEquals(32, profile.getConcurrentReads());
+        assertEquals(128, profile.getConcurrentWrites());
+        assertEquals(2, profile.getConcurrentCompactors());
+        assertEquals(2, profile.getMemtableFlushWriters());
+        assertEquals(16, profile.getCompactionThroughputMBPerSec());
+    }
+
+    @Test
+    public void concurrency_solidState() {
+        HardwareProfile profile = new HardwareProfile(16, 65536, 2, true);
+        assertEquals(64, profile.getConcurrentReads());
+        assertEquals(8, profile.getConcurrentCompactors());
+        assertEquals(8, profile.getMemtableFlushWriters());
+        assertEquals(64, profile.getCompactionThroughputMBPerSec());
+    }
+
+    @Test
+    public void concurrency_largeHostsAreBounded() {
+        assertEquals(8, new HardwareProfile(64, 524288, 8, true).getConcurrentCompactors());
+        assertEquals(8, new HardwareProfile(64, 524288, 8, true).getMemtableFlushWriters());
+        assertEquals(8, new HardwareProfile(64, 524288, 24, false).getConcurrentCompactors());
+        assertEquals(2, new HardwareProfile(1, 2048, 1, true).getConcurrentCompactors());
+    }
+
+    private File procDir(int cores, long memoryKB) throws IOException {
+        File proc = folder.newFolder("proc");
+        StringBuilder cpuinfo = new StringBuilder();
+        for (int i = 0; i < cores; i++) {
+            cpuinfo.append("processor\t: ").append(i).append('\n').append("model name\t: Fake CPU\n\n");
+        }
+        Files.write(cpuinfo, new File(proc, "cpuinfo"), Charsets.UTF_8);
+        Files.write("MemTotal:       " + memoryKB + " kB\nMemFree:        1024 kB\n", new File(proc, "meminfo"), Charsets.UTF_8);
+        return proc;
+    }
+
+    private void blockDevice(File sysBlock, String name, String rotational) throws IOException {
+        File queue = new File(sysBlock, name + "/queue");
+        assertTrue(queue.mkdirs());
+        Files.write(rotational + "\n", new File(queue, "rotational"), Charsets.UTF_8);
+    }
+}
@@ -0,0 +1,102 @@
+package com.netflix.priam.utils;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.netflix.priam.identity.Location;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the primitive Murmur3 token manager agrees with the {@code BigInteger} one.
+ */
+public class Murmur3TokenManagerTest {
+    private static final BigIntegerTokenManager bigIntegerTokenManager = BigIntegerTokenManager.forMurmur3Partitioner();
+    private static final Murmur3TokenManager tokenManager = new Murmur3TokenManager();
+
+    @Test(expected = IllegalArgumentException.class)
+    public void initialToken_zeroSize() {
+        tokenManager.initialToken(0, 0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void findClosestToken_emptyTokenList() {
+        tokenManager.findClosestToken("0", Collections.<String>emptyList());
+    }
+
+    @Test
+    public void initialToken_matchesBigInteger() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            int size = 1 + random.nextInt(i % 2 == 0 ? 1000 : Integer.MAX_VALUE);
+            int position = random.nextInt(size);
+            int offset = random.nextInt(Integer.MAX_VALUE);
+            assertEquals(bigIntegerTokenManager.initialToken(size, position, offset).longValue(),
+                    tokenManager.initialToken(size, position, offset));
+        }
+        assertEquals(bigIntegerTokenManager.initialToken(Integer.MAX_VALUE, Integer.MAX_VALUE - 1, Integer.MAX_VALUE).longValue(),
+                tokenManager.initialToken(Integer.MAX_VALUE, Integer.MAX_VALUE - 1, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void initialToken_wrapsAroundTheRing() {
+        // A position past the last slot wraps back to the start of the ring instead of leaving the token range
+        assertEquals(Long.MIN_VALUE + 7, tokenManager.initialToken(1, 1, 7));
+        assertEquals(Long.MIN_VALUE, tokenManager.initialToken(4, 4, 0));
+    }
+
+    @Test
+    public void createToken_matchesBigInteger() {
+        for (Location location : ImmutableList.of(Location.from("us-east-1"), Location.from("eu-west-1"))) {
+            for (int slot = 0; slot < 6; slot++) {
+                assertEquals(bigIntegerTokenManager.createToken(slot, 3, 2, location), tokenManager.createToken(slot, 3, 2, location));
+            }
+        }
+    }
+
+    @Test
+    public void findClosestToken_matchesBigInteger() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++) {
+            List<String> tokens = Lists.newArrayList();
+            int count = 1 + random.nextInt(64);
+            for (int j = 0; j < count; j++) {
+                tokens.add(Long.toString(random.nextLong()));
+            }
+            String token = Long.toString(random.nextLong());
+            assertEquals(bigIntegerTokenManager.findClosestToken(token, tokens), tokenManager.findClosestToken(token, tokens));
+        }
+    }
+
+    @Test
+    public void findClosestToken_distancesLargerThanLongMaxValue() {
+        List<String> tokens = ImmutableList.of(Long.toString(Long.MIN_VALUE), Long.toString(Long.MAX_VALUE));
+        assertEquals(Long.toString(Long.MIN_VALUE), tokenManager.findClosestToken("-2", tokens));
+        assertEquals(Long.toString(Long.MAX_VALUE), tokenManager.findClosestToken("0", tokens));
+        assertEquals(Long.toString(Long.MIN_VALUE), tokenManager.findClosestToken("-1", tokens));
+    }
+
+    @Test
+    public void createTokens_matchesBigInteger() {
+        Location location = Location.from("us-east-1");
+        List<String> first = tokenManager.createTokens(0, 6, 16, Collections.<List<String>>emptyList(),
+                Collections.<String>emptyList(), location);
+        assertEquals(bigIntegerTokenManager.createTokens(0, 6, 16, Collections.<List<String>>emptyList(),
+                Collections.<String>emptyList(), location), first);
+        assertEquals(bigIntegerTokenManager.createTokens(1, 6, 16, ImmutableList.of(first), first, location),
+                tokenManager.createTokens(1, 6, 16, ImmutableList.of(first), first, location));
+    }
+
+    @Test
+    public void formatToken_roundTrips() {
+        for (long token : new long[]{Long.MIN_VALUE, -1, 0, 1, Long.MAX_VALUE}) {
+            BigInteger value = tokenManager.parseToken(Long.toString(token));
+            assertEquals(Long.toString(token), tokenManager.formatToken(value));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.netflix.priam.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TableFilterTest {
+
+    @Test
+    public void emptyFilterMatchesEverything() {
+        assertTrue(TableFilter.parse(null, "").matches("ks", "table"));
+        assertTrue(TableFilter.ALL.matches("system", "peers"));
+    }
+
+    @Test
+    public void tablesMatchByNameOrQualifiedName() {
+        TableFilter filter = TableFilter.parse("ks1, ks2", "users,ks2.events");
+
+        assertTrue(filter.matches("ks1", "users"));
+        assertTrue(filter.matches("ks2", "users"));
+        assertTrue(filter.matches("ks2", "events"));
+        assertFalse(filter.matches("ks1", "events"));
+        assertFalse(filter.matches("ks3", "users"));
+    }
+}
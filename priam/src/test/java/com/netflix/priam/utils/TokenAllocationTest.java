@@ -0,0 +1,117 @@
+package com.netflix.priam.utils;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
+import com.netflix.priam.identity.Location;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TokenAllocationTest {
+    private static final BigIntegerTokenManager tokenManager = BigIntegerTokenManager.forMurmur3Partitioner();
+    private static final Location LOCATION = Location.from("us-east-1");
+    private static final int NUM_TOKENS = 16;
+
+    @Test
+    public void singleTokenMatchesCreateToken() {
+        List<String> tokens = tokenManager.createTokens(3, 12, 1, Collections.<List<String>>emptyList(),
+                Collections.<String>emptyList(), LOCATION);
+        assertEquals(ImmutableList.of(tokenManager.createToken(3, 12, LOCATION)), tokens);
+    }
+
+    @Test
+    public void firstNodeOfRackIsEvenlySpaced() {
+        List<String> tokens = tokenManager.createTokens(0, 3, NUM_TOKENS, Collections.<List<String>>emptyList(),
+                Collections.<String>emptyList(), LOCATION);
+        assertEquals(NUM_TOKENS, tokens.size());
+        assertTrue(tokens.contains(tokenManager.createToken(0, 3, LOCATION)));
+
+        BigInteger step = tokenManager.getTokenRangeSize().divide(BigInteger.valueOf(NUM_TOKENS));
+        List<BigInteger> values = values(tokens);
+        for (int i = 1; i < values.size(); i++) {
+            assertEquals(step, values.get(i).subtract(values.get(i - 1)));
+        }
+    }
+
+    @Test
+    public void secondNodeTakesHalfOfTheRing() {
+        List<String> first = tokenManager.createTokens(0, 2, NUM_TOKENS, Collections.<List<String>>emptyList(),
+                Collections.<String>emptyList(), LOCATION);
+        List<String> second = tokenManager.createTokens(1, 2, NUM_TOKENS, ImmutableList.of(first), first, LOCATION);
+
+        // Every gap of the first node is split exactly in the middle
+        List<BigInteger> firstValues = values(first);
+        BigInteger halfStep = firstValues.get(1).subtract(firstValues.get(0)).shiftRight(1);
+        for (BigInteger token : values(second)) {
+            assertTrue(firstValues.contains(token.subtract(halfStep)));
+        }
+    }
+
+    @Test
+    public void tokensAreBalancedWithinTheRack() {
+        List<List<String>> rack = Lists.newArrayList();
+        List<String> ring = Lists.newArrayList();
+        for (int slot = 0; slot < 12; slot++) {
+            List<String> tokens = tokenManager.createTokens(slot, 12, NUM_TOKENS, rack, ring, LOCATION);
+            assertEquals(NUM_TOKENS, tokens.size());
+            assertEquals(Ordering.natural().sortedCopy(values(tokens)), values(tokens));
+            rack.add(tokens);
+            ring.addAll(tokens);
+        }
+
+        assertEquals(ring.size(), Sets.newHashSet(ring).size());
+        for (BigInteger token : values(ring)) {
+            assertTrue(token.compareTo(tokenManager.getMinimumTokenValue()) >= 0);
+            assertTrue(token.compareTo(tokenManager.getMinimumTokenValue().add(tokenManager.getTokenRangeSize())) < 0);
+        }
+
+        List<BigInteger> ownership = ownership(rack);
+        BigInteger most = Ordering.natural().max(ownership);
+        BigInteger least = Ordering.natural().min(ownership);
+        assertTrue("Unbalanced ownership " + ownership, most.compareTo(least.multiply(BigInteger.valueOf(2))) <= 0);
+    }
+
+    @Test
+    public void newTokensNeverCollideWithTheRing() {
+        List<String> first = tokenManager.createTokens(0, 3, NUM_TOKENS, Collections.<List<String>>emptyList(),
+                Collections.<String>emptyList(), LOCATION);
+        // Another rack happens to use the same starting point
+        List<String> otherRack = tokenManager.createTokens(0, 3, NUM_TOKENS, Collections.<List<String>>emptyList(),
+                first, LOCATION);
+        assertTrue(Collections.disjoint(first, otherRack));
+    }
+
+    private static List<BigInteger> values(List<String> tokens) {
+        List<BigInteger> values = Lists.newArrayList();
+        for (String token : tokens) {
+            values.add(tokenManager.parseToken(token));
+        }
+        return values;
+    }
+
+    private static List<BigInteger> ownership(List<List<String>> rack) {
+        TreeMap<BigInteger, Integer> owners = new TreeMap<>();
+        for (int node = 0; node < rack.size(); node++) {
+            for (BigInteger token : values(rack.get(node))) {
+                owners.put(token, node);
+            }
+        }
+        List<BigInteger> ownership = Lists.newArrayList(Collections.nCopies(rack.size(), BigInteger.ZERO));
+        BigInteger previous = owners.lastKey().subtract(tokenManager.getTokenRangeSize());
+        for (Map.Entry<BigInteger, Integer> entry : owners.entrySet()) {
+            int node = entry.getValue();
+            ownership.set(node, ownership.get(node).add(entry.getKey().subtract(previous)));
+            previous = entry.getKey();
+        }
+        return ownership;
+    }
+}
@@ -0,0 +1,135 @@
+package com.netflix.priam.zookeeper;
+
+import com.google.common.base.Optional;
+import com.netflix.priam.identity.Location;
+import com.netflix.priam.identity.PriamInstance;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.TestingServer;
+import org.apache.curator.utils.CloseableUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ZkInstanceRegistryTest {
+    private static final Location LOCATION = Location.from("us-east-1");
+
+    private TestingServer zookeeper;
+    private CuratorFramework firstCurator;
+    private CuratorFramework secondCurator;
+    private ZkInstanceRegistry first;
+    private ZkInstanceRegistry second;
+
+    @Before
+    public void setUp() throws Exception {
+        zookeeper = new TestingServer();
+        firstCurator = newCurator();
+        secondCurator = newCurator();
+        first = new ZkInstanceRegistry(Optional.of(firstCurator), LOCATION);
+        second = new ZkInstanceRegistry(Optional.of(secondCurator), LOCATION);
+    }
+
+    @After
+    public void tearDown() {
+        CloseableUtils.closeQuietly(first);
+        CloseableUtils.closeQuietly(second);
+        CloseableUtils.closeQuietly(firstCurator);
+        CloseableUtils.closeQuietly(secondCurator);
+        CloseableUtils.closeQuietly(zookeeper);
+    }
+
+    @Test
+    public void getAllIdsSeesCreatesAndDeletes() {
+        first.create("test", 1, "i-1", "host1", "10.0.0.1", "1a", null, "0");
+        first.create("test", 2, "i-2", "host2", "10.0.0.2", "1b", null, "100");
+
+        List<PriamInstance> instances = first.getAllIds("test");
+        assertEquals(2, instances.size());
+        assertEquals("i-1", instances.get(0).getInstanceId());
+        assertEquals("i-2", instances.get(1).getInstanceId());
+
+        first.delete(first.getInstance("test", 1));
+        instances = first.getAllIds("test");
+        assertEquals(1, instances.size());
+        assertEquals("i-2", instances.get(0).getInstanceId());
+        assertNull(first.getInstance("test", 1));
+        assertTrue(first.getAllIds("other").isEmpty());
+    }
+
+    @Test
+    public void cachesSeeOtherRegistriesWrites() throws Exception {
+        assertTrue(second.getAllIds("test").isEmpty());
+        first.create("test", 1, "i-1", "host1", "10.0.0.1", "1a", null, "0");
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (second.getInstance("test", 1) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("i-1", second.getInstance("test", 1).getInstanceId());
+    }
+
+    @Test
+    public void slotsAreAcquiredOnce() {
+        assertNotNull(first.create("test", 1, "i-1", "host1", "10.0.0.1", "1a", null, "0"));
+        assertNull(second.create("test", 1, "i-2", "host2", "10.0.0.2", "1a", null, "0"));
+
+        // Both replacements expect i-1, only the first one to write gets the slot
+        assertNotNull(first.acquireSlotId(1, "i-1", "test", "i-2", "host2", "10.0.0.2", "1a", null, "0"));
+        assertNull(second.acquireSlotId(1, "i-1", "test", "i-3", "host3", "10.0.0.3", "1a", null, "0"));
+
+        assertEquals("i-2", first.getInstance("test", 1).getInstanceId());
+        assertEquals(1, first.getAllIds("test").size());
+    }
+
+    @Test
+    public void updatesTheSlotItHolds() {
+        PriamInstance instance = first.create("test", 1, "i-1", "host1", "10.0.0.1", "1a", null, "0");
+        instance.setToken("100");
+        first.update(instance);
+
+        assertEquals("100", first.getInstance("test", 1).getToken());
+    }
+
+    @Test
+    public void updateWithStaleInstanceIdFails() {
+        PriamInstance stale = first.create("test", 1, "i-1", "host1", "10.0.0.1", "1a", null, "0");
+        second.acquireSlotId(1, "i-1", "test", "i-2", "host2", "10.0.0.2", "1a", null, "0");
+
+        stale.setToken("100");
+        try {
+            first.update(stale);
+            fail("Updated a slot held by another node");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+
+        PriamInstance current = first.getInstance("test", 1);
+        assertEquals("i-2", current.getInstanceId());
+        assertEquals("0", current.getToken());
+    }
+
+    @Test
+    public void deleteWithStaleInstanceIdKeepsTheSlot() {
+        PriamInstance stale = first.create("test", 1, "i-1", "host1", "10.0.0.1", "1a", null, "0");
+        second.acquireSlotId(1, "i-1", "test", "i-2", "host2", "10.0.0.2", "1a", null, "0");
+
+        first.delete(stale);
+
+        assertEquals("i-2", first.getInstance("test", 1).getInstanceId());
+    }
+
+    private CuratorFramework newCurator() {
+        CuratorFramework curator = CuratorFrameworkFactory.newClient(zookeeper.getConnectString(), new RetryOneTime(100));
+        curator.start();
+        return curator;
+    }
+}